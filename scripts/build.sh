@@ -1,7 +1,9 @@
 #!/bin/bash
-javac -d $HOME/bin -cp $HOME/bin $HOME/src/org/cicirello/matrixops/*.java $HOME/src/org/cicirello/math/*.java $HOME/src/org/cicirello/algengine/*.java 
+javac -d $HOME/bin -cp $HOME/bin $HOME/src/org/cicirello/matrixops/*.java $HOME/src/org/cicirello/math/*.java $HOME/src/org/cicirello/algengine/*.java $HOME/src/org/cicirello/sort/*.java 
 if [ ! -f $HOME/scripts/Manifest.txt ]; then
     printf 'Main-Class: org.cicirello.algengine.ParallelAlgorithmEngine\nClass-Path: %s/lib/algengine.jar\n' $HOME > $HOME/scripts/Manifest.txt
 fi
-jar cvfm $HOME/lib/algengine.jar $HOME/scripts/Manifest.txt -C $HOME/bin org/cicirello/matrixops -C $HOME/bin org/cicirello/math -C $HOME/bin org/cicirello/algengine
+mkdir -p $HOME/bin/META-INF && cp -r $HOME/src/META-INF/services $HOME/bin/META-INF/
+jar cvfm $HOME/lib/algengine.jar $HOME/scripts/Manifest.txt -C $HOME/bin org/cicirello/matrixops -C $HOME/bin org/cicirello/math -C $HOME/bin org/cicirello/algengine -C $HOME/bin org/cicirello/sort -C $HOME/bin META-INF/services
+rm -f $HOME/lib/algengine.jsa
 javac -d $HOME/bin -cp $HOME/bin $HOME/src/org/cicirello/tests/parperformance/*.java 
@@ -5,5 +5,9 @@ rmiregistry &
 if [ ! -f server.policy ]; then
     printf 'grant {\n    permission java.security.AllPermission;\n};\n' > server.policy
 fi
-java -Djava.rmi.server.hostname=$HOSTNAME.local -Djava.security.policy=server.policy -jar algengine.jar 256 &
+CDS=""
+if [ -f algengine.jsa ]; then
+    CDS="-XX:SharedArchiveFile=algengine.jsa"
+fi
+java $CDS -Djava.rmi.server.hostname=$HOSTNAME.local -Djava.security.policy=server.policy -jar algengine.jar 256 &
 
@@ -0,0 +1,8 @@
+#!/bin/bash
+cd $HOME/lib
+export CLASSPATH=.:$HOME/lib:$HOME/lib/algengine.jar
+if [ ! -f server.policy ]; then
+    printf 'grant {\n    permission java.security.AllPermission;\n};\n' > server.policy
+fi
+rm -f algengine.jsa
+java -XX:ArchiveClassesAtExit=algengine.jsa -Djava.rmi.server.hostname=$HOSTNAME.local -Djava.security.policy=server.policy -jar algengine.jar 256 --train
@@ -0,0 +1,9 @@
+#!/bin/bash
+ssh rpi1.local './scripts/trainAlgEngine.sh > /dev/null'
+ssh rpi2.local './scripts/trainAlgEngine.sh > /dev/null'
+ssh rpi3.local './scripts/trainAlgEngine.sh > /dev/null'
+ssh rpi4.local './scripts/trainAlgEngine.sh > /dev/null'
+ssh rpi5.local './scripts/trainAlgEngine.sh > /dev/null'
+ssh rpi6.local './scripts/trainAlgEngine.sh > /dev/null'
+ssh rpi7.local './scripts/trainAlgEngine.sh > /dev/null'
+
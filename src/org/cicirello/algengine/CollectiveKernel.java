@@ -0,0 +1,444 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Kernel "collective": the part of an RMI server in a collective operation of 
+ * {@link Collectives}.  The first argument names the phase:
+ * <ul>
+ * <li>"reduce", "allreduce", or "broadcast", Long opId, Integer index, String[] nodes,
+ * {@link Collectives.Algorithm} algorithm, {@link Collectives.Op} op, Integer chunk, 
+ * Serializable contribution, String key, Integer length: the part of the node 
+ * at index of nodes in the operation.  The node at index 0, the root, returns
+ * the result of a reduce or all-reduce; the others return null.  An all-reduce
+ * or broadcast keeps the result in the resident data under key, if not null.
+ * The length is that of the vector of a broadcast.</li>
+ * <li>"residentallreduce", with the arguments of "allreduce": an all-reduce 
+ * whose result is only kept in the resident data under key, so that the root
+ * returns null too.</li>
+ * <li>"deliver", Long opId, Integer index, String tag, double[] chunk: a chunk 
+ * sent to the node at index by another node of the operation.</li>
+ * <li>"abort", Long opId, Integer index: fails the part of the node at index,
+ * now if it is waiting on other nodes, or as soon as it starts if it has not
+ * started yet.</li>
+ * <li>"forget", String key: removes a vector from the resident data.</li>
+ * </ul>
+ * A node waits for the chunks it needs for at most the number of seconds
+ * of the system property algengine.collectiveTimeout (default 120).
+ * The tasks wait on other RMI servers, which may be waiting on them, so they 
+ * skip admission control; a task that a node runs for its contribution does not.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class CollectiveKernel implements RemoteKernel {
+	
+	/*
+	 * The name of the kernel.
+	 */
+	static final String NAME = "collective";
+	
+	private static final long TIMEOUT_MILLIS = Long.getLong("algengine.collectiveTimeout", 120) * 1000;
+	
+	@Override
+	public String name() {
+		return NAME;
+	}
+	
+	@Override
+	public boolean bypassesAdmission() {
+		return true;
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) throws Exception {
+		String phase = task.argument(0, String.class);
+		switch (phase) {
+			case "reduce": 
+			case "allreduce": 
+			case "broadcast":
+				return new Part(task, context).run(phase, task.argument(7, Serializable.class), 
+						task.argument(8, String.class), task.argument(9, Integer.class));
+			case "residentallreduce":
+				new Part(task, context).run("allreduce", task.argument(7, Serializable.class), 
+						task.argument(8, String.class), task.argument(9, Integer.class));
+				return null;
+			case "deliver":
+				mailbox(context, task.argument(1, Long.class), task.argument(2, Integer.class))
+					.put(task.argument(3, String.class), task.argument(4, double[].class));
+				return null;
+			case "abort":
+				forgetAborted(context);
+				mailbox(context, task.argument(1, Long.class), task.argument(2, Integer.class)).abort();
+				return null;
+			case "forget":
+				context.residentData().remove(task.argument(1, String.class));
+				return null;
+			default:
+				throw new IllegalArgumentException("Unknown phase of collective operation: " + phase);
+		}
+	}
+	
+	@Override
+	public void warmup(KernelContext context) throws Exception {
+		// operations with a single node, which send nothing over the network
+		int n = context.warmupSize();
+		double[] v = new double[n * n];
+		String[] nodes = {"local"};
+		for (Collectives.Algorithm algorithm : Collectives.Algorithm.values()) {
+			execute(new TaskSpec(NAME, 1, "reduce", 0L, 0, nodes, algorithm, Collectives.Op.SUM, 64, v, null, 0), context);
+			execute(new TaskSpec(NAME, 1, "allreduce", 0L, 0, nodes, algorithm, Collectives.Op.MAX, 64, v, null, 0), context);
+			execute(new TaskSpec(NAME, 1, "broadcast", 0L, 0, nodes, algorithm, null, 64, v, null, v.length), context);
+		}
+	}
+	
+	private static CollectiveMailbox mailbox(KernelContext context, long opId, int index) {
+		return (CollectiveMailbox)context.residentData().computeIfAbsent(CollectiveMailbox.key(opId, index), k -> new CollectiveMailbox());
+	}
+	
+	/*
+	 * Removes the mailboxes that were aborted longer ago than the timeout.  Their
+	 * parts have failed by then, so such a mailbox is left over from an abort that 
+	 * arrived after its part had finished, or from a part that never started.
+	 */
+	private static void forgetAborted(KernelContext context) {
+		long before = System.currentTimeMillis() - TIMEOUT_MILLIS;
+		context.residentData().values().removeIf(v -> v instanceof CollectiveMailbox && ((CollectiveMailbox)v).abortedBefore(before));
+	}
+	
+	/*
+	 * The part of one node in one operation.  The chunks that the node sends to 
+	 * each other node are sent in order, one at a time, by the forwarding threads, 
+	 * while the node goes on to its next chunk.
+	 */
+	private static final class Part {
+		
+		private final long opId;
+		private final int r;
+		private final int p;
+		private final String[] nodes;
+		private final Collectives.Algorithm algorithm;
+		private final Collectives.Op op;
+		private final int chunk;
+		private final KernelContext context;
+		private final CollectiveMailbox mailbox;
+		private final RemoteParallelAlgorithms[] stubs;
+		private final CompletableFuture<?>[] sends;
+		
+		Part(TaskSpec task, KernelContext context) {
+			opId = task.argument(1, Long.class);
+			r = task.argument(2, Integer.class);
+			nodes = task.argument(3, String[].class);
+			p = nodes.length;
+			algorithm = task.argument(4, Collectives.Algorithm.class);
+			op = task.argument(5, Collectives.Op.class);
+			chunk = task.argument(6, Integer.class);
+			this.context = context;
+			forgetAborted(context);
+			mailbox = mailbox(context, opId, r);
+			stubs = new RemoteParallelAlgorithms[p];
+			sends = new CompletableFuture<?>[p];
+			Arrays.fill(sends, CompletableFuture.completedFuture(null));
+		}
+		
+		Serializable run(String collective, Serializable contribution, String key, int length) throws Exception {
+			try {
+				double[] result;
+				boolean tree = algorithm == Collectives.Algorithm.TREE;
+				if (collective.equals("reduce")) {
+					double[] v = vector(contribution);
+					result = tree ? treeReduce(v, false) : ringReduce(v);
+				} else if (collective.equals("allreduce")) {
+					double[] v = vector(contribution);
+					result = tree ? treeAllReduce(v) : ringAllReduce(v);
+				} else {
+					double[] v = r == 0 ? vector(contribution) : null;
+					result = tree ? treeBroadcast(v, length) : ringBroadcast(v, length);
+				}
+				for (CompletableFuture<?> f : sends) join(f);
+				if (key != null && !collective.equals("reduce")) {
+					context.residentData().put(key, result);
+				}
+				return r == 0 && !collective.equals("broadcast") ? result : null;
+			} finally {
+				context.residentData().remove(CollectiveMailbox.key(opId, r));
+			}
+		}
+		
+		/*
+		 * The vector that the node contributes.
+		 */
+		private double[] vector(Serializable contribution) throws Exception {
+			Object value = contribution;
+			if (contribution instanceof TaskSpec) {
+				if (context.local() == null) {
+					throw new IllegalStateException("No RMI server to run the task of the contribution");
+				}
+				value = context.local().submit((TaskSpec)contribution);
+			} else if (contribution instanceof String) {
+				value = context.residentData().get(contribution);
+				if (value == null) {
+					throw new IllegalStateException("No resident vector " + contribution);
+				}
+			}
+			if (value instanceof double[]) return (double[])value;
+			if (value instanceof Number) return new double[] {((Number)value).doubleValue()};
+			if (value instanceof double[][]) {
+				double[][] m = (double[][])value;
+				int n = 0;
+				for (double[] row : m) n += row.length;
+				double[] v = new double[n];
+				int k = 0;
+				for (double[] row : m) {
+					System.arraycopy(row, 0, v, k, row.length);
+					k += row.length;
+				}
+				return v;
+			}
+			throw new IllegalArgumentException("Cannot reduce a " + (value == null ? "null" : value.getClass().getSimpleName()));
+		}
+		
+		/*
+		 * Binary tree reduction to node 0, chunk by chunk: each node adds the chunks
+		 * of its children to its own, and sends the sum to its parent.  For an all-reduce,
+		 * node 0 leaves each chunk of the result in its own mailbox for the broadcast.
+		 */
+		private double[] treeReduce(double[] v, boolean deposit) throws Exception {
+			double[] result = r == 0 ? new double[v.length] : null;
+			for (int k = 0, from = 0; from < v.length; k++, from += chunk) {
+				double[] acc = Arrays.copyOfRange(v, from, Math.min(v.length, from + chunk));
+				for (int child = 2 * r + 1; child <= 2 * r + 2 && child < p; child++) {
+					op.combine(acc, take(tag("up", child, 0, k), acc.length), 0);
+				}
+				if (r == 0) {
+					System.arraycopy(acc, 0, result, from, acc.length);
+					if (deposit) mailbox.put(tag("down", 0, 0, k), acc);
+				} else {
+					send((r - 1) / 2, tag("up", r, 0, k), acc);
+				}
+			}
+			return result;
+		}
+		
+		/*
+		 * Binary tree broadcast from node 0, chunk by chunk: each node passes each 
+		 * chunk on to its children as soon as it has it.
+		 */
+		private double[] treeBroadcast(double[] v, int n) throws Exception {
+			double[] result = new double[n];
+			for (int k = 0, from = 0; from < n; k++, from += chunk) {
+				int to = Math.min(n, from + chunk);
+				double[] c = v != null ? Arrays.copyOfRange(v, from, to) : take(tag("down", (r - 1) / 2, 0, k), to - from);
+				System.arraycopy(c, 0, result, from, c.length);
+				for (int child = 2 * r + 1; child <= 2 * r + 2 && child < p; child++) {
+					send(child, tag("down", r, 0, k), c);
+				}
+			}
+			return result;
+		}
+		
+		/*
+		 * Tree reduction and broadcast at once, so that the chunks of the result 
+		 * start down the tree while later chunks are still on their way up.
+		 */
+		private double[] treeAllReduce(final double[] v) throws Exception {
+			Future<double[]> up = context.forwardingExecutor().submit(() -> {
+				try {
+					return treeReduce(v, true);
+				} catch (Exception e) {
+					mailbox.abort();
+					throw e;
+				}
+			});
+			try {
+				return treeBroadcast(null, v.length);
+			} catch (Exception e) {
+				mailbox.abort();
+				throw e;
+			} finally {
+				join(up);
+			}
+		}
+		
+		private double[] ringReduce(double[] v) throws Exception {
+			double[] acc = v.clone();
+			if (p == 1) return acc;
+			reduceScatter(acc, (k, c) -> {
+				if (r != 0) send(0, tag("gather", r, 0, k), c);
+			});
+			if (r != 0) return null;
+			for (int q = 1; q < p; q++) {
+				int seg = mod(q + 1);
+				int end = segStart(seg + 1, acc.length);
+				for (int k = 0, from = segStart(seg, acc.length); from < end; k++, from += chunk) {
+					double[] c = take(tag("gather", q, 0, k), Math.min(end, from + chunk) - from);
+					System.arraycopy(c, 0, acc, from, c.length);
+				}
+			}
+			return acc;
+		}
+		
+		private double[] ringAllReduce(double[] v) throws Exception {
+			double[] acc = v.clone();
+			if (p == 1) return acc;
+			final int right = mod(r + 1);
+			reduceScatter(acc, (k, c) -> send(right, tag("ag", r, 0, k), c));
+			allGather(acc);
+			return acc;
+		}
+		
+		private double[] ringBroadcast(double[] v, int n) throws Exception {
+			double[] result = new double[n];
+			if (p == 1) {
+				System.arraycopy(v, 0, result, 0, n);
+				return result;
+			}
+			int right = mod(r + 1);
+			if (r == 0) {
+				System.arraycopy(v, 0, result, 0, n);
+				// node q is sent segment q + 1, as if a reduce-scatter had left it there;
+				// node 0 starts the all-gather with its own
+				for (int q = 0; q < p; q++) {
+					int seg = mod(q + 1);
+					int end = segStart(seg + 1, n);
+					for (int k = 0, from = segStart(seg, n); from < end; k++, from += chunk) {
+						double[] c = Arrays.copyOfRange(v, from, Math.min(end, from + chunk));
+						if (q == 0) send(right, tag("ag", 0, 0, k), c);
+						else send(q, tag("scatter", 0, 0, k), c);
+					}
+				}
+			} else {
+				int seg = mod(r + 1);
+				int end = segStart(seg + 1, n);
+				for (int k = 0, from = segStart(seg, n); from < end; k++, from += chunk) {
+					double[] c = take(tag("scatter", 0, 0, k), Math.min(end, from + chunk) - from);
+					System.arraycopy(c, 0, result, from, c.length);
+					send(right, tag("ag", r, 0, k), c);
+				}
+			}
+			allGather(result);
+			return result;
+		}
+		
+		/*
+		 * Ring reduce-scatter: in step s, each node receives from its left neighbor 
+		 * the partial reduction of segment r - s - 1, reduces its own into it, and 
+		 * sends it on to its right neighbor for step s + 1, chunk by chunk.  After 
+		 * p - 1 steps, the node has the reduction of segment r + 1, whose chunks 
+		 * are passed to finished as they are completed.
+		 */
+		private void reduceScatter(double[] acc, BiConsumer<Integer, double[]> finished) throws Exception {
+			int n = acc.length;
+			int right = mod(r + 1);
+			int left = mod(r - 1);
+			int end = segStart(mod(r) + 1, n);
+			for (int k = 0, from = segStart(mod(r), n); from < end; k++, from += chunk) {
+				send(right, tag("rs", r, 0, k), Arrays.copyOfRange(acc, from, Math.min(end, from + chunk)));
+			}
+			for (int s = 0; s < p - 1; s++) {
+				int seg = mod(r - s - 1);
+				end = segStart(seg + 1, n);
+				for (int k = 0, from = segStart(seg, n); from < end; k++, from += chunk) {
+					double[] c = take(tag("rs", left, s, k), Math.min(end, from + chunk) - from);
+					op.combine(c, acc, from);
+					System.arraycopy(c, 0, acc, from, c.length);
+					if (s < p - 2) send(right, tag("rs", r, s + 1, k), c);
+					else finished.accept(k, c);
+				}
+			}
+		}
+		
+		/*
+		 * Ring all-gather, once each node has sent the first chunks of segment r + 1 
+		 * to its right neighbor: in step s, each node receives segment r - s from 
+		 * its left neighbor, and passes it on to its right neighbor for step s + 1.
+		 */
+		private void allGather(double[] result) throws Exception {
+			int n = result.length;
+			int right = mod(r + 1);
+			int left = mod(r - 1);
+			for (int s = 0; s < p - 1; s++) {
+				int seg = mod(r - s);
+				int end = segStart(seg + 1, n);
+				for (int k = 0, from = segStart(seg, n); from < end; k++, from += chunk) {
+					double[] c = take(tag("ag", left, s, k), Math.min(end, from + chunk) - from);
+					System.arraycopy(c, 0, result, from, c.length);
+					if (s < p - 2) send(right, tag("ag", r, s + 1, k), c);
+				}
+			}
+		}
+		
+		private void send(final int to, final String tag, final double[] data) {
+			sends[to] = sends[to].thenRunAsync(() -> {
+				try {
+					if (stubs[to] == null) stubs[to] = RemoteParallelAlgorithms.lookup(nodes[to]);
+					stubs[to].submit(new TaskSpec(NAME, 1, "deliver", opId, to, tag, data));
+				} catch (RemoteException | NotBoundException e) {
+					throw new CompletionException(e);
+				}
+			}, context.forwardingExecutor());
+		}
+		
+		private double[] take(String tag, int length) throws Exception {
+			double[] data = mailbox.take(tag, TIMEOUT_MILLIS);
+			if (data.length != length) {
+				throw new IllegalStateException("Chunk " + tag + " has " + data.length + " elements rather than " 
+						+ length + "; the vectors of the nodes must be of the same length");
+			}
+			return data;
+		}
+		
+		private static String tag(String kind, int from, int step, int k) {
+			return kind + "/" + from + "/" + step + "/" + k;
+		}
+		
+		private int mod(int i) {
+			return ((i % p) + p) % p;
+		}
+		
+		/*
+		 * The start of segment j of a ring; segment p ends the vector.
+		 */
+		private int segStart(int j, int n) {
+			return (int)((long)n * j / p);
+		}
+		
+		private static <T> T join(Future<T> f) throws Exception {
+			try {
+				return f.get();
+			} catch (ExecutionException e) {
+				throw e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+			}
+		}
+	}
+}
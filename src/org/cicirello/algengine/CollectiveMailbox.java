@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The chunks of vectors that an RMI server has received from other RMI servers
+ * for its part of a collective operation, but not yet used (see {@link CollectiveKernel}).
+ * Chunks are tagged by their sender and place in the operation, so they may 
+ * arrive in any order, and before the RMI server has started its part.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+final class CollectiveMailbox {
+	
+	private final Map<String, double[]> messages;
+	private boolean aborted;
+	private long abortedAt;
+	
+	CollectiveMailbox() {
+		messages = new HashMap<String, double[]>();
+	}
+	
+	/*
+	 * The key of the mailbox in the resident data of the RMI server.  The index
+	 * of the node is part of the key, since an RMI server may be more than one 
+	 * of the nodes of an operation.
+	 */
+	static String key(long opId, int index) {
+		return "collective/" + opId + "/" + index;
+	}
+	
+	synchronized void put(String tag, double[] data) {
+		if (messages.putIfAbsent(tag, data) != null) {
+			throw new IllegalStateException("Received chunk " + tag + " twice");
+		}
+		notifyAll();
+	}
+	
+	/*
+	 * Removes the chunk with a tag, waiting for it to arrive if necessary.
+	 */
+	synchronized double[] take(String tag, long timeoutMillis) throws InterruptedException, TimeoutException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		double[] data;
+		while ((data = messages.remove(tag)) == null) {
+			if (aborted) {
+				throw new IllegalStateException("Collective operation was aborted");
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				throw new TimeoutException("Timed out waiting for chunk " + tag);
+			}
+			wait(remaining);
+		}
+		return data;
+	}
+	
+	/*
+	 * Fails the waits of the operation, now and later.
+	 */
+	synchronized void abort() {
+		if (!aborted) {
+			aborted = true;
+			abortedAt = System.currentTimeMillis();
+		}
+		notifyAll();
+	}
+	
+	/*
+	 * Whether the operation was aborted before a time, in milliseconds.
+	 */
+	synchronized boolean abortedBefore(long time) {
+		return aborted && abortedAt < time;
+	}
+}
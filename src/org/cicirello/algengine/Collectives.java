@@ -0,0 +1,330 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Collective operations on vectors of doubles across RMI servers: reduce, 
+ * broadcast, and all-reduce.  The RMI servers pass the data among themselves
+ * (see {@link CollectiveKernel}), rather than through the master, which 
+ * makes a single RMI call to each RMI server to start its part and 
+ * receives at most one vector back (none for {@link #residentAllReduce}).
+ * 
+ * Each RMI server contributes a vector to a reduction, which may be:
+ * <ul>
+ * <li>a {@link TaskSpec}, which the RMI server runs first (subject to its 
+ * admission control), contributing the result;</li>
+ * <li>a String, the key of a vector in the resident data of the RMI server 
+ * (see {@link KernelContext#residentData}), such as one that an earlier 
+ * all-reduce or broadcast left there;</li>
+ * <li>or the vector itself.</li>
+ * </ul>
+ * A vector may be a double[], a Number (a vector of length 1), or a double[][]
+ * (flattened by rows).  All of the contributions must be of the same length.
+ * 
+ * Two algorithms are available (see {@link Algorithm}).  Either way, the vectors are sent in
+ * chunks (see {@link #setChunk}), and an RMI server passes on each chunk as 
+ * soon as it has it, so the sending and receiving of the chunks of a vector
+ * overlap along the whole path through the RMI servers.  The first RMI server 
+ * is the root of reductions and broadcasts.
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class Collectives {
+	
+	/**
+	 * The algorithms of the collective operations.
+	 */
+	public enum Algorithm {
+		/**
+		 * The RMI servers form a binary tree, through which reductions flow to 
+		 * the root and broadcasts flow from the root, taking a number of steps 
+		 * logarithmic in the number of RMI servers.  Suits short vectors, for
+		 * which latency dominates.
+		 */
+		TREE, 
+		/**
+		 * The RMI servers form a ring.  Reductions first reduce each of the 
+		 * RMI servers' segments of the vector as they pass around the ring 
+		 * (a reduce-scatter); then, for an all-reduce or broadcast, the 
+		 * segments pass around the ring again to all of the RMI servers (an 
+		 * all-gather).  Each RMI server sends and receives about twice the 
+		 * length of the vector, however many RMI servers there are, which 
+		 * makes the best use of the bandwidth of the links for long vectors.
+		 */
+		RING
+	}
+	
+	/**
+	 * The operations by which vectors are reduced, element by element.
+	 */
+	public enum Op {
+		/**
+		 * The sum of the elements.
+		 */
+		SUM, 
+		/**
+		 * The maximum of the elements.
+		 */
+		MAX, 
+		/**
+		 * The minimum of the elements.
+		 */
+		MIN;
+		
+		/*
+		 * Reduces the elements of x, starting at from, into acc, element by element.
+		 */
+		void combine(double[] acc, double[] x, int from) {
+			switch (this) {
+				case SUM: 
+					for (int i = 0; i < acc.length; i++) acc[i] += x[from + i];
+					break;
+				case MAX: 
+					for (int i = 0; i < acc.length; i++) acc[i] = Math.max(acc[i], x[from + i]);
+					break;
+				case MIN: 
+					for (int i = 0; i < acc.length; i++) acc[i] = Math.min(acc[i], x[from + i]);
+					break;
+			}
+		}
+	}
+	
+	private final String[] serverNames;
+	private final ExecutorService es;
+	private Algorithm algorithm;
+	private int chunk;
+	
+	/**
+	 * Initializes the collectives.  A cached thread pool is used locally to
+	 * manage the local threads that make the RMI calls.
+	 * 
+	 * @param serverNames Array of RMI server names, the first of which is the
+	 * root of reductions and broadcasts.
+	 */
+	public Collectives(String[] serverNames) {
+		this(serverNames, Executors.newCachedThreadPool());
+	}
+	
+	/**
+	 * Initializes the collectives.
+	 * 
+	 * @param serverNames Array of RMI server names, the first of which is the
+	 * root of reductions and broadcasts.
+	 * @param es An executor service for the local threads that make the RMI calls, 
+	 * which should be able to run a thread per RMI server at once.
+	 */
+	public Collectives(String[] serverNames, ExecutorService es) {
+		this.serverNames = serverNames.clone();
+		this.es = es;
+		algorithm = Algorithm.RING;
+		chunk = 1 << 15;
+		if (System.getSecurityManager() == null) {
+			System.setSecurityManager(new SecurityManager());
+		}
+	}
+	
+	/**
+	 * Sets the algorithm of the collective operations.  The default is
+	 * {@link Algorithm#RING}.
+	 * 
+	 * @param algorithm The algorithm.
+	 */
+	public void setAlgorithm(Algorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+	
+	/**
+	 * Sets the number of elements of the chunks in which the RMI servers send
+	 * vectors to one another.  Smaller chunks overlap more of the transfers along 
+	 * a path through the RMI servers, at the cost of more RMI calls.  The default
+	 * is 2^15 (256 KB).
+	 * 
+	 * @param elements The number of elements per chunk.
+	 */
+	public void setChunk(int elements) {
+		if (elements <= 0) throw new IllegalArgumentException("Chunks must have at least one element.");
+		chunk = elements;
+	}
+	
+	/**
+	 * Gets the number of RMI servers.
+	 * 
+	 * @return the number of RMI servers
+	 */
+	public int size() {
+		return serverNames.length;
+	}
+	
+	/**
+	 * Reduces the contributions of the RMI servers, returning the result to the master.
+	 * 
+	 * @param contributions The contribution of each RMI server, in the order of the 
+	 * RMI server names.
+	 * @param op The operation of the reduction.
+	 * @return the reduction of the contributions
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public double[] reduce(Serializable[] contributions, Op op) throws RemoteException, NotBoundException {
+		return (double[])run("reduce", contributions, op, null, 0)[0];
+	}
+	
+	/**
+	 * Reduces the contributions of the RMI servers, leaving the result on all of them.
+	 * 
+	 * @param contributions The contribution of each RMI server, in the order of the 
+	 * RMI server names.
+	 * @param op The operation of the reduction.
+	 * @param key The key under which each RMI server keeps the result in its 
+	 * resident data, or null if they need not keep it.
+	 * @return the reduction of the contributions
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public double[] allReduce(Serializable[] contributions, Op op, String key) throws RemoteException, NotBoundException {
+		return (double[])run("allreduce", contributions, op, key, 0)[0];
+	}
+	
+	/**
+	 * Reduces the contributions of the RMI servers, leaving the result on all of them
+	 * but not returning it, so that the master receives nothing however long the 
+	 * vectors are.
+	 * 
+	 * @param contributions The contribution of each RMI server, in the order of the 
+	 * RMI server names.
+	 * @param op The operation of the reduction.
+	 * @param key The key under which each RMI server keeps the result in its resident data.
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public void residentAllReduce(Serializable[] contributions, Op op, String key) throws RemoteException, NotBoundException {
+		if (key == null) throw new IllegalArgumentException("The result must be kept under a key.");
+		run("residentallreduce", contributions, op, key, 0);
+	}
+	
+	/**
+	 * Sends a vector from the master to all of the RMI servers.  The master sends 
+	 * it only to the first RMI server, which is the root of the broadcast among 
+	 * the RMI servers.
+	 * 
+	 * @param data The vector.
+	 * @param key The key under which each RMI server keeps the vector in its resident data.
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public void broadcast(double[] data, String key) throws RemoteException, NotBoundException {
+		Serializable[] sources = new Serializable[serverNames.length];
+		sources[0] = data;
+		run("broadcast", sources, null, key, data.length);
+	}
+	
+	/**
+	 * Removes a vector from the resident data of all of the RMI servers.
+	 * 
+	 * @param key The key of the vector.
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public void forget(String key) throws RemoteException, NotBoundException {
+		for (String name : serverNames) {
+			RemoteParallelAlgorithms.lookup(name).submit(new TaskSpec(CollectiveKernel.NAME, 1, "forget", key));
+		}
+	}
+	
+	/*
+	 * Starts the part of each RMI server at once, and returns their results in 
+	 * order.  As soon as any of them fails, the others are aborted, since they 
+	 * may be waiting on it.
+	 */
+	private Serializable[] run(String collective, Serializable[] contributions, Op op, String key, int length) throws RemoteException, NotBoundException {
+		final int p = serverNames.length;
+		if (contributions.length != p) {
+			throw new IllegalArgumentException("Need a contribution from each of the " + p + " RMI servers.");
+		}
+		long opId = newOpId();
+		ExecutorCompletionService<Serializable> completion = new ExecutorCompletionService<Serializable>(es);
+		@SuppressWarnings("unchecked")
+		Future<Serializable>[] futures = (Future<Serializable>[])new Future[p];
+		for (int i = 0; i < p; i++) {
+			final TaskSpec task = new TaskSpec(CollectiveKernel.NAME, 1, collective, opId, i, 
+					serverNames, algorithm, op, chunk, contributions[i], key, length);
+			final String name = serverNames[i];
+			futures[i] = completion.submit(() -> RemoteParallelAlgorithms.lookup(name).submit(task));
+		}
+		try {
+			for (int i = 0; i < p; i++) completion.take().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			abort(opId);
+			throw new RemoteException("Interrupted during a collective operation", e);
+		} catch (ExecutionException e) {
+			abort(opId);
+			Throwable cause = e.getCause();
+			if (cause instanceof RemoteException) throw (RemoteException)cause;
+			if (cause instanceof NotBoundException) throw (NotBoundException)cause;
+			throw new RemoteException("Collective operation failed", cause);
+		}
+		Serializable[] results = new Serializable[p];
+		for (int i = 0; i < p; i++) {
+			try {
+				results[i] = futures[i].get();
+			} catch (InterruptedException | ExecutionException e) {
+				// all have completed normally
+				e.printStackTrace();
+			}
+		}
+		return results;
+	}
+	
+	/*
+	 * Wakes and fails the parts of an operation that are still waiting on other RMI servers.
+	 */
+	private void abort(long opId) {
+		for (int i = 0; i < serverNames.length; i++) {
+			try {
+				RemoteParallelAlgorithms.lookup(serverNames[i]).submit(new TaskSpec(CollectiveKernel.NAME, 1, "abort", opId, i));
+			} catch (RemoteException | NotBoundException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	private static long newOpId() {
+		long id;
+		do {
+			id = ThreadLocalRandom.current().nextLong();
+		} while (id == 0);
+		return id;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.rmi.RemoteException;
+
+/**
+ * Thrown by an RMI server that is too busy to accept a request: its 
+ * request queue is full (see {@link RequestScheduler}).  The request was not 
+ * started, so the caller may retry it later, or send it to another server.
+ * Java RMI delivers it to the caller as the cause of a 
+ * {@link java.rmi.ServerException}; see {@link #isBusy}.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class EngineBusyException extends RemoteException {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Constructs the exception.
+	 * @param message The detail message.
+	 */
+	public EngineBusyException(String message) {
+		super(message);
+	}
+	
+	/**
+	 * Checks whether a failure was caused by an RMI server rejecting the 
+	 * request because it was busy, looking through any wrapping exceptions,
+	 * such as ServerException, ExecutionException, or CompletionException.
+	 * @param failure The failure.
+	 * @return true if an EngineBusyException is among the causes of failure
+	 */
+	public static boolean isBusy(Throwable failure) {
+		for (Throwable t = failure; t != null; t = t.getCause()) {
+			if (t instanceof EngineBusyException) return true;
+		}
+		return false;
+	}
+}
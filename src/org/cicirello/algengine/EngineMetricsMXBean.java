@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+/**
+ * The management interface of an RMI server, registered with the platform
+ * MBean server as org.cicirello.algengine:type=ParallelAlgorithmEngine, so that
+ * its metrics can be watched with JConsole, VisualVM, or any other JMX client.
+ * See {@link EngineStats} for the meaning of the metrics.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public interface EngineMetricsMXBean {
+	
+	/**
+	 * Gets the number of requests completed.
+	 * @return the number of requests
+	 */
+	long getRequests();
+	
+	/**
+	 * Gets the number of requests rejected because the server was busy.
+	 * @return the number of requests rejected
+	 */
+	long getRejected();
+	
+	/**
+	 * Gets the number of requests running.
+	 * @return the number of requests running
+	 */
+	int getActiveRequests();
+	
+	/**
+	 * Gets the number of requests waiting to be admitted.
+	 * @return the number of requests waiting
+	 */
+	int getQueuedRequests();
+	
+	/**
+	 * Gets the number of busy threads of the compute thread pool.
+	 * @return the number of busy threads
+	 */
+	int getActiveThreads();
+	
+	/**
+	 * Gets the number of bytes received from clients.
+	 * @return the number of bytes received
+	 */
+	long getBytesIn();
+	
+	/**
+	 * Gets the number of bytes sent to clients.
+	 * @return the number of bytes sent
+	 */
+	long getBytesOut();
+	
+	/**
+	 * Gets the names of the latency histograms.
+	 * @return the names of the histograms
+	 */
+	String[] getHistogramNames();
+	
+	/**
+	 * Gets a percentile of a latency histogram.
+	 * @param histogram The name of the histogram.
+	 * @param percentile The percentile, from 0 to 100.
+	 * @return the percentile in milliseconds, or NaN if there is no such histogram
+	 */
+	double percentileMillis(String histogram, double percentile);
+	
+	/**
+	 * Gets a summary of all of the metrics.
+	 * @return the summary
+	 */
+	String getSummary();
+}
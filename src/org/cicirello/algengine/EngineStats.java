@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A snapshot of the metrics of an RMI server, as returned by 
+ * {@link RemoteParallelAlgorithms#stats}: counters of requests and bytes,
+ * the state of its thread pool and request queue, and latency histograms
+ * of its requests (see {@link ServerMetrics}).  Counters and histograms 
+ * are cumulative since the server started.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class EngineStats implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/** Name of the histogram of the times requests waited to be admitted. */
+	public static final String QUEUE_WAIT = "queueWait";
+	/** Name of the histogram of the times requests computed. */
+	public static final String COMPUTE = "compute";
+	/** Name of the histogram of the garbage collection times during requests. */
+	public static final String GC = "gc";
+	/** Name of the histogram of the times to receive and deserialize arguments. */
+	public static final String UNMARSHAL = "unmarshal";
+	/** Name of the histogram of the times to serialize and send results. */
+	public static final String MARSHAL = "marshal";
+	
+	private final long rejected;
+	private final int activeRequests;
+	private final int queuedRequests;
+	private final int activeThreads;
+	private final int poolThreads;
+	private final long bytesIn;
+	private final long bytesOut;
+	private final Map<String, LatencyHistogram> histograms;
+	private final WarmupProfile.Outcome warmup;
+	private final long readyMillis;
+	
+	EngineStats(ServerMetrics metrics, RequestScheduler scheduler, int activeThreads, int poolThreads, 
+			WarmupProfile.Outcome warmup, long readyMillis) {
+		this.warmup = warmup;
+		this.readyMillis = readyMillis;
+		rejected = scheduler.rejected();
+		activeRequests = scheduler.active();
+		queuedRequests = scheduler.queued();
+		this.activeThreads = activeThreads;
+		this.poolThreads = poolThreads;
+		bytesIn = metrics.bytesIn();
+		bytesOut = metrics.bytesOut();
+		histograms = new LinkedHashMap<String, LatencyHistogram>();
+		histograms.put(QUEUE_WAIT, metrics.queueWait().copy());
+		histograms.put(COMPUTE, metrics.compute().copy());
+		histograms.put(GC, metrics.gc().copy());
+		histograms.put(UNMARSHAL, metrics.unmarshal().copy());
+		histograms.put(MARSHAL, metrics.marshal().copy());
+	}
+	
+	/**
+	 * Gets the number of requests completed, successfully or not, since the server started.
+	 * @return the number of requests
+	 */
+	public long requests() { return histograms.get(COMPUTE).count(); }
+	
+	/**
+	 * Gets the number of requests rejected because the server was busy.
+	 * @return the number of requests rejected
+	 */
+	public long rejected() { return rejected; }
+	
+	/**
+	 * Gets the number of requests running.
+	 * @return the number of requests running
+	 */
+	public int activeRequests() { return activeRequests; }
+	
+	/**
+	 * Gets the number of requests waiting to be admitted.
+	 * @return the number of requests waiting
+	 */
+	public int queuedRequests() { return queuedRequests; }
+	
+	/**
+	 * Gets the number of threads of the compute thread pool that are busy.
+	 * @return the number of busy threads
+	 */
+	public int activeThreads() { return activeThreads; }
+	
+	/**
+	 * Gets the number of threads of the compute thread pool.
+	 * @return the number of threads
+	 */
+	public int poolThreads() { return poolThreads; }
+	
+	/**
+	 * Gets the number of bytes received from clients.
+	 * @return the number of bytes received
+	 */
+	public long bytesIn() { return bytesIn; }
+	
+	/**
+	 * Gets the number of bytes sent to clients.
+	 * @return the number of bytes sent
+	 */
+	public long bytesOut() { return bytesOut; }
+	
+	/**
+	 * Gets the outcome of the warmup of the server.
+	 * @return the outcome of the warmup, or null if it has not finished
+	 */
+	public WarmupProfile.Outcome warmup() { return warmup; }
+	
+	/**
+	 * Gets the time from the start of the JVM of the server until it was ready 
+	 * for requests: warmed up, and bound in the RMI registry.
+	 * @return the time in milliseconds, or 0 if it is not yet ready
+	 */
+	public long readyMillis() { return readyMillis; }
+	
+	/**
+	 * Gets the names of the latency histograms.
+	 * @return the names of the histograms
+	 */
+	public Set<String> histogramNames() { return Collections.unmodifiableSet(histograms.keySet()); }
+	
+	/**
+	 * Gets a latency histogram, such as {@link #COMPUTE}.
+	 * @param name The name of the histogram.
+	 * @return the histogram, or null if there is none by that name
+	 */
+	public LatencyHistogram histogram(String name) { return histograms.get(name); }
+	
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(String.format("requests=%d, rejected=%d, running=%d, queued=%d, threads=%d/%d, bytesIn=%d, bytesOut=%d", 
+				requests(), rejected, activeRequests, queuedRequests, activeThreads, poolThreads, bytesIn, bytesOut));
+		if (warmup != null) {
+			s.append(System.lineSeparator()).append("warmup: ").append(warmup)
+				.append(", ready ").append(readyMillis).append("ms after JVM start");
+		}
+		for (Map.Entry<String, LatencyHistogram> e : histograms.entrySet()) {
+			s.append(System.lineSeparator()).append(e.getKey()).append(": ").append(e.getValue());
+		}
+		return s.toString();
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+
+import org.cicirello.math.MonteCarloIntegrator;
+
+/**
+ * Built-in kernel "integrate": multithreaded Monte Carlo integration of a range
+ * of the samples of an integrator.  Arguments: MonteCarloIntegrator integrator, 
+ * Long n, Long first, Long count (see {@link MonteCarloIntegrator#concurrentSample}).  
+ * Returns the statistics of the values of the integrand as a SampleStatistics.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class IntegrateKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "integrate";
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) {
+		MonteCarloIntegrator integrator = task.argument(0, MonteCarloIntegrator.class);
+		long n = task.argument(1, Long.class);
+		long first = task.argument(2, Long.class);
+		long count = task.argument(3, Long.class);
+		return integrator.concurrentSample(n, first, count, task.numThreads(), context.executor());
+	}
+	
+	@Override
+	public void warmup(KernelContext context) {
+		long n = 1 << 14;
+		for (MonteCarloIntegrator.Sampling sampling : MonteCarloIntegrator.Sampling.values()) {
+			MonteCarloIntegrator integrator = new MonteCarloIntegrator(x -> x[0] * x[1], 
+					new double[] {0, 0}, new double[] {1, 1}, sampling, 42);
+			execute(new TaskSpec(name(), 4, integrator, n, 0L, n), context);
+		}
+	}
+}
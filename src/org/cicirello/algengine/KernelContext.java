@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The resources of an RMI server that are shared by the kernels it runs.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class KernelContext {
+	
+	private final ExecutorService es;
+	private final ExecutorService forwarding;
+	private final int warmupSize;
+	private final ConcurrentMap<String, Object> residentData;
+	private final RemoteParallelAlgorithms local;
+	
+	/**
+	 * Initializes the context.
+	 * @param es The thread pool of the RMI server for computation, with 
+	 * about as many threads as the node has cores.
+	 * @param forwarding The thread pool of the RMI server for threads that 
+	 * mostly wait, such as on RMI calls to other servers.
+	 * @param warmupSize The size of the problems that kernels should solve
+	 * as they warm up, such as the number of rows of matrices.
+	 */
+	public KernelContext(ExecutorService es, ExecutorService forwarding, int warmupSize) {
+		this(es, forwarding, warmupSize, null);
+	}
+	
+	/**
+	 * Initializes the context.
+	 * @param es The thread pool of the RMI server for computation, with 
+	 * about as many threads as the node has cores.
+	 * @param forwarding The thread pool of the RMI server for threads that 
+	 * mostly wait, such as on RMI calls to other servers.
+	 * @param warmupSize The size of the problems that kernels should solve
+	 * as they warm up, such as the number of rows of matrices.
+	 * @param local The RMI server itself, through which kernels can run 
+	 * other tasks on it, or null if there is none.
+	 */
+	public KernelContext(ExecutorService es, ExecutorService forwarding, int warmupSize, RemoteParallelAlgorithms local) {
+		this.es = es;
+		this.forwarding = forwarding;
+		this.warmupSize = warmupSize;
+		this.local = local;
+		residentData = new ConcurrentHashMap<String, Object>();
+	}
+	
+	/**
+	 * Gets the thread pool of the RMI server, on which kernels should run their
+	 * computation.  It has about as many threads as the node has cores, so 
+	 * tasks submitted to it beyond that wait for a thread, and must not block
+	 * on one another.
+	 * @return the thread pool
+	 */
+	public ExecutorService executor() {
+		return es;
+	}
+	
+	/**
+	 * Gets the thread pool of the RMI server for threads that mostly wait, 
+	 * such as those making RMI calls to other servers, so that they do not 
+	 * tie up the threads of {@link #executor}.
+	 * @return the thread pool
+	 */
+	public ExecutorService forwardingExecutor() {
+		return forwarding;
+	}
+	
+	/**
+	 * Gets the size of the problems that kernels should solve as they 
+	 * warm up (see {@link RemoteKernel#warmup}), such as the number of rows 
+	 * of matrices.
+	 * @return the size of warmup problems
+	 */
+	public int warmupSize() {
+		return warmupSize;
+	}
+	
+	/**
+	 * Gets data that stays resident on the RMI server between tasks, such as 
+	 * operands that are used by many tasks, keyed by names chosen by the kernels.
+	 * @return the resident data
+	 */
+	public ConcurrentMap<String, Object> residentData() {
+		return residentData;
+	}
+	
+	/**
+	 * Gets the RMI server itself, rather than a stub of it, through which a kernel
+	 * can run other tasks on the RMI server without a network round trip, such as 
+	 * to compute what it then sends to other RMI servers.  Tasks submitted 
+	 * through it are subject to admission control as usual.
+	 * @return the RMI server, or null if the kernels are not run by one
+	 */
+	public RemoteParallelAlgorithms local() {
+		return local;
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The kernels available on an RMI server, keyed by name.  Loads, via 
+ * {@link java.util.ServiceLoader}, the kernels on the class path (including the
+ * built-in kernels of algengine.jar), and those in any jar files in a kernels
+ * directory.  When asked for a kernel it does not have, the registry rescans
+ * the kernels directory for new jar files, so new kernels can be deployed to
+ * running RMI servers by copying a jar into that directory.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class KernelRegistry {
+	
+	private final File kernelDirectory;
+	private final Map<String, RemoteKernel> kernels;
+	private final Set<String> loadedJars;
+	
+	/**
+	 * Initializes the registry, and loads the kernels that are available.
+	 * @param kernelDirectory The directory to scan for jar files of kernels,
+	 * which need not exist.
+	 */
+	public KernelRegistry(File kernelDirectory) {
+		this.kernelDirectory = kernelDirectory;
+		kernels = new ConcurrentHashMap<String, RemoteKernel>();
+		loadedJars = new HashSet<String>();
+		register(ServiceLoader.load(RemoteKernel.class, KernelRegistry.class.getClassLoader()));
+		rescan();
+	}
+	
+	/**
+	 * Gets a kernel by name, rescanning the kernels directory for new jar files
+	 * if the kernel is not already registered.
+	 * @param name The name of the kernel.
+	 * @return The kernel, or null if there is no such kernel.
+	 */
+	public RemoteKernel get(String name) {
+		RemoteKernel kernel = kernels.get(name);
+		if (kernel == null) {
+			rescan();
+			kernel = kernels.get(name);
+		}
+		return kernel;
+	}
+	
+	/**
+	 * Gets all of the registered kernels.
+	 * @return the kernels
+	 */
+	public Collection<RemoteKernel> kernels() {
+		return new ArrayList<RemoteKernel>(kernels.values());
+	}
+	
+	/**
+	 * Loads the kernels of any jar files in the kernels directory that
+	 * have not been loaded already.
+	 * @return the number of new kernels
+	 */
+	public synchronized int rescan() {
+		File[] jars = kernelDirectory.listFiles((dir, name) -> name.endsWith(".jar"));
+		if (jars == null) return 0;
+		ArrayList<URL> urls = new ArrayList<URL>();
+		for (File jar : jars) {
+			if (loadedJars.add(jar.getAbsolutePath())) {
+				try {
+					urls.add(jar.toURI().toURL());
+				} catch (MalformedURLException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		if (urls.isEmpty()) return 0;
+		URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[urls.size()]), KernelRegistry.class.getClassLoader());
+		return register(ServiceLoader.load(RemoteKernel.class, loader));
+	}
+	
+	private int register(ServiceLoader<RemoteKernel> loader) {
+		int count = 0;
+		try {
+			for (RemoteKernel kernel : loader) {
+				if (kernels.putIfAbsent(kernel.name(), kernel) == null) count++;
+			}
+		} catch (ServiceConfigurationError e) {
+			System.err.println("Failed to load a kernel:");
+			e.printStackTrace();
+		}
+		return count;
+	}
+}
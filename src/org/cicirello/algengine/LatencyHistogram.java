@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations, in nanoseconds, in the style of HdrHistogram:
+ * buckets are linear within each power of two, 32 to a power, so that 
+ * percentiles are accurate to within about 3% over the whole range of 
+ * durations in a fixed amount of memory.  Recording is lock free, and 
+ * cheap enough to do on every request.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class LatencyHistogram implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	// log2 of the number of buckets per power of two
+	private static final int SUB_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+	
+	private final AtomicLongArray counts;
+	private final AtomicLong count;
+	private final AtomicLong sum;
+	private final AtomicLong max;
+	
+	/**
+	 * Initializes an empty histogram.
+	 */
+	public LatencyHistogram() {
+		counts = new AtomicLongArray(BUCKETS);
+		count = new AtomicLong();
+		sum = new AtomicLong();
+		max = new AtomicLong();
+	}
+	
+	/**
+	 * Records a duration.  Negative durations are recorded as 0.
+	 * @param nanos The duration in nanoseconds.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) nanos = 0;
+		counts.incrementAndGet(bucket(nanos));
+		count.incrementAndGet();
+		sum.addAndGet(nanos);
+		max.accumulateAndGet(nanos, Math::max);
+	}
+	
+	/**
+	 * Gets the number of durations recorded.
+	 * @return the number of durations
+	 */
+	public long count() { return count.get(); }
+	
+	/**
+	 * Gets the mean of the durations recorded.
+	 * @return the mean in nanoseconds, or 0 if there are none
+	 */
+	public double mean() {
+		long n = count.get();
+		return n > 0 ? (double)sum.get() / n : 0;
+	}
+	
+	/**
+	 * Gets the longest duration recorded.
+	 * @return the maximum in nanoseconds, or 0 if there are none
+	 */
+	public long max() { return max.get(); }
+	
+	/**
+	 * Gets a percentile of the durations recorded, to within the width of 
+	 * a bucket (about 3%).
+	 * @param percentile The percentile, from 0 to 100.
+	 * @return the percentile in nanoseconds, or 0 if there are none
+	 */
+	public long percentile(double percentile) {
+		long n = count.get();
+		if (n == 0) return 0;
+		long rank = Math.max(1, (long)Math.ceil(percentile / 100.0 * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(highestInBucket(i), max.get());
+			}
+		}
+		return max.get();
+	}
+	
+	/**
+	 * Gets a copy of this histogram, which does not change as more 
+	 * durations are recorded in this one.  Concurrent recording may be 
+	 * partially reflected in the copy.
+	 * @return a copy of this histogram
+	 */
+	public LatencyHistogram copy() {
+		LatencyHistogram h = new LatencyHistogram();
+		h.add(this);
+		return h;
+	}
+	
+	/**
+	 * Combines this histogram with another, such as those of several RMI servers.
+	 * @param other The other histogram.
+	 * @return a new histogram of the durations of both
+	 */
+	public LatencyHistogram plus(LatencyHistogram other) {
+		LatencyHistogram h = copy();
+		h.add(other);
+		return h;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("n=%d, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, max=%.3fms", 
+				count(), millis(mean()), millis(percentile(50)), millis(percentile(90)), 
+				millis(percentile(99)), millis(max()));
+	}
+	
+	private void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			long c = other.counts.get(i);
+			if (c != 0) counts.addAndGet(i, c);
+		}
+		count.addAndGet(other.count.get());
+		sum.addAndGet(other.sum.get());
+		max.accumulateAndGet(other.max.get(), Math::max);
+	}
+	
+	private static double millis(double nanos) {
+		return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+	
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) return (int)nanos;
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int)(nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+	
+	private static long highestInBucket(int bucket) {
+		if (bucket < SUB_BUCKETS) return bucket;
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BITS);
+		return ((SUB_BUCKETS + sub) << (exponent - SUB_BITS)) + width - 1;
+	}
+}
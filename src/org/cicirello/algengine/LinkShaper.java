@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Simulates a slower network link for the connections of an RMI server,
+ * such as for studying on one machine how distributed algorithms scale on a 
+ * real cluster (see {@link LocalCluster}).  Adds a one-way latency to each 
+ * message, and limits the rate of transfer in each direction, as for a full 
+ * duplex link shared by all of the connections of the server.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+final class LinkShaper {
+	
+	private static final long MIN_PAUSE = 1000000;
+	
+	private final double nanosPerByte;
+	private final long latencyNanos;
+	// the times at which the link is next free, in and out
+	private long inboundFree;
+	private long outboundFree;
+	
+	/*
+	 * bandwidth in megabytes (2^20 bytes) per second, or 0 for no limit,
+	 * and latency in milliseconds
+	 */
+	LinkShaper(double megabytesPerSecond, double latencyMillis) {
+		nanosPerByte = megabytesPerSecond > 0 ? 1e9 / (megabytesPerSecond * (1 << 20)) : 0;
+		latencyNanos = (long)(latencyMillis * 1e6);
+	}
+	
+	/*
+	 * The link defined by the system properties algengine.bandwidth (MB/s) and
+	 * algengine.latency (ms), or null if neither is set.
+	 */
+	static LinkShaper fromProperties() {
+		String bandwidth = System.getProperty("algengine.bandwidth");
+		String latency = System.getProperty("algengine.latency");
+		if (bandwidth == null && latency == null) return null;
+		return new LinkShaper(bandwidth != null ? Double.parseDouble(bandwidth) : 0, 
+				latency != null ? Double.parseDouble(latency) : 0);
+	}
+	
+	/*
+	 * Delays a message by the latency of the link.
+	 */
+	void propagate() throws InterruptedIOException {
+		pause(latencyNanos);
+	}
+	
+	/*
+	 * Waits until the link has had time to transfer some bytes, after those
+	 * already transferred in the same direction.  Waits shorter than a 
+	 * millisecond are deferred until they add up, since each sleep overshoots
+	 * and sleeping for every small chunk that a socket reads or writes would 
+	 * make the link much slower than its bandwidth.
+	 */
+	void transfer(int bytes, boolean inbound) throws InterruptedIOException {
+		if (nanosPerByte == 0) return;
+		long wait;
+		synchronized (this) {
+			long now = System.nanoTime();
+			long duration = (long)(bytes * nanosPerByte);
+			if (inbound) {
+				inboundFree = Math.max(now, inboundFree) + duration;
+				wait = inboundFree - now;
+			} else {
+				outboundFree = Math.max(now, outboundFree) + duration;
+				wait = outboundFree - now;
+			}
+		}
+		if (wait >= MIN_PAUSE) pause(wait);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%.3fMB/s, %.3fms", nanosPerByte > 0 ? 1e9 / nanosPerByte / (1 << 20) : Double.POSITIVE_INFINITY, 
+				latencyNanos / 1e6);
+	}
+	
+	private static void pause(long nanos) throws InterruptedIOException {
+		if (nanos <= 0) return;
+		try {
+			Thread.sleep(nanos / 1000000, (int)(nanos % 1000000));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while simulating the network link");
+		}
+	}
+}
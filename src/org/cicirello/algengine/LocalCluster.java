@@ -0,0 +1,277 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A simulated cluster on one machine, for running and studying the 
+ * distributed algorithms without the physical cluster.  Starts a number of
+ * RMI servers (see {@link ParallelAlgorithmEngine}), each in its own JVM with
+ * its own RMI registry on a port of localhost, so that they are named 
+ * localhost:port.  Each server may be given a share of the CPU: the number of
+ * cores the JVM believes it has, pinned to that many cores with taskset where
+ * available.  The connections of each server may also be slowed down to those 
+ * of a simulated network link (bandwidth and latency).
+ * 
+ * <p>The servers are started with the class path of this JVM, and a 
+ * temporary security policy granting all permissions.  Their output goes to
+ * a log file per server in a temporary directory (see {@link #logDirectory}).</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class LocalCluster implements AutoCloseable {
+	
+	/**
+	 * The longest time to wait for a server to become ready, in milliseconds.
+	 */
+	public static final long READY_TIMEOUT = 300000;
+	
+	private final List<Process> processes;
+	private final String[] serverNames;
+	private final File logDirectory;
+	
+	/**
+	 * Starts a simulated cluster, and waits until all of its servers are ready.
+	 * 
+	 * @param servers The number of RMI servers.
+	 * @param coresPerServer The number of cores of each server, or 0 to let each 
+	 * use all of the cores of the machine.
+	 * @param megabytesPerSecond The bandwidth of the simulated link of each server 
+	 * in each direction, or 0 for no limit.
+	 * @param latencyMillis The one-way latency of the simulated link of each server
+	 * in milliseconds, or 0 for none.
+	 * @param warmupProfile The warmup profile of the servers, such as quick 
+	 * (see {@link WarmupProfile#parse}).
+	 * @throws IOException If a server cannot be started.
+	 * @throws IllegalStateException If a server exits, or is not ready in time.
+	 */
+	public LocalCluster(int servers, int coresPerServer, double megabytesPerSecond, double latencyMillis, 
+			String warmupProfile) throws IOException {
+		processes = new ArrayList<Process>();
+		serverNames = new String[servers];
+		logDirectory = Files.createTempDirectory("localcluster").toFile();
+		File policy = new File(logDirectory, "all.policy");
+		try (PrintWriter out = new PrintWriter(policy)) {
+			out.println("grant {");
+			out.println("    permission java.security.AllPermission;");
+			out.println("};");
+		}
+		int cores = Runtime.getRuntime().availableProcessors();
+		boolean pin = coresPerServer > 0 && onPath("taskset");
+		try {
+			for (int i = 0; i < servers; i++) {
+				int port = freePort();
+				serverNames[i] = "localhost:" + port;
+				List<String> command = new ArrayList<String>();
+				if (pin) {
+					StringBuilder cpus = new StringBuilder();
+					for (int c = 0; c < coresPerServer; c++) {
+						if (c > 0) cpus.append(',');
+						cpus.append((i * coresPerServer + c) % cores);
+					}
+					command.add("taskset");
+					command.add("-c");
+					command.add(cpus.toString());
+				}
+				command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+				if (coresPerServer > 0) {
+					command.add("-XX:ActiveProcessorCount=" + coresPerServer);
+				}
+				command.add("-Djava.rmi.server.hostname=localhost");
+				command.add("-Djava.security.policy=" + policy.getAbsolutePath());
+				command.add("-Dalgengine.warmup=" + warmupProfile);
+				if (megabytesPerSecond > 0) {
+					command.add("-Dalgengine.bandwidth=" + megabytesPerSecond);
+				}
+				if (latencyMillis > 0) {
+					command.add("-Dalgengine.latency=" + latencyMillis);
+				}
+				command.add("-cp");
+				command.add(System.getProperty("java.class.path"));
+				command.add(ParallelAlgorithmEngine.class.getName());
+				command.add("--port");
+				command.add(Integer.toString(port));
+				ProcessBuilder pb = new ProcessBuilder(command);
+				pb.redirectErrorStream(true);
+				pb.redirectOutput(new File(logDirectory, "server" + i + ".log"));
+				processes.add(pb.start());
+			}
+			for (int i = 0; i < servers; i++) {
+				awaitReady(i);
+			}
+		} catch (IOException | RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Gets the names of the RMI servers, of the form localhost:port, for use
+	 * wherever the names of RMI servers are expected.
+	 * @return the names of the servers
+	 */
+	public String[] serverNames() {
+		return serverNames.clone();
+	}
+	
+	/**
+	 * Gets the directory of the log files of the servers.
+	 * @return the directory of the log files
+	 */
+	public File logDirectory() {
+		return logDirectory;
+	}
+	
+	/**
+	 * Stops all of the servers.
+	 */
+	@Override
+	public void close() {
+		for (Process p : processes) {
+			p.destroy();
+		}
+		for (Process p : processes) {
+			try {
+				if (!p.waitFor(10, TimeUnit.SECONDS)) {
+					p.destroyForcibly();
+				}
+			} catch (InterruptedException e) {
+				p.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+		}
+		processes.clear();
+	}
+	
+	/**
+	 * Arranges server names as the experimental conditions of the timing programs,
+	 * such as TimeMult.serverNames: the first condition is the first server alone, 
+	 * the second is the first two servers, with the newest first, and so on.
+	 * @param serverNames The names of the servers.
+	 * @return an array of arrays of server names, one per condition
+	 */
+	public static String[][] conditions(String[] serverNames) {
+		String[][] conditions = new String[serverNames.length][];
+		for (int s = 0; s < serverNames.length; s++) {
+			conditions[s] = new String[s + 1];
+			for (int i = 0; i <= s; i++) {
+				conditions[s][i] = serverNames[s - i];
+			}
+		}
+		return conditions;
+	}
+	
+	/**
+	 * Starts a simulated cluster from command line arguments of the form 
+	 * --local servers [coresPerServer [megabytesPerSecond [latencyMillis]]], 
+	 * starting at a given position of the arguments.  The servers warm up 
+	 * with the full profile, as for timing experiments.
+	 * @param args The command line arguments.
+	 * @param from The position of --local.
+	 * @return the simulated cluster
+	 * @throws IOException If a server cannot be started.
+	 * @throws IllegalArgumentException If the arguments are malformed.
+	 */
+	public static LocalCluster fromArgs(String[] args, int from) throws IOException {
+		if (from >= args.length || !args[from].equals("--local") || from + 1 >= args.length) {
+			throw new IllegalArgumentException("Expected --local servers [coresPerServer [megabytesPerSecond [latencyMillis]]]");
+		}
+		int servers = Integer.parseInt(args[from + 1]);
+		int cores = from + 2 < args.length ? Integer.parseInt(args[from + 2]) : 0;
+		double bandwidth = from + 3 < args.length ? Double.parseDouble(args[from + 3]) : 0;
+		double latency = from + 4 < args.length ? Double.parseDouble(args[from + 4]) : 0;
+		return new LocalCluster(servers, cores, bandwidth, latency, "full");
+	}
+	
+	/**
+	 * Starts a simulated cluster, prints the names of its servers, and
+	 * stops it when Enter is pressed.
+	 * @param args servers [coresPerServer [megabytesPerSecond [latencyMillis]]]
+	 */
+	public static void main(String[] args) {
+		String[] withFlag = new String[args.length + 1];
+		withFlag[0] = "--local";
+		System.arraycopy(args, 0, withFlag, 1, args.length);
+		try (LocalCluster cluster = fromArgs(withFlag, 0)) {
+			for (String name : cluster.serverNames()) {
+				System.out.println(name);
+			}
+			System.out.println("Logs in " + cluster.logDirectory() + ".  Press Enter to stop.");
+			System.in.read();
+		} catch (IOException e) {
+			System.err.println("Exception occurred while running the local cluster:");
+			e.printStackTrace();
+		}
+	}
+	
+	private void awaitReady(int i) throws IOException {
+		long deadline = System.currentTimeMillis() + READY_TIMEOUT;
+		while (true) {
+			try {
+				RemoteParallelAlgorithms.lookup(serverNames[i]);
+				return;
+			} catch (RemoteException | NotBoundException e) {
+				// not yet listening, or still warming up
+			}
+			if (!processes.get(i).isAlive()) {
+				throw new IllegalStateException("Server " + serverNames[i] + " exited; see " 
+						+ new File(logDirectory, "server" + i + ".log"));
+			}
+			if (System.currentTimeMillis() > deadline) {
+				throw new IllegalStateException("Server " + serverNames[i] + " was not ready in time");
+			}
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for " + serverNames[i], e);
+			}
+		}
+	}
+	
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+	
+	private static boolean onPath(String program) {
+		String path = System.getenv("PATH");
+		if (path == null) return false;
+		for (String dir : path.split(File.pathSeparator)) {
+			if (new File(dir, program).canExecute()) return true;
+		}
+		return false;
+	}
+}
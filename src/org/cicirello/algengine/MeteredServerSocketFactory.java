@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMIServerSocketFactory;
+
+/**
+ * Creates the server sockets of an RMI server, such that the sockets 
+ * of its connections count the bytes they receive and send, and time 
+ * the serialization of each call, in a {@link ServerMetrics}.  The sockets
+ * may also slow the transfers down to those of a simulated network link
+ * (see {@link LinkShaper}).
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+final class MeteredServerSocketFactory implements RMIServerSocketFactory {
+	
+	private final ServerMetrics metrics;
+	private final LinkShaper shaper;
+	
+	/*
+	 * shaper is null for the full speed of the actual network
+	 */
+	MeteredServerSocketFactory(ServerMetrics metrics, LinkShaper shaper) {
+		this.metrics = metrics;
+		this.shaper = shaper;
+	}
+
+	@Override
+	public ServerSocket createServerSocket(int port) throws IOException {
+		return new ServerSocket(port) {
+			@Override
+			public Socket accept() throws IOException {
+				Socket s = new MeteredSocket();
+				implAccept(s);
+				return s;
+			}
+		};
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof MeteredServerSocketFactory 
+				&& ((MeteredServerSocketFactory)other).metrics == metrics
+				&& ((MeteredServerSocketFactory)other).shaper == shaper;
+	}
+	
+	@Override
+	public int hashCode() {
+		return metrics.hashCode();
+	}
+	
+	private final class MeteredSocket extends Socket {
+		
+		private InputStream input;
+		private OutputStream output;
+		// true between the reply to a call and the arrival of the next call
+		private volatile boolean idle = true;
+		
+		@Override
+		public synchronized InputStream getInputStream() throws IOException {
+			if (input == null) {
+				input = new FilterInputStream(super.getInputStream()) {
+					@Override
+					public int read() throws IOException {
+						int b = super.read();
+						if (b >= 0) received(1);
+						return b;
+					}
+					
+					@Override
+					public int read(byte[] b, int off, int len) throws IOException {
+						int n = super.read(b, off, len);
+						if (n > 0) received(n);
+						return n;
+					}
+				};
+			}
+			return input;
+		}
+		
+		@Override
+		public synchronized OutputStream getOutputStream() throws IOException {
+			if (output == null) {
+				output = new FilterOutputStream(super.getOutputStream()) {
+					@Override
+					public void write(int b) throws IOException {
+						out.write(b);
+						sent(1);
+					}
+					
+					@Override
+					public void write(byte[] b, int off, int len) throws IOException {
+						out.write(b, off, len);
+						sent(len);
+					}
+					
+					@Override
+					public void flush() throws IOException {
+						// Java RMI may flush more than once per reply
+						if (shaper != null && !idle) shaper.propagate();
+						out.flush();
+						metrics.flushed();
+						idle = true;
+					}
+				};
+			}
+			return output;
+		}
+		
+		private void received(int bytes) throws IOException {
+			metrics.received(bytes);
+			if (shaper != null) {
+				if (idle) shaper.propagate();
+				shaper.transfer(bytes, true);
+			}
+			idle = false;
+		}
+		
+		private void sent(int bytes) throws IOException {
+			metrics.sent(bytes);
+			if (shaper != null) shaper.transfer(bytes, false);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+
+import org.cicirello.matrixops.ConcurrentMatrixMultiplier;
+
+/**
+ * Built-in kernel "multiply": multithreaded matrix multiplication.
+ * Arguments: double[][] a, double[][] bTranspose.  Returns a*b as a double[][].
+ * Either argument may instead be the String key of a matrix in the resident data 
+ * of the node, such as one the "matrix.generate" kernel generated there.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class MultiplyKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "multiply";
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) {
+		double[][] a = matrix(task, 0, context);
+		double[][] bTranspose = matrix(task, 1, context);
+		return new ConcurrentMatrixMultiplier(task.numThreads(), context.executor()).multiply(a, bTranspose, true);
+	}
+	
+	private static double[][] matrix(TaskSpec task, int i, KernelContext context) {
+		Serializable m = task.argument(i, Serializable.class);
+		if (m instanceof String) {
+			Object resident = context.residentData().get(m);
+			if (!(resident instanceof double[][])) {
+				throw new IllegalStateException("No resident matrix " + m);
+			}
+			return (double[][])resident;
+		}
+		return (double[][])m;
+	}
+	
+	@Override
+	public void warmup(KernelContext context) {
+		int n = context.warmupSize();
+		// square, and both the matrix-vector and wide shapes, so that both ways of 
+		// dividing the work among threads are compiled
+		execute(new TaskSpec(name(), 4, new double[n][n], new double[n][n]), context);
+		execute(new TaskSpec(name(), 4, new double[n][n], new double[1][n]), context);
+		execute(new TaskSpec(name(), 4, new double[Math.max(1, n / 4)][n], new double[n][n]), context);
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+
+import org.cicirello.matrixops.MatrixMultiplier;
+
+/**
+ * The capabilities of a node of the cluster, as relevant to deciding how
+ * much work to send it: its number of cores, the measured speed of the 
+ * matrix multiplication kernel, and the measured latency and bandwidth of 
+ * the link to it from the master node.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class NodeCapabilities implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/*
+	 * Size of the matrices multiplied to measure the kernel speed, and
+	 * size of the payload sent to measure link bandwidth.
+	 */
+	private static final int KERNEL_SIZE = 192;
+	private static final int PROBE_BYTES = 1 << 20;
+	private static final int TRIALS = 3;
+	
+	private final int cores;
+	private final double kernelGflops;
+	private final double latency;
+	private final double bandwidth;
+	
+	private NodeCapabilities(int cores, double kernelGflops, double latency, double bandwidth) {
+		this.cores = cores;
+		this.kernelGflops = kernelGflops;
+		this.latency = latency;
+		this.bandwidth = bandwidth;
+	}
+	
+	/**
+	 * Measures the capabilities of the node executing this method.  Times
+	 * the single-threaded matrix multiplication kernel on a small problem.
+	 * The link is considered to have no latency and infinite bandwidth.
+	 * 
+	 * @return The capabilities of this node.
+	 */
+	public static NodeCapabilities ofThisNode() {
+		double[][] a = new double[KERNEL_SIZE][KERNEL_SIZE];
+		double[][] bTranspose = new double[KERNEL_SIZE][KERNEL_SIZE];
+		for (int i = 0; i < KERNEL_SIZE; i++) {
+			a[i][i] = bTranspose[i][i] = 1.0;
+		}
+		MatrixMultiplier m = new MatrixMultiplier();
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < TRIALS; i++) {
+			long start = System.nanoTime();
+			m.multiply(a, bTranspose, true);
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		double flops = 2.0 * KERNEL_SIZE * KERNEL_SIZE * KERNEL_SIZE;
+		return new NodeCapabilities(Runtime.getRuntime().availableProcessors(), 
+				flops / Math.max(best, 1), 0.0, Double.POSITIVE_INFINITY);
+	}
+	
+	/**
+	 * Queries the capabilities of an RMI server, and measures the latency 
+	 * and bandwidth of the link to it from this node.  Latency is the fastest 
+	 * round trip of a call with an empty payload, and bandwidth is derived from 
+	 * the additional time needed to send a 1 MB payload.
+	 * 
+	 * @param serverName The name of the RMI server.
+	 * @return The capabilities of the RMI server.
+	 * @throws RemoteException If the RMI server cannot be reached.
+	 * @throws NotBoundException If no parallel algorithm server is bound on the host.
+	 */
+	public static NodeCapabilities probe(String serverName) throws RemoteException, NotBoundException {
+		RemoteParallelAlgorithms comp = RemoteParallelAlgorithms.lookup(serverName);
+		NodeCapabilities remote = comp.capabilities(new byte[0]);
+		byte[] empty = new byte[0];
+		byte[] payload = new byte[PROBE_BYTES];
+		long emptyTime = Long.MAX_VALUE;
+		long payloadTime = Long.MAX_VALUE;
+		for (int i = 0; i < TRIALS; i++) {
+			long start = System.nanoTime();
+			comp.capabilities(empty);
+			long mid = System.nanoTime();
+			comp.capabilities(payload);
+			long end = System.nanoTime();
+			emptyTime = Math.min(emptyTime, mid - start);
+			payloadTime = Math.min(payloadTime, end - mid);
+		}
+		double transfer = Math.max(payloadTime - emptyTime, 1) / 1e9;
+		return new NodeCapabilities(remote.cores, remote.kernelGflops, emptyTime / 1e9, PROBE_BYTES / transfer);
+	}
+	
+	/**
+	 * Queries the capabilities of an RMI server, with a link to it whose latency
+	 * and bandwidth were measured beforehand, such as by a sweep of payload sizes.
+	 * 
+	 * @param serverName The name of the RMI server.
+	 * @param latency The round trip time of an RMI call to the server, in seconds.
+	 * @param bandwidth The bandwidth of the link to the server, in bytes per second.
+	 * @return The capabilities of the RMI server.
+	 * @throws RemoteException If the RMI server cannot be reached.
+	 * @throws NotBoundException If no parallel algorithm server is bound on the host.
+	 */
+	public static NodeCapabilities query(String serverName, double latency, double bandwidth) throws RemoteException, NotBoundException {
+		NodeCapabilities remote = RemoteParallelAlgorithms.lookup(serverName).capabilities(new byte[0]);
+		return new NodeCapabilities(remote.cores, remote.kernelGflops, latency, bandwidth);
+	}
+	
+	/**
+	 * Gets the number of cores of the node.
+	 * @return number of cores
+	 */
+	public int cores() { return cores; }
+	
+	/**
+	 * Gets the measured speed of the single-threaded matrix multiplication kernel.
+	 * @return speed in GFLOP/s
+	 */
+	public double kernelGflops() { return kernelGflops; }
+	
+	/**
+	 * Gets the expected speed of the node when using a given number of threads, 
+	 * assuming that the kernel scales linearly up to the number of cores.
+	 * @param threads The number of threads.
+	 * @return speed in GFLOP/s
+	 */
+	public double gflops(int threads) { return kernelGflops * Math.min(threads, cores); }
+	
+	/**
+	 * Gets the round trip time of an RMI call to the node with an empty payload.
+	 * @return latency in seconds, which is 0 for the local node
+	 */
+	public double latency() { return latency; }
+	
+	/**
+	 * Gets the bandwidth of the link to the node.
+	 * @return bandwidth in bytes per second, which is infinite for the local node
+	 */
+	public double bandwidth() { return bandwidth; }
+	
+	@Override
+	public String toString() {
+		return String.format("cores=%d, kernelGflops=%.3f, latency=%.6fs, bandwidth=%.3fMB/s", 
+				cores, kernelGflops, latency, bandwidth / 1e6);
+	}
+}
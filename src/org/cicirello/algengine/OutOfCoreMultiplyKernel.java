@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.cicirello.matrixops.ConcurrentMatrixMultiplier;
+import org.cicirello.matrixops.MatrixFile;
+import org.cicirello.matrixops.OffHeapMatrix;
+
+/**
+ * Built-in kernel "multiply.ooc": out-of-core matrix multiplication of matrices
+ * in files local to the node, which need not fit in its memory.  Maps the files
+ * and computes a range of rows of c = a * b tile by tile, with 
+ * {@link ConcurrentMatrixMultiplier#multiply(OffHeapMatrix, OffHeapMatrix, OffHeapMatrix, int, int, int)},
+ * writing them to the file of c, which is created if it does not exist.  Only 
+ * the names of the files cross the network.
+ * Arguments: String aFile, String bFile, String cFile, Integer m, Integer k, 
+ * Integer n, Integer firstRow, Integer lastRow, Integer tileSize, where a is 
+ * m by k, b is k by n, and the files are matrix files (see {@link MatrixFile}), 
+ * such as the "matrix.generate" kernel writes.  Returns the number of rows 
+ * computed, as an Integer.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class OutOfCoreMultiplyKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "multiply.ooc";
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) throws Exception {
+		int m = task.argument(3, Integer.class);
+		int k = task.argument(4, Integer.class);
+		int n = task.argument(5, Integer.class);
+		int firstRow = task.argument(6, Integer.class);
+		int lastRow = task.argument(7, Integer.class);
+		OffHeapMatrix a = MatrixFile.open(Paths.get(task.argument(0, String.class)), false);
+		OffHeapMatrix b = MatrixFile.open(Paths.get(task.argument(1, String.class)), false);
+		if (a.rows() != m || a.cols() != k || b.rows() != k || b.cols() != n) {
+			throw new IllegalArgumentException("Matrix files are " + a.rows() + " by " + a.cols() + " and " 
+					+ b.rows() + " by " + b.cols() + ", rather than " + m + " by " + k + " and " + k + " by " + n + ".");
+		}
+		OffHeapMatrix c = MatrixFile.create(Paths.get(task.argument(2, String.class)), m, n);
+		new ConcurrentMatrixMultiplier(task.numThreads(), context.executor()).multiply(a, b, c, firstRow, lastRow, task.argument(8, Integer.class));
+		c.force();
+		return lastRow - firstRow;
+	}
+	
+	@Override
+	public void warmup(KernelContext context) throws Exception {
+		int n = context.warmupSize();
+		Path a = Files.createTempFile("ooc", ".a");
+		Path c = Files.createTempFile("ooc", ".c");
+		try {
+			MatrixFile.create(a, n, n).force();
+			execute(new TaskSpec(name(), 4, a.toString(), a.toString(), c.toString(), n, n, n, 0, n, Math.max(1, n / 4)), context);
+		} finally {
+			Files.deleteIfExists(a);
+			Files.deleteIfExists(c);
+		}
+	}
+}
@@ -1,105 +1,444 @@
-/*
- * Copyright 2017 Vincent A. Cicirello.
- *
- * This file is part of package org.cicirello.algengine.
- *
- * Java package org.cicirello.algengine is free software: you can 
- * redistribute it and/or modify it under the terms of the GNU 
- * General Public License as published by the Free Software 
- * Foundation, either version 3 of the License, or (at your 
- * option) any later version.
- *
- * Java package org.cicirello.algengine is distributed in the hope 
- * that it will be useful, but WITHOUT ANY WARRANTY; without even 
- * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
- * PARTICULAR PURPOSE.  See the GNU General Public License for more 
- * details.
- *
- * You should have received a copy of the GNU General Public License
- * along with Java package org.cicirello.permutations.  If not, 
- * see <http://www.gnu.org/licenses/>.
- *
- */
-package org.cicirello.algengine;
-
-import java.rmi.RemoteException;
-import java.rmi.registry.LocateRegistry;
-import java.rmi.registry.Registry;
-import java.rmi.server.UnicastRemoteObject;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
-import org.cicirello.math.Pi;
-import org.cicirello.matrixops.ConcurrentMatrixMultiplier;
-
-/**
- * A Java RMI server to execute parts of parallel algorithms remotely.
- * 
- * @author Vincent A. Cicirello
- * @version 8.15.2017
- */
-public final class ParallelAlgorithmEngine implements RemoteParallelAlgorithms {
-
-	private final ConcurrentMatrixMultiplier mult;
-	private final ExecutorService es;
-	
-	private ParallelAlgorithmEngine(int warmLength) {
-		es = Executors.newCachedThreadPool();
-		mult = new ConcurrentMatrixMultiplier(1, es);
-		try { //warmup
-			// This forces the Java JIT compiler to compile the hot spots of the
-			// methods natively, rather than waiting for the first incoming
-			// RMI call.
-			multiply(4, new double[warmLength][warmLength], new double[warmLength][warmLength]);
-			Pi.concurrentPi(100, 4, es);
-		} catch (RemoteException e) {
-			e.printStackTrace();
-		}
-	}
-	
-	/**
-	  * {@inheritDoc}
-	  */
-	@Override
-	public double pi(int n, int numThreads) throws RemoteException {
-		return Pi.concurrentPi(n, numThreads, es);
-	}
-	
-	/**
-	  * {@inheritDoc}
-	  */
-	@Override
-	public final double[][] multiply(int numThreads, double[][] a, double[][] bTranspose) throws RemoteException {
-		mult.setThreads(numThreads);
-		return mult.multiply(a, bTranspose, true);
-	}
-
-	/**
-	 * Starts up the RMI parallel algorithm server.
-	 * @param args Command line arguments.  Currently none.
-	 */
-	public static void main(String[] args) {
-		if (System.getSecurityManager() == null) {
-            System.setSecurityManager(new SecurityManager());
-        }
-        try {
-        	int warmLength = 128;
-        	if (args.length > 0) {
-        		warmLength = Integer.parseInt(args[0]);
-        	}
-            String name = "Alg";
-            final RemoteParallelAlgorithms engine = new ParallelAlgorithmEngine(warmLength);
-            RemoteParallelAlgorithms stub =
-                (RemoteParallelAlgorithms) UnicastRemoteObject.exportObject(engine, 0);
-            Registry registry = LocateRegistry.getRegistry();
-            registry.rebind(name, stub);
-            System.out.println("Parallel Algorithm Server Initiated");
-        } catch (RemoteException e) {
-            System.err.println("Exception occurred during parallel algorithm server initialization:");
-            e.printStackTrace();
-        }
-	}
-
-	
-
-}
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.cicirello.math.AnytimePi;
+import org.cicirello.math.MonteCarloIntegrator;
+import org.cicirello.math.Pi;
+import org.cicirello.math.SampleStatistics;
+import org.cicirello.matrixops.ConcurrentMatrixMultiplier;
+import org.cicirello.matrixops.DistributedMatrixMultiplier;
+import org.cicirello.matrixops.Freivalds;
+import org.cicirello.matrixops.SliceVerification;
+
+/**
+ * A Java RMI server to execute parts of parallel algorithms remotely.
+ * 
+ * <p>Computation runs on a thread pool with one thread per core, however many
+ * threads the requests ask for, and the requests themselves pass through a 
+ * {@link RequestScheduler}: a few run at once, the rest wait in a bounded 
+ * queue, and requests beyond that are rejected with an {@link EngineBusyException}.
+ * The limits are set by the system properties algengine.maxActive (default 2)
+ * and algengine.queue (default 16).  Threads that mostly wait on other RMI 
+ * servers, such as those of tree-structured multiplication, run on a separate
+ * cached thread pool.  Polling and stopping anytime runs, listing kernels, and
+ * querying capabilities, and the ping, sink, and echo calls that measure 
+ * the links to the server, are not subject to admission control.</p>
+ * 
+ * <p>The server records metrics of its requests (see {@link ServerMetrics}), 
+ * which are available through {@link #stats} and through JMX 
+ * (see {@link EngineMetricsMXBean}).  It also records the spans of traced 
+ * multiplications, which it holds until the caller collects them with
+ * {@link #collectTrace}.</p>
+ * 
+ * <p>If the system property algengine.verify is a number of rounds greater than 0,
+ * the server verifies its products with Freivalds' algorithm (see {@link Freivalds}),
+ * failing a multiplication whose product is wrong rather than returning it.  In tree 
+ * mode, it also verifies the slices of its subtrees, logs those that fail, and 
+ * recomputes them itself.</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 8.15.2017
+ */
+public final class ParallelAlgorithmEngine implements RemoteParallelAlgorithms {
+
+	private final ThreadPoolExecutor es;
+	private final ExecutorService forwarding;
+	// the threads of anytime runs, which hold them until stopped
+	private final ExecutorService leased;
+	private final ServerMetrics metrics;
+	private final RequestScheduler scheduler;
+	// measured once warm, and null until then
+	private volatile NodeCapabilities capabilities;
+	private final Map<Long, AnytimePi> piJobs;
+	private final KernelContext context;
+	private final KernelRegistry kernels;
+	private volatile WarmupProfile.Outcome warmupOutcome;
+	private volatile long readyMillis;
+	private final int verifyRounds;
+	
+	private ParallelAlgorithmEngine(int warmLength) {
+		es = (ThreadPoolExecutor)Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		forwarding = Executors.newCachedThreadPool();
+		leased = Executors.newCachedThreadPool();
+		metrics = new ServerMetrics();
+		scheduler = new RequestScheduler(Integer.getInteger("algengine.maxActive", 2), Integer.getInteger("algengine.queue", 16), metrics);
+		piJobs = new ConcurrentHashMap<Long, AnytimePi>();
+		context = new KernelContext(es, forwarding, warmLength, this);
+		kernels = new KernelRegistry(new File(System.getProperty("algengine.kernels", "kernels")));
+		verifyRounds = Integer.getInteger("algengine.verify", 0);
+	}
+	
+	/*
+	 * This forces the Java JIT compiler to compile the hot spots of the
+	 * methods natively, rather than waiting for the first incoming
+	 * RMI calls: every kernel, which covers the code of the other requests
+	 * too, and the RMI transport and serialization, through calls to 
+	 * the server's own stub that bypass the metrics of requests.
+	 */
+	private WarmupProfile.Outcome warmup(WarmupProfile profile, final RemoteParallelAlgorithms stub) {
+		Map<String, Callable<?>> actions = new LinkedHashMap<String, Callable<?>>();
+		for (final RemoteKernel kernel : kernels.kernels()) {
+			actions.put("kernel " + kernel.name(), () -> {
+				kernel.warmup(context);
+				return null;
+			});
+		}
+		final byte[] probe = new byte[1 << 20];
+		actions.put("RMI", () -> {
+			stub.capabilities(probe);
+			return stub.stats();
+		});
+		return profile.run(actions);
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public double pi(long n, int numThreads) throws RemoteException {
+		return scheduler.run(0, () -> Pi.concurrentPi(n, numThreads, es));
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public double pi(long n, int numThreads, long seed) throws RemoteException {
+		return scheduler.run(0, () -> Pi.concurrentPi(n, numThreads, seed, es));
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public void startPi(long jobId, int numThreads, long seed) throws RemoteException {
+		// forget runs whose masters went away without stopping them
+		piJobs.values().removeIf(AnytimePi::isStopped);
+		// the run counts as an admitted request until its workers finish, and they
+		// run on their own threads so that they do not hold those of other requests
+		AnytimePi job = scheduler.bypass(() -> {
+			Runnable release = scheduler.hold(0);
+			return AnytimePi.startLeased(numThreads, seed, leased, release);
+		});
+		if (piJobs.putIfAbsent(jobId, job) != null) {
+			job.stop();
+			throw new RemoteException("Anytime Pi run with id " + jobId + " already exists");
+		}
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public SampleStatistics piProgress(long jobId) throws RemoteException {
+		return piJob(jobId, false).statistics();
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public SampleStatistics stopPi(long jobId) throws RemoteException {
+		return piJob(jobId, true).stop();
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public SampleStatistics integrate(MonteCarloIntegrator integrator, long n, long first, long count, int numThreads) throws RemoteException {
+		return scheduler.run(0, () -> integrator.concurrentSample(n, first, count, numThreads, es));
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public Serializable submit(TaskSpec task) throws RemoteException {
+		RemoteKernel kernel = kernels.get(task.kernel());
+		if (kernel == null) {
+			throw new RemoteException("Unknown kernel", new IllegalArgumentException("No kernel named " + task.kernel()));
+		}
+		if (kernel.bypassesAdmission()) {
+			return scheduler.bypass(() -> execute(kernel, task));
+		}
+		return scheduler.run(task.priority(), () -> execute(kernel, task));
+	}
+	
+	private Serializable execute(RemoteKernel kernel, TaskSpec task) throws RemoteException {
+		try {
+			return kernel.execute(task, context);
+		} catch (RemoteException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RemoteException("Kernel " + task.kernel() + " failed", e);
+		}
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public String[] kernels() throws RemoteException {
+		return kernels.kernels().stream().map(RemoteKernel::name).sorted().toArray(String[]::new);
+	}
+	
+	private AnytimePi piJob(long jobId, boolean remove) throws RemoteException {
+		AnytimePi job = remove ? piJobs.remove(jobId) : piJobs.get(jobId);
+		if (job == null) {
+			throw new RemoteException("No anytime Pi run with id " + jobId);
+		}
+		return job;
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public final double[][] multiply(int numThreads, double[][] a, double[][] bTranspose) throws RemoteException {
+		return multiply(numThreads, a, bTranspose, 0);
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public final double[][] multiply(int numThreads, double[][] a, double[][] bTranspose, long traceId) throws RemoteException {
+		return scheduler.run(0, traceId, () -> verified(a, bTranspose, new ConcurrentMatrixMultiplier(numThreads, es).multiply(a, bTranspose, true)));
+	}
+	
+	private double[][] verified(double[][] a, double[][] bTranspose, double[][] c) throws RemoteException {
+		if (verifyRounds > 0 && !new Freivalds(verifyRounds, ThreadLocalRandom.current().nextLong()).check(a, bTranspose, c)) {
+			throw new RemoteException("Product of " + a.length + " by " + bTranspose.length + " failed verification");
+		}
+		return c;
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public NodeCapabilities capabilities(byte[] probe) throws RemoteException {
+		return capabilities;
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public void ping() throws RemoteException {
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public void sink(Serializable payload) throws RemoteException {
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public Serializable echo(Serializable payload) throws RemoteException {
+		return payload;
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public double[][] treeMultiply(int numThreads, double[][] a, double[][] bTranspose, String[] descendants, int fanout) throws RemoteException {
+		return treeMultiply(numThreads, a, bTranspose, descendants, fanout, 0);
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public double[][] treeMultiply(int numThreads, double[][] a, double[][] bTranspose, String[] descendants, int fanout, long traceId) throws RemoteException {
+		if (descendants.length == 0) {
+			return multiply(numThreads, a, bTranspose, traceId);
+		}
+		// An interior node holds no admission slot while it waits on its subtrees,
+		// or a server appearing more than once in the tree could deadlock with itself.
+		// Its own share still runs on the core-sized pool.
+		DistributedMatrixMultiplier forward = new DistributedMatrixMultiplier(descendants, numThreads, numThreads, forwarding);
+		forward.setTreeFanout(fanout);
+		forward.setMasterExecutor(es);
+		forward.setVerification(verifyRounds, true);
+		// the spans of the forwarding, and of the subtrees, join the trace of this server
+		Trace trace = traceId != 0 ? metrics.trace(traceId) : null;
+		return scheduler.bypass(traceId, () -> {
+			try {
+				double[][] c = forward.multiplyAsync(a, bTranspose, true, trace).join();
+				for (SliceVerification failure : forward.lastVerification()) {
+					System.err.println(failure);
+				}
+				return c;
+			} catch (CompletionException e) {
+				throw new RemoteException("Failed to multiply within subtree", e.getCause());
+			}
+		});
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public EngineStats stats() throws RemoteException {
+		return snapshot();
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public List<TraceSpan> collectTrace(long traceId) throws RemoteException {
+		return metrics.collect(traceId);
+	}
+	
+	private EngineStats snapshot() {
+		return new EngineStats(metrics, scheduler, es.getActiveCount(), es.getMaximumPoolSize(), warmupOutcome, readyMillis);
+	}
+
+	private void registerMBean() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new EngineMetrics(), 
+					new ObjectName("org.cicirello.algengine:type=ParallelAlgorithmEngine"));
+		} catch (JMException e) {
+			System.err.println("Failed to register the metrics with JMX:");
+			e.printStackTrace();
+		}
+	}
+	
+	private final class EngineMetrics implements EngineMetricsMXBean {
+		@Override public long getRequests() { return metrics.compute().count(); }
+		@Override public long getRejected() { return scheduler.rejected(); }
+		@Override public int getActiveRequests() { return scheduler.active(); }
+		@Override public int getQueuedRequests() { return scheduler.queued(); }
+		@Override public int getActiveThreads() { return es.getActiveCount(); }
+		@Override public long getBytesIn() { return metrics.bytesIn(); }
+		@Override public long getBytesOut() { return metrics.bytesOut(); }
+		
+		@Override 
+		public String[] getHistogramNames() { 
+			return snapshot().histogramNames().toArray(new String[0]); 
+		}
+		
+		@Override
+		public double percentileMillis(String histogram, double percentile) {
+			LatencyHistogram h = snapshot().histogram(histogram);
+			return h != null ? h.percentile(percentile) / 1000000.0 : Double.NaN;
+		}
+		
+		@Override
+		public String getSummary() { return snapshot().toString(); }
+	}
+
+	/**
+	 * Starts up the RMI parallel algorithm server.  The server warms up as 
+	 * defined by the system property algengine.warmup (see {@link WarmupProfile}),
+	 * and binds itself in the RMI registry only once it has, after which 
+	 * it reports how long it took to become ready.
+	 * 
+	 * <p>If the system properties algengine.bandwidth (in MB/s) or algengine.latency 
+	 * (in ms) are set, the server slows its connections down to those of such a 
+	 * network link, such as for simulating a cluster on one machine (see {@link LocalCluster}).</p>
+	 * 
+	 * @param args Command line arguments: optionally, the size of the 
+	 * problems to warm up with (default 128); --port followed by a port number,
+	 * for the server to create its own RMI registry on that port rather than 
+	 * binding in the registry on the default port; and --train for a training run, 
+	 * which only warms up and then exits without binding to the RMI registry,
+	 * such as to record an AppCDS archive with -XX:ArchiveClassesAtExit.
+	 */
+	public static void main(String[] args) {
+		if (System.getSecurityManager() == null) {
+            System.setSecurityManager(new SecurityManager());
+        }
+        try {
+        	int warmLength = 128;
+        	boolean train = false;
+        	int port = 0;
+        	for (int i = 0; i < args.length; i++) {
+        		if (args[i].equals("--train")) {
+        			train = true;
+        		} else if (args[i].equals("--port") && i + 1 < args.length) {
+        			port = Integer.parseInt(args[++i]);
+        		} else {
+        			warmLength = Integer.parseInt(args[i]);
+        		}
+        	}
+        	WarmupProfile profile = WarmupProfile.parse(System.getProperty("algengine.warmup", "full"));
+            String name = "Alg";
+            final ParallelAlgorithmEngine engine = new ParallelAlgorithmEngine(warmLength);
+            RemoteParallelAlgorithms stub =
+                (RemoteParallelAlgorithms) UnicastRemoteObject.exportObject(engine, 0, null, 
+                		new MeteredServerSocketFactory(engine.metrics, LinkShaper.fromProperties()));
+            engine.warmupOutcome = engine.warmup(profile, stub);
+            // measured after the warmup, so that the cost model sees compiled speed
+            engine.capabilities = NodeCapabilities.ofThisNode();
+            System.out.println("Warmup: " + engine.warmupOutcome);
+            if (train) {
+            	UnicastRemoteObject.unexportObject(engine, true);
+            	System.out.println("Training run complete");
+            	System.exit(0);
+            }
+            engine.registerMBean();
+            Registry registry = port > 0 ? LocateRegistry.createRegistry(port) : LocateRegistry.getRegistry();
+            registry.rebind(name, stub);
+            engine.readyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            System.out.println("Parallel Algorithm Server Initiated");
+            System.out.println("Ready " + engine.readyMillis + "ms after JVM start");
+        } catch (RemoteException e) {
+            System.err.println("Exception occurred during parallel algorithm server initialization:");
+            e.printStackTrace();
+        }
+	}
+
+	
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+
+import org.cicirello.math.Pi;
+
+/**
+ * Built-in kernel "pi": multithreaded Monte Carlo estimate of Pi.
+ * Arguments: Long n, and optionally Long seed.  Returns the estimate as a Double.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class PiKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "pi";
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) {
+		long n = task.argument(0, Long.class);
+		if (task.numArguments() > 1) {
+			return Pi.concurrentPi(n, task.numThreads(), task.argument(1, Long.class), context.executor());
+		}
+		return Pi.concurrentPi(n, task.numThreads(), context.executor());
+	}
+	
+	@Override
+	public void warmup(KernelContext context) {
+		execute(new TaskSpec(name(), 4, 100000L), context);
+		execute(new TaskSpec(name(), 4, 100000L, 42L), context);
+	}
+}
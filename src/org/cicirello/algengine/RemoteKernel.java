@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+
+/**
+ * A kernel that an RMI server can run on request through 
+ * {@link RemoteParallelAlgorithms#submit}.  Kernels are discovered with 
+ * {@link java.util.ServiceLoader}: list the fully qualified name of each 
+ * implementation in a file named META-INF/services/org.cicirello.algengine.RemoteKernel,
+ * either within algengine.jar, or within a jar dropped into the kernels
+ * directory of the RMI server (see {@link KernelRegistry}).  Implementations
+ * must have a public no-argument constructor, and must be safe to run from
+ * several threads at once.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public interface RemoteKernel {
+	
+	/**
+	 * Gets the name by which tasks refer to this kernel.
+	 * @return the name of the kernel
+	 */
+	String name();
+	
+	/**
+	 * Runs the kernel.
+	 * @param task The task, which supplies the arguments and number of threads.
+	 * @param context The resources of the RMI server, such as its thread pool.
+	 * @return The result of the task, which is returned to the caller.
+	 * @throws Exception If the task fails, in which case the caller receives a
+	 * RemoteException caused by it.
+	 */
+	Serializable execute(TaskSpec task, KernelContext context) throws Exception;
+	
+	/**
+	 * Exercises the kernel so that the JIT compiler compiles its hot spots
+	 * before the first request.  Called when the RMI server starts.  
+	 * Does nothing by default.
+	 * @param context The resources of the RMI server, such as its thread pool.
+	 * @throws Exception If the warmup fails.
+	 */
+	default void warmup(KernelContext context) throws Exception {}
+	
+	/**
+	 * Checks whether tasks of this kernel skip the admission control of the 
+	 * RMI server (see {@link RequestScheduler}), running as soon as they 
+	 * arrive.  Kernels whose tasks wait on tasks of other RMI servers, which 
+	 * may in turn wait on them, should skip it, since a task that holds an
+	 * admission slot while it waits can deadlock with its peers.  Such kernels
+	 * should still run their computation on {@link KernelContext#executor}.
+	 * Returns false by default.
+	 * @return true if tasks of this kernel are not subject to admission control
+	 */
+	default boolean bypassesAdmission() { return false; }
+}
@@ -1,62 +1,296 @@
-/*
- * Copyright 2017 Vincent A. Cicirello.
- *
- * This file is part of package org.cicirello.algengine.
- *
- * Java package org.cicirello.algengine is free software: you can 
- * redistribute it and/or modify it under the terms of the GNU 
- * General Public License as published by the Free Software 
- * Foundation, either version 3 of the License, or (at your 
- * option) any later version.
- *
- * Java package org.cicirello.algengine is distributed in the hope 
- * that it will be useful, but WITHOUT ANY WARRANTY; without even 
- * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
- * PARTICULAR PURPOSE.  See the GNU General Public License for more 
- * details.
- *
- * You should have received a copy of the GNU General Public License
- * along with Java package org.cicirello.permutations.  If not, 
- * see <http://www.gnu.org/licenses/>.
- *
- */
-package org.cicirello.algengine;
-
-import java.rmi.Remote;
-import java.rmi.RemoteException;
-
-/**
- * Interface to distributed algorithms available via Java RMI.
- * 
- * @author Vincent A. Cicirello
- * @version 8.15.2017
- */
-public interface RemoteParallelAlgorithms extends Remote {
-	
-	/**
-	 * Matrix multiplication.  Computes a*b.
-	 * Assumes that the dimensions of a and b are such that a*b is a legal
-	 * operation.  Otherwise, may throw a bounds exception.
-	 * 
-	 * @param numThreads The number of threads to use for the multiplication
-	 * on the remote server.
-	 * @param a The first matrix,
-	 * @param bTranspose The transpose of the second matrix.
-	 * @return a*b
-	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
-	 */
-	double[][] multiply(int numThreads, double[][] a, double[][] bTranspose) throws RemoteException;
-	
-	/**
-	 * A multithreaded Monte Carlo estimate of Pi.
-	 * Divides the number of samples, n, equally among the threads.
-	 * If n is not divisible by the number of threads, uses the smallest
-	 * n' &#62; n such that n' is divisible by the number of threads. 
-	 * 
-	 * @param n The minimum number of samples.
-	 * @param numThreads The number of threads to use.
-	 * @return Estimate of Pi.
-	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
-	 */
-	double pi(int n, int numThreads) throws RemoteException;
-}
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.util.List;
+
+import org.cicirello.math.MonteCarloIntegrator;
+import org.cicirello.math.SampleStatistics;
+
+/**
+ * Interface to distributed algorithms available via Java RMI.
+ * An RMI server that is overloaded may reject a request with an 
+ * {@link EngineBusyException} rather than run it.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 8.15.2017
+ */
+public interface RemoteParallelAlgorithms extends Remote {
+	
+	/**
+	 * Matrix multiplication.  Computes a*b.
+	 * Assumes that the dimensions of a and b are such that a*b is a legal
+	 * operation.  Otherwise, may throw a bounds exception.
+	 * 
+	 * @param numThreads The number of threads to use for the multiplication
+	 * on the remote server.
+	 * @param a The first matrix,
+	 * @param bTranspose The transpose of the second matrix.
+	 * @return a*b
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	double[][] multiply(int numThreads, double[][] a, double[][] bTranspose) throws RemoteException;
+	
+	/**
+	 * Traced matrix multiplication.  Computes a*b exactly as 
+	 * {@link #multiply(int, double[][], double[][])}, but records the steps of the call 
+	 * on the server as the spans of a {@link Trace}, which the caller 
+	 * then collects with {@link #collectTrace}.
+	 * 
+	 * @param numThreads The number of threads to use for the multiplication
+	 * on the remote server.
+	 * @param a The first matrix,
+	 * @param bTranspose The transpose of the second matrix.
+	 * @param traceId The id of the trace of the call, or 0 if it is not traced.
+	 * @return a*b
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	double[][] multiply(int numThreads, double[][] a, double[][] bTranspose, long traceId) throws RemoteException;
+	
+	/**
+	 * Matrix multiplication, distributed over a tree of RMI servers rooted at
+	 * this one.  Computes a*b.  The server divides the descendants into at most
+	 * fanout subtrees, forwards a slice of the work to the root of each subtree 
+	 * (sized in proportion to the size of the subtree), computes its own share, and
+	 * merges the results.
+	 * Assumes that the dimensions of a and b are such that a*b is a legal
+	 * operation.  Otherwise, may throw a bounds exception.
+	 * 
+	 * @param numThreads The number of threads to use for the multiplication
+	 * on each server of the tree.
+	 * @param a The first matrix,
+	 * @param bTranspose The transpose of the second matrix.
+	 * @param descendants The names of the RMI servers in the subtree below this one.
+	 * @param fanout The maximum number of children of any server in the tree.
+	 * @return a*b
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server,
+	 * or on any of the descendants.
+	 */
+	double[][] treeMultiply(int numThreads, double[][] a, double[][] bTranspose, String[] descendants, int fanout) throws RemoteException;
+	
+	/**
+	 * Traced matrix multiplication over a tree of RMI servers.  Computes a*b
+	 * exactly as {@link #treeMultiply(int, double[][], double[][], String[], int)}, 
+	 * but records the steps of the call as the spans of a {@link Trace}, which 
+	 * the caller then collects with {@link #collectTrace}.  The spans of the 
+	 * descendants are collected by this server, and included in its own.
+	 * 
+	 * @param numThreads The number of threads to use for the multiplication
+	 * on each server of the tree.
+	 * @param a The first matrix,
+	 * @param bTranspose The transpose of the second matrix.
+	 * @param descendants The names of the RMI servers in the subtree below this one.
+	 * @param fanout The maximum number of children of any server in the tree.
+	 * @param traceId The id of the trace of the call, or 0 if it is not traced.
+	 * @return a*b
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server,
+	 * or on any of the descendants.
+	 */
+	double[][] treeMultiply(int numThreads, double[][] a, double[][] bTranspose, String[] descendants, int fanout, long traceId) throws RemoteException;
+	
+	/**
+	 * Collects the spans of a trace recorded by the RMI server, which then
+	 * forgets them.  The start of each span is in the timebase of the server's
+	 * System.nanoTime, so the caller must align them with its own (see 
+	 * {@link Trace#addRemote}).  The server holds the spans of a limited 
+	 * number of recent traces, so collect them right after the traced call.
+	 * 
+	 * @param traceId The id of the trace.
+	 * @return The spans of the trace, which are empty if the server holds none.
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	List<TraceSpan> collectTrace(long traceId) throws RemoteException;
+	
+	/**
+	 * A multithreaded Monte Carlo estimate of Pi.
+	 * Divides the number of samples, n, equally among the threads.
+	 * If n is not divisible by the number of threads, uses the smallest
+	 * n' &#62; n such that n' is divisible by the number of threads. 
+	 * 
+	 * @param n The minimum number of samples.
+	 * @param numThreads The number of threads to use.
+	 * @return Estimate of Pi.
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	double pi(long n, int numThreads) throws RemoteException;
+	
+	/**
+	 * A multithreaded Monte Carlo estimate of Pi, reproducible from a seed.
+	 * Divides the number of samples, n, equally among the threads.
+	 * If n is not divisible by the number of threads, uses the smallest
+	 * n' &#62; n such that n' is divisible by the number of threads. 
+	 * Thread t uses the stream RandomStreams.stream(seed, t).
+	 * 
+	 * @param n The minimum number of samples.
+	 * @param numThreads The number of threads to use.
+	 * @param seed The seed from which the streams of the threads are derived.
+	 * @return Estimate of Pi.
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	double pi(long n, int numThreads, long seed) throws RemoteException;
+	
+	/**
+	 * Starts a multithreaded anytime Monte Carlo estimate of Pi, which keeps
+	 * drawing samples until stopped.  See {@link org.cicirello.math.AnytimePi}.
+	 * The run stops itself if it is not polled for a while.
+	 * 
+	 * @param jobId An identifier for the run, chosen by the caller.
+	 * @param numThreads The number of threads to use.
+	 * @param seed The seed from which the streams of the threads are derived.
+	 * @throws RemoteException If a run with that id already exists, or when 
+	 * exceptional behavior occurs on the RMI server.
+	 */
+	void startPi(long jobId, int numThreads, long seed) throws RemoteException;
+	
+	/**
+	 * Polls a run started by {@link #startPi} for the statistics of the samples
+	 * its threads have drawn so far.
+	 * 
+	 * @param jobId The identifier of the run.
+	 * @return The statistics of the samples of the integrand sqrt(1-x*x).
+	 * @throws RemoteException If there is no such run, or when exceptional 
+	 * behavior occurs on the RMI server.
+	 */
+	SampleStatistics piProgress(long jobId) throws RemoteException;
+	
+	/**
+	 * Stops a run started by {@link #startPi}.
+	 * 
+	 * @param jobId The identifier of the run.
+	 * @return The final statistics of the samples of the integrand sqrt(1-x*x).
+	 * @throws RemoteException If there is no such run, or when exceptional 
+	 * behavior occurs on the RMI server.
+	 */
+	SampleStatistics stopPi(long jobId) throws RemoteException;
+	
+	/**
+	 * Multithreaded Monte Carlo integration.  Draws a range of the samples
+	 * of the sequence of an integrator, dividing the range equally among the threads.
+	 * The class of the integrand must be available to the RMI server.
+	 * 
+	 * @param integrator The integrator, which specifies the integrand, the domain,
+	 * and the method of sampling.
+	 * @param n The minimum number of evaluations of the integrand by all servers together.
+	 * @param first The index of the first sample of the range.
+	 * @param count The number of samples in the range.
+	 * @param numThreads The number of threads to use.
+	 * @return The statistics of the values of the integrand at the samples.
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	SampleStatistics integrate(MonteCarloIntegrator integrator, long n, long first, long count, int numThreads) throws RemoteException;
+	
+	/**
+	 * Runs a task with one of the kernels registered on the RMI server 
+	 * (see {@link RemoteKernel}).  Tasks share the thread pool and resident
+	 * data of the server, so new kernels run on a warm JVM without changing 
+	 * this interface.
+	 * 
+	 * @param task The task, naming the kernel and supplying its arguments.
+	 * @return The result of the kernel.
+	 * @throws RemoteException If there is no such kernel (a cause of type 
+	 * IllegalArgumentException), if the kernel fails (with the failure as the cause), or 
+	 * when other exceptional behavior occurs on the RMI server.
+	 */
+	Serializable submit(TaskSpec task) throws RemoteException;
+	
+	/**
+	 * Gets the names of the kernels registered on the RMI server.
+	 * 
+	 * @return the names of the kernels
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	String[] kernels() throws RemoteException;
+	
+	/**
+	 * Gets the capabilities of the RMI server: its number of cores and the
+	 * speed of its matrix multiplication kernel, as measured at startup.
+	 * The latency and bandwidth of the returned object are those of a 
+	 * local node; see {@link NodeCapabilities#probe} for measuring them.
+	 * 
+	 * @param probe A payload that is ignored by the server, but which enables
+	 * the caller to measure the bandwidth of the link to the server.
+	 * @return The capabilities of the server.
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	NodeCapabilities capabilities(byte[] probe) throws RemoteException;
+	
+	/**
+	 * Does nothing, for measuring the round trip time of an RMI call.
+	 * 
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	void ping() throws RemoteException;
+	
+	/**
+	 * Receives and discards a payload, for measuring the time to send a 
+	 * payload to the RMI server.
+	 * 
+	 * @param payload The payload, such as a double[] or double[][].
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	void sink(Serializable payload) throws RemoteException;
+	
+	/**
+	 * Returns its payload, for measuring the time to send a payload to the 
+	 * RMI server and back.
+	 * 
+	 * @param payload The payload, such as a double[] or double[][].
+	 * @return the payload
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	Serializable echo(Serializable payload) throws RemoteException;
+	
+	/**
+	 * Gets the metrics of the RMI server: counters of requests and bytes, the
+	 * state of its thread pool and request queue, and latency histograms of the
+	 * queue wait, computation, garbage collection, and serialization of its requests.
+	 * 
+	 * @return A snapshot of the metrics of the server.
+	 * @throws RemoteException When exceptional behavior occurs on the RMI server.
+	 */
+	EngineStats stats() throws RemoteException;
+	
+	/**
+	 * Looks up the parallel algorithm server running on a host.
+	 * 
+	 * @param serverName The name of the host running the RMI server, optionally 
+	 * followed by a colon and the port of its RMI registry, such as localhost:1100
+	 * for a server of a {@link LocalCluster}.
+	 * @return A stub for the RMI server.
+	 * @throws RemoteException If the RMI registry of the host cannot be reached.
+	 * @throws NotBoundException If no parallel algorithm server is bound in the registry.
+	 */
+	static RemoteParallelAlgorithms lookup(String serverName) throws RemoteException, NotBoundException {
+		int colon = serverName.lastIndexOf(':');
+		Registry registry = colon > 0 && serverName.indexOf(':') == colon 
+				? LocateRegistry.getRegistry(serverName.substring(0, colon), Integer.parseInt(serverName.substring(colon + 1)))
+				: LocateRegistry.getRegistry(serverName);
+		return (RemoteParallelAlgorithms) registry.lookup("Alg");
+	}
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.rmi.RemoteException;
+import java.rmi.server.RemoteServer;
+import java.rmi.server.ServerNotActiveException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for the requests to an RMI server.  At most a fixed 
+ * number of requests run at once; the rest wait in a bounded queue, and a
+ * request that arrives to a full queue is rejected with an 
+ * {@link EngineBusyException} rather than queued.  Waiting requests are 
+ * admitted highest priority first, and among requests of equal priority,
+ * round-robin among the clients that are waiting, so that one client 
+ * submitting many requests cannot starve the others.  Clients are
+ * identified by host.
+ * 
+ * <p>Together with a thread pool sized to the cores of the node, this keeps
+ * the node from being oversubscribed when several masters use it at once: 
+ * under overload, requests wait or are turned away rather than all running 
+ * at once and thrashing.</p>
+ * 
+ * <p>The scheduler also records the queue wait, compute time, and garbage 
+ * collection time of each request in a {@link ServerMetrics}.</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class RequestScheduler {
+	
+	private final int maxActive;
+	private final int capacity;
+	private final ServerMetrics metrics;
+	private final ReentrantLock lock;
+	private final Condition changed;
+	// waiting requests by priority, and within a priority by client in round-robin order
+	private final TreeMap<Integer, LinkedHashMap<String, ArrayDeque<Waiter>>> waiting;
+	private int active;
+	private int queued;
+	private long rejected;
+	
+	/**
+	 * Initializes the scheduler.
+	 * @param maxActive The maximum number of requests to run at once.
+	 * @param capacity The maximum number of requests that may wait.
+	 * @param metrics The metrics in which to record the requests.
+	 */
+	public RequestScheduler(int maxActive, int capacity, ServerMetrics metrics) {
+		if (maxActive < 1 || capacity < 0) {
+			throw new IllegalArgumentException("maxActive must be positive and capacity non-negative");
+		}
+		this.maxActive = maxActive;
+		this.capacity = capacity;
+		this.metrics = metrics;
+		lock = new ReentrantLock();
+		changed = lock.newCondition();
+		waiting = new TreeMap<Integer, LinkedHashMap<String, ArrayDeque<Waiter>>>();
+	}
+	
+	/**
+	 * A request to an RMI server.
+	 * @param <T> The type of the result.
+	 */
+	@FunctionalInterface
+	public interface Request<T> {
+		/**
+		 * Runs the request.
+		 * @return the result
+		 * @throws RemoteException If the request fails.
+		 */
+		T call() throws RemoteException;
+	}
+	
+	/**
+	 * Runs a request once it is admitted, waiting in the queue if necessary.
+	 * The client is the host of the RMI call being handled by the current thread.
+	 * @param priority The priority of the request.  Higher priorities are admitted first.
+	 * @param request The request.
+	 * @param <T> The type of the result.
+	 * @return The result of the request.
+	 * @throws EngineBusyException If the queue is full.
+	 * @throws RemoteException If the request fails, or the thread is interrupted while waiting.
+	 */
+	public <T> T run(int priority, Request<T> request) throws RemoteException {
+		return run(priority, 0, request);
+	}
+	
+	/**
+	 * Runs a traced request once it is admitted, waiting in the queue if necessary.
+	 * The client is the host of the RMI call being handled by the current thread.
+	 * @param priority The priority of the request.  Higher priorities are admitted first.
+	 * @param traceId The id of the trace of the request, or 0 if it is not traced.
+	 * @param request The request.
+	 * @param <T> The type of the result.
+	 * @return The result of the request.
+	 * @throws EngineBusyException If the queue is full.
+	 * @throws RemoteException If the request fails, or the thread is interrupted while waiting.
+	 */
+	public <T> T run(int priority, long traceId, Request<T> request) throws RemoteException {
+		long arrived = metrics.started(traceId);
+		admit(clientHost(), priority);
+		long admitted = System.nanoTime();
+		long gc = ServerMetrics.gcNanos();
+		try {
+			return request.call();
+		} finally {
+			release();
+			metrics.finished(traceId, arrived, admitted, ServerMetrics.gcNanos() - gc);
+		}
+	}
+	
+	/**
+	 * Runs a request right away, without admission control, but records it 
+	 * in the metrics like any other.
+	 * @param request The request.
+	 * @param <T> The type of the result.
+	 * @return The result of the request.
+	 * @throws RemoteException If the request fails.
+	 */
+	public <T> T bypass(Request<T> request) throws RemoteException {
+		return bypass(0, request);
+	}
+	
+	/**
+	 * Runs a traced request right away, without admission control, but records it 
+	 * in the metrics like any other.
+	 * @param traceId The id of the trace of the request, or 0 if it is not traced.
+	 * @param request The request.
+	 * @param <T> The type of the result.
+	 * @return The result of the request.
+	 * @throws RemoteException If the request fails.
+	 */
+	public <T> T bypass(long traceId, Request<T> request) throws RemoteException {
+		long started = metrics.started(traceId);
+		long gc = ServerMetrics.gcNanos();
+		try {
+			return request.call();
+		} finally {
+			metrics.finished(traceId, started, started, ServerMetrics.gcNanos() - gc);
+		}
+	}
+	
+	/**
+	 * Admits a request whose work outlives the call that starts it, such as an
+	 * anytime estimate of Pi that runs until stopped, waiting in the queue if 
+	 * necessary.  The request counts as running until the returned action is run,
+	 * on any thread; running it again has no effect.  The call that starts the 
+	 * work is not recorded in the metrics by this method.
+	 * @param priority The priority of the request.  Higher priorities are admitted first.
+	 * @return The action that ends the request.
+	 * @throws EngineBusyException If the queue is full.
+	 * @throws RemoteException If the thread is interrupted while waiting.
+	 */
+	public Runnable hold(int priority) throws RemoteException {
+		admit(clientHost(), priority);
+		final AtomicBoolean held = new AtomicBoolean(true);
+		return () -> {
+			if (held.getAndSet(false)) release();
+		};
+	}
+	
+	/**
+	 * Gets the number of requests currently running.
+	 * @return the number of requests running
+	 */
+	public int active() {
+		lock.lock();
+		try {
+			return active;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Gets the number of requests currently waiting.
+	 * @return the number of requests waiting
+	 */
+	public int queued() {
+		lock.lock();
+		try {
+			return queued;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Gets the number of requests rejected so far because the queue was full.
+	 * @return the number of requests rejected
+	 */
+	public long rejected() {
+		lock.lock();
+		try {
+			return rejected;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	private void admit(String client, int priority) throws RemoteException {
+		lock.lock();
+		try {
+			if (active < maxActive && queued == 0) {
+				active++;
+				return;
+			}
+			if (queued >= capacity) {
+				rejected++;
+				throw new EngineBusyException("Server busy: " + active + " requests running and " + queued + " waiting");
+			}
+			Waiter w = new Waiter(client, priority);
+			waiting.computeIfAbsent(priority, p -> new LinkedHashMap<String, ArrayDeque<Waiter>>())
+				.computeIfAbsent(client, c -> new ArrayDeque<Waiter>()).add(w);
+			queued++;
+			try {
+				while (!w.admitted) {
+					changed.await();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if (!w.admitted) {
+					withdraw(w);
+					throw new RemoteException("Interrupted while waiting to be admitted", e);
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	private void release() {
+		lock.lock();
+		try {
+			active--;
+			while (active < maxActive && queued > 0) {
+				Map.Entry<Integer, LinkedHashMap<String, ArrayDeque<Waiter>>> top = waiting.lastEntry();
+				Iterator<Map.Entry<String, ArrayDeque<Waiter>>> clients = top.getValue().entrySet().iterator();
+				Map.Entry<String, ArrayDeque<Waiter>> next = clients.next();
+				Waiter w = next.getValue().poll();
+				// move the client to the back of the rotation
+				clients.remove();
+				if (!next.getValue().isEmpty()) {
+					top.getValue().put(next.getKey(), next.getValue());
+				} else if (top.getValue().isEmpty()) {
+					waiting.remove(top.getKey());
+				}
+				w.admitted = true;
+				queued--;
+				active++;
+			}
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	private void withdraw(Waiter w) {
+		LinkedHashMap<String, ArrayDeque<Waiter>> clients = waiting.get(w.priority);
+		ArrayDeque<Waiter> mine = clients.get(w.client);
+		mine.remove(w);
+		if (mine.isEmpty()) {
+			clients.remove(w.client);
+			if (clients.isEmpty()) waiting.remove(w.priority);
+		}
+		queued--;
+	}
+	
+	private static String clientHost() {
+		try {
+			return RemoteServer.getClientHost();
+		} catch (ServerNotActiveException e) {
+			// not within an RMI call, such as during warmup
+			return "local";
+		}
+	}
+	
+	private static final class Waiter {
+		private final String client;
+		private final int priority;
+		private boolean admitted;
+		
+		private Waiter(String client, int priority) {
+			this.client = client;
+			this.priority = priority;
+		}
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low overhead counters and latency histograms of the requests to an RMI 
+ * server, recorded by its {@link RequestScheduler} and {@link MeteredServerSocketFactory}.
+ * For each request, records the time it waited to be admitted, the time it
+ * computed, the garbage collection time while it computed, the time from 
+ * the arrival of its first byte until it started (transfer and 
+ * deserialization of the arguments), and the time from its end until its 
+ * reply was flushed to the socket (serialization of the result).  Also counts 
+ * the bytes received and sent.
+ * 
+ * <p>The serialization times rely on Java RMI reading a call, running it, and
+ * writing its reply on the same thread, which it does for its default 
+ * transport.  The garbage collection time is that of the whole JVM, so 
+ * requests that run at the same time each see all of it.</p>
+ * 
+ * <p>For traced requests, those with a nonzero trace id, the same steps are
+ * also recorded as the spans of a {@link Trace}, which the metrics hold until
+ * the client collects them.  Only the most recent traces are held.</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class ServerMetrics {
+	
+	private final LongAdder bytesIn;
+	private final LongAdder bytesOut;
+	private final LatencyHistogram queueWait;
+	private final LatencyHistogram compute;
+	private final LatencyHistogram gc;
+	private final LatencyHistogram unmarshal;
+	private final LatencyHistogram marshal;
+	// the arrival of the call being read by this thread, and the end and trace id of the call whose reply it is writing
+	private final ThreadLocal<long[]> call;
+	// the traces not yet collected, least recently used first
+	private final LinkedHashMap<Long, Trace> traces;
+	
+	private static final int MAX_TRACES = 256;
+	
+	/**
+	 * Initializes the metrics.
+	 */
+	public ServerMetrics() {
+		bytesIn = new LongAdder();
+		bytesOut = new LongAdder();
+		queueWait = new LatencyHistogram();
+		compute = new LatencyHistogram();
+		gc = new LatencyHistogram();
+		unmarshal = new LatencyHistogram();
+		marshal = new LatencyHistogram();
+		call = ThreadLocal.withInitial(() -> new long[3]);
+		traces = new LinkedHashMap<Long, Trace>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Trace> eldest) {
+				return size() > MAX_TRACES;
+			}
+		};
+	}
+	
+	/**
+	 * Gets the number of bytes received from clients.
+	 * @return the number of bytes received
+	 */
+	public long bytesIn() { return bytesIn.sum(); }
+	
+	/**
+	 * Gets the number of bytes sent to clients.
+	 * @return the number of bytes sent
+	 */
+	public long bytesOut() { return bytesOut.sum(); }
+	
+	/**
+	 * Gets the histogram of the times requests waited to be admitted.
+	 * @return the histogram
+	 */
+	public LatencyHistogram queueWait() { return queueWait; }
+	
+	/**
+	 * Gets the histogram of the times requests computed once admitted.
+	 * @return the histogram
+	 */
+	public LatencyHistogram compute() { return compute; }
+	
+	/**
+	 * Gets the histogram of the garbage collection times during requests.
+	 * @return the histogram
+	 */
+	public LatencyHistogram gc() { return gc; }
+	
+	/**
+	 * Gets the histogram of the times from the arrival of requests until they started,
+	 * which is mostly the transfer and deserialization of their arguments.
+	 * @return the histogram
+	 */
+	public LatencyHistogram unmarshal() { return unmarshal; }
+	
+	/**
+	 * Gets the histogram of the times from the end of requests until their 
+	 * replies were sent, which is mostly the serialization of their results.
+	 * @return the histogram
+	 */
+	public LatencyHistogram marshal() { return marshal; }
+	
+	/*
+	 * Called as a request starts, before it waits to be admitted.  
+	 * Returns the time in nanoseconds.
+	 */
+	long started(long traceId) {
+		long now = System.nanoTime();
+		long[] c = call.get();
+		if (c[0] != 0) {
+			unmarshal.record(now - c[0]);
+			if (traceId != 0) trace(traceId).record("unmarshal", "rmi", c[0], now);
+			c[0] = 0;
+		}
+		return now;
+	}
+	
+	/*
+	 * Called as a request ends.
+	 */
+	void finished(long traceId, long started, long admitted, long gcNanos) {
+		long now = System.nanoTime();
+		queueWait.record(admitted - started);
+		compute.record(now - admitted);
+		gc.record(gcNanos);
+		if (traceId != 0) {
+			Trace trace = trace(traceId);
+			if (admitted > started) trace.record("queue", "queue", started, admitted);
+			trace.record("compute", "compute", admitted, now);
+		}
+		long[] c = call.get();
+		c[1] = now;
+		c[2] = traceId;
+	}
+	
+	/*
+	 * The trace with an id, which is created if the metrics do not hold it.
+	 */
+	Trace trace(long traceId) {
+		synchronized (traces) {
+			Trace trace = traces.get(traceId);
+			if (trace == null) {
+				trace = new Trace(traceId);
+				traces.put(traceId, trace);
+			}
+			return trace;
+		}
+	}
+	
+	/*
+	 * Removes a trace, and returns its spans, which are empty if the metrics 
+	 * do not hold it.
+	 */
+	List<TraceSpan> collect(long traceId) {
+		Trace trace;
+		synchronized (traces) {
+			trace = traces.remove(traceId);
+		}
+		return trace != null ? trace.spans() : new ArrayList<TraceSpan>();
+	}
+	
+	/*
+	 * Called by the sockets as bytes are received.
+	 */
+	void received(int bytes) {
+		bytesIn.add(bytes);
+		long[] c = call.get();
+		if (c[0] == 0) c[0] = System.nanoTime();
+	}
+	
+	/*
+	 * Called by the sockets as bytes are sent.
+	 */
+	void sent(int bytes) {
+		bytesOut.add(bytes);
+	}
+	
+	/*
+	 * Called by the sockets as a reply is flushed.
+	 */
+	void flushed() {
+		long[] c = call.get();
+		if (c[1] != 0) {
+			long now = System.nanoTime();
+			marshal.record(now - c[1]);
+			if (c[2] != 0) trace(c[2]).record("marshal", "rmi", c[1], now);
+		}
+		c[0] = c[1] = c[2] = 0;
+	}
+	
+	/*
+	 * The total garbage collection time of the JVM so far, in nanoseconds.
+	 */
+	static long gcNanos() {
+		long millis = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			millis += Math.max(0, bean.getCollectionTime());
+		}
+		return TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The Java Flight Recorder event of a {@link TraceSpan}, so that the spans
+ * of traced calls appear in flight recordings of the nodes, alongside garbage
+ * collections, thread states, and so forth.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+@Name("org.cicirello.algengine.Span")
+@Label("Trace Span")
+@Category("Parallel Algorithms")
+@Description("A step of a traced distributed call")
+final class SpanEvent extends Event {
+	
+	@Label("Trace Id")
+	long traceId;
+	
+	@Label("Name")
+	String name;
+	
+	@Label("Category")
+	String category;
+	
+	@Label("Span Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long spanDuration;
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+
+import org.cicirello.matrixops.ConcurrentMatrixMultiplier;
+
+/**
+ * Built-in kernel "syrk": multithreaded computation of blocks of the lower 
+ * triangle of a * transpose(a) (see {@link ConcurrentMatrixMultiplier#syrkBlocks}).
+ * Arguments: double[][] a, int[] blocks, where a holds only the rows of the matrix
+ * that the blocks depend on, in order, and the blocks are given by four indexes 
+ * each (first row, end of the rows, first column, end of the columns) into those
+ * rows.  Returns the rows of each block as a double[][][].
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class SyrkKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "syrk";
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) {
+		double[][] a = task.argument(0, double[][].class);
+		int[] blocks = task.argument(1, int[].class);
+		return new ConcurrentMatrixMultiplier(task.numThreads(), context.executor()).syrkBlocks(a, blocks);
+	}
+	
+	@Override
+	public void warmup(KernelContext context) {
+		int n = context.warmupSize();
+		// a triangle on the diagonal, and a rectangle below it
+		execute(new TaskSpec(name(), 4, new double[n][n], new int[] {0, n / 2, 0, n / 2, n / 2, n, 0, n / 2}), context);
+	}
+}
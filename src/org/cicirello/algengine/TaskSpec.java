@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+
+/**
+ * A request to run a named kernel on an RMI server through
+ * {@link RemoteParallelAlgorithms#submit}.  Specifies the kernel, the number
+ * of threads to use, and the arguments of the kernel.  The classes of the 
+ * arguments must be available to the RMI server.  A task may also have a 
+ * priority, which orders it among the requests waiting to be admitted by a 
+ * busy RMI server (see {@link RequestScheduler}).
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class TaskSpec implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final String kernel;
+	private final int numThreads;
+	private final int priority;
+	private final Serializable[] arguments;
+	
+	/**
+	 * Specifies a task.
+	 * @param kernel The name of the kernel to run.
+	 * @param numThreads The number of threads the kernel should use.
+	 * @param arguments The arguments of the kernel.
+	 */
+	public TaskSpec(String kernel, int numThreads, Serializable... arguments) {
+		this(0, kernel, numThreads, arguments);
+	}
+	
+	/**
+	 * Specifies a task with a priority.
+	 * @param priority The priority of the task.  Higher priorities are admitted
+	 * first; the default priority, and that of the other requests of 
+	 * {@link RemoteParallelAlgorithms}, is 0.
+	 * @param kernel The name of the kernel to run.
+	 * @param numThreads The number of threads the kernel should use.
+	 * @param arguments The arguments of the kernel.
+	 */
+	public TaskSpec(int priority, String kernel, int numThreads, Serializable... arguments) {
+		this.priority = priority;
+		this.kernel = kernel;
+		this.numThreads = numThreads;
+		this.arguments = arguments;
+	}
+	
+	/**
+	 * Gets the name of the kernel to run.
+	 * @return the name of the kernel
+	 */
+	public String kernel() { return kernel; }
+	
+	/**
+	 * Gets the number of threads the kernel should use.
+	 * @return the number of threads
+	 */
+	public int numThreads() { return numThreads; }
+	
+	/**
+	 * Gets the priority of the task.
+	 * @return the priority
+	 */
+	public int priority() { return priority; }
+	
+	/**
+	 * Gets the number of arguments.
+	 * @return the number of arguments
+	 */
+	public int numArguments() { return arguments.length; }
+	
+	/**
+	 * Gets an argument of the kernel.
+	 * @param i The index of the argument.
+	 * @param type The expected type of the argument.
+	 * @param <T> The expected type of the argument.
+	 * @return the argument
+	 * @throws IllegalArgumentException if there is no such argument, or it is 
+	 * not of the expected type.
+	 */
+	public <T> T argument(int i, Class<T> type) {
+		if (i < 0 || i >= arguments.length) {
+			throw new IllegalArgumentException("Kernel " + kernel + " expects an argument at index " + i + ".");
+		}
+		if (arguments[i] != null && !type.isInstance(arguments[i])) {
+			throw new IllegalArgumentException("Kernel " + kernel + " expects argument " + i 
+				+ " to be a " + type.getSimpleName() + ", not a " + arguments[i].getClass().getSimpleName() + ".");
+		}
+		return type.cast(arguments[i]);
+	}
+	
+	@Override
+	public String toString() {
+		return kernel + "(" + arguments.length + " arguments, " + numThreads + " threads)";
+	}
+}
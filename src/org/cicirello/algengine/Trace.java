@@ -0,0 +1,275 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The spans of one traced call on one node: the steps of the call on 
+ * this node, and those of the RMI servers it called, moved into the timebase
+ * of this node.  The call is identified across nodes by the id of the trace,
+ * which is passed along with each RMI call.  Each span is also recorded as a
+ * Java Flight Recorder event (org.cicirello.algengine.Span).
+ * 
+ * <p>The clocks of different nodes are not synchronized, so the spans of an
+ * RMI server are aligned by assuming that the network took as long in each
+ * direction: they are centered within the span of the RMI call to the server.
+ * The uncovered parts of the RMI call, before and after, are the time on the 
+ * network.</p>
+ * 
+ * <p>A trace can be written in the Chrome trace event format, for viewing as
+ * a timeline in chrome://tracing or https://ui.perfetto.dev, with a process per node
+ * and a thread per thread.</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class Trace {
+	
+	private final long id;
+	private final List<TraceSpan> spans;
+	
+	/**
+	 * Starts a new trace with a random id.
+	 */
+	public Trace() {
+		this(newId());
+	}
+	
+	/**
+	 * Starts recording spans of an existing trace, such as on an RMI server 
+	 * for a traced call.
+	 * @param id The id of the trace.
+	 */
+	public Trace(long id) {
+		this.id = id;
+		spans = new ArrayList<TraceSpan>();
+	}
+	
+	/**
+	 * Gets the id of the trace.
+	 * @return the id of the trace
+	 */
+	public long id() {
+		return id;
+	}
+	
+	/**
+	 * Starts a span of this node.  Close the returned span to record it.
+	 * @param name The name of the step.
+	 * @param category The kind of step, such as compute or rmi.
+	 * @return the span, which records itself when closed
+	 */
+	public Span begin(String name, String category) {
+		return new Span(name, category);
+	}
+	
+	/**
+	 * Records a span of this node that has already ended.
+	 * @param name The name of the step.
+	 * @param category The kind of step, such as compute or rmi.
+	 * @param start The start of the step, from System.nanoTime.
+	 * @param end The end of the step, from System.nanoTime.
+	 */
+	public void record(String name, String category, long start, long end) {
+		SpanEvent event = new SpanEvent();
+		if (event.shouldCommit()) {
+			event.traceId = id;
+			event.name = name;
+			event.category = category;
+			event.spanDuration = end - start;
+			event.commit();
+		}
+		add(new TraceSpan(null, name, category, Thread.currentThread().getName(), start, end - start));
+	}
+	
+	/**
+	 * Adds the spans of an RMI server for this trace, moving them into the 
+	 * timebase of this node by centering them within the RMI call to the server.
+	 * @param serverName The name of the RMI server, which becomes the node of 
+	 * those of its spans without one.
+	 * @param remote The spans of the RMI server.
+	 * @param callStart The start of the RMI call on this node, from System.nanoTime.
+	 * @param callEnd The end of the RMI call on this node, from System.nanoTime.
+	 */
+	public void addRemote(String serverName, List<TraceSpan> remote, long callStart, long callEnd) {
+		if (remote.isEmpty()) return;
+		long serverStart = Long.MAX_VALUE;
+		long serverEnd = Long.MIN_VALUE;
+		for (TraceSpan s : remote) {
+			if (s.node() == null) {
+				serverStart = Math.min(serverStart, s.start());
+				serverEnd = Math.max(serverEnd, s.end());
+			}
+		}
+		if (serverStart == Long.MAX_VALUE) {
+			serverStart = remote.get(0).start();
+			serverEnd = remote.get(0).end();
+		}
+		long offset = callStart + ((callEnd - callStart) - (serverEnd - serverStart)) / 2 - serverStart;
+		for (TraceSpan s : remote) {
+			add(s.moved(offset, serverName));
+		}
+	}
+	
+	/**
+	 * Gets the spans recorded so far.
+	 * @return a copy of the list of spans
+	 */
+	public synchronized List<TraceSpan> spans() {
+		return new ArrayList<TraceSpan>(spans);
+	}
+	
+	/**
+	 * Writes the trace in the Chrome trace event format.
+	 * @param localName The name of this node in the trace.
+	 * @param out Where to write the trace.
+	 */
+	public void writeChromeTrace(String localName, Writer out) {
+		List<TraceSpan> all = spans();
+		long origin = Long.MAX_VALUE;
+		for (TraceSpan s : all) origin = Math.min(origin, s.start());
+		Map<String, Integer> pids = new LinkedHashMap<String, Integer>();
+		Map<String, Integer> tids = new LinkedHashMap<String, Integer>();
+		PrintWriter w = new PrintWriter(out);
+		w.println("{\"traceEvents\": [");
+		boolean first = true;
+		for (TraceSpan s : all) {
+			String node = s.node() != null ? s.node() : localName;
+			Integer pid = pids.get(node);
+			if (pid == null) {
+				pid = pids.size() + 1;
+				pids.put(node, pid);
+				first = event(w, first, "{\"name\": \"process_name\", \"ph\": \"M\", \"pid\": " + pid 
+						+ ", \"args\": {\"name\": \"" + escape(node) + "\"}}");
+			}
+			String threadKey = node + "\u0000" + s.thread();
+			Integer tid = tids.get(threadKey);
+			if (tid == null) {
+				tid = tids.size() + 1;
+				tids.put(threadKey, tid);
+				first = event(w, first, "{\"name\": \"thread_name\", \"ph\": \"M\", \"pid\": " + pid + ", \"tid\": " + tid
+						+ ", \"args\": {\"name\": \"" + escape(s.thread()) + "\"}}");
+			}
+			first = event(w, first, String.format(Locale.ROOT, "{\"name\": \"%s\", \"cat\": \"%s\", \"ph\": \"X\", \"ts\": %.3f, \"dur\": %.3f, \"pid\": %d, \"tid\": %d, \"args\": {\"traceId\": \"%x\"}}", 
+					escape(s.name()), escape(s.category()), (s.start() - origin) / 1000.0, s.duration() / 1000.0, pid, tid, id));
+		}
+		w.println();
+		w.println("]}");
+		w.flush();
+	}
+	
+	/**
+	 * Writes the trace in the Chrome trace event format to a file named 
+	 * trace-id.json, where id is the id of the trace in hexadecimal.
+	 * @param localName The name of this node in the trace.
+	 * @param directory The directory of the file.
+	 * @return the file
+	 * @throws IOException If the file cannot be written.
+	 */
+	public File writeChromeTrace(String localName, File directory) throws IOException {
+		File file = new File(directory, String.format(Locale.ROOT, "trace-%016x.json", id));
+		try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+			writeChromeTrace(localName, out);
+		}
+		return file;
+	}
+	
+	/**
+	 * A span of this node in progress.
+	 */
+	public final class Span implements AutoCloseable {
+		
+		private final String name;
+		private final String category;
+		private final long start;
+		private final SpanEvent event;
+		
+		private Span(String name, String category) {
+			this.name = name;
+			this.category = category;
+			event = new SpanEvent();
+			event.begin();
+			start = System.nanoTime();
+		}
+		
+		/**
+		 * Ends the span, and records it.
+		 */
+		@Override
+		public void close() {
+			long end = System.nanoTime();
+			event.end();
+			if (event.shouldCommit()) {
+				event.traceId = id;
+				event.name = name;
+				event.category = category;
+				event.spanDuration = end - start;
+				event.commit();
+			}
+			add(new TraceSpan(null, name, category, Thread.currentThread().getName(), start, end - start));
+		}
+	}
+	
+	private synchronized void add(TraceSpan span) {
+		spans.add(span);
+	}
+	
+	private static boolean event(PrintWriter w, boolean first, String json) {
+		if (!first) w.println(",");
+		w.print(json);
+		return false;
+	}
+	
+	private static String escape(String s) {
+		StringBuilder b = new StringBuilder();
+		for (char c : s.toCharArray()) {
+			if (c == '"' || c == '\\') b.append('\\').append(c);
+			else if (c < ' ') b.append(String.format(Locale.ROOT, "\\u%04x", (int)c));
+			else b.append(c);
+		}
+		return b.toString();
+	}
+	
+	/**
+	 * Generates a new random id, such as for the trace of an RMI call made
+	 * by a traced call.
+	 * @return a new nonzero trace id
+	 */
+	public static long newId() {
+		long id;
+		do {
+			id = ThreadLocalRandom.current().nextLong();
+		} while (id == 0);
+		return id;
+	}
+}
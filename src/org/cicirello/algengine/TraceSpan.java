@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+
+/**
+ * A span of time of a {@link Trace}: one step of a traced call on one node,
+ * such as the slicing of a matrix, an RMI call, or the computation of a slice.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class TraceSpan implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final String node;
+	private final String name;
+	private final String category;
+	private final String thread;
+	private final long start;
+	private final long duration;
+	
+	/**
+	 * Defines a span.
+	 * @param node The name of the node, or null for the node that recorded it.
+	 * @param name The name of the step.
+	 * @param category The kind of step, such as compute or rmi.
+	 * @param thread The name of the thread that did the step.
+	 * @param start The start of the step, in nanoseconds of System.nanoTime of 
+	 * the node that holds the span.
+	 * @param duration The duration of the step in nanoseconds.
+	 */
+	public TraceSpan(String node, String name, String category, String thread, long start, long duration) {
+		this.node = node;
+		this.name = name;
+		this.category = category;
+		this.thread = thread;
+		this.start = start;
+		this.duration = duration;
+	}
+	
+	/**
+	 * Gets the name of the node, which is null for the node that recorded the span 
+	 * until the span is passed to another node.
+	 * @return the name of the node
+	 */
+	public String node() { return node; }
+	
+	/**
+	 * Gets the name of the step.
+	 * @return the name of the step
+	 */
+	public String name() { return name; }
+	
+	/**
+	 * Gets the kind of step.
+	 * @return the kind of step
+	 */
+	public String category() { return category; }
+	
+	/**
+	 * Gets the name of the thread that did the step.
+	 * @return the name of the thread
+	 */
+	public String thread() { return thread; }
+	
+	/**
+	 * Gets the start of the step.
+	 * @return the start of the step in nanoseconds
+	 */
+	public long start() { return start; }
+	
+	/**
+	 * Gets the duration of the step.
+	 * @return the duration of the step in nanoseconds
+	 */
+	public long duration() { return duration; }
+	
+	/**
+	 * Gets the end of the step.
+	 * @return the end of the step in nanoseconds
+	 */
+	public long end() { return start + duration; }
+	
+	/*
+	 * This span, moved into the timebase of another node, and given a node name
+	 * if it has none.
+	 */
+	TraceSpan moved(long offset, String nodeName) {
+		return new TraceSpan(node != null ? node : nodeName, name, category, thread, start + offset, duration);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s %s %s [%s] %.3fms", node, category, name, thread, duration / 1e6);
+	}
+}
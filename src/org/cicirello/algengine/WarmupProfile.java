@@ -0,0 +1,213 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.algengine.
+ *
+ * Java package org.cicirello.algengine is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.algengine is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.algengine;
+
+import java.io.Serializable;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * How hard an RMI server warms up before it accepts requests.  Warming up runs
+ * every warmup action (such as {@link RemoteKernel#warmup} of each kernel) 
+ * in rounds, until the JIT compiler has compiled their hot spots: that is, until 
+ * the total compilation time of the JVM stops growing for a number of 
+ * consecutive rounds.  Bounds on the number of rounds and on the total time keep 
+ * warming up from going on forever, such as when compilation never settles down.
+ * 
+ * <p>Profiles are given to the server by the system property algengine.warmup,
+ * either as the name of one of the predefined profiles, none, quick, or full
+ * (the default), or as minRounds,maxRounds,stableRounds,budgetMillis.</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class WarmupProfile {
+	
+	/** No warmup at all. */
+	public static final WarmupProfile NONE = new WarmupProfile(0, 0, 0, 0);
+	
+	/** A few rounds, for a server that must start quickly. */
+	public static final WarmupProfile QUICK = new WarmupProfile(1, 5, 1, 5000);
+	
+	/** Warmup until compilation has settled down, for timing experiments. */
+	public static final WarmupProfile FULL = new WarmupProfile(3, 100, 3, 120000);
+	
+	// compilation time per round, relative to the time of the round, that is ignored as noise
+	private static final double NOISE = 0.02;
+	
+	private final int minRounds;
+	private final int maxRounds;
+	private final int stableRounds;
+	private final long budgetMillis;
+	
+	/**
+	 * Defines a warmup profile.
+	 * @param minRounds The minimum number of rounds.
+	 * @param maxRounds The maximum number of rounds.
+	 * @param stableRounds The number of consecutive rounds without compilation 
+	 * after which the warmup is complete.
+	 * @param budgetMillis The maximum time to warmup, after which no more rounds 
+	 * are started.
+	 * @throws IllegalArgumentException if any are negative, or minRounds exceeds maxRounds.
+	 */
+	public WarmupProfile(int minRounds, int maxRounds, int stableRounds, long budgetMillis) {
+		if (minRounds < 0 || stableRounds < 0 || budgetMillis < 0 || maxRounds < minRounds) {
+			throw new IllegalArgumentException("Invalid warmup profile");
+		}
+		this.minRounds = minRounds;
+		this.maxRounds = maxRounds;
+		this.stableRounds = stableRounds;
+		this.budgetMillis = budgetMillis;
+	}
+	
+	/**
+	 * Gets a warmup profile by name (none, quick, or full), or from the form
+	 * minRounds,maxRounds,stableRounds,budgetMillis.
+	 * @param spec The name or definition of the profile.
+	 * @return the profile
+	 * @throws IllegalArgumentException if spec is neither.
+	 */
+	public static WarmupProfile parse(String spec) {
+		switch (spec.trim().toLowerCase()) {
+			case "none": return NONE;
+			case "quick": return QUICK;
+			case "full": return FULL;
+			default:
+				String[] parts = spec.split(",");
+				if (parts.length != 4) {
+					throw new IllegalArgumentException("Unknown warmup profile: " + spec);
+				}
+				try {
+					return new WarmupProfile(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()), 
+							Integer.parseInt(parts[2].trim()), Long.parseLong(parts[3].trim()));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Unknown warmup profile: " + spec, e);
+				}
+		}
+	}
+	
+	/**
+	 * Warms up by running the actions in rounds, as defined by this profile.
+	 * An action that fails is reported, and is not run again.
+	 * @param actions The warmup actions, by name.
+	 * @return The outcome of the warmup.
+	 */
+	public Outcome run(Map<String, Callable<?>> actions) {
+		Map<String, Callable<?>> remaining = new LinkedHashMap<String, Callable<?>>(actions);
+		List<String> failed = new ArrayList<String>();
+		CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+		boolean monitored = jit != null && jit.isCompilationTimeMonitoringSupported();
+		long start = System.nanoTime();
+		long deadline = start + budgetMillis * 1000000L;
+		int rounds = 0;
+		int stable = 0;
+		long compiled = monitored ? jit.getTotalCompilationTime() : 0;
+		while (rounds < maxRounds && (rounds < minRounds || stable < stableRounds) && System.nanoTime() < deadline) {
+			long roundStart = System.nanoTime();
+			for (Map.Entry<String, Callable<?>> action : new ArrayList<Map.Entry<String, Callable<?>>>(remaining.entrySet())) {
+				try {
+					action.getValue().call();
+				} catch (Exception e) {
+					System.err.println("Warmup of " + action.getKey() + " failed:");
+					e.printStackTrace();
+					remaining.remove(action.getKey());
+					failed.add(action.getKey());
+				}
+			}
+			rounds++;
+			if (monitored) {
+				long now = jit.getTotalCompilationTime();
+				long roundMillis = (System.nanoTime() - roundStart) / 1000000L;
+				stable = now - compiled <= Math.max(1, NOISE * roundMillis) ? stable + 1 : 0;
+				compiled = now;
+			} else {
+				// without compilation times, count every round as stable
+				stable++;
+			}
+		}
+		return new Outcome(rounds, (System.nanoTime() - start) / 1000000L, 
+				rounds == 0 || stable >= stableRounds, failed);
+	}
+	
+	@Override
+	public String toString() {
+		return minRounds + "," + maxRounds + "," + stableRounds + "," + budgetMillis;
+	}
+	
+	/**
+	 * The outcome of a warmup.
+	 */
+	public static final class Outcome implements Serializable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int rounds;
+		private final long millis;
+		private final boolean settled;
+		private final String[] failed;
+		
+		private Outcome(int rounds, long millis, boolean settled, List<String> failed) {
+			this.rounds = rounds;
+			this.millis = millis;
+			this.settled = settled;
+			this.failed = failed.toArray(new String[0]);
+		}
+		
+		/**
+		 * Gets the number of rounds of warmup.
+		 * @return the number of rounds
+		 */
+		public int rounds() { return rounds; }
+		
+		/**
+		 * Gets the time spent warming up.
+		 * @return the time in milliseconds
+		 */
+		public long millis() { return millis; }
+		
+		/**
+		 * Checks whether compilation settled down before the warmup ended, 
+		 * rather than the warmup running out of rounds or time.
+		 * @return true if compilation settled down
+		 */
+		public boolean settled() { return settled; }
+		
+		/**
+		 * Gets the names of the warmup actions that failed.
+		 * @return the names of the failed actions
+		 */
+		public String[] failed() { return failed.clone(); }
+		
+		@Override
+		public String toString() {
+			return String.format("%d rounds in %dms, %s%s", rounds, millis, 
+					settled ? "compilation settled" : "compilation still active", 
+					failed.length > 0 ? ", failed: " + String.join(", ", failed) : "");
+		}
+	}
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.math.
+ *
+ * Java package org.cicirello.math is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.math is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.math;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+
+/**
+ * An anytime Monte Carlo estimate of Pi.  Rather than drawing a fixed 
+ * number of samples, local threads and RMI servers keep drawing samples 
+ * until stopped, publishing the statistics (count, sum, and sum of squares) 
+ * of their samples every {@link #CHUNK} samples.  The master combines 
+ * these into a running estimate with a confidence interval, and can 
+ * stop all of the workers once the interval is narrow enough, or a 
+ * deadline passes, so that only as many samples are drawn as are needed.
+ * 
+ * The statistics of the RMI servers are collected by polling them, so the
+ * running estimate includes the work of each server as of the last poll.
+ * An RMI server stops its own workers if it is not polled for 
+ * {@link #LEASE_MILLIS} milliseconds, in case the master has gone away.
+ * 
+ * When seeded, local thread t uses the stream 
+ * RandomStreams.stream(RandomStreams.seed(seed, serverNames.length), t), and RMI server
+ * s uses RandomStreams.seed(seed, s) for its threads, consistent with {@link Pi}.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class AnytimePi {
+	
+	/**
+	 * Number of samples each worker draws between publishing its statistics.
+	 */
+	public static final long CHUNK = 1L << 20;
+	
+	/**
+	 * Milliseconds between polls of the RMI servers while awaiting a precision.
+	 */
+	public static final long POLL_MILLIS = 200;
+	
+	/**
+	 * Milliseconds after the last poll at which a server-side run stops itself.
+	 */
+	public static final long LEASE_MILLIS = 60000;
+	
+	/*
+	 * Minimum number of samples before the confidence interval is trusted.
+	 */
+	private static final long MIN_SAMPLES = 10000;
+	
+	private final AtomicReferenceArray<SampleStatistics> local;
+	private final Future<?>[] workers;
+	private final RemoteParallelAlgorithms[] servers;
+	private final SampleStatistics[] remote;
+	// server s runs under jobId + s, so a server listed twice gets two runs
+	private final long jobId;
+	private final boolean leased;
+	private volatile boolean stopped;
+	private volatile long lastPolled;
+	private SampleStatistics last;
+	
+	private AnytimePi(int threads, String[] serverNames, int threadsPerServer, long seed, boolean leased, ExecutorService es, Runnable finished) throws RemoteException, NotBoundException {
+		this.leased = leased;
+		lastPolled = System.currentTimeMillis();
+		last = SampleStatistics.EMPTY;
+		jobId = ThreadLocalRandom.current().nextLong();
+		servers = new RemoteParallelAlgorithms[serverNames.length];
+		remote = new SampleStatistics[serverNames.length];
+		for (int s = 0; s < servers.length; s++) {
+			remote[s] = SampleStatistics.EMPTY;
+			try {
+				servers[s] = RemoteParallelAlgorithms.lookup(serverNames[s]);
+				servers[s].startPi(jobId + s, threadsPerServer, RandomStreams.seed(seed, s));
+			} catch (RemoteException | NotBoundException e) {
+				// don't leave the runs already started going until their leases expire
+				for (int i = 0; i < s; i++) {
+					try {
+						servers[i].stopPi(jobId + i);
+					} catch (RemoteException suppressed) {
+						e.addSuppressed(suppressed);
+					}
+				}
+				throw e;
+			}
+		}
+		local = new AtomicReferenceArray<SampleStatistics>(threads);
+		workers = new Future<?>[threads];
+		long localSeed = servers.length > 0 ? RandomStreams.seed(seed, servers.length) : seed;
+		final AtomicInteger running = new AtomicInteger(threads);
+		if (threads == 0 && finished != null) finished.run();
+		for (int t = 0; t < threads; t++) {
+			local.set(t, SampleStatistics.EMPTY);
+			final int index = t;
+			final SplittableRandom r = RandomStreams.stream(localSeed, t);
+			workers[t] = es.submit(() -> {
+				try {
+					SampleStatistics mine = SampleStatistics.EMPTY;
+					while (!stopped) {
+						mine = mine.plus(Pi.statistics(CHUNK, r));
+						local.set(index, mine);
+						if (this.leased && System.currentTimeMillis() - lastPolled > LEASE_MILLIS) {
+							stopped = true;
+						}
+					}
+				} finally {
+					if (running.decrementAndGet() == 0 && finished != null) finished.run();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Starts an anytime estimate of Pi on local threads.
+	 * @param threads The number of threads.
+	 * @param seed The seed from which the streams of the threads are derived.
+	 * @param es An executor service on which to run the threads.
+	 * @return The running estimate.
+	 */
+	public static AnytimePi start(int threads, long seed, ExecutorService es) {
+		try {
+			return new AnytimePi(threads, new String[0], 0, seed, false, es, null);
+		} catch (RemoteException | NotBoundException e) {
+			// unreachable without RMI servers
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Starts an anytime estimate of Pi on local threads and RMI servers.
+	 * @param threads The number of local threads, which may be 0.
+	 * @param serverNames The list of RMI server names.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param seed The seed from which the streams of the threads are derived.
+	 * @param es An executor service on which to run the local threads.
+	 * @return The running estimate.
+	 * @throws RemoteException If one of the RMI servers cannot be reached.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public static AnytimePi start(int threads, String[] serverNames, int threadsPerServer, long seed, ExecutorService es) throws RemoteException, NotBoundException {
+		if (System.getSecurityManager() == null) {
+			System.setSecurityManager(new SecurityManager());
+		}
+		return new AnytimePi(threads, serverNames, threadsPerServer, seed, false, es, null);
+	}
+	
+	/**
+	 * Starts an anytime estimate of Pi on local threads on behalf of a remote
+	 * master, which stops itself if not polled for {@link #LEASE_MILLIS} milliseconds.
+	 * Used by the RMI servers.  The threads hold the threads of the executor service
+	 * until stopped, so it should not be one shared with short requests.
+	 * @param threads The number of threads.
+	 * @param seed The seed from which the streams of the threads are derived.
+	 * @param es An executor service on which to run the threads.
+	 * @param finished Run once all of the threads have finished, whether stopped
+	 * or by the lease expiring, such as to release the resources held for the run.
+	 * @return The running estimate.
+	 */
+	public static AnytimePi startLeased(int threads, long seed, ExecutorService es, Runnable finished) {
+		try {
+			return new AnytimePi(threads, new String[0], 0, seed, true, es, finished);
+		} catch (RemoteException | NotBoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Gets the combined statistics of the samples drawn so far, polling the 
+	 * RMI servers for theirs.  The samples are of the integrand sqrt(1-x*x), 
+	 * whose mean is Pi/4.
+	 * @return the combined statistics
+	 * @throws RemoteException If one of the RMI servers cannot be reached.
+	 */
+	public synchronized SampleStatistics statistics() throws RemoteException {
+		lastPolled = System.currentTimeMillis();
+		if (!stopped) {
+			for (int s = 0; s < servers.length; s++) {
+				remote[s] = servers[s].piProgress(jobId + s);
+			}
+		}
+		SampleStatistics total = SampleStatistics.EMPTY;
+		for (int t = 0; t < local.length(); t++) {
+			total = total.plus(local.get(t));
+		}
+		for (SampleStatistics r : remote) {
+			total = total.plus(r);
+		}
+		last = total;
+		return total;
+	}
+	
+	/**
+	 * Gets the current estimate of Pi, as of the last call to {@link #statistics}.
+	 * @return the estimate of Pi
+	 */
+	public synchronized double estimate() {
+		return 4 * last.mean();
+	}
+	
+	/**
+	 * Gets the half width of a confidence interval for Pi, as of the last call 
+	 * to {@link #statistics}.
+	 * @param z The critical value of the standard normal distribution for the 
+	 * desired confidence, such as 1.96 for 95% confidence.
+	 * @return the half width of the confidence interval
+	 */
+	public synchronized double halfWidth(double z) {
+		return 4 * last.halfWidth(z);
+	}
+	
+	/**
+	 * Gets the number of samples, as of the last call to {@link #statistics}.
+	 * @return the number of samples
+	 */
+	public synchronized long samples() {
+		return last.count();
+	}
+	
+	/**
+	 * Waits until the confidence interval for Pi is no wider than a target, 
+	 * or a deadline passes, and then stops all of the workers.
+	 * @param targetHalfWidth The target half width of the confidence interval.
+	 * @param z The critical value of the standard normal distribution for the 
+	 * desired confidence, such as 1.96 for 95% confidence.
+	 * @param timeoutMillis The maximum number of milliseconds to wait.
+	 * @return the final estimate of Pi
+	 * @throws RemoteException If one of the RMI servers cannot be reached.
+	 * @throws InterruptedException If interrupted while waiting.  The workers are
+	 * stopped in this case too.
+	 */
+	public double awaitPrecision(double targetHalfWidth, double z, long timeoutMillis) throws RemoteException, InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		try {
+			while (!stopped) {
+				long wait = Math.min(POLL_MILLIS, deadline - System.currentTimeMillis());
+				if (wait <= 0) break;
+				Thread.sleep(wait);
+				SampleStatistics current = statistics();
+				if (current.count() >= MIN_SAMPLES && 4 * current.halfWidth(z) <= targetHalfWidth) break;
+			}
+		} finally {
+			stop();
+		}
+		return estimate();
+	}
+	
+	/**
+	 * Stops all of the workers, local and remote, and collects the final 
+	 * statistics of their samples.
+	 * @return the final combined statistics
+	 * @throws RemoteException If one of the RMI servers cannot be reached, after
+	 * attempting to stop all of the others.
+	 */
+	public synchronized SampleStatistics stop() throws RemoteException {
+		RemoteException failure = null;
+		if (!stopped) {
+			stopped = true;
+			for (int s = 0; s < servers.length; s++) {
+				try {
+					remote[s] = servers[s].stopPi(jobId + s);
+				} catch (RemoteException e) {
+					if (failure == null) failure = e;
+				}
+			}
+		}
+		for (Future<?> worker : workers) {
+			try {
+				worker.get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		if (failure != null) throw failure;
+		return statistics();
+	}
+	
+	/**
+	 * Checks whether the workers have been stopped, either by {@link #stop}
+	 * or, for a run on behalf of a remote master, by the lease expiring.
+	 * @return true if stopped
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+}
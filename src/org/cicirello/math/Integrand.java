@@ -0,0 +1,48 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.math.
+ *
+ * Java package org.cicirello.math is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.math is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.math;
+
+import java.io.Serializable;
+
+/**
+ * A function to integrate with a {@link MonteCarloIntegrator}.  Integrands
+ * are serializable so that they can be sent to RMI servers, which must be 
+ * able to load the class of the integrand (e.g., by including it in
+ * algengine.jar, or via an RMI codebase).  A lambda expression whose target
+ * type is Integrand is serializable, but the class that defines it must 
+ * likewise be available to the RMI servers.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+@FunctionalInterface
+public interface Integrand extends Serializable {
+	
+	/**
+	 * Evaluates the function at a point.  The point must not be modified,
+	 * or retained after the call, since the caller reuses the array.
+	 * @param x The point, with one coordinate per dimension.
+	 * @return The value of the function at x.
+	 */
+	double value(double[] x);
+}
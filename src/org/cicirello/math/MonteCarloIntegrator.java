@@ -0,0 +1,412 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.math.
+ *
+ * Java package org.cicirello.math is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.math is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.math;
+
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+
+/**
+ * Monte Carlo integration of a user-supplied function over a d-dimensional box,
+ * sequentially, with multiple threads, or distributed among RMI servers
+ * via Java RMI.
+ * 
+ * The samples form a single sequence, indexed from 0, that is divided
+ * into contiguous ranges among the RMI servers and threads.  Pseudo-random
+ * samples are drawn from the stream RandomStreams.stream(seed, b) for the 
+ * block b of {@link #BLOCK} consecutive sample indices that they fall in, so the 
+ * set of samples is the same regardless of how many threads and servers 
+ * share the work.  Several methods of sampling are supported (see {@link Sampling}).  
+ * The quasi-Monte Carlo methods converge at a rate near O(1/n) for smooth 
+ * integrands, rather than the O(1/sqrt(n)) of pseudo-random sampling.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class MonteCarloIntegrator implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * Number of consecutive samples drawn from the same random stream.
+	 */
+	public static final int BLOCK = 4096;
+	
+	/**
+	 * Methods of sampling the domain.
+	 */
+	public enum Sampling {
+		/** Independent uniformly distributed samples. */
+		PSEUDO_RANDOM,
+		/** 
+		 * Pairs of samples u and 1-u, each averaged into one sample.  Reduces
+		 * variance for integrands that are monotone in each coordinate. 
+		 */
+		ANTITHETIC,
+		/** 
+		 * One or more uniformly distributed samples within each cell of a grid 
+		 * of m^d equal cells, where m is the largest integer such that m^d does
+		 * not exceed the number of samples.  The confidence intervals computed
+		 * from the sample variance are conservative with this method.
+		 */
+		STRATIFIED,
+		/** 
+		 * The Halton sequence, with the first d primes as bases.  Deterministic, 
+		 * so confidence intervals computed from the sample variance do not apply. 
+		 */
+		HALTON,
+		/** 
+		 * The Sobol' sequence, for up to 16 dimensions.  Deterministic, 
+		 * so confidence intervals computed from the sample variance do not apply. 
+		 */
+		SOBOL
+	}
+	
+	private static final int[] PRIMES = {
+		2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61, 67, 71, 
+		73, 79, 83, 89, 97, 101, 103, 107, 109, 113, 127, 131, 137, 139, 149, 151
+	};
+	
+	private final Integrand f;
+	private final double[] lower;
+	private final double[] width;
+	private final Sampling sampling;
+	private final long seed;
+	
+	/**
+	 * Initializes the integrator.
+	 * @param f The function to integrate.
+	 * @param lower The lower bounds of the domain, one per dimension.
+	 * @param upper The upper bounds of the domain, one per dimension.
+	 * @param sampling The method of sampling.
+	 * @param seed The seed from which the random streams are derived.
+	 * @throws IllegalArgumentException if the bounds have different lengths, 
+	 * or the sampling method does not support that many dimensions.
+	 */
+	public MonteCarloIntegrator(Integrand f, double[] lower, double[] upper, Sampling sampling, long seed) {
+		if (lower.length != upper.length) {
+			throw new IllegalArgumentException("Lower and upper bounds must have the same dimension.");
+		}
+		if (sampling == Sampling.SOBOL && lower.length > Sobol.MAX_DIMENSION
+				|| sampling == Sampling.HALTON && lower.length > PRIMES.length) {
+			throw new IllegalArgumentException(sampling + " sampling supports at most " 
+				+ (sampling == Sampling.SOBOL ? Sobol.MAX_DIMENSION : PRIMES.length) + " dimensions.");
+		}
+		this.f = f;
+		this.lower = lower.clone();
+		this.width = new double[lower.length];
+		for (int j = 0; j < width.length; j++) {
+			width[j] = upper[j] - lower[j];
+		}
+		this.sampling = sampling;
+		this.seed = seed;
+	}
+	
+	/**
+	 * Gets the number of dimensions of the domain.
+	 * @return the number of dimensions
+	 */
+	public int dimension() {
+		return lower.length;
+	}
+	
+	/**
+	 * Gets the volume of the domain.
+	 * @return the volume
+	 */
+	public double volume() {
+		double v = 1;
+		for (double w : width) v *= w;
+		return v;
+	}
+	
+	/**
+	 * Gets the number of samples in the sequence when the integrand may be
+	 * evaluated n times.  This is n, except with antithetic sampling, where 
+	 * each sample is a pair of evaluations, and with stratified sampling, 
+	 * where n is rounded up to a multiple of the number of cells of the grid.
+	 * @param n The minimum number of evaluations of the integrand.
+	 * @return the number of samples
+	 */
+	public long samples(long n) {
+		switch (sampling) {
+			case ANTITHETIC: 
+				return (n + 1) / 2;
+			case STRATIFIED:
+				long cells = cells(n);
+				return (n + cells - 1) / cells * cells;
+			default:
+				return n;
+		}
+	}
+	
+	/**
+	 * Estimates the integral with at least n evaluations of the integrand.
+	 * @param n The minimum number of evaluations of the integrand.
+	 * @return Estimate of the integral.
+	 */
+	public double integrate(long n) {
+		return volume() * sample(n, 0, samples(n)).mean();
+	}
+	
+	/**
+	 * Multithreaded estimate of the integral with at least n evaluations of the integrand.
+	 * @param n The minimum number of evaluations of the integrand.
+	 * @param threadCount The number of threads.
+	 * @param es An executor service to enable specifying type of thread pool.
+	 * @return Estimate of the integral.
+	 */
+	public double concurrentIntegrate(long n, int threadCount, ExecutorService es) {
+		return volume() * concurrentSample(n, 0, samples(n), threadCount, es).mean();
+	}
+	
+	/**
+	 * Estimate of the integral with at least n evaluations of the integrand, using 
+	 * Java RMI to distribute the computation among multiple RMI servers.
+	 * Divides the samples equally among the servers, which likewise divide their
+	 * share equally among their threads.
+	 * @param n The minimum number of evaluations of the integrand.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param serverNames The list of RMI server names.
+	 * @param es An executor service enabling specifying a different type of thread pool
+	 * for the local threads that make the RMI calls.
+	 * @return Estimate of the integral.
+	 */
+	public double distributedIntegrate(long n, int threadsPerServer, String[] serverNames, ExecutorService es) {
+		return volume() * distributedSample(n, threadsPerServer, serverNames, es).mean();
+	}
+	
+	/**
+	 * Draws the samples of the sequence for n evaluations of the integrand, using 
+	 * Java RMI to distribute the computation among multiple RMI servers.
+	 * @param n The minimum number of evaluations of the integrand.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param serverNames The list of RMI server names.
+	 * @param es An executor service enabling specifying a different type of thread pool
+	 * for the local threads that make the RMI calls.
+	 * @return The statistics of the values of the integrand at the samples.  Multiply the
+	 * mean, or the half width of a confidence interval, by the volume of the domain
+	 * to obtain those of the integral.  The samples of a server whose call fails are 
+	 * left out, so the count may fall short of the samples requested.
+	 */
+	public SampleStatistics distributedSample(long n, int threadsPerServer, String[] serverNames, ExecutorService es) {
+		class RemoteWorker implements Callable<SampleStatistics> {
+			private final String serverName;
+			private final long first;
+			private final long count;
+			public RemoteWorker(String serverName, long first, long count) {
+				this.serverName = serverName;
+				this.first = first;
+				this.count = count;
+				if (System.getSecurityManager() == null) {
+					System.setSecurityManager(new SecurityManager());
+				}
+			}
+			@Override
+			public SampleStatistics call() throws Exception {
+				try {
+					RemoteParallelAlgorithms comp = RemoteParallelAlgorithms.lookup(serverName);
+					return comp.integrate(MonteCarloIntegrator.this, n, first, count, threadsPerServer);
+				} catch (RemoteException | NotBoundException e) {
+					e.printStackTrace();
+					return null;
+				}
+			}
+		}
+		long[] bounds = partition(0, samples(n), serverNames.length);
+		@SuppressWarnings("unchecked")
+		Future<SampleStatistics>[] threadFutures = (Future<SampleStatistics>[])new Future[serverNames.length];
+		for (int i = 0; i < serverNames.length; i++) {
+			threadFutures[i] = es.submit(new RemoteWorker(serverNames[i], bounds[i], bounds[i+1] - bounds[i]));
+		}
+		return combine(threadFutures);
+	}
+	
+	/**
+	 * Draws a range of the samples of the sequence for n evaluations of the 
+	 * integrand, dividing the range among multiple threads.
+	 * @param n The minimum number of evaluations of the integrand.
+	 * @param first The index of the first sample of the range.
+	 * @param count The number of samples in the range.
+	 * @param threadCount The number of threads.
+	 * @param es An executor service to enable specifying type of thread pool.
+	 * @return The statistics of the values of the integrand at the samples.
+	 */
+	public SampleStatistics concurrentSample(long n, long first, long count, int threadCount, ExecutorService es) {
+		long[] bounds = partition(first, count, threadCount);
+		@SuppressWarnings("unchecked")
+		Future<SampleStatistics>[] threadFutures = (Future<SampleStatistics>[])new Future[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			final long start = bounds[i];
+			final long length = bounds[i+1] - bounds[i];
+			threadFutures[i] = es.submit(() -> sample(n, start, length));
+		}
+		return combine(threadFutures);
+	}
+	
+	/**
+	 * Draws a range of the samples of the sequence for n evaluations of the integrand.
+	 * @param n The minimum number of evaluations of the integrand.
+	 * @param first The index of the first sample of the range.
+	 * @param count The number of samples in the range.
+	 * @return The statistics of the values of the integrand at the samples.
+	 */
+	public SampleStatistics sample(long n, long first, long count) {
+		final int d = lower.length;
+		final double[] u = new double[d];
+		final double[] x = new double[d];
+		double sum = 0;
+		double sumOfSquares = 0;
+		long end = first + count;
+		switch (sampling) {
+			case PSEUDO_RANDOM:
+			case ANTITHETIC:
+			case STRATIFIED:
+				boolean antithetic = sampling == Sampling.ANTITHETIC;
+				long cells = sampling == Sampling.STRATIFIED ? cells(n) : 1;
+				long perCell = sampling == Sampling.STRATIFIED ? samples(n) / cells : 1;
+				int m = (int)Math.round(Math.pow(cells, 1.0 / d));
+				for (long i = first; i < end; ) {
+					long block = i / BLOCK;
+					long blockEnd = Math.min(end, (block + 1) * BLOCK);
+					SplittableRandom r = RandomStreams.stream(seed, block);
+					for (long skip = block * BLOCK; skip < i; skip++) {
+						for (int j = 0; j < d; j++) r.nextDouble();
+					}
+					for (; i < blockEnd; i++) {
+						for (int j = 0; j < d; j++) u[j] = r.nextDouble();
+						if (cells > 1) {
+							long cell = i / perCell;
+							for (int j = 0; j < d; j++) {
+								u[j] = (cell % m + u[j]) / m;
+								cell /= m;
+							}
+						}
+						double y = evaluate(u, x);
+						if (antithetic) {
+							for (int j = 0; j < d; j++) u[j] = 1 - u[j];
+							y = 0.5 * (y + evaluate(u, x));
+						}
+						sum += y;
+						sumOfSquares += y * y;
+					}
+				}
+				break;
+			case HALTON:
+				for (long i = first; i < end; i++) {
+					for (int j = 0; j < d; j++) u[j] = radicalInverse(i + 1, PRIMES[j]);
+					double y = evaluate(u, x);
+					sum += y;
+					sumOfSquares += y * y;
+				}
+				break;
+			case SOBOL:
+				// sample i is point i + 1 of the sequence, whose last point is 2^32 - 1
+				if (end >= 1L << 32) {
+					throw new IllegalArgumentException("Sobol sampling supports fewer than 2^32 samples.");
+				}
+				Sobol sobol = new Sobol(d, first + 1);
+				for (long i = first; i < end; i++) {
+					sobol.next(u);
+					double y = evaluate(u, x);
+					sum += y;
+					sumOfSquares += y * y;
+				}
+				break;
+		}
+		return new SampleStatistics(count, sum, sumOfSquares);
+	}
+	
+	/*
+	 * Maps u in the unit cube to x in the domain, and evaluates the integrand there.
+	 */
+	private double evaluate(double[] u, double[] x) {
+		for (int j = 0; j < x.length; j++) {
+			x[j] = lower[j] + width[j] * u[j];
+		}
+		return f.value(x);
+	}
+	
+	/*
+	 * Number of cells of the grid used by stratified sampling for n evaluations.
+	 */
+	private long cells(long n) {
+		int d = lower.length;
+		long m = Math.max(1, (long)Math.floor(Math.pow(n, 1.0 / d)));
+		while (Math.pow(m + 1, d) <= n) m++;
+		while (m > 1 && Math.pow(m, d) > n) m--;
+		return (long)Math.pow(m, d);
+	}
+	
+	/*
+	 * The radical inverse of i in a base, i.e., the digits of i mirrored about the
+	 * radix point.
+	 */
+	private static double radicalInverse(long i, int base) {
+		double inverse = 0;
+		double scale = 1.0 / base;
+		for (; i > 0; i /= base, scale /= base) {
+			inverse += (i % base) * scale;
+		}
+		return inverse;
+	}
+	
+	/*
+	 * Divides a range of sample indices into parts of nearly equal size, with 
+	 * interior boundaries rounded to multiples of BLOCK where possible.  Returns
+	 * the parts + 1 boundaries.
+	 */
+	private static long[] partition(long first, long count, int parts) {
+		long[] bounds = new long[parts + 1];
+		long end = first + count;
+		bounds[0] = first;
+		for (int i = 1; i < parts; i++) {
+			long b = first + count * i / parts;
+			long aligned = (b + BLOCK / 2) / BLOCK * BLOCK;
+			bounds[i] = Math.min(end, Math.max(bounds[i-1], aligned));
+		}
+		bounds[parts] = end;
+		return bounds;
+	}
+	
+	private static SampleStatistics combine(Future<SampleStatistics>[] threadFutures) {
+		SampleStatistics total = SampleStatistics.EMPTY;
+		for (Future<SampleStatistics> future : threadFutures) {
+			try {
+				SampleStatistics part = future.get();
+				// a failed server has already reported its exception and returned null
+				if (part != null) total = total.plus(part);
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		return total;
+	}
+}
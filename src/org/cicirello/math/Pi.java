@@ -1,196 +1,467 @@
-/*
- * Copyright 2017 Vincent A. Cicirello.
- *
- * This file is part of package org.cicirello.math.
- *
- * Java package org.cicirello.math is free software: you can 
- * redistribute it and/or modify it under the terms of the GNU 
- * General Public License as published by the Free Software 
- * Foundation, either version 3 of the License, or (at your 
- * option) any later version.
- *
- * Java package org.cicirello.math is distributed in the hope 
- * that it will be useful, but WITHOUT ANY WARRANTY; without even 
- * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
- * PARTICULAR PURPOSE.  See the GNU General Public License for more 
- * details.
- *
- * You should have received a copy of the GNU General Public License
- * along with Java package org.cicirello.permutations.  If not, 
- * see <http://www.gnu.org/licenses/>.
- *
- */
-
-
-package org.cicirello.math;
-
-import java.rmi.NotBoundException;
-import java.rmi.RemoteException;
-import java.rmi.registry.LocateRegistry;
-import java.rmi.registry.Registry;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.ThreadLocalRandom;
-
-import org.cicirello.algengine.RemoteParallelAlgorithms;
-
-/**
- * Estimates the value of Pi using Monte Carlo integration.
- * 
- * @author Vincent A. Cicirello
- * @version 8.15.2017
- */
-public class Pi {
-
-	/**
-	 * Estimates the value of Pi using Monte Carlo integration and n samples.
-	 * @param n The number of samples.
-	 * @return Estimate of Pi
-	 */
-	public static double pi(int n) {
-		double mean = 0;
-		for (int i = 1; i <= n; i++) {
-			double x = ThreadLocalRandom.current().nextDouble();
-			mean += (Math.sqrt(1-x*x)-mean)/i;
-		}
-		return 4*mean;
-	}
-	
-	/**
-	 * Multithreaded Monte Carlo estimate of Pi.
-	 * Divides the number of samples, n, equally among the threads.
-	 * If n is not divisible by the number of threads, uses the smallest
-	 * n' &#62; n such that n' is divisible by the number of threads.
-	 * Uses a cached thread pool by default.
-	 * @param n The minimum number of samples.
-	 * @param threadCount The number of threads.
-	 * @return An estimate of Pi.
-	 */
-	public static double concurrentPi(int n, int threadCount) {
-		return concurrentPi(n, threadCount, Executors.newCachedThreadPool());
-	}
-	
-	/**
-	 * Multithreaded Monte Carlo estimate of Pi.
-	 * Divides the number of samples, n, equally among the threads.
-	 * If n is not divisible by the number of threads, uses the smallest
-	 * n' &#62; n such that n' is divisible by the number of threads.
-	 * @param n The minimum number of samples.
-	 * @param threadCount The number of threads.
-	 * @param es An executor service to enable specifying type of 
-	 * thread pool.
-	 * @return An estimate of Pi.
-	 */
-	public static double concurrentPi(int n, int threadCount, ExecutorService es) {
-		
-		class PiWorker implements Callable<Double> {
-			private int n;
-			public PiWorker(int n) {
-				this.n = n;
-			}
-			@Override
-			public Double call() throws Exception {
-				return pi(n);
-			}
-		}
-		int perT = n / threadCount;
-		if (n % threadCount != 0) perT++;
-		@SuppressWarnings("unchecked")
-		Future<Double>[] threadFutures = (Future<Double>[])new Future[threadCount];
-		int i;
-		for (i = 0; i < threadCount; i++) {
-			threadFutures[i] = es.submit(new PiWorker(perT));
-		}
-		double mean = 0;
-		for (i = 0; i < threadCount; i++) {
-			try {
-				mean += (threadFutures[i].get()-mean) / (i+1);
-			} catch (InterruptedException | ExecutionException e) {
-				e.printStackTrace();
-			}
-		}
-		return mean;
-	}
-	
-	/**
-	 * Parallel Monte Carlo estimation of Pi, using Java RMI to
-	 * distribute the computation among multiple RMI servers.
-	 * Divides the number of samples, n, equally among the available
-	 * RMI servers. If n is not divisible by the number of servers, 
-	 * uses the smallest n' &#62; n such that n' is divisible by the number 
-	 * of servers.  The RMI servers likewise will increase the number of samples
-	 * in a similar fashion when distributing the work among their threads.
-	 * Uses a cached thread pool by default to manage the threads
-	 * used locally for the RMI calls.
-	 * @param n The minimum number of samples.
-	 * @param threadsPerServer The number of threads to execute on each RMI server.
-	 * @param serverNames The list of RMI server names.
-	 * @return Estimate of Pi.
-	 */
-	public static double distributedPi(int n, int threadsPerServer, String[] serverNames) {
-		return distributedPi(n, threadsPerServer, serverNames, Executors.newCachedThreadPool());
-	}
-	
-	/**
-	* Parallel Monte Carlo estimation of Pi, using Java RMI to
-	 * distribute the computation among multiple RMI servers.
-	 * Divides the number of samples, n, equally among the available
-	 * RMI servers. If n is not divisible by the number of servers, 
-	 * uses the smallest n' &#62; n such that n' is divisible by the number 
-	 * of servers.  The RMI servers likewise will increase the number of samples
-	 * in a similar fashion when distributing the work among their threads.
-	 * Uses a cached thread pool by default to manage the threads
-	 * used locally for the RMI calls.
-	 * @param n The minimum number of samples.
-	 * @param threadsPerServer The number of threads to execute on each RMI server.
-	 * @param serverNames The list of RMI server names.
-	 * @param es An executor service enabling specifying a different type of thread pool.
-	 * @return Estimate of Pi.
-	 */
-	public static double distributedPi(int n, int threadsPerServer, String[] serverNames, ExecutorService es) {
-		int threadCount = serverNames.length;
-		class PiWorker implements Callable<Double> {
-			private String serverName;
-			private int n;
-			public PiWorker(int n, String serverName) {
-				this.n = n;
-				this.serverName = serverName;
-				if (System.getSecurityManager() == null) {
-					System.setSecurityManager(new SecurityManager());
-		        }
-			}
-			@Override
-			public Double call() throws Exception {
-				try {
-					Registry registry = LocateRegistry.getRegistry(serverName);
-					RemoteParallelAlgorithms comp = (RemoteParallelAlgorithms) registry.lookup("Alg");
-					return comp.pi(n, threadsPerServer);
-				} catch (RemoteException | NotBoundException e) {
-					e.printStackTrace();
-					return null;
-				}	
-			}
-		}
-		int perT = n / threadCount;
-		if (n % threadCount != 0) perT++;
-		@SuppressWarnings("unchecked")
-		Future<Double>[] threadFutures = (Future<Double>[])new Future[threadCount];
-		int i;
-		for (i = 0; i < threadCount; i++) {
-			threadFutures[i] = es.submit(new PiWorker(perT, serverNames[i]));
-		}
-		double mean = 0;
-		for (i = 0; i < threadCount; i++) {
-			try {
-				mean += (threadFutures[i].get()-mean) / (i+1);
-			} catch (InterruptedException | ExecutionException e) {
-				e.printStackTrace();
-			}
-		}
-		return mean;
-	}
-
-}
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.math.
+ *
+ * Java package org.cicirello.math is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.math is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.math;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cicirello.algengine.Collectives;
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+import org.cicirello.algengine.TaskSpec;
+
+/**
+ * Estimates the value of Pi using Monte Carlo integration.
+ * 
+ * Each of the methods is available in an unseeded form, and in a seeded
+ * form whose result is reproducible bit for bit.  In the seeded forms, 
+ * thread t uses the stream {@link RandomStreams#stream RandomStreams.stream(seed, t)},
+ * and RMI server s is given the seed 
+ * {@link RandomStreams#seed RandomStreams.seed(seed, s)} for its threads.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 8.15.2017
+ */
+public class Pi {
+
+	/**
+	 * Estimates the value of Pi using Monte Carlo integration and n samples.
+	 * @param n The number of samples.
+	 * @return Estimate of Pi
+	 */
+	public static double pi(long n) {
+		return pi(n, new SplittableRandom());
+	}
+	
+	/**
+	 * Estimates the value of Pi using Monte Carlo integration and n samples
+	 * drawn from a given random number generator.
+	 * @param n The number of samples.
+	 * @param r The source of randomness.
+	 * @return Estimate of Pi, or 0 if n is 0, as for a thread given no samples
+	 */
+	public static double pi(long n, SplittableRandom r) {
+		return n > 0 ? 4 * sum(n, r) / n : 0;
+	}
+	
+	/*
+	 * Number of random numbers generated at a time by the kernel.
+	 */
+	private static final int BATCH = 1024;
+	
+	/*
+	 * The Monte Carlo kernel: the sum of sqrt(1-x*x) over n samples of x.  
+	 * Random numbers are generated a batch at a time into a buffer.  Each batch 
+	 * is summed with four independent accumulators, which keeps the square roots 
+	 * from waiting on each other, and the batch sums are added to the total
+	 * with Kahan compensated summation.  There is no division per sample, and 
+	 * the error of the sum grows with the number of batches only through the 
+	 * compensation term.
+	 */
+	static double sum(long n, SplittableRandom r) {
+		final double[] x = new double[BATCH];
+		double total = 0;
+		double compensation = 0;
+		for (long remaining = n; remaining > 0; remaining -= BATCH) {
+			int m = remaining < BATCH ? (int)remaining : BATCH;
+			for (int i = 0; i < m; i++) {
+				x[i] = r.nextDouble();
+			}
+			double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+			int i = 0;
+			for (; i + 3 < m; i += 4) {
+				s0 += Math.sqrt(1 - x[i] * x[i]);
+				s1 += Math.sqrt(1 - x[i+1] * x[i+1]);
+				s2 += Math.sqrt(1 - x[i+2] * x[i+2]);
+				s3 += Math.sqrt(1 - x[i+3] * x[i+3]);
+			}
+			for (; i < m; i++) {
+				s0 += Math.sqrt(1 - x[i] * x[i]);
+			}
+			double y = ((s0 + s1) + (s2 + s3)) - compensation;
+			double t = total + y;
+			compensation = (t - total) - y;
+			total = t;
+		}
+		return total;
+	}
+	
+	/*
+	 * The Monte Carlo kernel with statistics: like sum(n, r), but also 
+	 * accumulates the sum of the squares of the samples, which is simply
+	 * the sum of 1-x*x.
+	 */
+	static SampleStatistics statistics(long n, SplittableRandom r) {
+		final double[] x = new double[BATCH];
+		double total = 0;
+		double compensation = 0;
+		double squares = 0;
+		for (long remaining = n; remaining > 0; remaining -= BATCH) {
+			int m = remaining < BATCH ? (int)remaining : BATCH;
+			for (int i = 0; i < m; i++) {
+				x[i] = r.nextDouble();
+			}
+			double s0 = 0, s1 = 0, q0 = 0, q1 = 0;
+			int i = 0;
+			for (; i + 1 < m; i += 2) {
+				double y0 = 1 - x[i] * x[i];
+				double y1 = 1 - x[i+1] * x[i+1];
+				s0 += Math.sqrt(y0);
+				s1 += Math.sqrt(y1);
+				q0 += y0;
+				q1 += y1;
+			}
+			for (; i < m; i++) {
+				double y0 = 1 - x[i] * x[i];
+				s0 += Math.sqrt(y0);
+				q0 += y0;
+			}
+			double y = (s0 + s1) - compensation;
+			double t = total + y;
+			compensation = (t - total) - y;
+			total = t;
+			squares += q0 + q1;
+		}
+		return new SampleStatistics(n, total, squares);
+	}
+	
+	/**
+	 * Multithreaded Monte Carlo estimate of Pi.
+	 * Divides the number of samples, n, equally among the threads.
+	 * If n is not divisible by the number of threads, uses the smallest
+	 * n' &#62; n such that n' is divisible by the number of threads.
+	 * Uses a cached thread pool by default.
+	 * @param n The minimum number of samples.
+	 * @param threadCount The number of threads.
+	 * @return An estimate of Pi, or 0 if n is 0.
+	 */
+	public static double concurrentPi(long n, int threadCount) {
+		return concurrentPi(n, threadCount, Executors.newCachedThreadPool());
+	}
+	
+	/**
+	 * Multithreaded Monte Carlo estimate of Pi.
+	 * Divides the number of samples, n, equally among the threads.
+	 * If n is not divisible by the number of threads, uses the smallest
+	 * n' &#62; n such that n' is divisible by the number of threads.
+	 * @param n The minimum number of samples.
+	 * @param threadCount The number of threads.
+	 * @param es An executor service to enable specifying type of 
+	 * thread pool.
+	 * @return An estimate of Pi, or 0 if n is 0.
+	 */
+	public static double concurrentPi(long n, int threadCount, ExecutorService es) {
+		return concurrentPi(n, threadCount, null, es);
+	}
+	
+	/**
+	 * Multithreaded Monte Carlo estimate of Pi, reproducible from a seed.
+	 * Divides the number of samples, n, equally among the threads.
+	 * If n is not divisible by the number of threads, uses the smallest
+	 * n' &#62; n such that n' is divisible by the number of threads.
+	 * @param n The minimum number of samples.
+	 * @param threadCount The number of threads.
+	 * @param seed The seed from which the streams of the threads are derived.
+	 * @param es An executor service to enable specifying type of 
+	 * thread pool.
+	 * @return An estimate of Pi, or 0 if n is 0.
+	 */
+	public static double concurrentPi(long n, int threadCount, long seed, ExecutorService es) {
+		return concurrentPi(n, threadCount, Long.valueOf(seed), es);
+	}
+	
+	private static double concurrentPi(long n, int threadCount, final Long seed, ExecutorService es) {
+		
+		final double[] sums = new double[threadCount];
+		class PiWorker implements Runnable {
+			private long n;
+			private int index;
+			public PiWorker(long n, int index) {
+				this.n = n;
+				this.index = index;
+			}
+			@Override
+			public void run() {
+				sums[index] = sum(n, seed == null ? new SplittableRandom() : RandomStreams.stream(seed, index));
+			}
+		}
+		long perT = n / threadCount;
+		if (n % threadCount != 0) perT++;
+		Future<?>[] threadFutures = new Future<?>[threadCount];
+		int i;
+		for (i = 0; i < threadCount; i++) {
+			threadFutures[i] = es.submit(new PiWorker(perT, i));
+		}
+		double total = 0;
+		long samples = 0;
+		for (i = 0; i < threadCount; i++) {
+			try {
+				threadFutures[i].get();
+				total += sums[i];
+				samples += perT;
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		// divide only by the samples of threads that finished
+		return samples > 0 ? 4 * total / samples : 0;
+	}
+	
+	/**
+	 * Parallel Monte Carlo estimation of Pi, using Java RMI to
+	 * distribute the computation among multiple RMI servers.
+	 * Divides the number of samples, n, equally among the available
+	 * RMI servers. If n is not divisible by the number of servers, 
+	 * uses the smallest n' &#62; n such that n' is divisible by the number 
+	 * of servers.  The RMI servers likewise will increase the number of samples
+	 * in a similar fashion when distributing the work among their threads.
+	 * Uses a cached thread pool by default to manage the threads
+	 * used locally for the RMI calls.
+	 * @param n The minimum number of samples.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param serverNames The list of RMI server names.
+	 * @return Estimate of Pi.
+	 */
+	public static double distributedPi(long n, int threadsPerServer, String[] serverNames) {
+		return distributedPi(n, threadsPerServer, serverNames, Executors.newCachedThreadPool());
+	}
+	
+	/**
+	* Parallel Monte Carlo estimation of Pi, using Java RMI to
+	 * distribute the computation among multiple RMI servers.
+	 * Divides the number of samples, n, equally among the available
+	 * RMI servers. If n is not divisible by the number of servers, 
+	 * uses the smallest n' &#62; n such that n' is divisible by the number 
+	 * of servers.  The RMI servers likewise will increase the number of samples
+	 * in a similar fashion when distributing the work among their threads.
+	 * Uses a cached thread pool by default to manage the threads
+	 * used locally for the RMI calls.
+	 * @param n The minimum number of samples.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param serverNames The list of RMI server names.
+	 * @param es An executor service enabling specifying a different type of thread pool.
+	 * @return Estimate of Pi.
+	 */
+	public static double distributedPi(long n, int threadsPerServer, String[] serverNames, ExecutorService es) {
+		return distributedPi(n, threadsPerServer, serverNames, null, es);
+	}
+	
+	/**
+	 * Parallel Monte Carlo estimation of Pi, using Java RMI to
+	 * distribute the computation among multiple RMI servers, reproducible 
+	 * from a seed. Divides the number of samples, n, equally among the available
+	 * RMI servers. If n is not divisible by the number of servers, 
+	 * uses the smallest n' &#62; n such that n' is divisible by the number 
+	 * of servers.  The RMI servers likewise will increase the number of samples
+	 * in a similar fashion when distributing the work among their threads.
+	 * @param n The minimum number of samples.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param serverNames The list of RMI server names.
+	 * @param seed The seed from which the streams of the servers are derived.
+	 * @param es An executor service enabling specifying a different type of thread pool.
+	 * @return Estimate of Pi.
+	 */
+	public static double distributedPi(long n, int threadsPerServer, String[] serverNames, long seed, ExecutorService es) {
+		return distributedPi(n, threadsPerServer, serverNames, Long.valueOf(seed), es);
+	}
+	
+	private static double distributedPi(long n, int threadsPerServer, String[] serverNames, final Long seed, ExecutorService es) {
+		int threadCount = serverNames.length;
+		class PiWorker implements Callable<Double> {
+			private String serverName;
+			private long n;
+			private int index;
+			public PiWorker(long n, String serverName, int index) {
+				this.n = n;
+				this.serverName = serverName;
+				this.index = index;
+				if (System.getSecurityManager() == null) {
+					System.setSecurityManager(new SecurityManager());
+		        }
+			}
+			@Override
+			public Double call() throws Exception {
+				try {
+					return remotePi(serverName, n, threadsPerServer, seed, index);
+				} catch (RemoteException | NotBoundException e) {
+					e.printStackTrace();
+					return null;
+				}	
+			}
+		}
+		long perT = n / threadCount;
+		if (n % threadCount != 0) perT++;
+		@SuppressWarnings("unchecked")
+		Future<Double>[] threadFutures = (Future<Double>[])new Future[threadCount];
+		int i;
+		for (i = 0; i < threadCount; i++) {
+			threadFutures[i] = es.submit(new PiWorker(perT, serverNames[i], i));
+		}
+		double mean = 0;
+		for (i = 0; i < threadCount; i++) {
+			try {
+				mean += (threadFutures[i].get()-mean) / (i+1);
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		return mean;
+	}
+	
+	/**
+	 * Asynchronous parallel Monte Carlo estimation of Pi, using Java RMI to
+	 * distribute the computation among multiple RMI servers.  Returns immediately.
+	 * Divides the samples among the servers exactly as
+	 * {@link #distributedPi(long, int, String[])} does, but no thread of the 
+	 * caller waits on the computation, and continuations can be attached to 
+	 * the returned future.
+	 * Uses a cached thread pool by default to manage the threads
+	 * used locally for the RMI calls.
+	 * @param n The minimum number of samples.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param serverNames The list of RMI server names.
+	 * @return A future that completes with the estimate of Pi, or completes 
+	 * exceptionally if any of the RMI calls fails.
+	 */
+	public static CompletableFuture<Double> distributedPiAsync(long n, int threadsPerServer, String[] serverNames) {
+		return distributedPiAsync(n, threadsPerServer, serverNames, Executors.newCachedThreadPool());
+	}
+	
+	/**
+	 * Asynchronous parallel Monte Carlo estimation of Pi, using Java RMI to
+	 * distribute the computation among multiple RMI servers.  Returns immediately.
+	 * Divides the samples among the servers exactly as
+	 * {@link #distributedPi(long, int, String[])} does, but no thread of the 
+	 * caller waits on the computation, and continuations can be attached to 
+	 * the returned future.
+	 * @param n The minimum number of samples.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param serverNames The list of RMI server names.
+	 * @param es An executor service enabling specifying a different type of thread pool.
+	 * @return A future that completes with the estimate of Pi, or completes 
+	 * exceptionally if any of the RMI calls fails.
+	 */
+	public static CompletableFuture<Double> distributedPiAsync(long n, int threadsPerServer, String[] serverNames, ExecutorService es) {
+		return distributedPiAsync(n, threadsPerServer, serverNames, null, es);
+	}
+	
+	/**
+	 * Asynchronous parallel Monte Carlo estimation of Pi, reproducible from a seed.
+	 * Returns immediately.  See {@link #distributedPiAsync(long, int, String[], ExecutorService)}
+	 * and {@link #distributedPi(long, int, String[], long, ExecutorService)}.
+	 * @param n The minimum number of samples.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param serverNames The list of RMI server names.
+	 * @param seed The seed from which the streams of the servers are derived.
+	 * @param es An executor service enabling specifying a different type of thread pool.
+	 * @return A future that completes with the estimate of Pi, or completes 
+	 * exceptionally if any of the RMI calls fails.
+	 */
+	public static CompletableFuture<Double> distributedPiAsync(long n, int threadsPerServer, String[] serverNames, long seed, ExecutorService es) {
+		return distributedPiAsync(n, threadsPerServer, serverNames, Long.valueOf(seed), es);
+	}
+	
+	private static CompletableFuture<Double> distributedPiAsync(long n, int threadsPerServer, String[] serverNames, final Long seed, ExecutorService es) {
+		if (System.getSecurityManager() == null) {
+			System.setSecurityManager(new SecurityManager());
+		}
+		int threadCount = serverNames.length;
+		final long perT = n % threadCount != 0 ? n / threadCount + 1 : n / threadCount;
+		CompletableFuture<Double> sum = CompletableFuture.completedFuture(0.0);
+		for (int i = 0; i < threadCount; i++) {
+			final String serverName = serverNames[i];
+			final int index = i;
+			CompletableFuture<Double> estimate = CompletableFuture.supplyAsync(() -> {
+				try {
+					return remotePi(serverName, perT, threadsPerServer, seed, index);
+				} catch (RemoteException | NotBoundException e) {
+					throw new CompletionException(e);
+				}
+			}, es);
+			sum = sum.thenCombine(estimate, Double::sum);
+		}
+		return sum.thenApply(total -> total / threadCount);
+	}
+	
+	/**
+	 * Parallel Monte Carlo estimation of Pi, using Java RMI to distribute the 
+	 * computation among multiple RMI servers, which sum their estimates with a 
+	 * reduction among themselves (see {@link Collectives}) rather than each 
+	 * returning its estimate to the master.  Divides the samples among the 
+	 * servers exactly as {@link #distributedPi(long, int, String[])} does.
+	 * @param n The minimum number of samples.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param collectives The collectives of the RMI servers.
+	 * @return Estimate of Pi.
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public static double distributedPi(long n, int threadsPerServer, Collectives collectives) throws RemoteException, NotBoundException {
+		return distributedPi(n, threadsPerServer, collectives, null);
+	}
+	
+	/**
+	 * Parallel Monte Carlo estimation of Pi, reproducible from a seed, whose RMI 
+	 * servers sum their estimates with a reduction among themselves.  See 
+	 * {@link #distributedPi(long, int, Collectives)} and 
+	 * {@link #distributedPi(long, int, String[], long, ExecutorService)}.
+	 * @param n The minimum number of samples.
+	 * @param threadsPerServer The number of threads to execute on each RMI server.
+	 * @param collectives The collectives of the RMI servers.
+	 * @param seed The seed from which the streams of the servers are derived.
+	 * @return Estimate of Pi.
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public static double distributedPi(long n, int threadsPerServer, Collectives collectives, long seed) throws RemoteException, NotBoundException {
+		return distributedPi(n, threadsPerServer, collectives, Long.valueOf(seed));
+	}
+	
+	private static double distributedPi(long n, int threadsPerServer, Collectives collectives, Long seed) throws RemoteException, NotBoundException {
+		int threadCount = collectives.size();
+		long perT = n % threadCount != 0 ? n / threadCount + 1 : n / threadCount;
+		TaskSpec[] tasks = new TaskSpec[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			tasks[i] = seed == null 
+					? new TaskSpec("pi", threadsPerServer, perT) 
+					: new TaskSpec("pi", threadsPerServer, perT, RandomStreams.seed(seed, i));
+		}
+		return collectives.reduce(tasks, Collectives.Op.SUM)[0] / threadCount;
+	}
+	
+	private static double remotePi(String serverName, long n, int threadsPerServer, Long seed, int index) throws RemoteException, NotBoundException {
+		RemoteParallelAlgorithms comp = RemoteParallelAlgorithms.lookup(serverName);
+		return seed == null 
+				? comp.pi(n, threadsPerServer) 
+				: comp.pi(n, threadsPerServer, RandomStreams.seed(seed, index));
+	}
+}
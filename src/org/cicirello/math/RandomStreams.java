@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.math.
+ *
+ * Java package org.cicirello.math is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.math is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.math;
+
+import java.util.SplittableRandom;
+
+/**
+ * Derives independent, reproducible streams of random numbers from a
+ * root seed and a path of indices, such as the index of a node of the
+ * cluster followed by the index of a thread on that node.  The same seed
+ * and indices always produce the same stream, regardless of which node
+ * or thread derives it, so parallel and distributed runs can be repeated
+ * exactly.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class RandomStreams {
+	
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	
+	private RandomStreams() {}
+	
+	/**
+	 * Derives the seed of a stream from a root seed and a path of indices.
+	 * seed(seed(root, i), j) is equal to seed(root, i, j).
+	 * 
+	 * @param root The root seed.
+	 * @param indices The path of indices identifying the stream.
+	 * @return The seed of the stream.
+	 */
+	public static long seed(long root, long... indices) {
+		long h = root;
+		for (long index : indices) {
+			h = mix64(h + mix64(index + GOLDEN_GAMMA));
+		}
+		return h;
+	}
+	
+	/**
+	 * Creates the stream identified by a root seed and a path of indices.
+	 * 
+	 * @param root The root seed.
+	 * @param indices The path of indices identifying the stream.
+	 * @return A random number generator for the stream.
+	 */
+	public static SplittableRandom stream(long root, long... indices) {
+		return new SplittableRandom(seed(root, indices));
+	}
+	
+	/*
+	 * The finalizer of SplitMix64 (Stafford's variant 13).
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
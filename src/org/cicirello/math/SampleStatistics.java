@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.math.
+ *
+ * Java package org.cicirello.math is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.math is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.math;
+
+import java.io.Serializable;
+
+/**
+ * Running statistics of a sample: its size, sum and sum of squares.  
+ * Statistics of disjoint samples, such as those drawn by different threads 
+ * or RMI servers, are combined with {@link #plus}.  Instances are immutable.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class SampleStatistics implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The statistics of an empty sample.
+	 */
+	public static final SampleStatistics EMPTY = new SampleStatistics(0, 0, 0);
+	
+	private final long count;
+	private final double sum;
+	private final double sumOfSquares;
+	
+	/**
+	 * Initializes the statistics of a sample.
+	 * @param count The number of values in the sample.
+	 * @param sum The sum of the values.
+	 * @param sumOfSquares The sum of the squares of the values.
+	 */
+	public SampleStatistics(long count, double sum, double sumOfSquares) {
+		this.count = count;
+		this.sum = sum;
+		this.sumOfSquares = sumOfSquares;
+	}
+	
+	/**
+	 * Combines these statistics with those of another, disjoint sample.
+	 * @param other The statistics of the other sample.
+	 * @return The statistics of the union of the samples.
+	 */
+	public SampleStatistics plus(SampleStatistics other) {
+		return new SampleStatistics(count + other.count, sum + other.sum, sumOfSquares + other.sumOfSquares);
+	}
+	
+	/**
+	 * Gets the number of values in the sample.
+	 * @return the sample size
+	 */
+	public long count() { return count; }
+	
+	/**
+	 * Gets the sum of the values in the sample.
+	 * @return the sum
+	 */
+	public double sum() { return sum; }
+	
+	/**
+	 * Gets the sum of the squares of the values in the sample.
+	 * @return the sum of squares
+	 */
+	public double sumOfSquares() { return sumOfSquares; }
+	
+	/**
+	 * Gets the mean of the sample.
+	 * @return the mean, or NaN if the sample is empty
+	 */
+	public double mean() {
+		return sum / count;
+	}
+	
+	/**
+	 * Gets the (unbiased) variance of the sample.
+	 * @return the variance, or NaN if the sample has fewer than 2 values
+	 */
+	public double variance() {
+		if (count < 2) return Double.NaN;
+		return Math.max(0, (sumOfSquares - sum * sum / count) / (count - 1));
+	}
+	
+	/**
+	 * Gets the standard error of the mean.
+	 * @return the standard error
+	 */
+	public double standardError() {
+		return Math.sqrt(variance() / count);
+	}
+	
+	/**
+	 * Gets the half width of a normal-approximation confidence interval for the mean,
+	 * which is z times the standard error.
+	 * @param z The critical value of the standard normal distribution for the 
+	 * desired confidence, such as 1.96 for 95% confidence.
+	 * @return the half width of the confidence interval
+	 */
+	public double halfWidth(double z) {
+		return z * standardError();
+	}
+	
+	@Override
+	public String toString() {
+		return "n=" + count + ", mean=" + mean() + ", se=" + standardError();
+	}
+}
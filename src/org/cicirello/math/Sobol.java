@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.math.
+ *
+ * Java package org.cicirello.math is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.math is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+package org.cicirello.math;
+
+/**
+ * Sobol' low discrepancy sequences, with the direction numbers of 
+ * S. Joe and F. Y. Kuo, "Constructing Sobol sequences with better two-dimensional 
+ * projections," SIAM J. Sci. Comput. 30, 2635-2654 (2008), for up to
+ * {@link #MAX_DIMENSION} dimensions.  Points are generated in Gray code order
+ * with 32 bits of precision.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+final class Sobol {
+	
+	/**
+	 * The maximum supported number of dimensions.
+	 */
+	static final int MAX_DIMENSION = 16;
+	
+	private static final int BITS = 32;
+	
+	/*
+	 * For dimensions 2 and up: the degree s of the primitive polynomial, its
+	 * inner coefficients a, and the initial direction numbers m_1, ..., m_s.
+	 */
+	private static final int[][] PARAMETERS = {
+		{1, 0, 1},
+		{2, 1, 1, 3},
+		{3, 1, 1, 3, 1},
+		{3, 2, 1, 1, 1},
+		{4, 1, 1, 1, 3, 3},
+		{4, 4, 1, 3, 5, 13},
+		{5, 2, 1, 1, 5, 5, 17},
+		{5, 4, 1, 1, 5, 5, 5},
+		{5, 7, 1, 1, 7, 11, 19},
+		{5, 11, 1, 1, 5, 1, 1},
+		{5, 13, 1, 1, 1, 3, 11},
+		{5, 14, 1, 3, 5, 5, 31},
+		{6, 1, 1, 3, 3, 9, 7, 49},
+		{6, 13, 1, 1, 1, 15, 21, 21},
+		{6, 16, 1, 3, 1, 13, 27, 49}
+	};
+	
+	// directions[j][k] is direction number k (0-based) of dimension j, scaled by 2^32
+	private final long[][] directions;
+	private final long[] point;
+	private long index;
+	
+	/**
+	 * Initializes the sequence at a given index.
+	 * @param dimension The number of dimensions.
+	 * @param first The index of the first point to generate.
+	 * @throws IllegalArgumentException if the dimension exceeds {@link #MAX_DIMENSION},
+	 * or first is not in [0, 2^32)
+	 */
+	Sobol(int dimension, long first) {
+		if (dimension > MAX_DIMENSION) {
+			throw new IllegalArgumentException("Sobol sequences support at most " + MAX_DIMENSION + " dimensions.");
+		}
+		if (first < 0 || first >= 1L << BITS) {
+			throw new IllegalArgumentException("Sobol sequences have points only at indexes 0 through 2^" + BITS + " - 1.");
+		}
+		directions = new long[dimension][BITS];
+		for (int k = 0; k < BITS; k++) {
+			directions[0][k] = 1L << (BITS - 1 - k);
+		}
+		for (int j = 1; j < dimension; j++) {
+			int[] p = PARAMETERS[j-1];
+			int s = p[0];
+			int a = p[1];
+			long[] v = directions[j];
+			for (int k = 0; k < s && k < BITS; k++) {
+				v[k] = ((long)p[2+k]) << (BITS - 1 - k);
+			}
+			for (int k = s; k < BITS; k++) {
+				v[k] = v[k-s] ^ (v[k-s] >>> s);
+				for (int i = 1; i < s; i++) {
+					if (((a >>> (s - 1 - i)) & 1) != 0) {
+						v[k] ^= v[k-i];
+					}
+				}
+			}
+		}
+		point = new long[dimension];
+		index = first;
+		long gray = first ^ (first >>> 1);
+		for (int k = 0; gray != 0; k++, gray >>>= 1) {
+			if ((gray & 1) != 0) {
+				for (int j = 0; j < dimension; j++) {
+					point[j] ^= directions[j][k];
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Writes the current point of the sequence into x, and advances to the next.
+	 * @param x An array of length dimension to hold the point in [0,1)^dimension.
+	 * @throws IllegalStateException if the point at index 2^32 - 1, the last, 
+	 * has already been generated
+	 */
+	void next(double[] x) {
+		if (index >= 1L << BITS) {
+			throw new IllegalStateException("The Sobol sequence has no points after index 2^" + BITS + " - 1.");
+		}
+		for (int j = 0; j < x.length; j++) {
+			x[j] = point[j] * 0x1.0p-32;
+		}
+		index++;
+		// the last point has no successor within the direction numbers
+		if (index == 1L << BITS) return;
+		int k = Long.numberOfTrailingZeros(index);
+		for (int j = 0; j < point.length; j++) {
+			point[j] ^= directions[j][k];
+		}
+	}
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * A parallel LU factorization with partial pivoting of square matrices (see 
+ * {@link LUDecomposition}), by the right-looking blocked algorithm.  The columns
+ * are factored a block (a panel) at a time: a single thread factors the panel, 
+ * and then the threads of a {@link ConcurrentMatrixMultiplier} update the rest
+ * of the matrix to its right and below (the trailing matrix) by the panel, which
+ * is nearly all of the work.
+ * 
+ * With lookahead (the default), the trailing update first updates the next panel
+ * alone, so that its factorization runs on the panel thread at the same time
+ * as the threads update the rest of the trailing matrix, rather than waiting 
+ * for them.  The rows of the matrix are swapped by reference, and the update 
+ * tasks hold the rows they update, so the pivoting of the next panel does not 
+ * disturb them.
+ * 
+ * Optionally, the trailing updates that are large enough can instead be multiplied
+ * by the RMI servers of a {@link DistributedMatrixMultiplier} (see {@link #setRemote}).
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class BlockedLU {
+	
+	private final ConcurrentMatrixMultiplier multiplier;
+	private int blockSize;
+	private boolean lookahead;
+	private DistributedMatrixMultiplier remote;
+	private long remoteMinFlops;
+	
+	/**
+	 * Initializes the factorization.  Uses a cached thread pool.
+	 * 
+	 * @param threads The number of threads of trailing updates.
+	 */
+	public BlockedLU(int threads) {
+		this(new ConcurrentMatrixMultiplier(threads));
+	}
+	
+	/**
+	 * Initializes the factorization.
+	 * 
+	 * @param multiplier The matrix multiplier whose threads, and thread pool,
+	 * do the trailing updates.
+	 */
+	public BlockedLU(ConcurrentMatrixMultiplier multiplier) {
+		this.multiplier = multiplier;
+		blockSize = 64;
+		lookahead = true;
+	}
+	
+	/**
+	 * Sets the number of columns of the panels.  The default is 64.
+	 * 
+	 * @param blockSize The number of columns of the panels.
+	 */
+	public void setBlockSize(int blockSize) {
+		if (blockSize <= 0) throw new IllegalArgumentException("Block size must be positive.");
+		this.blockSize = blockSize;
+	}
+	
+	/**
+	 * Sets whether to factor each panel at the same time as the trailing update by
+	 * the panel before it.  The default is true.
+	 * 
+	 * @param lookahead Whether to factor the next panel during the trailing update.
+	 */
+	public void setLookahead(boolean lookahead) {
+		this.lookahead = lookahead;
+	}
+	
+	/**
+	 * Sends trailing updates to RMI servers.  The product of the columns of the
+	 * panel below it and the rows of the trailing matrix beside it is computed by
+	 * the RMI servers, and subtracted from the trailing matrix on this node, for 
+	 * every trailing update of at least a number of floating point operations.
+	 * 
+	 * @param remote The multiplier of the RMI servers, or null to do all of the 
+	 * trailing updates on this node.
+	 * @param minFlops The least number of floating point operations of the trailing 
+	 * updates to send to the RMI servers.
+	 */
+	public void setRemote(DistributedMatrixMultiplier remote, long minFlops) {
+		this.remote = remote;
+		remoteMinFlops = minFlops;
+	}
+	
+	/**
+	 * Factors a matrix, which is left unchanged.
+	 * 
+	 * @param a The square matrix.
+	 * @return the factorization
+	 */
+	public LUDecomposition factor(double[][] a) {
+		double[][] copy = new double[a.length][];
+		for (int i = 0; i < a.length; i++) {
+			copy[i] = a[i].clone();
+		}
+		return factorInPlace(copy);
+	}
+	
+	/**
+	 * Factors a matrix in place: the matrix is overwritten with the packed factors,
+	 * and its rows are permuted.
+	 * 
+	 * @param a The square matrix.
+	 * @return the factorization, whose packed factors are a
+	 */
+	public LUDecomposition factorInPlace(double[][] a) {
+		int n = a.length;
+		for (double[] row : a) {
+			if (row.length != n) throw new IllegalArgumentException("Matrix must be square.");
+		}
+		Panels panels = new Panels(a);
+		if (n == 0) return panels.result();
+		int nb = Math.min(blockSize, n);
+		panels.factor(0, nb);
+		for (int k = 0; k + nb < n; k += nb) {
+			int next = k + nb;
+			int nextWidth = Math.min(nb, n - next);
+			double[][] top = Arrays.copyOfRange(a, k, next);
+			double[][] below = Arrays.copyOfRange(a, next, n);
+			if (lookahead) {
+				update(top, below, k, next, next + nextWidth);
+				List<Future<?>> rest = updateAsync(top, below, k, next + nextWidth, n);
+				panels.factor(next, nextWidth);
+				await(rest);
+			} else {
+				await(updateAsync(top, below, k, next, n));
+				panels.factor(next, nextWidth);
+			}
+		}
+		return panels.result();
+	}
+	
+	/*
+	 * Updates columns from through to - 1 of the rows below the panel that starts 
+	 * at column k, whose rows are top: first solving for those columns of U in 
+	 * the rows of the panel (whose diagonal block is L), and then subtracting from 
+	 * the rows below the product of their columns of the panel and those columns of U.
+	 */
+	private static void update(double[][] top, double[][] below, int k, int from, int to) {
+		int w = top.length;
+		for (int i = 1; i < w; i++) {
+			double[] ui = top[i];
+			for (int t = 0; t < i; t++) {
+				double l = ui[k + t];
+				if (l == 0) continue;
+				double[] ut = top[t];
+				for (int c = from; c < to; c++) {
+					ui[c] -= l * ut[c];
+				}
+			}
+		}
+		for (double[] row : below) {
+			for (int t = 0; t < w; t++) {
+				double l = row[k + t];
+				if (l == 0) continue;
+				double[] ut = top[t];
+				for (int c = from; c < to; c++) {
+					row[c] -= l * ut[c];
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Starts the update of columns from through to - 1 on the thread pool, divided
+	 * by columns among the threads, or on the RMI servers.
+	 */
+	private List<Future<?>> updateAsync(final double[][] top, final double[][] below, final int k, final int from, final int to) {
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		if (from >= to) return futures;
+		long flops = 2L * below.length * (to - from) * top.length;
+		if (remote != null && flops >= remoteMinFlops) {
+			futures.add(multiplier.es.submit(() -> remoteUpdate(top, below, k, from, to)));
+			return futures;
+		}
+		int threads = Math.max(1, Math.min(multiplier.numThreads(), to - from));
+		for (int i = 0; i < threads; i++) {
+			final int first = from + (int)((long)(to - from) * i / threads);
+			final int last = from + (int)((long)(to - from) * (i + 1) / threads);
+			futures.add(multiplier.es.submit(() -> update(top, below, k, first, last)));
+		}
+		return futures;
+	}
+	
+	private void remoteUpdate(double[][] top, double[][] below, int k, int from, int to) {
+		update(top, new double[0][], k, from, to);
+		int w = top.length;
+		double[][] l = new double[below.length][];
+		for (int i = 0; i < l.length; i++) {
+			l[i] = Arrays.copyOfRange(below[i], k, k + w);
+		}
+		double[][] uTranspose = new double[to - from][w];
+		for (int t = 0; t < w; t++) {
+			for (int c = from; c < to; c++) {
+				uTranspose[c - from][t] = top[t][c];
+			}
+		}
+		double[][] product = remote.multiply(l, uTranspose, true);
+		for (int i = 0; i < below.length; i++) {
+			double[] row = below[i];
+			double[] p = product[i];
+			for (int c = from; c < to; c++) {
+				row[c] -= p[c - from];
+			}
+		}
+	}
+	
+	private static void await(List<Future<?>> futures) {
+		try {
+			for (Future<?> f : futures) f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during LU factorization", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Trailing update failed", e.getCause());
+		}
+	}
+	
+	/*
+	 * The factorization of the panels, one at a time, on a single thread.
+	 */
+	private static final class Panels {
+		
+		private final double[][] a;
+		private final int[] pivot;
+		private int sign;
+		private boolean singular;
+		
+		Panels(double[][] a) {
+			this.a = a;
+			pivot = new int[a.length];
+			for (int i = 0; i < pivot.length; i++) pivot[i] = i;
+			sign = 1;
+		}
+		
+		/*
+		 * Factors the panel of columns k through k + w - 1, from row k down, 
+		 * whose earlier trailing updates are done.  Swaps whole rows.
+		 */
+		void factor(int k, int w) {
+			int n = a.length;
+			for (int j = k; j < k + w; j++) {
+				int p = j;
+				double max = Math.abs(a[j][j]);
+				for (int i = j + 1; i < n; i++) {
+					double v = Math.abs(a[i][j]);
+					if (v > max) {
+						max = v;
+						p = i;
+					}
+				}
+				if (max == 0) {
+					singular = true;
+					continue;
+				}
+				if (p != j) {
+					double[] row = a[p];
+					a[p] = a[j];
+					a[j] = row;
+					int index = pivot[p];
+					pivot[p] = pivot[j];
+					pivot[j] = index;
+					sign = -sign;
+				}
+				double[] rj = a[j];
+				double inverse = 1 / rj[j];
+				for (int i = j + 1; i < n; i++) {
+					double[] ri = a[i];
+					double l = ri[j] *= inverse;
+					if (l == 0) continue;
+					for (int c = j + 1; c < k + w; c++) {
+						ri[c] -= l * rj[c];
+					}
+				}
+			}
+		}
+		
+		LUDecomposition result() {
+			return new LUDecomposition(a, pivot, sign, singular);
+		}
+	}
+}
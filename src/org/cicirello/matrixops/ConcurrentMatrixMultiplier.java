@@ -1,213 +1,439 @@
-/*
- * Copyright 2017 Vincent A. Cicirello.
- *
- * This file is part of package org.cicirello.matrixops.
- *
- * Java package org.cicirello.matrixops is free software: you can 
- * redistribute it and/or modify it under the terms of the GNU 
- * General Public License as published by the Free Software 
- * Foundation, either version 3 of the License, or (at your 
- * option) any later version.
- *
- * Java package org.cicirello.matrixops is distributed in the hope 
- * that it will be useful, but WITHOUT ANY WARRANTY; without even 
- * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
- * PARTICULAR PURPOSE.  See the GNU General Public License for more 
- * details.
- *
- * You should have received a copy of the GNU General Public License
- * along with Java package org.cicirello.permutations.  If not, 
- * see <http://www.gnu.org/licenses/>.
- *
- */
-
-
-package org.cicirello.matrixops;
-
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-
-
-/**
- * A multithreaded matrix multiplier.  Uses a very simple approach to
- * sub-division of work.  Specifically, in computing A*B, distributes 
- * either the rows of matrix A or the columns of matrix B (whichever 
- * is larger) equally among the threads.  Better parallel matrix
- * multiplication algorithms exist.  This class was implemented to serve
- * as a test case for a specific system for a specific testing purpose, 
- * and not intended to be used more generally as a matrix multiplier.
- *  
- * @author Vincent A. Cicirello
- * @version 8.15.2017
- */
-public class ConcurrentMatrixMultiplier extends MatrixMultiplier {
-	
-	private int numThreads;
-	protected final ExecutorService es;
-	
-	/**
-	 * Initialize the matrix multiplier.  Uses a cached thread pool 
-	 * by default.
-	 * 
-	 * @param threads The number of threads.
-	 */
-	public ConcurrentMatrixMultiplier(int threads) {
-		this(threads, Executors.newCachedThreadPool());
-	}
-	
-	/**
-	 * Initialize the matrix multiplier.
-	 * 
-	 * @param threads The number of threads.
-	 * @param es An executor service, enabling you to specify thread pool
-	 * type.
-	 */
-	public ConcurrentMatrixMultiplier(int threads, ExecutorService es) {
-		this.numThreads = threads;
-		this.es = es;
-	}
-	
-	/**
-	 * Change the number of threads used by this matrix multiplier.
-	 * 
-	 * @param threads The number of threads.
-	 */
-	public void setThreads(int threads) {
-		this.numThreads = threads;
-	}
-	
-	/**
-	  * {@inheritDoc}
-	  */
-	@Override
-	public final double[][] multiply(double[][] a, double[][] b) {
-		return multiply(a,b,false);
-	}
-	
-	/**
-	  * {@inheritDoc}
-	  */
-	@Override
-	public final double[][] multiply(double[][] a, double[][] b, boolean bIsTransposed) {
-		if (!bIsTransposed) b = transpose(b); 
-		if (a.length >= b[0].length)
-			return multiplyByDistributingRowsOfA(a, b);
-		else 
-			return multiplyByDistributingColsOfB(a, b);
-	}
-	
-	/**
-	 * Gets the number of threads this matrix multiplier uses.
-	 * @return number of threads
-	 */
-	protected final int numThreads() { return numThreads; }
-	
-	/**
-	 * Multiplies matrices a and b by distributing the matrix b
-	 * among the threads.  Assumes that b is transposed.
-	 * 
-	 * @param a First matrix
-	 * @param b Second matrix
-	 * @return a * b
-	 */
-	protected double[][] multiplyByDistributingColsOfB(final double[][] a, final double[][] b) {
-		int t = (b.length < numThreads) ? b.length : numThreads;
-		
-		@SuppressWarnings("unchecked")
-		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[t];
-		
-		int minColsPerThread = b.length / t;
-		int numThreadsWithExtra = b.length % t;
-		
-		int k = 0;
-		for (int i = 0; i < t; i++) {
-			double[][] bT = numThreadsWithExtra > 0 ? new double[minColsPerThread+1][] : new double[minColsPerThread][];
-			numThreadsWithExtra--;	
-			for (int j = 0; j < bT.length; j++) {
-				bT[j] = b[k];
-				k++;
-			}
-			threadFutures[i] = es.submit(new MatrixMultThread(a, bT));
-		}
-		double[][] c = new double[a.length][b.length];
-		k = 0;
-		for (int i = 0; i < t; i++) {
-			double[][] cThread = null;
-			try {
-				cThread = threadFutures[i].get();
-			} catch (ExecutionException | InterruptedException e) {
-				e.printStackTrace();
-			} 
-			for (int j = 0; j < cThread.length; j++) {
-				for (int z = 0; z < cThread[j].length; z++)
-				c[j][k+z] = cThread[j][z];
-			}
-			k += cThread[0].length;
-		}
-		return c;
-	}
-
-	/**
-	 * Multiplies matrices a and b by distributing the matrix a
-	 * among the threads.  Assumes that b is transposed.
-	 * 
-	 * @param a First matrix
-	 * @param b Second matrix
-	 * @return a * b
-	 */
-	protected double[][] multiplyByDistributingRowsOfA(final double[][] a, final double[][] b) {
-		int t = (a.length < numThreads) ? a.length : numThreads;
-
-		@SuppressWarnings("unchecked")
-		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[t];
-		
-		int minRowsPerThread = a.length / t;
-		int numThreadsWithExtra = a.length % t;
-		
-		int k = 0;
-		for (int i = 0; i < t; i++) {
-			double[][] aT = numThreadsWithExtra > 0 ? new double[minRowsPerThread+1][] : new double[minRowsPerThread][];
-			numThreadsWithExtra--;	
-			for (int j = 0; j < aT.length; j++) {
-				aT[j] = a[k];
-				k++;
-			}
-			threadFutures[i] = es.submit(new MatrixMultThread(aT, b));
-		}
-		double[][] c = new double[a.length][];
-		k = 0;
-		for (int i = 0; i < t; i++) {
-			double[][] cThread = null;
-			try {
-				cThread = threadFutures[i].get();
-			} catch (InterruptedException | ExecutionException e) {
-				e.printStackTrace();
-			}
-			for (int j = 0; j < cThread.length; j++) {
-				c[k] = cThread[j];
-				k++;
-			}
-		}
-		return c;
-	}
-
-	private final class MatrixMultThread extends MatrixMultiplier implements Callable<double[][]> {
-
-		private final double[][] a;
-		private final double[][] bTranspose;
-
-		public MatrixMultThread(final double[][] a, final double[][] bTranspose) {
-			this.a = a;
-			this.bTranspose = bTranspose;
-		}
-
-		@Override
-		public double[][] call() throws Exception {
-			return multiply(a,bTranspose,true);
-		}
-	}
-	
-}
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * A multithreaded matrix multiplier.  Uses a very simple approach to
+ * sub-division of work.  Specifically, in computing A*B, distributes 
+ * either the rows of matrix A or the columns of matrix B (whichever 
+ * is larger) equally among the threads.  Better parallel matrix
+ * multiplication algorithms exist.  This class was implemented to serve
+ * as a test case for a specific system for a specific testing purpose, 
+ * and not intended to be used more generally as a matrix multiplier.
+ *  
+ * @author Vincent A. Cicirello
+ * @version 8.15.2017
+ */
+public class ConcurrentMatrixMultiplier extends MatrixMultiplier {
+	
+	private int numThreads;
+	protected final ExecutorService es;
+	
+	/**
+	 * Initialize the matrix multiplier.  Uses a cached thread pool 
+	 * by default.
+	 * 
+	 * @param threads The number of threads.
+	 */
+	public ConcurrentMatrixMultiplier(int threads) {
+		this(threads, Executors.newCachedThreadPool());
+	}
+	
+	/**
+	 * Initialize the matrix multiplier.
+	 * 
+	 * @param threads The number of threads.
+	 * @param es An executor service, enabling you to specify thread pool
+	 * type.
+	 */
+	public ConcurrentMatrixMultiplier(int threads, ExecutorService es) {
+		this.numThreads = threads;
+		this.es = es;
+	}
+	
+	/**
+	 * Change the number of threads used by this matrix multiplier.
+	 * 
+	 * @param threads The number of threads.
+	 */
+	public void setThreads(int threads) {
+		this.numThreads = threads;
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public final double[][] multiply(double[][] a, double[][] b) {
+		return multiply(a,b,false);
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public final double[][] multiply(double[][] a, double[][] b, boolean bIsTransposed) {
+		if (!bIsTransposed) b = transpose(b); 
+		if (a.length >= b[0].length)
+			return multiplyByDistributingRowsOfA(a, b);
+		else 
+			return multiplyByDistributingColsOfB(a, b);
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	public final double[][] syrk(double[][] a, int fromRow, int toRow) {
+		return syrkByDistributingRows(a, fromRow, toRow);
+	}
+	
+	/**
+	 * Computes a range of rows of the lower triangle of a * transpose(a) by
+	 * distributing the rows among the threads, in parts of nearly equal numbers 
+	 * of elements, rather than of rows, since the rows of the triangle grow longer.
+	 * 
+	 * @param a The matrix
+	 * @param fromRow The first row.
+	 * @param toRow One past the last row.
+	 * @return rows fromRow through toRow - 1 of the lower triangle of a * transpose(a)
+	 */
+	protected double[][] syrkByDistributingRows(final double[][] a, int fromRow, int toRow) {
+		int rows = toRow - fromRow;
+		int t = (rows < numThreads) ? rows : numThreads;
+		final MatrixMultiplier serial = new MatrixMultiplier();
+		if (t <= 1) return serial.syrk(a, fromRow, toRow);
+		final int[] bounds = splitTriangle(fromRow, toRow, t);
+		
+		@SuppressWarnings("unchecked")
+		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[t];
+		
+		for (int i = 0; i < t; i++) {
+			final int from = bounds[i];
+			final int to = bounds[i+1];
+			threadFutures[i] = es.submit(() -> serial.syrk(a, from, to));
+		}
+		double[][] c = new double[rows][];
+		for (int i = 0; i < t; i++) {
+			try {
+				double[][] cThread = threadFutures[i].get();
+				System.arraycopy(cThread, 0, c, bounds[i] - fromRow, cThread.length);
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		return c;
+	}
+	
+	/**
+	 * Computes several blocks of the lower triangle of a * transpose(a), each as in
+	 * {@link #syrkBlock}, dividing the rows of all of the blocks among the threads 
+	 * in parts of nearly equal numbers of elements.
+	 * 
+	 * @param a The matrix
+	 * @param blocks The blocks, four elements each: the first row, one past the 
+	 * last row, the first column, and one past the last column.
+	 * @return an array with the rows of each block, as {@link #syrkBlock} returns them
+	 */
+	public final double[][][] syrkBlocks(final double[][] a, final int[] blocks) {
+		int count = blocks.length / 4;
+		final double[][][] c = new double[count][][];
+		int rows = 0;
+		for (int b = 0; b < count; b++) {
+			c[b] = new double[blocks[4*b+1] - blocks[4*b]][];
+			rows += c[b].length;
+		}
+		// the number of elements in the first r rows of the blocks, in order
+		long[] area = new long[rows + 1];
+		int r = 0;
+		for (int b = 0; b < count; b++) {
+			for (int i = blocks[4*b]; i < blocks[4*b+1]; i++, r++) {
+				area[r+1] = area[r] + Math.max(Math.min(blocks[4*b+3], i + 1) - blocks[4*b+2], 0);
+			}
+		}
+		final MatrixMultiplier serial = new MatrixMultiplier();
+		int t = (rows < numThreads) ? rows : numThreads;
+		if (t <= 1) {
+			syrkBlockRows(serial, a, blocks, c, 0, rows);
+			return c;
+		}
+		Future<?>[] threadFutures = new Future<?>[t];
+		int from = 0;
+		for (int i = 0; i < t; i++) {
+			int to = from;
+			long target = area[rows] * (i + 1) / t;
+			while (to < rows && area[to] < target) to++;
+			final int first = from;
+			final int last = i == t - 1 ? rows : to;
+			threadFutures[i] = es.submit(() -> syrkBlockRows(serial, a, blocks, c, first, last));
+			from = last;
+		}
+		for (Future<?> f : threadFutures) {
+			try {
+				f.get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		return c;
+	}
+	
+	/*
+	 * Computes rows first through last - 1 of the blocks, counting the rows of
+	 * all of the blocks in order.
+	 */
+	private static void syrkBlockRows(MatrixMultiplier serial, double[][] a, int[] blocks, double[][][] c, int first, int last) {
+		int offset = 0;
+		for (int b = 0; b < c.length && offset < last; b++) {
+			int from = Math.max(first, offset);
+			int to = Math.min(last, offset + c[b].length);
+			if (from < to) {
+				int row = blocks[4*b] - offset;
+				double[][] part = serial.syrkBlock(a, row + from, row + to, blocks[4*b+2], blocks[4*b+3]);
+				System.arraycopy(part, 0, c[b], from - offset, to - from);
+			}
+			offset += c[b].length;
+		}
+	}
+	
+	/**
+	 * Computes c = a * b out of core, for matrices stored off the heap, such as in 
+	 * memory-mapped files larger than the memory of the node.  The threads compute
+	 * square tiles of c, one at a time, each from a row of tiles of a and a column of 
+	 * tiles of b, which they read into the heap a tile at a time.  So the working set
+	 * is three tiles per thread, regardless of the size of the matrices, and the 
+	 * operating system pages the files through memory as the tiles are read and
+	 * written.  Consecutive tiles of c share a row of tiles of a.
+	 * 
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @param c The product, which is overwritten.
+	 * @param tileSize The number of rows and columns of a tile.
+	 */
+	public final void multiply(OffHeapMatrix a, OffHeapMatrix b, OffHeapMatrix c, int tileSize) {
+		multiply(a, b, c, 0, a.rows(), tileSize);
+	}
+	
+	/**
+	 * Computes a range of rows of c = a * b out of core, for matrices stored off
+	 * the heap, as in {@link #multiply(OffHeapMatrix, OffHeapMatrix, OffHeapMatrix, int)}.
+	 * The other rows of c are not changed.
+	 * 
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @param c The product, whose rows firstRow through lastRow - 1 are overwritten.
+	 * @param firstRow The first row to compute.
+	 * @param lastRow One past the last row to compute.
+	 * @param tileSize The number of rows and columns of a tile.
+	 */
+	public final void multiply(OffHeapMatrix a, OffHeapMatrix b, OffHeapMatrix c, int firstRow, int lastRow, int tileSize) {
+		if (a.cols() != b.rows() || c.rows() != a.rows() || c.cols() != b.cols()) {
+			throw new IllegalArgumentException("Matrix dimensions do not agree.");
+		}
+		if (tileSize < 1) throw new IllegalArgumentException("Tile size must be positive.");
+		int tileCols = (b.cols() + tileSize - 1) / tileSize;
+		int tiles = ((lastRow - firstRow + tileSize - 1) / tileSize) * tileCols;
+		if (tiles <= 0) return;
+		AtomicInteger next = new AtomicInteger();
+		int t = (tiles < numThreads) ? tiles : numThreads;
+		Future<?>[] threadFutures = new Future<?>[t];
+		for (int i = 0; i < t; i++) {
+			threadFutures[i] = es.submit(new OutOfCoreThread(a, b, c, firstRow, lastRow, tileSize, tileCols, tiles, next));
+		}
+		for (int i = 0; i < t; i++) {
+			try {
+				threadFutures[i].get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Gets the number of threads this matrix multiplier uses.
+	 * @return number of threads
+	 */
+	protected final int numThreads() { return numThreads; }
+	
+	/**
+	 * Multiplies matrices a and b by distributing the matrix b
+	 * among the threads.  Assumes that b is transposed.
+	 * 
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @return a * b
+	 */
+	protected double[][] multiplyByDistributingColsOfB(final double[][] a, final double[][] b) {
+		int t = (b.length < numThreads) ? b.length : numThreads;
+		
+		@SuppressWarnings("unchecked")
+		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[t];
+		
+		int minColsPerThread = b.length / t;
+		int numThreadsWithExtra = b.length % t;
+		
+		int k = 0;
+		for (int i = 0; i < t; i++) {
+			double[][] bT = numThreadsWithExtra > 0 ? new double[minColsPerThread+1][] : new double[minColsPerThread][];
+			numThreadsWithExtra--;	
+			for (int j = 0; j < bT.length; j++) {
+				bT[j] = b[k];
+				k++;
+			}
+			threadFutures[i] = es.submit(new MatrixMultThread(a, bT));
+		}
+		double[][] c = new double[a.length][b.length];
+		k = 0;
+		for (int i = 0; i < t; i++) {
+			double[][] cThread = null;
+			try {
+				cThread = threadFutures[i].get();
+			} catch (ExecutionException | InterruptedException e) {
+				e.printStackTrace();
+			} 
+			for (int j = 0; j < cThread.length; j++) {
+				for (int z = 0; z < cThread[j].length; z++)
+				c[j][k+z] = cThread[j][z];
+			}
+			k += cThread[0].length;
+		}
+		return c;
+	}
+
+	/**
+	 * Multiplies matrices a and b by distributing the matrix a
+	 * among the threads.  Assumes that b is transposed.
+	 * 
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @return a * b
+	 */
+	protected double[][] multiplyByDistributingRowsOfA(final double[][] a, final double[][] b) {
+		int t = (a.length < numThreads) ? a.length : numThreads;
+
+		@SuppressWarnings("unchecked")
+		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[t];
+		
+		int minRowsPerThread = a.length / t;
+		int numThreadsWithExtra = a.length % t;
+		
+		int k = 0;
+		for (int i = 0; i < t; i++) {
+			double[][] aT = numThreadsWithExtra > 0 ? new double[minRowsPerThread+1][] : new double[minRowsPerThread][];
+			numThreadsWithExtra--;	
+			for (int j = 0; j < aT.length; j++) {
+				aT[j] = a[k];
+				k++;
+			}
+			threadFutures[i] = es.submit(new MatrixMultThread(aT, b));
+		}
+		double[][] c = new double[a.length][];
+		k = 0;
+		for (int i = 0; i < t; i++) {
+			double[][] cThread = null;
+			try {
+				cThread = threadFutures[i].get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+			for (int j = 0; j < cThread.length; j++) {
+				c[k] = cThread[j];
+				k++;
+			}
+		}
+		return c;
+	}
+
+	private final class MatrixMultThread extends MatrixMultiplier implements Callable<double[][]> {
+
+		private final double[][] a;
+		private final double[][] bTranspose;
+
+		public MatrixMultThread(final double[][] a, final double[][] bTranspose) {
+			this.a = a;
+			this.bTranspose = bTranspose;
+		}
+
+		@Override
+		public double[][] call() throws Exception {
+			return multiply(a,bTranspose,true);
+		}
+	}
+	
+	private static final class OutOfCoreThread implements Runnable {
+		
+		private final OffHeapMatrix a;
+		private final OffHeapMatrix b;
+		private final OffHeapMatrix c;
+		private final int firstRow;
+		private final int lastRow;
+		private final int tileSize;
+		private final int tileCols;
+		private final int tiles;
+		private final AtomicInteger next;
+		
+		OutOfCoreThread(OffHeapMatrix a, OffHeapMatrix b, OffHeapMatrix c, int firstRow, int lastRow, int tileSize, int tileCols, int tiles, AtomicInteger next) {
+			this.a = a;
+			this.b = b;
+			this.c = c;
+			this.firstRow = firstRow;
+			this.lastRow = lastRow;
+			this.tileSize = tileSize;
+			this.tileCols = tileCols;
+			this.tiles = tiles;
+			this.next = next;
+		}
+		
+		@Override
+		public void run() {
+			int s = tileSize;
+			double[][] aTile = new double[Math.min(s, lastRow - firstRow)][Math.min(s, a.cols())];
+			double[][] bTile = new double[Math.min(s, b.rows())][Math.min(s, b.cols())];
+			double[][] cTile = new double[aTile.length][bTile.length > 0 ? bTile[0].length : Math.min(s, b.cols())];
+			for (int t = next.getAndIncrement(); t < tiles; t = next.getAndIncrement()) {
+				int i0 = firstRow + (t / tileCols) * s;
+				int j0 = (t % tileCols) * s;
+				int h = Math.min(s, lastRow - i0);
+				int w = Math.min(s, b.cols() - j0);
+				for (int i = 0; i < h; i++) Arrays.fill(cTile[i], 0, w, 0.0);
+				for (int k0 = 0; k0 < a.cols(); k0 += s) {
+					int d = Math.min(s, a.cols() - k0);
+					for (int i = 0; i < h; i++) a.getRow(i0 + i, k0, aTile[i], 0, d);
+					for (int k = 0; k < d; k++) b.getRow(k0 + k, j0, bTile[k], 0, w);
+					for (int i = 0; i < h; i++) {
+						double[] ci = cTile[i];
+						double[] ai = aTile[i];
+						for (int k = 0; k < d; k++) {
+							double aik = ai[k];
+							double[] bk = bTile[k];
+							for (int j = 0; j < w; j++) ci[j] += aik * bk[j];
+						}
+					}
+				}
+				for (int i = 0; i < h; i++) c.setRow(i0 + i, j0, cTile[i], 0, w);
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.cicirello.algengine.NodeCapabilities;
+
+/**
+ * Divides work among the RMI servers and the master node using a simple
+ * cost model of each node.  The time for a node to process s slices of 
+ * the work (e.g., s rows of a matrix) is modeled as:  
+ * latency + (fixedBytes + s * bytesPerSlice) / bandwidth + s * flopsPerSlice / speed, 
+ * where the latency and bandwidth are those of the link from the master
+ * (zero and infinite for the master itself), and the speed is the measured 
+ * speed of the node's kernel with the number of threads that it will use.
+ * 
+ * The partitioner chooses the slice counts that minimize the time at which the 
+ * last node finishes.  Nodes whose fixed cost (latency plus the transfer of the
+ * data that every node needs) exceeds that time receive no work at all, so 
+ * small problems are kept entirely on the master node when shipping them would
+ * cost more than it saves.
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class CostModelPartitioner {
+	
+	private final NodeCapabilities[] servers;
+	private final int threadsPerServer;
+	private final NodeCapabilities master;
+	private final int masterThreads;
+	
+	/**
+	 * Initializes the partitioner from previously measured capabilities.
+	 * 
+	 * @param servers The capabilities of the RMI servers.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 * @param master The capabilities of the master node.
+	 * @param masterThreads Number of threads to use on the master node, which 
+	 * may be 0 if the master node should not do any of the work.
+	 */
+	public CostModelPartitioner(NodeCapabilities[] servers, int threadsPerServer, NodeCapabilities master, int masterThreads) {
+		this.servers = servers.clone();
+		this.threadsPerServer = threadsPerServer;
+		this.master = master;
+		this.masterThreads = masterThreads;
+	}
+	
+	/**
+	 * Initializes the partitioner by measuring the capabilities of the RMI servers,
+	 * the links to them, and the master node.
+	 * 
+	 * @param serverNames Array of RMI server names.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 * @param masterThreads Number of threads to use on the master node, which 
+	 * may be 0 if the master node should not do any of the work.
+	 * @return The partitioner
+	 * @throws RemoteException If one of the RMI servers cannot be reached.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public static CostModelPartitioner measure(String[] serverNames, int threadsPerServer, int masterThreads) throws RemoteException, NotBoundException {
+		NodeCapabilities[] servers = new NodeCapabilities[serverNames.length];
+		for (int i = 0; i < servers.length; i++) {
+			servers[i] = NodeCapabilities.probe(serverNames[i]);
+		}
+		return new CostModelPartitioner(servers, threadsPerServer, NodeCapabilities.ofThisNode(), masterThreads);
+	}
+	
+	/**
+	 * Initializes the partitioner by measuring the capabilities of the RMI servers
+	 * and the master node, using previously measured latencies and bandwidths of 
+	 * the links to the servers where available.  The links are properties keyed by 
+	 * the names of the servers, such as
+	 * <pre>
+	 * rpi1.local.latency=0.000850000
+	 * rpi1.local.bandwidth=11250000.0
+	 * </pre>
+	 * where the latency is the round trip of an empty call, in seconds, as in 
+	 * {@link NodeCapabilities#probe}, and the bandwidth is in bytes per second, 
+	 * so a file of measured links can be read with {@link Properties#load}.  The 
+	 * links to servers without both are measured as in {@link #measure(String[], int, int)}.
+	 * 
+	 * @param serverNames Array of RMI server names.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 * @param masterThreads Number of threads to use on the master node, which 
+	 * may be 0 if the master node should not do any of the work.
+	 * @param links The measured links, with the latency (seconds) and bandwidth 
+	 * (bytes per second) of the link to server s as properties s.latency and s.bandwidth.
+	 * @return The partitioner
+	 * @throws RemoteException If one of the RMI servers cannot be reached.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public static CostModelPartitioner measure(String[] serverNames, int threadsPerServer, int masterThreads, Properties links) throws RemoteException, NotBoundException {
+		NodeCapabilities[] servers = new NodeCapabilities[serverNames.length];
+		for (int i = 0; i < servers.length; i++) {
+			String latency = links.getProperty(serverNames[i] + ".latency");
+			String bandwidth = links.getProperty(serverNames[i] + ".bandwidth");
+			servers[i] = latency != null && bandwidth != null 
+					? NodeCapabilities.query(serverNames[i], Double.parseDouble(latency), Double.parseDouble(bandwidth))
+					: NodeCapabilities.probe(serverNames[i]);
+		}
+		return new CostModelPartitioner(servers, threadsPerServer, NodeCapabilities.ofThisNode(), masterThreads);
+	}
+	
+	/**
+	 * Gets the number of nodes among which this partitioner divides work:
+	 * the RMI servers, plus the master node if masterThreads &#62; 0.
+	 * @return the number of nodes
+	 */
+	public int numNodes() {
+		return masterThreads > 0 ? servers.length + 1 : servers.length;
+	}
+	
+	/**
+	 * Divides n slices of work among the nodes.
+	 * 
+	 * @param n The number of slices.
+	 * @param fixedBytes Number of bytes that must be sent to every RMI server
+	 * that receives any work.
+	 * @param bytesPerSlice Number of bytes sent to and returned from an RMI
+	 * server per slice of work.
+	 * @param flopsPerSlice Number of floating-point operations per slice of work.
+	 * @return The number of slices for each RMI server, in order, followed by the
+	 * number of slices for the master node if masterThreads &#62; 0.  Sums to n.
+	 */
+	public int[] partition(int n, double fixedBytes, double bytesPerSlice, double flopsPerSlice) {
+		int nodes = numNodes();
+		double[] fixed = new double[nodes];
+		double[] perSlice = new double[nodes];
+		for (int i = 0; i < servers.length; i++) {
+			fixed[i] = servers[i].latency() + fixedBytes / servers[i].bandwidth();
+			perSlice[i] = bytesPerSlice / servers[i].bandwidth() + flopsPerSlice / (1e9 * servers[i].gflops(threadsPerServer));
+		}
+		if (masterThreads > 0) {
+			perSlice[nodes-1] = flopsPerSlice / (1e9 * master.gflops(masterThreads));
+		}
+		
+		// Water-filling: add nodes in order of increasing fixed cost while doing
+		// so reduces the time T at which all active nodes finish together.
+		Integer[] order = new Integer[nodes];
+		for (int i = 0; i < nodes; i++) order[i] = i;
+		Arrays.sort(order, (x, y) -> Double.compare(fixed[x], fixed[y]));
+		double sumRate = 0;
+		double sumFixedRate = 0;
+		double finish = 0;
+		int active = 0;
+		while (active < nodes) {
+			int i = order[active];
+			sumRate += 1 / perSlice[i];
+			sumFixedRate += fixed[i] / perSlice[i];
+			finish = (n + sumFixedRate) / sumRate;
+			active++;
+			if (active < nodes && finish <= fixed[order[active]]) break;
+		}
+		
+		// Round the ideal shares, giving leftover slices to the largest remainders.
+		int[] counts = new int[nodes];
+		double[] remainders = new double[nodes];
+		int assigned = 0;
+		for (int j = 0; j < active; j++) {
+			int i = order[j];
+			double share = Math.max(0, (finish - fixed[i]) / perSlice[i]);
+			counts[i] = (int)share;
+			remainders[i] = share - counts[i];
+			assigned += counts[i];
+		}
+		for (; assigned < n; assigned++) {
+			int best = order[0];
+			for (int j = 1; j < active; j++) {
+				if (remainders[order[j]] > remainders[best]) best = order[j];
+			}
+			counts[best]++;
+			remainders[best] = -1;
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.cicirello.algengine.Collectives;
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+import org.cicirello.algengine.TaskSpec;
+
+/**
+ * An iterative solver of systems of linear equations, Ax = b, that uses Java RMI 
+ * to distribute the work among multiple RMI servers.  Each RMI server keeps a 
+ * block of rows of A, which the master sends it only once (see {@link #load}), 
+ * and the rows of the vectors of the solver that go with them.  An iteration then 
+ * passes among the RMI servers only vectors of length n and scalars, with the 
+ * collectives of {@link Collectives}, rather than all of A, as solving with 
+ * {@link DistributedMatrixMultiplier} would; the master sends only small task 
+ * descriptions.
+ * 
+ * Offers conjugate gradient, for symmetric positive definite A, whose iterations
+ * take three all-reduces (the search direction, and two dot products), and Jacobi 
+ * iteration, for A with a nonzero diagonal (which converges if A is strictly 
+ * diagonally dominant), whose iterations take one.  The master receives only a 
+ * scalar per iteration of conjugate gradient, since the search direction stays 
+ * on the RMI servers, but the whole iterate, of length n + 1, per iteration of 
+ * Jacobi, since the norm of the residual comes with it.  Both start from a given
+ * vector, and iterate until the norm of the residual, b - Ax, is at most a 
+ * tolerance relative to the norm of b, or an iteration limit.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class DistributedLinearSolver {
+	
+	private final String[] serverNames;
+	private final int threadsPerServer;
+	private final ExecutorService es;
+	private final Collectives vectors;
+	private final Collectives scalars;
+	private double tolerance;
+	private int maxIterations;
+	private String system;
+	private int n;
+	private double bNorm;
+	private int iterations;
+	private double residualNorm;
+	
+	/**
+	 * Initializes the solver.  A cached thread pool is used locally to
+	 * manage the local threads that handle interaction with the RMI servers.
+	 * 
+	 * @param serverNames Array of RMI server names to distribute the work.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 */
+	public DistributedLinearSolver(String[] serverNames, int threadsPerServer) {
+		this(serverNames, threadsPerServer, Executors.newCachedThreadPool());
+	}
+	
+	/**
+	 * Initializes the solver.
+	 * 
+	 * @param serverNames Array of RMI server names to distribute the work.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 * @param es An executor service for the local threads that handle interaction
+	 * with the RMI servers, which should be able to run a thread per RMI server at once.
+	 */
+	public DistributedLinearSolver(String[] serverNames, int threadsPerServer, ExecutorService es) {
+		this.serverNames = serverNames.clone();
+		this.threadsPerServer = threadsPerServer;
+		this.es = es;
+		vectors = new Collectives(serverNames, es);
+		scalars = new Collectives(serverNames, es);
+		scalars.setAlgorithm(Collectives.Algorithm.TREE);
+		tolerance = 1e-10;
+		maxIterations = 10000;
+	}
+	
+	/**
+	 * Sets the tolerance of the norm of the residual, relative to the norm of b.
+	 * The default is 1e-10.
+	 * 
+	 * @param tolerance The tolerance.
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+	
+	/**
+	 * Sets the maximum number of iterations.  The default is 10000.
+	 * 
+	 * @param maxIterations The maximum number of iterations.
+	 */
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+	
+	/**
+	 * Sets the algorithm by which the RMI servers combine vectors of length n.  
+	 * Scalars are always combined with {@link Collectives.Algorithm#TREE}.  
+	 * The default is {@link Collectives.Algorithm#RING}.
+	 * 
+	 * @param algorithm The algorithm.
+	 */
+	public void setVectorAlgorithm(Collectives.Algorithm algorithm) {
+		vectors.setAlgorithm(algorithm);
+	}
+	
+	/**
+	 * Sends the system to the RMI servers, dividing the rows of A and b equally 
+	 * among them, replacing any system loaded earlier.
+	 * 
+	 * @param a The n by n matrix A.
+	 * @param b The vector b of length n.
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public void load(final double[][] a, final double[] b) throws RemoteException, NotBoundException {
+		unload();
+		final String system = "linsolve/" + ThreadLocalRandom.current().nextLong();
+		final int p = serverNames.length;
+		List<Callable<Void>> loads = new ArrayList<Callable<Void>>();
+		for (int i = 0; i < p; i++) {
+			final int index = i;
+			loads.add(() -> {
+				int first = (int)((long)b.length * index / p);
+				int last = (int)((long)b.length * (index + 1) / p);
+				RemoteParallelAlgorithms.lookup(serverNames[index]).submit(new TaskSpec("linsolve", threadsPerServer, "load", system, index, 
+						first, Arrays.copyOfRange(a, first, last), Arrays.copyOfRange(b, first, last), b.length));
+				return null;
+			});
+		}
+		this.system = system;
+		n = b.length;
+		all(loads);
+		double bb = 0;
+		for (double e : b) bb += e * e;
+		bNorm = Math.sqrt(bb);
+	}
+	
+	/**
+	 * Removes the system from the RMI servers, if one is loaded.
+	 * 
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public void unload() throws RemoteException, NotBoundException {
+		if (system == null) return;
+		for (int i = 0; i < serverNames.length; i++) {
+			RemoteParallelAlgorithms.lookup(serverNames[i]).submit(new TaskSpec("linsolve", 1, "forget", system, i));
+		}
+		system = null;
+	}
+	
+	/**
+	 * Solves the loaded system by conjugate gradient, starting from 0.  A must be
+	 * symmetric positive definite.
+	 * 
+	 * @return the solution
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public double[] conjugateGradient() throws RemoteException, NotBoundException {
+		return conjugateGradient(new double[n]);
+	}
+	
+	/**
+	 * Solves the loaded system by conjugate gradient.  A must be symmetric positive definite.
+	 * 
+	 * @param x0 The vector from which to start.
+	 * @return the solution
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public double[] conjugateGradient(double[] x0) throws RemoteException, NotBoundException {
+		checkLoaded();
+		vectors.broadcast(x0, system + "/x");
+		double rr = scalars.allReduce(tasks("start"), Collectives.Op.SUM, system + "/rr")[0];
+		iterations = 0;
+		while (Math.sqrt(rr) > tolerance * bNorm && iterations < maxIterations) {
+			vectors.residentAllReduce(tasks("direction"), Collectives.Op.SUM, system + "/p");
+			scalars.residentAllReduce(tasks("multiply"), Collectives.Op.SUM, system + "/pq");
+			rr = scalars.allReduce(tasks("update"), Collectives.Op.SUM, system + "/rr")[0];
+			iterations++;
+		}
+		residualNorm = Math.sqrt(rr);
+		return solution();
+	}
+	
+	/**
+	 * Solves the loaded system by Jacobi iteration, starting from 0.  The diagonal
+	 * of A must be nonzero.
+	 * 
+	 * @return the solution
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public double[] jacobi() throws RemoteException, NotBoundException {
+		return jacobi(new double[n]);
+	}
+	
+	/**
+	 * Solves the loaded system by Jacobi iteration.  The diagonal of A must be nonzero.
+	 * The residual of each iterate is computed during the next iteration, so the 
+	 * solution is one iteration beyond the first iterate that is within tolerance
+	 * (see {@link #residualNorm}).
+	 * 
+	 * @param x0 The vector from which to start.
+	 * @return the solution
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public double[] jacobi(double[] x0) throws RemoteException, NotBoundException {
+		checkLoaded();
+		vectors.broadcast(x0, system + "/x");
+		double[] x = x0;
+		iterations = 0;
+		residualNorm = Double.POSITIVE_INFINITY;
+		while (residualNorm > tolerance * bNorm && iterations < maxIterations) {
+			x = vectors.allReduce(tasks("jacobi"), Collectives.Op.SUM, system + "/x");
+			residualNorm = Math.sqrt(x[n]);
+			iterations++;
+		}
+		return Arrays.copyOf(x, n);
+	}
+	
+	/**
+	 * Gets the number of iterations of the last solve.
+	 * 
+	 * @return the number of iterations
+	 */
+	public int iterations() {
+		return iterations;
+	}
+	
+	/**
+	 * Gets the norm of the residual, b - Ax, of the last solve: of the solution 
+	 * for conjugate gradient, and of the iterate before the solution for Jacobi.
+	 * 
+	 * @return the norm of the residual
+	 */
+	public double residualNorm() {
+		return residualNorm;
+	}
+	
+	private double[] solution() throws RemoteException, NotBoundException {
+		List<Callable<double[]>> blocks = new ArrayList<Callable<double[]>>();
+		for (int i = 0; i < serverNames.length; i++) {
+			final int index = i;
+			blocks.add(() -> (double[])RemoteParallelAlgorithms.lookup(serverNames[index]).submit(
+					new TaskSpec("linsolve", 1, "solution", system, index)));
+		}
+		double[] x = new double[n];
+		int k = 0;
+		for (double[] block : all(blocks)) {
+			System.arraycopy(block, 0, x, k, block.length);
+			k += block.length;
+		}
+		return x;
+	}
+	
+	private Serializable[] tasks(String phase) {
+		Serializable[] tasks = new Serializable[serverNames.length];
+		for (int i = 0; i < tasks.length; i++) {
+			tasks[i] = new TaskSpec("linsolve", threadsPerServer, phase, system, i);
+		}
+		return tasks;
+	}
+	
+	private void checkLoaded() {
+		if (system == null) {
+			throw new IllegalStateException("No system is loaded.");
+		}
+	}
+	
+	/*
+	 * Runs the calls at once, and returns their results in order.
+	 */
+	private <T> List<T> all(List<Callable<T>> calls) throws RemoteException, NotBoundException {
+		List<Future<T>> futures = new ArrayList<Future<T>>();
+		for (Callable<T> c : calls) futures.add(es.submit(c));
+		List<T> results = new ArrayList<T>();
+		try {
+			for (Future<T> f : futures) results.add(f.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RemoteException("Interrupted while solving", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RemoteException) throw (RemoteException)cause;
+			if (cause instanceof NotBoundException) throw (NotBoundException)cause;
+			throw new RemoteException("Failed to solve", cause);
+		}
+		return results;
+	}
+}
@@ -1,244 +1,1069 @@
-/*
- * Copyright 2017 Vincent A. Cicirello.
- *
- * This file is part of package org.cicirello.matrixops.
- *
- * Java package org.cicirello.matrixops is free software: you can 
- * redistribute it and/or modify it under the terms of the GNU 
- * General Public License as published by the Free Software 
- * Foundation, either version 3 of the License, or (at your 
- * option) any later version.
- *
- * Java package org.cicirello.matrixops is distributed in the hope 
- * that it will be useful, but WITHOUT ANY WARRANTY; without even 
- * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
- * PARTICULAR PURPOSE.  See the GNU General Public License for more 
- * details.
- *
- * You should have received a copy of the GNU General Public License
- * along with Java package org.cicirello.permutations.  If not, 
- * see <http://www.gnu.org/licenses/>.
- *
- */
-
-
-package org.cicirello.matrixops;
-
-import java.rmi.NotBoundException;
-import java.rmi.RemoteException;
-import java.rmi.registry.LocateRegistry;
-import java.rmi.registry.Registry;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-
-import org.cicirello.algengine.RemoteParallelAlgorithms;
-
-/**
- * A parallel matrix multiplier that uses Java RMI to distribute
- * the computation of the matrix multiplication among multiple
- * RMI servers.  
- * 
- * Uses a very simple approach to sub-division of work.  Specifically, 
- * in computing A*B, distributes either the rows of matrix A or the 
- * columns of matrix B (whichever is larger) equally among the RMI servers.
- * These RMI servers implement a multithreaded matrix multiplication, which
- * then distributed the larger of its two matrices among the available threads.
- * 
- * Better parallel matrix multiplication algorithms exist.  This class 
- * was implemented to serve as a test case for a specific system for a 
- * specific testing purpose, and not intended to be used more generally as a 
- * matrix multiplier.
- *
- * @author Vincent A. Cicirello
- * @version 8.15.2017
- */
-public final class DistributedMatrixMultiplier extends ConcurrentMatrixMultiplier {
-
-	private final String[] serverNames;
-	private final int masterThreads;
-	
-	/**
-	 * Initialize the matrix multiplier. A cached thread pool is used locally to
-	 * manage the local threads that handle interaction with the RMI servers.
-	 * 
-	 * @param serverNames Array of RMI server names to distribute the work.
-	 * @param threadsPerServer Number of threads to use on each RMI server.
-	 * @param masterThreads Number of threads to use on the master node of
-	 * the cluster.
-	 */
-	public DistributedMatrixMultiplier(String[] serverNames, int threadsPerServer, int masterThreads) {
-		super(threadsPerServer);
-		this.serverNames = serverNames;
-		this.masterThreads = masterThreads;
-	}
-	
-	/**
-	 * Initialize the matrix multiplier.
-	 * 
-	 * @param serverNames Array of RMI server names to distribute the work.
-	 * @param threadsPerServer Number of threads to use on each RMI server.
-	 * @param masterThreads Number of threads to use on the master node of
-	 * the cluster.
-	 * @param es An executor service, enabling you to specify thread pool
-	 * type.
-	 */
-	public DistributedMatrixMultiplier(String[] serverNames, int threadsPerServer, int masterThreads, ExecutorService es) {
-		super(threadsPerServer, es);
-		this.serverNames = serverNames;
-		this.masterThreads = masterThreads;
-	}
-	
-	/**
-	  * {@inheritDoc}
-	  */
-	@Override
-	protected final double[][] multiplyByDistributingColsOfB(final double[][] a, final double[][] b) {
-		int t = masterThreads == 0 ? serverNames.length : serverNames.length + 1;
-		if (b.length < t) t = b.length;
-		//if (t>2 && (t & (t - 1)) == 0) return multiplyBySubdivision(a, b);
-		
-		@SuppressWarnings("unchecked")
-		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[t];
-		
-		
-		int minColsPerThread = b.length / t;
-		int numThreadsWithExtra = b.length % t;
-		
-		int remoteT = (masterThreads > 0) ? t-1 : t;
-		int k = 0;
-		for (int i = 0; i < remoteT; i++) {
-			double[][] bT = numThreadsWithExtra > 0 ? new double[minColsPerThread+1][] : new double[minColsPerThread][];
-			numThreadsWithExtra--;	
-			for (int j = 0; j < bT.length; j++) {
-				bT[j] = b[k];
-				k++;
-			}
-			threadFutures[i] = es.submit(new LocalHandlerThread(a, bT, serverNames[i]));
-		}
-		if (masterThreads > 0) {
-			double[][] bT = numThreadsWithExtra > 0 ? new double[minColsPerThread+1][] : new double[minColsPerThread][];
-			numThreadsWithExtra--;	
-			for (int j = 0; j < bT.length; j++) {
-				bT[j] = b[k];
-				k++;
-			}
-			threadFutures[t-1] = es.submit(new MasterNodeThread(a, bT));
-		}
-		double[][] c = new double[a.length][b.length];
-		k = 0;
-		for (int i = 0; i < t; i++) {
-			double[][] cThread = null;
-			try {
-				cThread = threadFutures[i].get();
-			} catch (InterruptedException | ExecutionException e) {
-				e.printStackTrace();
-			}
-			for (int j = 0; j < cThread.length; j++) {
-				for (int z = 0; z < cThread[j].length; z++)
-				c[j][k+z] = cThread[j][z];
-			}
-			k += cThread[0].length;
-		}
-		return c;
-	}
-	
-	/**
-	  * {@inheritDoc}
-	  */
-	@Override
-	protected final double[][] multiplyByDistributingRowsOfA(final double[][] a, final double[][] b) {
-		int t = masterThreads == 0 ? serverNames.length : serverNames.length + 1;
-		if (a.length < t) t = a.length;
-		//if (t>2 && (t & (t - 1)) == 0) return multiplyBySubdivision(a, b);
-		
-		@SuppressWarnings("unchecked")
-		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[t];
-		
-		
-		int minColsPerThread = a.length / t;
-		int numThreadsWithExtra = a.length % t;
-		
-		int remoteT = (masterThreads > 0) ? t-1 : t;
-		int k = 0;
-		for (int i = 0; i < remoteT; i++) {
-			double[][] aT = numThreadsWithExtra > 0 ? new double[minColsPerThread+1][] : new double[minColsPerThread][];
-			numThreadsWithExtra--;	
-			for (int j = 0; j < aT.length; j++) {
-				aT[j] = a[k];
-				k++;
-			}
-			threadFutures[i] = es.submit(new LocalHandlerThread(aT, b, serverNames[i]));
-		}
-		if (masterThreads > 0) {
-			double[][] aT = numThreadsWithExtra > 0 ? new double[minColsPerThread+1][] : new double[minColsPerThread][];
-			numThreadsWithExtra--;
-			for (int j = 0; j < aT.length; j++) {
-				aT[j] = a[k];
-				k++;
-			}
-			threadFutures[t-1] = es.submit(new MasterNodeThread(aT, b));
-		}
-		double[][] c = new double[a.length][];
-		k = 0;
-		for (int i = 0; i < t; i++) {
-			double[][] cThread = null;
-			try {
-				cThread = threadFutures[i].get();
-			}  catch (InterruptedException | ExecutionException e) {
-				e.printStackTrace();
-			}
-			for (int j = 0; j < cThread.length; j++) {
-				c[k] = cThread[j];
-				k++;
-			}
-		}
-		return c;
-	}
-	
-	private final class LocalHandlerThread implements Callable<double[][]> { 
-		
-		private final String serverName;
-		private final double[][] a;
-		private final double[][] bTranspose;
-		
-		public LocalHandlerThread(final double[][] a, final double[][] bTranspose, final String serverName) {
-			this.serverName = serverName;
-			this.a = a;
-			this.bTranspose = bTranspose;
-			if (System.getSecurityManager() == null) {
-				System.setSecurityManager(new SecurityManager());
-	        }
-		}
-
-		@Override
-		public double[][] call() throws Exception {
-			try {
-				Registry registry = LocateRegistry.getRegistry(serverName);
-				RemoteParallelAlgorithms comp = (RemoteParallelAlgorithms) registry.lookup("Alg");
-				return comp.multiply(numThreads(), a, bTranspose);
-			} catch (RemoteException | NotBoundException e) {
-				e.printStackTrace();
-				return null;
-			}	
-		}
-	}
-
-	private final class MasterNodeThread implements Callable<double[][]> { 
-		private final double[][] a;
-		private final double[][] bTranspose;
-		
-		public MasterNodeThread(final double[][] a, final double[][] bTranspose) {
-			this.a = a;
-			this.bTranspose = bTranspose;
-		}
-
-		@Override
-		public double[][] call() throws Exception {
-			final ConcurrentMatrixMultiplier mult = new ConcurrentMatrixMultiplier(masterThreads);
-			return mult.multiply(a, bTranspose, true);
-		}
-	}
-
-}
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.cicirello.algengine.Collectives;
+import org.cicirello.algengine.LatencyHistogram;
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+import org.cicirello.algengine.TaskSpec;
+import org.cicirello.algengine.Trace;
+import org.cicirello.algengine.TraceSpan;
+
+/**
+ * A parallel matrix multiplier that uses Java RMI to distribute
+ * the computation of the matrix multiplication among multiple
+ * RMI servers.  
+ * 
+ * Uses a very simple approach to sub-division of work.  Specifically, 
+ * in computing A*B, distributes either the rows of matrix A or the 
+ * columns of matrix B (whichever is larger) equally among the RMI servers.
+ * These RMI servers implement a multithreaded matrix multiplication, which
+ * then distributed the larger of its two matrices among the available threads.
+ * Optionally, the RMI servers can instead be organized into a tree, such
+ * that servers forward parts of their slice to other servers (see 
+ * {@link #setTreeFanout}), and the work can be divided according to a 
+ * cost model of the nodes rather than equally (see {@link #setPartitioner}).
+ * Multiplications can be traced across all of the nodes (see {@link #setTraceDirectory}),
+ * and the inner dimension can be divided instead, with the RMI servers summing 
+ * their products among themselves (see {@link #multiplyByReduction}).  Matrices
+ * in files too large for the memory of the nodes can be multiplied out of core
+ * (see {@link #multiplyFiles}).  Products can be verified in O(n<sup>2</sup>) time,
+ * slice by slice, identifying the node that computed a wrong slice, which can then
+ * be recomputed on the master (see {@link #setVerification}).  Symmetric products of
+ * a matrix and its transpose are computed as their lower triangle only, shipping the 
+ * matrix once (see {@link #syrkByDistributingRows}).
+ * 
+ * Better parallel matrix multiplication algorithms exist.  This class 
+ * was implemented to serve as a test case for a specific system for a 
+ * specific testing purpose, and not intended to be used more generally as a 
+ * matrix multiplier.
+ *
+ * @author Vincent A. Cicirello
+ * @version 8.15.2017
+ */
+public final class DistributedMatrixMultiplier extends ConcurrentMatrixMultiplier {
+
+	private final String[] serverNames;
+	private final int masterThreads;
+	private int treeFanout;
+	private CostModelPartitioner partitioner;
+	private ExecutorService masterEs;
+	private final LatencyHistogram remoteCalls = new LatencyHistogram();
+	private final LatencyHistogram masterCompute = new LatencyHistogram();
+	private volatile File traceDirectory;
+	private volatile Trace lastTrace;
+	private int verifyRounds;
+	private boolean recomputeFailures;
+	private volatile List<SliceVerification> lastVerification = Collections.emptyList();
+	
+	/**
+	 * Initialize the matrix multiplier. A cached thread pool is used locally to
+	 * manage the local threads that handle interaction with the RMI servers.
+	 * 
+	 * @param serverNames Array of RMI server names to distribute the work.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 * @param masterThreads Number of threads to use on the master node of
+	 * the cluster.
+	 */
+	public DistributedMatrixMultiplier(String[] serverNames, int threadsPerServer, int masterThreads) {
+		super(threadsPerServer);
+		this.serverNames = serverNames;
+		this.masterThreads = masterThreads;
+	}
+	
+	/**
+	 * Initialize the matrix multiplier.
+	 * 
+	 * @param serverNames Array of RMI server names to distribute the work.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 * @param masterThreads Number of threads to use on the master node of
+	 * the cluster.
+	 * @param es An executor service, enabling you to specify thread pool
+	 * type.
+	 */
+	public DistributedMatrixMultiplier(String[] serverNames, int threadsPerServer, int masterThreads, ExecutorService es) {
+		super(threadsPerServer, es);
+		this.serverNames = serverNames;
+		this.masterThreads = masterThreads;
+	}
+	
+	/**
+	 * Asynchronously computes a * b.  Returns immediately.  The work is divided 
+	 * among the RMI servers (and the master node if masterThreads &#62; 0) 
+	 * exactly as in {@link #multiply(double[][], double[][])}, but the result 
+	 * is assembled incrementally as each slice arrives rather than in server order, 
+	 * and no thread of the caller waits on the computation.  Continuations can be
+	 * attached to the returned future, enabling the master to keep several independent
+	 * distributed jobs in flight at once.
+	 * 
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @return A future that completes with a * b, or completes exceptionally if
+	 * any of the RMI calls fails.
+	 */
+	public final CompletableFuture<double[][]> multiplyAsync(double[][] a, double[][] b) {
+		return multiplyAsync(a, b, false);
+	}
+	
+	/**
+	 * Asynchronously computes either a * b, or a * transpose(b).  Returns immediately. 
+	 * See {@link #multiplyAsync(double[][], double[][])} for details.
+	 * 
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @param bIsTransposed If true, then b is actually the transpose of b. 
+	 * @return A future that completes with a * b, or completes exceptionally if
+	 * any of the RMI calls fails.
+	 */
+	public final CompletableFuture<double[][]> multiplyAsync(final double[][] a, final double[][] b, boolean bIsTransposed) {
+		final File directory = traceDirectory;
+		if (directory == null) {
+			return multiplyAsync(a, b, bIsTransposed, null);
+		}
+		final Trace trace = new Trace();
+		return multiplyAsync(a, b, bIsTransposed, trace).whenComplete((c, e) -> {
+			lastTrace = trace;
+			try {
+				trace.writeChromeTrace("master", directory);
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+		});
+	}
+	
+	/**
+	 * Asynchronously computes either a * b, or a * transpose(b), recording its
+	 * steps on this node and on the RMI servers as the spans of a trace.  
+	 * Returns immediately.  See {@link #multiplyAsync(double[][], double[][])} for 
+	 * details.  The spans of each RMI server are collected and aligned with those
+	 * of this node as its slice returns.  Unlike the other forms, does not write
+	 * the trace to the trace directory, which is left to the caller.
+	 * 
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @param bIsTransposed If true, then b is actually the transpose of b. 
+	 * @param trace The trace in which to record the spans, or null to not trace
+	 * the multiplication.
+	 * @return A future that completes with a * b, or completes exceptionally if
+	 * any of the RMI calls fails.
+	 */
+	public final CompletableFuture<double[][]> multiplyAsync(final double[][] a, final double[][] b, boolean bIsTransposed, final Trace trace) {
+		final long start = System.nanoTime();
+		CompletableFuture<double[][]> bTranspose = bIsTransposed 
+				? CompletableFuture.completedFuture(b) 
+				: CompletableFuture.supplyAsync(() -> {
+					Trace.Span span = begin(trace, "transpose", "compute");
+					try {
+						return transpose(b);
+					} finally {
+						end(span);
+					}
+				}, es);
+		CompletableFuture<double[][]> c = bTranspose.thenCompose(bT -> a.length >= bT[0].length 
+				? distributeRowsOfAAsync(a, bT, trace) 
+				: distributeColsOfBAsync(a, bT, trace));
+		if (trace == null) return c;
+		return c.whenComplete((result, e) -> trace.record("multiply", "call", start, System.nanoTime()));
+	}
+	
+	/**
+	 * Traces each multiplication, writing the trace of each to a file in the
+	 * Chrome trace event format, which can be viewed as a timeline in 
+	 * chrome://tracing or https://ui.perfetto.dev.  The timeline has a row per
+	 * thread of each node, with the slicing of the matrices, the RMI calls, the
+	 * time on the network, the deserialization, queue wait, computation, and 
+	 * serialization on each RMI server, and the assembly of the result.  
+	 * The steps are also recorded as Java Flight Recorder events, on each node
+	 * where a flight recording is running.  Each file is named for the id of 
+	 * the trace, which is passed to the RMI servers along with each call.
+	 * 
+	 * <p>Tracing adds an RMI call per server to each multiplication, to collect
+	 * the spans of the server, so leave it off when timing.</p>
+	 * 
+	 * @param directory The directory for the trace files, or null to stop tracing.
+	 */
+	public void setTraceDirectory(File directory) {
+		traceDirectory = directory;
+	}
+	
+	/**
+	 * Gets the trace of the most recent traced multiplication.
+	 * @return the trace of the last multiplication, or null if no multiplication
+	 * has been traced
+	 */
+	public Trace lastTrace() {
+		return lastTrace;
+	}
+	
+	/**
+	 * Verifies each product with Freivalds' algorithm (see {@link Freivalds}), in
+	 * O(rounds n<sup>2</sup>) time on this node, rather than the O(n<sup>3</sup>) of
+	 * recomputing it.  The check is made row by row, when the rows of a are divided
+	 * among the nodes, and column by column, when the columns of b are, so that each 
+	 * wrong row or column is attributed to the slice, and thus the node, that 
+	 * computed it (in tree mode, to the subtree).  The slices that fail are available
+	 * from {@link #lastVerification}, and can be recomputed on this node.  
+	 * 
+	 * @param rounds The number of rounds of checking, each of which detects a wrong
+	 * row or column with probability at least 1/2, or 0 to not verify products.
+	 * @param recompute If true, a slice that fails is recomputed on this node, 
+	 * with the master threads (or as many threads as each RMI server uses, if 
+	 * there are none), so that the product is correct.  Otherwise, the product 
+	 * is returned with the slice as computed.
+	 */
+	public void setVerification(int rounds, boolean recompute) {
+		verifyRounds = rounds;
+		recomputeFailures = recompute;
+	}
+	
+	/**
+	 * Gets the slices of the most recent verified product that failed verification
+	 * (see {@link #setVerification}).
+	 * @return the slices that failed, which is empty if every slice passed, or
+	 * if no product has been verified
+	 */
+	public List<SliceVerification> lastVerification() {
+		return lastVerification;
+	}
+	
+	/**
+	 * Switches between flat and tree-structured distribution of the work.
+	 * In the default flat mode (fanout 0), the master node sends a slice of
+	 * the work to every RMI server and receives every result slice itself.
+	 * In tree mode, the RMI servers are divided into at most fanout subtrees of
+	 * nearly equal size.  The master sends one slice, sized in proportion to 
+	 * the number of servers in the subtree, to the root of each subtree, along with
+	 * the names of the rest of the servers in that subtree.  Each root keeps its own
+	 * share of the slice, forwards the rest to the roots of its own subtrees in the same
+	 * way, and merges its children's results before replying.  The number of slices
+	 * sent and received by any one node thus grows logarithmically, rather than 
+	 * linearly, with the number of servers.
+	 * 
+	 * @param fanout The maximum number of children of any node in the tree, or 0 for
+	 * flat distribution.
+	 */
+	public void setTreeFanout(int fanout) {
+		treeFanout = fanout;
+	}
+	
+	/**
+	 * Runs the master node's share of the work on a given thread pool, 
+	 * such as one sized to the cores of the node, rather than on a new 
+	 * cached thread pool for each multiplication.  The thread pool passed 
+	 * to the constructor, which waits on the RMI servers, may then be a 
+	 * different one.
+	 * 
+	 * @param computeEs The thread pool for the master's share of the work, 
+	 * or null for a new cached thread pool each time.
+	 */
+	public void setMasterExecutor(ExecutorService computeEs) {
+		masterEs = computeEs;
+	}
+	
+	/**
+	 * Sizes the slices of work sent to each RMI server and to the master node
+	 * with a cost model of the nodes and their links, rather than giving each 
+	 * node an equal share.  A node may receive no work at all, such as when the
+	 * problem is too small for shipping it to the node to pay off.  
+	 * Applies only to flat distribution (see {@link #setTreeFanout}).
+	 * 
+	 * @param partitioner The partitioner, whose RMI servers must be in the same 
+	 * order as those of this multiplier, or null to divide the work equally.
+	 * @throws IllegalArgumentException if the partitioner divides work among a 
+	 * different number of nodes than this multiplier.
+	 */
+	public void setPartitioner(CostModelPartitioner partitioner) {
+		int nodes = masterThreads > 0 ? serverNames.length + 1 : serverNames.length;
+		if (partitioner != null && partitioner.numNodes() != nodes) {
+			throw new IllegalArgumentException("Partitioner must model the same nodes as the multiplier.");
+		}
+		this.partitioner = partitioner;
+	}
+	
+	/**
+	 * Computes a * b by dividing the inner dimension, the columns of a and rows of b,
+	 * equally among the RMI servers, rather than the rows of a or columns of b.  Each 
+	 * RMI server multiplies its columns of a by its rows of b, and the RMI servers 
+	 * sum their products with a reduction among themselves (see {@link Collectives}),
+	 * the first RMI server returning the sum to the master.  The master thus sends each 
+	 * element of a and b only once, and receives a single product, which suits products 
+	 * of a wide a and tall b, that is, of a small result.  The master node does none of 
+	 * the work, and the tree and partitioner of this multiplier do not apply.
+	 * 
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @param bIsTransposed If true, then b is actually the transpose of b.
+	 * @param algorithm The algorithm of the reduction.
+	 * @return a * b
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public double[][] multiplyByReduction(double[][] a, double[][] b, boolean bIsTransposed, Collectives.Algorithm algorithm) throws RemoteException, NotBoundException {
+		double[][] bTranspose = bIsTransposed ? b : transpose(b);
+		int inner = a[0].length;
+		int p = serverNames.length;
+		Serializable[] tasks = new Serializable[p];
+		for (int i = 0; i < p; i++) {
+			int from = (int)((long)inner * i / p);
+			int to = (int)((long)inner * (i + 1) / p);
+			tasks[i] = new TaskSpec("multiply", numThreads(), columns(a, from, to), columns(bTranspose, from, to));
+		}
+		Collectives collectives = new Collectives(serverNames, es);
+		collectives.setAlgorithm(algorithm);
+		double[] sum = collectives.reduce(tasks, Collectives.Op.SUM);
+		double[][] c = new double[a.length][];
+		for (int i = 0; i < c.length; i++) {
+			c[i] = Arrays.copyOfRange(sum, i * bTranspose.length, (i + 1) * bTranspose.length);
+		}
+		return c;
+	}
+	
+	/**
+	 * Computes c = a * b out of core, for matrices in files local to each of the RMI 
+	 * servers, at the same path on each, which need not fit in the memory of the nodes.
+	 * Divides the rows of c equally among the RMI servers, each of which computes its rows
+	 * from its own files tile by tile, as in 
+	 * {@link ConcurrentMatrixMultiplier#multiply(OffHeapMatrix, OffHeapMatrix, OffHeapMatrix, int, int, int)},
+	 * writing them to its own file of c, which is created if it does not exist.  Only the
+	 * names of the files cross the network, and c remains on the RMI servers, each file
+	 * of c holding the rows its RMI server computed.  The files are matrix files (see 
+	 * {@link MatrixFile}), which the RMI servers can generate themselves with the 
+	 * "matrix.generate" kernel (see {@link MatrixGenerateKernel}).  The master node does 
+	 * none of the work, and the tree and partitioner of this multiplier do not apply.
+	 * 
+	 * @param aFile The path of the file of a, which is m by k, on the RMI servers.
+	 * @param bFile The path of the file of b, which is k by n, on the RMI servers.
+	 * @param cFile The path of the file of c, which is m by n, on the RMI servers.
+	 * @param m The number of rows of a.
+	 * @param k The number of columns of a and rows of b.
+	 * @param n The number of columns of b.
+	 * @param tileSize The number of rows and columns of a tile.
+	 * @throws RemoteException If one of the RMI calls fails, including if an RMI server
+	 * cannot map its files.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public void multiplyFiles(String aFile, String bFile, String cFile, int m, int k, int n, int tileSize) throws RemoteException, NotBoundException {
+		int p = serverNames.length;
+		@SuppressWarnings("unchecked")
+		Future<Serializable>[] futures = (Future<Serializable>[])new Future[p];
+		for (int i = 0; i < p; i++) {
+			final String serverName = serverNames[i];
+			final TaskSpec task = new TaskSpec("multiply.ooc", numThreads(), aFile, bFile, cFile, m, k, n, 
+					(int)((long)m * i / p), (int)((long)m * (i + 1) / p), tileSize);
+			futures[i] = es.submit(() -> RemoteParallelAlgorithms.lookup(serverName).submit(task));
+		}
+		try {
+			for (Future<Serializable> f : futures) f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RemoteException("Interrupted while multiplying", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RemoteException) throw (RemoteException)cause;
+			if (cause instanceof NotBoundException) throw (NotBoundException)cause;
+			throw new RemoteException("Failed to multiply", cause);
+		}
+	}
+	
+	private static double[][] columns(double[][] m, int from, int to) {
+		double[][] slice = new double[m.length][];
+		for (int i = 0; i < m.length; i++) {
+			slice[i] = Arrays.copyOfRange(m[i], from, to);
+		}
+		return slice;
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	protected final double[][] multiplyByDistributingColsOfB(final double[][] a, final double[][] b) {
+		if (traceDirectory != null || verifyRounds > 0) {
+			return join(multiplyAsync(a, b, true));
+		}
+		Target[] targets = targets();
+		double[][][] bSlices = split(b, a, targets);
+		
+		@SuppressWarnings("unchecked")
+		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[targets.length];
+		
+		for (int i = 0; i < targets.length; i++) {
+			if (bSlices[i].length > 0) {
+				threadFutures[i] = es.submit(targets[i].handler(a, bSlices[i]));
+			}
+		}
+		double[][] c = new double[a.length][b.length];
+		int k = 0;
+		for (int i = 0; i < targets.length; i++) {
+			if (threadFutures[i] == null) continue;
+			double[][] cThread = null;
+			try {
+				cThread = threadFutures[i].get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+			for (int j = 0; j < cThread.length; j++) {
+				for (int z = 0; z < cThread[j].length; z++)
+				c[j][k+z] = cThread[j][z];
+			}
+			k += cThread[0].length;
+		}
+		return c;
+	}
+	
+	/**
+	  * {@inheritDoc}
+	  */
+	@Override
+	protected final double[][] multiplyByDistributingRowsOfA(final double[][] a, final double[][] b) {
+		if (traceDirectory != null || verifyRounds > 0) {
+			return join(multiplyAsync(a, b, true));
+		}
+		Target[] targets = targets();
+		double[][][] aSlices = split(a, b, targets);
+		
+		@SuppressWarnings("unchecked")
+		Future<double[][]>[] threadFutures = (Future<double[][]>[])new Future[targets.length];
+		
+		for (int i = 0; i < targets.length; i++) {
+			if (aSlices[i].length > 0) {
+				threadFutures[i] = es.submit(targets[i].handler(aSlices[i], b));
+			}
+		}
+		double[][] c = new double[a.length][];
+		int k = 0;
+		for (int i = 0; i < targets.length; i++) {
+			if (threadFutures[i] == null) continue;
+			double[][] cThread = null;
+			try {
+				cThread = threadFutures[i].get();
+			}  catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+			for (int j = 0; j < cThread.length; j++) {
+				c[k] = cThread[j];
+				k++;
+			}
+		}
+		return c;
+	}
+	
+	private CompletableFuture<double[][]> distributeColsOfBAsync(final double[][] a, final double[][] b, final Trace trace) {
+		Target[] targets = targets();
+		double[][][] bSlices;
+		Trace.Span slicing = begin(trace, "slice", "compute");
+		try {
+			bSlices = split(b, a, targets);
+		} finally {
+			end(slicing);
+		}
+		final double[][] c = new double[a.length][b.length];
+		CompletableFuture<?>[] parts = new CompletableFuture<?>[targets.length];
+		int k = 0;
+		for (int i = 0; i < targets.length; i++) {
+			if (bSlices[i].length == 0) {
+				parts[i] = CompletableFuture.completedFuture(null);
+				continue;
+			}
+			final int offset = k;
+			final String name = targets[i].name();
+			parts[i] = targets[i].computeAsync(a, bSlices[i], trace).thenAccept(cThread -> {
+				Trace.Span span = begin(trace, "assemble " + name, "compute");
+				try {
+					for (int j = 0; j < cThread.length; j++) {
+						System.arraycopy(cThread[j], 0, c[j], offset, cThread[j].length);
+					}
+				} finally {
+					end(span);
+				}
+			});
+			k += bSlices[i].length;
+		}
+		return CompletableFuture.allOf(parts).thenApply(v -> verify(a, b, c, targets, bSlices, false, trace));
+	}
+	
+	private CompletableFuture<double[][]> distributeRowsOfAAsync(final double[][] a, final double[][] b, final Trace trace) {
+		Target[] targets = targets();
+		double[][][] aSlices;
+		Trace.Span slicing = begin(trace, "slice", "compute");
+		try {
+			aSlices = split(a, b, targets);
+		} finally {
+			end(slicing);
+		}
+		final double[][] c = new double[a.length][];
+		CompletableFuture<?>[] parts = new CompletableFuture<?>[targets.length];
+		int k = 0;
+		for (int i = 0; i < targets.length; i++) {
+			if (aSlices[i].length == 0) {
+				parts[i] = CompletableFuture.completedFuture(null);
+				continue;
+			}
+			final int offset = k;
+			final String name = targets[i].name();
+			parts[i] = targets[i].computeAsync(aSlices[i], b, trace).thenAccept(cThread -> {
+				Trace.Span span = begin(trace, "assemble " + name, "compute");
+				try {
+					System.arraycopy(cThread, 0, c, offset, cThread.length);
+				} finally {
+					end(span);
+				}
+			});
+			k += aSlices[i].length;
+		}
+		return CompletableFuture.allOf(parts).thenApply(v -> verify(a, b, c, targets, aSlices, true, trace));
+	}
+	
+	/*
+	 * Checks each slice of c = a * b that a target computed, if verification is on,
+	 * recording those that fail, and recomputing them on this node if so configured.
+	 * The slices are of rows of c if byRows, and otherwise of columns.
+	 */
+	private double[][] verify(double[][] a, double[][] bTranspose, double[][] c, Target[] targets, double[][][] slices, boolean byRows, Trace trace) {
+		int rounds = verifyRounds;
+		if (rounds <= 0) return c;
+		List<SliceVerification> failures = new ArrayList<SliceVerification>();
+		Trace.Span span = begin(trace, "verify", "compute");
+		try {
+			Freivalds check = new Freivalds(rounds, ThreadLocalRandom.current().nextLong());
+			boolean[] ok = byRows ? check.checkRows(a, bTranspose, c) : check.checkColumns(a, bTranspose, c);
+			int first = 0;
+			for (int i = 0; i < targets.length; i++) {
+				int count = slices[i].length;
+				int failed = 0;
+				for (int j = first; j < first + count; j++) {
+					if (!ok[j]) failed++;
+				}
+				if (failed > 0) {
+					boolean recomputed = recomputeFailures && recompute(a, bTranspose, c, first, count, byRows, check);
+					failures.add(new SliceVerification(targets[i].name(), byRows, first, count, failed, recomputed));
+				}
+				first += count;
+			}
+		} finally {
+			end(span);
+		}
+		lastVerification = Collections.unmodifiableList(failures);
+		return c;
+	}
+	
+	/*
+	 * Recomputes a slice of rows, or columns, of c on this node, and checks it again.
+	 */
+	private boolean recompute(double[][] a, double[][] bTranspose, double[][] c, int first, int count, boolean byRows, Freivalds check) {
+		ConcurrentMatrixMultiplier mult = new ConcurrentMatrixMultiplier(masterThreads > 0 ? masterThreads : numThreads(), 
+				masterEs != null ? masterEs : es);
+		if (byRows) {
+			double[][] aSlice = Arrays.copyOfRange(a, first, first + count);
+			double[][] cSlice = mult.multiply(aSlice, bTranspose, true);
+			System.arraycopy(cSlice, 0, c, first, count);
+			return check.check(aSlice, bTranspose, cSlice);
+		}
+		double[][] bSlice = Arrays.copyOfRange(bTranspose, first, first + count);
+		double[][] cSlice = mult.multiply(a, bSlice, true);
+		for (int i = 0; i < c.length; i++) {
+			System.arraycopy(cSlice[i], 0, c[i], first, count);
+		}
+		for (boolean ok : check.checkColumns(a, bSlice, cSlice)) {
+			if (!ok) return false;
+		}
+		return true;
+	}
+	
+	/*
+	 * The nodes that directly receive a slice of the work from this one: one per 
+	 * RMI server (or one per subtree root in tree mode), followed by the master node 
+	 * itself if masterThreads > 0.
+	 */
+	private Target[] targets() {
+		int groups = treeFanout > 0 && treeFanout < serverNames.length ? treeFanout : serverNames.length;
+		Target[] targets = new Target[masterThreads > 0 ? groups + 1 : groups];
+		int minSize = groups > 0 ? serverNames.length / groups : 0;
+		int numWithExtra = groups > 0 ? serverNames.length % groups : 0;
+		int k = 0;
+		for (int i = 0; i < groups; i++) {
+			int size = i < numWithExtra ? minSize + 1 : minSize;
+			targets[i] = new Target(serverNames[k], Arrays.copyOfRange(serverNames, k+1, k+size), size);
+			k += size;
+		}
+		if (masterThreads > 0) {
+			targets[groups] = new Target(null, null, 1);
+		}
+		return targets;
+	}
+	
+	/*
+	 * Splits the rows of m into one slice per target.  With a partitioner (flat mode
+	 * only), the slice sizes come from its cost model, given that every target
+	 * also needs all of the other matrix.  Otherwise, they are in proportion to the 
+	 * weights of the targets.  Rows left over after rounding down go to the targets
+	 * with the largest remainders, ties broken in favor of earlier targets. So with 
+	 * equal weights, the first m.length % t slices are each one row longer than the others.
+	 * The slices share row arrays with m.
+	 */
+	private double[][][] split(double[][] m, double[][] other, Target[] targets) {
+		int[] counts;
+		if (partitioner != null && treeFanout == 0) {
+			counts = partitioner.partition(m.length, 8.0 * other.length * other[0].length, 
+					8.0 * (m[0].length + other.length), 2.0 * m[0].length * other.length);
+		} else {
+			counts = new int[targets.length];
+			long totalWeight = 0;
+			for (Target target : targets) totalWeight += target.weight;
+			long[] remainders = new long[targets.length];
+			int assigned = 0;
+			for (int i = 0; i < targets.length; i++) {
+				long share = (long)m.length * targets[i].weight;
+				counts[i] = (int)(share / totalWeight);
+				remainders[i] = share % totalWeight;
+				assigned += counts[i];
+			}
+			for (; assigned < m.length; assigned++) {
+				int best = 0;
+				for (int i = 1; i < targets.length; i++) {
+					if (remainders[i] > remainders[best]) best = i;
+				}
+				counts[best]++;
+				remainders[best] = -1;
+			}
+		}
+		double[][][] slices = new double[targets.length][][];
+		int k = 0;
+		for (int i = 0; i < targets.length; i++) {
+			slices[i] = new double[counts[i]][];
+			System.arraycopy(m, k, slices[i], 0, counts[i]);
+			k += counts[i];
+		}
+		return slices;
+	}
+	
+	/**
+	 * Gets the histogram of the durations of the RMI calls made by this 
+	 * multiplier, one per slice of work sent to an RMI server, from before 
+	 * the lookup of the server until the result slice is deserialized.  
+	 * Compare with the compute and serialization times in the 
+	 * {@link org.cicirello.algengine.EngineStats} of the servers to see 
+	 * where the time of the calls goes.
+	 * @return the histogram of the RMI calls
+	 */
+	public LatencyHistogram remoteCallTimes() {
+		return remoteCalls;
+	}
+	
+	/**
+	 * Gets the histogram of the durations of the master node's own shares of the work.
+	 * @return the histogram of the master's shares
+	 */
+	public LatencyHistogram masterTimes() {
+		return masterCompute;
+	}
+	
+	/*
+	 * The result of a future that the synchronous forms wait on.
+	 */
+	private static double[][] join(CompletableFuture<double[][]> c) {
+		try {
+			return c.join();
+		} catch (CompletionException e) {
+			e.getCause().printStackTrace();
+			return null;
+		}
+	}
+	
+	/*
+	 * Begins a span of a trace, or returns null (which try-with-resources skips)
+	 * if the call is not traced.
+	 */
+	private static Trace.Span begin(Trace trace, String name, String category) {
+		return trace != null ? trace.begin(name, category) : null;
+	}
+	
+	private static void end(Trace.Span span) {
+		if (span != null) span.close();
+	}
+	
+	/**
+	 * Computes a range of rows of the lower triangle of a * transpose(a) by 
+	 * dividing the triangle into blocks among the RMI servers (and the master node
+	 * if masterThreads &#62; 0), in parts of nearly equal numbers of elements, so that
+	 * each RMI server is sent only the rows of a that its blocks depend on, and 
+	 * returns only its blocks.  The triangle is divided in whichever of two ways 
+	 * sends fewer rows of a in all:
+	 * <ul>
+	 * <li>by bands: the rows are split into a band of nearly equal numbers of rows 
+	 * for each of the q parts, and part s computes the triangle of band s, and the 
+	 * blocks that pair band s with each of the q/2 (rounded down) bands after it, 
+	 * cyclically, so that each pair of bands is computed once; the pair of bands 
+	 * q/2 apart, for even q, is split between them by rows.  So a part depends on 
+	 * q/2 + 1 bands, (q + 1)/2q of the rows for odd q, and (q + 2)/2q for even q.</li>
+	 * <li>by rows: part s computes consecutive rows of the triangle, and depends on 
+	 * all of the rows of a up to its last, with the master node, if any, computing 
+	 * the last rows.  This sends fewer rows for two parts.</li>
+	 * </ul>
+	 * Each part also depends on the rows of a before fromRow, against which it 
+	 * computes its rows.  By comparison, multiply(a, a, true) sends each RMI server all 
+	 * of a, and returns twice as many elements.  The tree and partitioner of this 
+	 * multiplier do not apply.
+	 * 
+	 * @param a The matrix
+	 * @param fromRow The first row.
+	 * @param toRow One past the last row.
+	 * @return rows fromRow through toRow - 1 of the lower triangle of a * transpose(a)
+	 */
+	@Override
+	protected final double[][] syrkByDistributingRows(final double[][] a, int fromRow, int toRow) {
+		int parts = masterThreads > 0 ? serverNames.length + 1 : serverNames.length;
+		int[][] blocks = syrkByBands(fromRow, toRow, parts);
+		int[][] byRows = syrkByRows(fromRow, toRow, parts);
+		if (rowsSent(byRows) < rowsSent(blocks)) blocks = byRows;
+		
+		@SuppressWarnings("unchecked")
+		Future<double[][][]>[] threadFutures = (Future<double[][][]>[])new Future[parts];
+		
+		for (int s = 0; s < parts; s++) {
+			if (blocks[s].length == 0) continue;
+			if (s == serverNames.length) {
+				final int[] mine = blocks[s];
+				threadFutures[s] = es.submit(() -> syrkOnMaster(a, mine));
+				continue;
+			}
+			// the rows of a that the blocks depend on, in order, with the blocks 
+			// renumbered to match
+			int[] intervals = rowsOf(blocks[s]);
+			int size = 0;
+			for (int k = 0; k < intervals.length; k += 2) size += intervals[k+1] - intervals[k];
+			double[][] rowsOfA = new double[size][];
+			for (int k = 0, at = 0; k < intervals.length; k += 2) {
+				System.arraycopy(a, intervals[k], rowsOfA, at, intervals[k+1] - intervals[k]);
+				at += intervals[k+1] - intervals[k];
+			}
+			int[] local = new int[blocks[s].length];
+			for (int k = 0; k < local.length; k += 2) {
+				local[k] = local(intervals, blocks[s][k], false);
+				local[k+1] = local(intervals, blocks[s][k+1], true);
+			}
+			final String serverName = serverNames[s];
+			final TaskSpec task = new TaskSpec("syrk", numThreads(), rowsOfA, local);
+			threadFutures[s] = es.submit(() -> {
+				long start = System.nanoTime();
+				try {
+					return (double[][][])RemoteParallelAlgorithms.lookup(serverName).submit(task);
+				} finally {
+					remoteCalls.record(System.nanoTime() - start);
+				}
+			});
+		}
+		double[][] c = new double[toRow - fromRow][];
+		for (int i = fromRow; i < toRow; i++) {
+			c[i - fromRow] = new double[i + 1];
+		}
+		for (int s = 0; s < parts; s++) {
+			if (threadFutures[s] == null) continue;
+			try {
+				double[][][] cThread = threadFutures[s].get();
+				for (int k = 0; k < cThread.length; k++) {
+					int first = blocks[s][4*k];
+					for (int i = 0; i < cThread[k].length; i++) {
+						System.arraycopy(cThread[k][i], 0, c[first + i - fromRow], blocks[s][4*k+2], cThread[k][i].length);
+					}
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+				return null;
+			}
+		}
+		return c;
+	}
+	
+	/*
+	 * Divides rows fromRow through toRow - 1 of the lower triangle into the blocks
+	 * of each part by bands, four elements each (the first row, one past the last 
+	 * row, the first column, and one past the last column), leaving out empty blocks.
+	 */
+	private static int[][] syrkByBands(int fromRow, int toRow, int parts) {
+		int[] bands = new int[parts + 1];
+		for (int s = 0; s <= parts; s++) {
+			bands[s] = fromRow + (int)((long)(toRow - fromRow) * s / parts);
+		}
+		int[][] blocks = new int[parts][];
+		for (int s = 0; s < parts; s++) {
+			List<Integer> mine = new ArrayList<Integer>();
+			addBlock(mine, bands[s], bands[s+1], 0, fromRow);
+			addBlock(mine, bands[s], bands[s+1], bands[s], bands[s+1]);
+			for (int d = 1; 2 * d <= parts; d++) {
+				int t = (s + d) % parts;
+				int hi = Math.max(s, t);
+				int lo = Math.min(s, t);
+				int first = bands[hi];
+				int last = bands[hi+1];
+				if (2 * d == parts) {
+					// both bands of the pair q/2 apart have it, so each computes half of its rows
+					int mid = (first + last) / 2;
+					if (s == lo) last = mid;
+					else first = mid;
+				}
+				addBlock(mine, first, last, bands[lo], bands[lo+1]);
+			}
+			blocks[s] = new int[mine.size()];
+			for (int k = 0; k < blocks[s].length; k++) blocks[s][k] = mine.get(k);
+		}
+		return blocks;
+	}
+	
+	/*
+	 * Divides rows fromRow through toRow - 1 of the lower triangle into the blocks
+	 * of each part by rows, as syrkByBands does by bands.
+	 */
+	private static int[][] syrkByRows(int fromRow, int toRow, int parts) {
+		int[] bounds = splitTriangle(fromRow, toRow, parts);
+		int[][] blocks = new int[parts][];
+		for (int s = 0; s < parts; s++) {
+			blocks[s] = bounds[s] < bounds[s+1] ? new int[] {bounds[s], bounds[s+1], 0, bounds[s+1]} : new int[0];
+		}
+		return blocks;
+	}
+	
+	private static void addBlock(List<Integer> blocks, int fromRow, int toRow, int fromCol, int toCol) {
+		if (fromRow < toRow && fromCol < toCol) {
+			blocks.add(fromRow);
+			blocks.add(toRow);
+			blocks.add(fromCol);
+			blocks.add(toCol);
+		}
+	}
+	
+	/*
+	 * The number of rows of a sent to the RMI servers for a division of the triangle.
+	 */
+	private int rowsSent(int[][] blocks) {
+		int rows = 0;
+		for (int s = 0; s < serverNames.length; s++) {
+			int[] intervals = rowsOf(blocks[s]);
+			for (int k = 0; k < intervals.length; k += 2) rows += intervals[k+1] - intervals[k];
+		}
+		return rows;
+	}
+	
+	/*
+	 * The rows of a that blocks depend on, as the starts and ends of disjoint 
+	 * intervals in increasing order.
+	 */
+	private static int[] rowsOf(int[] blocks) {
+		int[][] ranges = new int[blocks.length / 2][];
+		for (int k = 0; k < ranges.length; k++) {
+			ranges[k] = new int[] {blocks[2*k], blocks[2*k+1]};
+		}
+		Arrays.sort(ranges, (x, y) -> Integer.compare(x[0], y[0]));
+		List<Integer> merged = new ArrayList<Integer>();
+		for (int[] r : ranges) {
+			int last = merged.size() - 1;
+			if (last > 0 && r[0] <= merged.get(last)) {
+				merged.set(last, Math.max(merged.get(last), r[1]));
+			} else {
+				merged.add(r[0]);
+				merged.add(r[1]);
+			}
+		}
+		int[] intervals = new int[merged.size()];
+		for (int k = 0; k < intervals.length; k++) intervals[k] = merged.get(k);
+		return intervals;
+	}
+	
+	/*
+	 * The index among the rows of the intervals of row i of a, or of one past 
+	 * row i - 1 if end.
+	 */
+	private static int local(int[] intervals, int i, boolean end) {
+		int at = 0;
+		for (int k = 0; k < intervals.length; k += 2) {
+			if (end ? i <= intervals[k+1] : i < intervals[k+1]) return at + i - intervals[k];
+			at += intervals[k+1] - intervals[k];
+		}
+		throw new IllegalArgumentException("Row " + i + " is not among the rows sent");
+	}
+	
+	private double[][][] syrkOnMaster(double[][] a, int[] blocks) {
+		ConcurrentMatrixMultiplier mult = masterEs != null 
+				? new ConcurrentMatrixMultiplier(masterThreads, masterEs) 
+				: new ConcurrentMatrixMultiplier(masterThreads);
+		long start = System.nanoTime();
+		double[][][] c = mult.syrkBlocks(a, blocks);
+		masterCompute.record(System.nanoTime() - start);
+		return c;
+	}
+	
+	private double[][] multiplyOnMaster(double[][] a, double[][] bTranspose) {
+		ConcurrentMatrixMultiplier mult = masterEs != null 
+				? new ConcurrentMatrixMultiplier(masterThreads, masterEs) 
+				: new ConcurrentMatrixMultiplier(masterThreads);
+		long start = System.nanoTime();
+		double[][] c = mult.multiply(a, bTranspose, true);
+		masterCompute.record(System.nanoTime() - start);
+		return c;
+	}
+	
+	private final class Target {
+		
+		// null for the master node itself
+		private final String serverName;
+		private final String[] descendants;
+		private final int weight;
+		
+		public Target(String serverName, String[] descendants, int weight) {
+			this.serverName = serverName;
+			this.descendants = descendants;
+			this.weight = weight;
+		}
+		
+		public Callable<double[][]> handler(final double[][] a, final double[][] bTranspose) {
+			return serverName == null 
+					? new MasterNodeThread(a, bTranspose) 
+					: new LocalHandlerThread(a, bTranspose, serverName, descendants);
+		}
+		
+		public String name() {
+			return serverName != null ? serverName : "master";
+		}
+		
+		public CompletableFuture<double[][]> computeAsync(final double[][] a, final double[][] bTranspose, final Trace trace) {
+			if (serverName == null) {
+				return CompletableFuture.supplyAsync(() -> {
+					Trace.Span span = begin(trace, "compute", "compute");
+					try {
+						return multiplyOnMaster(a, bTranspose);
+					} finally {
+						end(span);
+					}
+				}, es);
+			}
+			final LocalHandlerThread handler = new LocalHandlerThread(a, bTranspose, serverName, descendants);
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					return handler.remoteMultiply(trace);
+				} catch (RemoteException | NotBoundException e) {
+					throw new CompletionException(e);
+				}
+			}, es);
+		}
+	}
+	
+	private final class LocalHandlerThread implements Callable<double[][]> { 
+		
+		private final String serverName;
+		private final String[] descendants;
+		private final double[][] a;
+		private final double[][] bTranspose;
+		
+		public LocalHandlerThread(final double[][] a, final double[][] bTranspose, final String serverName, final String[] descendants) {
+			this.serverName = serverName;
+			this.descendants = descendants;
+			this.a = a;
+			this.bTranspose = bTranspose;
+			if (System.getSecurityManager() == null) {
+				System.setSecurityManager(new SecurityManager());
+	        }
+		}
+
+		@Override
+		public double[][] call() throws Exception {
+			try {
+				return remoteMultiply(null);
+			} catch (RemoteException | NotBoundException e) {
+				e.printStackTrace();
+				return null;
+			}	
+		}
+		
+		public double[][] remoteMultiply(Trace trace) throws RemoteException, NotBoundException {
+			long start = System.nanoTime();
+			double[][] c;
+			RemoteParallelAlgorithms comp;
+			long callStart;
+			// the server records this call under a trace of its own
+			long traceId = trace != null ? Trace.newId() : 0;
+			try {
+				Trace.Span span = begin(trace, "lookup " + serverName, "rmi");
+				try {
+					comp = RemoteParallelAlgorithms.lookup(serverName);
+				} finally {
+					end(span);
+				}
+				callStart = System.nanoTime();
+				if (descendants.length > 0) {
+					c = comp.treeMultiply(numThreads(), a, bTranspose, descendants, treeFanout, traceId);
+				} else {
+					c = comp.multiply(numThreads(), a, bTranspose, traceId);
+				}
+			} finally {
+				remoteCalls.record(System.nanoTime() - start);
+			}
+			if (trace != null) {
+				long callEnd = System.nanoTime();
+				trace.record("call " + serverName, "rmi", callStart, callEnd);
+				Trace.Span span = trace.begin("collect " + serverName, "trace");
+				try {
+					List<TraceSpan> spans = comp.collectTrace(traceId);
+					trace.addRemote(serverName, spans, callStart, callEnd);
+				} finally {
+					end(span);
+				}
+			}
+			return c;
+		}
+	}
+
+	private final class MasterNodeThread implements Callable<double[][]> { 
+		private final double[][] a;
+		private final double[][] bTranspose;
+		
+		public MasterNodeThread(final double[][] a, final double[][] bTranspose) {
+			this.a = a;
+			this.bTranspose = bTranspose;
+		}
+
+		@Override
+		public double[][] call() throws Exception {
+			return multiplyOnMaster(a, bTranspose);
+		}
+	}
+
+}
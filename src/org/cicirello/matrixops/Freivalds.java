@@ -0,0 +1,232 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.cicirello.math.RandomStreams;
+
+/**
+ * Probabilistic verification of matrix products with Freivalds' algorithm, in 
+ * O(k n<sup>2</sup>) time for k rounds, rather than the O(n<sup>3</sup>) time of 
+ * recomputing the product.  A round of checking that c = a * b picks a random 
+ * vector x of 1s and -1s, and compares a(bx) to cx, each element of which is a 
+ * row of c.  The check can also be made from the left, comparing (x<sup>T</sup>a)b to 
+ * x<sup>T</sup>c, each element of which is a column of c.  So the check attributes 
+ * errors to the rows, or columns, of c that are wrong, such as those of a slice 
+ * that one node computed.  A single wrong element of a row (or column) is detected
+ * in every round, and several wrong elements in each round with probability at 
+ * least 1/2.
+ * 
+ * Since the products are computed in floating point, an element of a(bx) passes 
+ * if it differs from that of cx by at most the tolerance times the magnitude of 
+ * the terms that went into it.  By default, the tolerance is the bound on the 
+ * rounding error of the products, which grows with their dimensions, so that 
+ * no correct product fails, and a wrong element fails unless its error is 
+ * within rounding error of the magnitude of its row (or column).
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class Freivalds {
+	
+	private final int rounds;
+	private final long seed;
+	private double tolerance;
+	
+	/**
+	 * Initialize the verifier.
+	 * 
+	 * @param rounds The number of rounds, each of which has its own random vector.
+	 * @param seed The seed of the random vectors, round r using 
+	 * {@link RandomStreams#stream RandomStreams.stream(seed, r)}.
+	 */
+	public Freivalds(int rounds, long seed) {
+		this.rounds = rounds;
+		this.seed = seed;
+		tolerance = 0;
+	}
+	
+	/**
+	 * Sets the tolerance, relative to the magnitude of the terms, within which
+	 * a product passes.  
+	 * 
+	 * @param tolerance The relative tolerance, or 0 for the default, which is 
+	 * 2(k + n + 1) times the machine epsilon for a k by n second matrix when checking 
+	 * rows, and 2(m + k + 1) times it for an m by k first matrix when checking columns.
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+	
+	/**
+	 * Checks that c = a * b.
+	 * 
+	 * @param a First matrix
+	 * @param bTranspose The transpose of the second matrix
+	 * @param c The product to check
+	 * @return true if every row of c passes
+	 */
+	public boolean check(double[][] a, double[][] bTranspose, double[][] c) {
+		for (boolean ok : checkRows(a, bTranspose, c)) {
+			if (!ok) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks each row of c = a * b, comparing a(bx) to cx.
+	 * 
+	 * @param a First matrix
+	 * @param bTranspose The transpose of the second matrix
+	 * @param c The product to check.  A row of c that is null, or of the wrong 
+	 * length, fails.
+	 * @return an array with an element for each row of c, which is true if the row passes
+	 * @throws IllegalArgumentException if c and a differ in their numbers of rows
+	 */
+	public boolean[] checkRows(double[][] a, double[][] bTranspose, double[][] c) {
+		if (c.length != a.length) {
+			throw new IllegalArgumentException("The product has " + c.length + " rows, but should have " + a.length);
+		}
+		int inner = bTranspose.length > 0 ? bTranspose[0].length : 0;
+		boolean[] ok = new boolean[a.length];
+		Arrays.fill(ok, true);
+		// the magnitudes of the terms of row i are |a[i]| |b| 1 + |c[i]| 1
+		double[] bAbs = new double[inner];
+		for (double[] column : bTranspose) {
+			for (int j = 0; j < inner; j++) bAbs[j] += Math.abs(column[j]);
+		}
+		double[] scale = new double[a.length];
+		for (int i = 0; i < a.length; i++) {
+			// a row that is missing, or of the wrong length, cannot pass
+			if (c[i] == null || c[i].length != bTranspose.length) ok[i] = false;
+			else scale[i] = absDot(a[i], bAbs) + absSum(c[i]);
+		}
+		double[] x = new double[bTranspose.length];
+		double[] bx = new double[inner];
+		for (int r = 0; r < rounds; r++) {
+			randomSigns(r, x);
+			Arrays.fill(bx, 0.0);
+			for (int j = 0; j < x.length; j++) {
+				double[] column = bTranspose[j];
+				double xj = x[j];
+				for (int k = 0; k < inner; k++) bx[k] += xj * column[k];
+			}
+			for (int i = 0; i < a.length; i++) {
+				if (ok[i]) ok[i] = Math.abs(dot(a[i], bx) - dot(c[i], x)) <= tolerance(inner + x.length) * scale[i];
+			}
+		}
+		return ok;
+	}
+	
+	/**
+	 * Checks each column of c = a * b, comparing (x<sup>T</sup>a)b to x<sup>T</sup>c.
+	 * 
+	 * @param a First matrix
+	 * @param bTranspose The transpose of the second matrix
+	 * @param c The product to check
+	 * @return an array with an element for each column of c, which is true if the column passes
+	 * @throws IllegalArgumentException if c is not the shape of the product, since
+	 * a row that is missing or of the wrong length is in every column
+	 */
+	public boolean[] checkColumns(double[][] a, double[][] bTranspose, double[][] c) {
+		if (c.length != a.length) {
+			throw new IllegalArgumentException("The product has " + c.length + " rows, but should have " + a.length);
+		}
+		for (int i = 0; i < c.length; i++) {
+			if (c[i] == null || c[i].length != bTranspose.length) {
+				throw new IllegalArgumentException("Row " + i + " of the product is not of length " + bTranspose.length);
+			}
+		}
+		int inner = a.length > 0 ? a[0].length : 0;
+		boolean[] ok = new boolean[bTranspose.length];
+		Arrays.fill(ok, true);
+		// the magnitudes of the terms of column j are 1 |a| |b[.][j]| + 1 |c[.][j]|
+		double[] aAbs = new double[inner];
+		for (double[] row : a) {
+			for (int k = 0; k < inner; k++) aAbs[k] += Math.abs(row[k]);
+		}
+		double[] scale = new double[bTranspose.length];
+		for (int j = 0; j < scale.length; j++) {
+			scale[j] = absDot(bTranspose[j], aAbs);
+		}
+		for (double[] row : c) {
+			for (int j = 0; j < scale.length; j++) scale[j] += Math.abs(row[j]);
+		}
+		double[] x = new double[a.length];
+		double[] xa = new double[inner];
+		double[] xc = new double[bTranspose.length];
+		for (int r = 0; r < rounds; r++) {
+			randomSigns(r, x);
+			Arrays.fill(xa, 0.0);
+			Arrays.fill(xc, 0.0);
+			for (int i = 0; i < a.length; i++) {
+				double xi = x[i];
+				double[] ai = a[i];
+				double[] ci = c[i];
+				for (int k = 0; k < inner; k++) xa[k] += xi * ai[k];
+				for (int j = 0; j < xc.length; j++) xc[j] += xi * ci[j];
+			}
+			for (int j = 0; j < ok.length; j++) {
+				if (ok[j]) ok[j] = Math.abs(dot(bTranspose[j], xa) - xc[j]) <= tolerance(x.length + inner) * scale[j];
+			}
+		}
+		return ok;
+	}
+	
+	/*
+	 * Each of the products compared, and the product checked, is within 
+	 * (terms + 1) times the unit roundoff of the magnitude of its terms.
+	 */
+	private double tolerance(int terms) {
+		return tolerance > 0 ? tolerance : 2.0 * (terms + 1) * Math.ulp(1.0);
+	}
+	
+	private void randomSigns(int round, double[] x) {
+		SplittableRandom random = RandomStreams.stream(seed, round);
+		for (int i = 0; i < x.length; i++) {
+			x[i] = random.nextBoolean() ? 1.0 : -1.0;
+		}
+	}
+	
+	private static double dot(double[] x, double[] y) {
+		double sum = 0;
+		for (int i = 0; i < x.length; i++) sum += x[i] * y[i];
+		return sum;
+	}
+	
+	private static double absDot(double[] x, double[] y) {
+		double sum = 0;
+		for (int i = 0; i < x.length; i++) sum += Math.abs(x[i]) * y[i];
+		return sum;
+	}
+	
+	private static double absSum(double[] x) {
+		double sum = 0;
+		for (double v : x) sum += Math.abs(v);
+		return sum;
+	}
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+/**
+ * The LU factorization, with partial pivoting, of a square matrix A: PA = LU,
+ * where P is a permutation of the rows, L is lower triangular with a unit 
+ * diagonal, and U is upper triangular (see {@link BlockedLU}).  L and U are 
+ * kept packed in a single matrix, L below the diagonal and U on and above it.
+ * Solves systems of linear equations with A, and offers the triangular solves
+ * by which it does so.
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class LUDecomposition {
+	
+	private final double[][] lu;
+	private final int[] pivot;
+	private final int sign;
+	private final boolean singular;
+	
+	/*
+	 * The factors packed in lu, where row i of PA is row pivot[i] of A, and 
+	 * sign is the sign of the permutation.
+	 */
+	LUDecomposition(double[][] lu, int[] pivot, int sign, boolean singular) {
+		this.lu = lu;
+		this.pivot = pivot;
+		this.sign = sign;
+		this.singular = singular;
+	}
+	
+	/**
+	 * Gets the packed factors: L below the diagonal (whose unit diagonal is 
+	 * not stored), and U on and above it.  The matrix is not copied.
+	 * @return the packed factors
+	 */
+	public double[][] packed() {
+		return lu;
+	}
+	
+	/**
+	 * Gets L.
+	 * @return the lower triangular factor, with a unit diagonal
+	 */
+	public double[][] lower() {
+		int n = lu.length;
+		double[][] l = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(lu[i], 0, l[i], 0, i);
+			l[i][i] = 1;
+		}
+		return l;
+	}
+	
+	/**
+	 * Gets U.
+	 * @return the upper triangular factor
+	 */
+	public double[][] upper() {
+		int n = lu.length;
+		double[][] u = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(lu[i], i, u[i], i, n - i);
+		}
+		return u;
+	}
+	
+	/**
+	 * Gets the permutation of the rows: row i of PA is row pivot()[i] of A.
+	 * @return the permutation
+	 */
+	public int[] pivot() {
+		return pivot.clone();
+	}
+	
+	/**
+	 * Checks whether A is singular, that is, whether U has a zero on its diagonal.
+	 * @return true if A is singular
+	 */
+	public boolean isSingular() {
+		return singular;
+	}
+	
+	/**
+	 * Computes the determinant of A.
+	 * @return the determinant
+	 */
+	public double determinant() {
+		double d = sign;
+		for (int i = 0; i < lu.length; i++) {
+			d *= lu[i][i];
+		}
+		return d;
+	}
+	
+	/**
+	 * Solves Ax = b.
+	 * @param b The vector b.
+	 * @return x
+	 * @throws ArithmeticException if A is singular
+	 */
+	public double[] solve(double[] b) {
+		checkNonsingular();
+		double[] x = new double[b.length];
+		for (int i = 0; i < x.length; i++) {
+			x[i] = b[pivot[i]];
+		}
+		forwardSubstitution(lu, x, true);
+		backSubstitution(lu, x);
+		return x;
+	}
+	
+	/**
+	 * Solves AX = B, for many right hand sides at once.
+	 * @param b The matrix B, a right hand side per column.
+	 * @return X
+	 * @throws ArithmeticException if A is singular
+	 */
+	public double[][] solve(double[][] b) {
+		checkNonsingular();
+		double[][] x = new double[b.length][];
+		for (int i = 0; i < x.length; i++) {
+			x[i] = b[pivot[i]].clone();
+		}
+		forwardSubstitution(lu, x, true);
+		backSubstitution(lu, x);
+		return x;
+	}
+	
+	/**
+	 * Solves Lx = b in place, for a lower triangular L.  Only the lower triangle of
+	 * the matrix is read, so it may be the packed factors of an LU decomposition.
+	 * @param l The matrix L.
+	 * @param b The vector b, which is replaced by x.
+	 * @param unitDiagonal If true, the diagonal of L is taken to be all 1s and is not read.
+	 */
+	public static void forwardSubstitution(double[][] l, double[] b, boolean unitDiagonal) {
+		for (int i = 0; i < b.length; i++) {
+			double s = b[i];
+			double[] row = l[i];
+			for (int k = 0; k < i; k++) {
+				s -= row[k] * b[k];
+			}
+			b[i] = unitDiagonal ? s : s / row[i];
+		}
+	}
+	
+	/**
+	 * Solves LX = B in place, for a lower triangular L.  Only the lower triangle of
+	 * the matrix is read, so it may be the packed factors of an LU decomposition.
+	 * @param l The matrix L.
+	 * @param b The matrix B, which is replaced by X.
+	 * @param unitDiagonal If true, the diagonal of L is taken to be all 1s and is not read.
+	 */
+	public static void forwardSubstitution(double[][] l, double[][] b, boolean unitDiagonal) {
+		for (int i = 0; i < b.length; i++) {
+			double[] bi = b[i];
+			for (int k = 0; k < i; k++) {
+				double lik = l[i][k];
+				if (lik == 0) continue;
+				double[] bk = b[k];
+				for (int j = 0; j < bi.length; j++) {
+					bi[j] -= lik * bk[j];
+				}
+			}
+			if (!unitDiagonal) {
+				double d = l[i][i];
+				for (int j = 0; j < bi.length; j++) {
+					bi[j] /= d;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Solves Ux = b in place, for an upper triangular U.  Only the upper triangle of
+	 * the matrix is read, so it may be the packed factors of an LU decomposition.
+	 * @param u The matrix U.
+	 * @param b The vector b, which is replaced by x.
+	 */
+	public static void backSubstitution(double[][] u, double[] b) {
+		for (int i = b.length - 1; i >= 0; i--) {
+			double s = b[i];
+			double[] row = u[i];
+			for (int k = i + 1; k < b.length; k++) {
+				s -= row[k] * b[k];
+			}
+			b[i] = s / row[i];
+		}
+	}
+	
+	/**
+	 * Solves UX = B in place, for an upper triangular U.  Only the upper triangle of
+	 * the matrix is read, so it may be the packed factors of an LU decomposition.
+	 * @param u The matrix U.
+	 * @param b The matrix B, which is replaced by X.
+	 */
+	public static void backSubstitution(double[][] u, double[][] b) {
+		for (int i = b.length - 1; i >= 0; i--) {
+			double[] bi = b[i];
+			for (int k = i + 1; k < b.length; k++) {
+				double uik = u[i][k];
+				if (uik == 0) continue;
+				double[] bk = b[k];
+				for (int j = 0; j < bi.length; j++) {
+					bi[j] -= uik * bk[j];
+				}
+			}
+			double d = u[i][i];
+			for (int j = 0; j < bi.length; j++) {
+				bi[j] /= d;
+			}
+		}
+	}
+	
+	private void checkNonsingular() {
+		if (singular) {
+			throw new ArithmeticException("Matrix is singular.");
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentMap;
+
+import org.cicirello.algengine.KernelContext;
+import org.cicirello.algengine.RemoteKernel;
+import org.cicirello.algengine.TaskSpec;
+
+/**
+ * Kernel "linsolve": the part of an RMI server in a {@link DistributedLinearSolver}.
+ * The first three arguments are the phase, String system (the key of the system), and
+ * Integer index (of the node), and the phases are:
+ * <ul>
+ * <li>"load", Integer first, double[][] rows, double[] b, Integer n: keeps the 
+ * node's block of rows of A and b, starting at row first, of a system of n unknowns.</li>
+ * <li>"start": starts conjugate gradient from the vector resident under system + "/x".
+ * Returns the node's share of the squared norm of the residual.</li>
+ * <li>"direction": updates the search direction, given the squared norm of the 
+ * residual resident under system + "/rr".  Returns the node's rows of the direction,
+ * in an otherwise zero vector, to be summed into the whole direction.</li>
+ * <li>"multiply": multiplies the node's rows of A by the direction resident under 
+ * system + "/p".  Returns the node's share of the product of the direction and the result.</li>
+ * <li>"update": steps along the direction, given the squared norm of the residual
+ * and the product resident under system + "/rr" and system + "/pq".  Returns the 
+ * node's share of the squared norm of the new residual.</li>
+ * <li>"jacobi": a Jacobi iteration from the vector resident under system + "/x".  
+ * Returns the node's rows of the next vector, in an otherwise zero vector with an extra
+ * element, the node's share of the squared norm of the residual of the old vector.</li>
+ * <li>"solution": returns the node's rows of the solution.</li>
+ * <li>"forget": removes the system, and all of the vectors resident under its key.</li>
+ * </ul>
+ * The vectors and scalars are made resident by all-reduces of the contributions that 
+ * the phases return (see {@link org.cicirello.algengine.Collectives}).
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class LinearSolverKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "linsolve";
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) {
+		String phase = task.argument(0, String.class);
+		String system = task.argument(1, String.class);
+		int index = task.argument(2, Integer.class);
+		ConcurrentMap<String, Object> resident = context.residentData();
+		if (phase.equals("load")) {
+			resident.put(SolverPartition.key(system, index), new SolverPartition(task.argument(3, Integer.class), 
+					task.argument(4, double[][].class), task.argument(5, double[].class), task.argument(6, Integer.class)));
+			return null;
+		}
+		if (phase.equals("forget")) {
+			resident.keySet().removeIf(key -> key.startsWith(system + "/"));
+			return null;
+		}
+		SolverPartition partition = (SolverPartition)resident.get(SolverPartition.key(system, index));
+		if (partition == null) {
+			throw new IllegalStateException("No linear system " + system + " for node " + index);
+		}
+		ConcurrentMatrixMultiplier m = new ConcurrentMatrixMultiplier(task.numThreads(), context.executor());
+		switch (phase) {
+			case "start": 
+				return new double[] {partition.start(vector(resident, system + "/x"), m)};
+			case "direction":
+				return partition.direction(vector(resident, system + "/rr")[0]);
+			case "multiply":
+				return new double[] {partition.multiply(vector(resident, system + "/p"), m)};
+			case "update":
+				double alpha = vector(resident, system + "/rr")[0] / vector(resident, system + "/pq")[0];
+				return new double[] {partition.update(alpha)};
+			case "jacobi":
+				return partition.jacobi(vector(resident, system + "/x"), m);
+			case "solution":
+				return partition.x();
+			default:
+				throw new IllegalArgumentException("Unknown phase of linear solver: " + phase);
+		}
+	}
+	
+	private static double[] vector(ConcurrentMap<String, Object> resident, String key) {
+		Object v = resident.get(key);
+		if (!(v instanceof double[])) {
+			throw new IllegalStateException("No resident vector " + key);
+		}
+		return (double[])v;
+	}
+	
+	@Override
+	public void warmup(KernelContext context) {
+		// a diagonally dominant system of a single node
+		int n = context.warmupSize();
+		double[][] a = new double[n][n];
+		double[] b = new double[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) a[i][j] = i == j ? n : 1.0 / (1 + i + j);
+			b[i] = i;
+		}
+		String system = "linsolve/warmup";
+		execute(new TaskSpec(name(), 4, "load", system, 0, 0, a, b, n), context);
+		context.residentData().put(system + "/x", new double[n]);
+		for (int iteration = 0; iteration < 4; iteration++) {
+			context.residentData().put(system + "/rr", execute(new TaskSpec(name(), 4, "start", system, 0), context));
+			context.residentData().put(system + "/p", execute(new TaskSpec(name(), 4, "direction", system, 0), context));
+			context.residentData().put(system + "/pq", execute(new TaskSpec(name(), 4, "multiply", system, 0), context));
+			execute(new TaskSpec(name(), 4, "update", system, 0), context);
+			context.residentData().put(system + "/x", execute(new TaskSpec(name(), 4, "jacobi", system, 0), context));
+		}
+		execute(new TaskSpec(name(), 4, "solution", system, 0), context);
+		execute(new TaskSpec(name(), 4, "forget", system, 0), context);
+	}
+}
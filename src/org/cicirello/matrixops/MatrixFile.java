@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes matrices in a binary file format, which is mapped into 
+ * memory rather than read, so loading a matrix as an {@link OffHeapMatrix} 
+ * copies nothing, and the file may be larger than the memory of the node.
+ * 
+ * A file begins with a header of {@link #HEADER_BYTES} bytes, in big-endian order:
+ * the magic number 0x4D415458 ("MATX"), the version of the format (1), the number 
+ * of rows and the number of columns, each an int, and then a byte that is 0 if the 
+ * elements are big-endian, or 1 if they are little-endian, followed by zeros.  The 
+ * elements follow the header, as doubles, by rows.  Files are written in the byte 
+ * order of the node that writes them, and can be read on nodes of either byte order.
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class MatrixFile {
+	
+	/**
+	 * The length of the header, in bytes, which is also the position of the first element.
+	 */
+	public static final int HEADER_BYTES = 32;
+	
+	private static final int MAGIC = 0x4D415458;
+	private static final int VERSION = 1;
+	
+	private MatrixFile() {}
+	
+	/**
+	 * Maps the matrix in a file.
+	 * 
+	 * @param file The file.
+	 * @param writable Whether the matrix may be written, which writes the file.
+	 * @return the matrix
+	 * @throws IOException if the file cannot be read, or is not a matrix file
+	 */
+	public static OffHeapMatrix open(Path file, boolean writable) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (header.hasRemaining() && channel.read(header) >= 0);
+		}
+		header.flip();
+		if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+			throw new IOException(file + " is not a matrix file.");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException(file + " is a matrix file of unknown version " + version + ".");
+		}
+		int rows = header.getInt();
+		int cols = header.getInt();
+		if (rows < 0 || cols < 0) {
+			throw new IOException(file + " is a matrix file of invalid dimensions " + rows + " by " + cols + ".");
+		}
+		ByteOrder order = header.get() == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+		return OffHeapMatrix.map(file, HEADER_BYTES, rows, cols, order, writable);
+	}
+	
+	/**
+	 * Creates a matrix file, and maps it for writing.  If the file does not exist, or
+	 * is too short, its elements are zero.  Otherwise, its header is overwritten, it 
+	 * is truncated if it is too long, and its elements are kept.  So several writers,
+	 * such as the nodes of a cluster sharing a file system, can create the same 
+	 * matrix file at once, and each write different rows of it.
+	 * 
+	 * @param file The file.
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @return the matrix
+	 * @throws IOException if the file cannot be written
+	 */
+	public static OffHeapMatrix create(Path file, int rows, int cols) throws IOException {
+		ByteOrder order = ByteOrder.nativeOrder();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols);
+		header.put(order == ByteOrder.BIG_ENDIAN ? (byte)0 : (byte)1);
+		header.clear();
+		long length = HEADER_BYTES + (long)rows * cols * Double.BYTES;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			if (channel.size() > length) channel.truncate(length);
+		}
+		return OffHeapMatrix.map(file, HEADER_BYTES, rows, cols, order, true);
+	}
+	
+	/**
+	 * Reads the matrix in a file into the heap.
+	 * 
+	 * @param file The file.
+	 * @return the matrix
+	 * @throws IOException if the file cannot be read, or is not a matrix file
+	 */
+	public static double[][] read(Path file) throws IOException {
+		return open(file, false).toArray();
+	}
+	
+	/**
+	 * Writes a matrix to a file, replacing the file.
+	 * 
+	 * @param file The file.
+	 * @param m The matrix.
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Path file, double[][] m) throws IOException {
+		write(file, OffHeapMatrix.copyOf(m));
+	}
+	
+	/**
+	 * Writes an off-heap matrix to a file, replacing the file.
+	 * 
+	 * @param file The file.
+	 * @param m The matrix.
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Path file, OffHeapMatrix m) throws IOException {
+		OffHeapMatrix copy = create(file, m.rows(), m.cols());
+		double[] row = new double[m.cols()];
+		for (int i = 0; i < m.rows(); i++) {
+			m.getRow(i, 0, row, 0, row.length);
+			copy.setRow(i, 0, row, 0, row.length);
+		}
+		copy.force();
+	}
+}
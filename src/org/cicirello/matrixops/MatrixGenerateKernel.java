@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.cicirello.algengine.KernelContext;
+import org.cicirello.algengine.RemoteKernel;
+import org.cicirello.algengine.TaskSpec;
+
+/**
+ * Kernel "matrix.generate": generates a range of rows of a random matrix on the
+ * node, with a {@link MatrixGenerator}, so that operands need not be shipped to it.
+ * Arguments: String destination, String keyOrFile, Long seed, Integer rows, 
+ * Integer cols, Integer fromRow, Integer toRow, and optionally Boolean transposed.
+ * <ul>
+ * <li>destination "resident": keeps the rows in the resident data of the node, as a 
+ * double[][] of toRow - fromRow rows, under the key, where the "multiply" kernel
+ * accepts it in place of a matrix.  If transposed, keeps the transpose of the rows 
+ * instead, such as for the transpose of b.</li>
+ * <li>destination "file": writes the rows to the matrix file on the node (see 
+ * {@link MatrixFile}), of rows by cols, creating it if it does not exist, such as 
+ * for the "multiply.ooc" kernel.</li>
+ * <li>destination "forget": removes the resident rows under the key.</li>
+ * </ul>
+ * Returns the number of rows generated, as an Integer.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class MatrixGenerateKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "matrix.generate";
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) throws Exception {
+		String destination = task.argument(0, String.class);
+		String key = task.argument(1, String.class);
+		if (destination.equals("forget")) {
+			context.residentData().remove(key);
+			return 0;
+		}
+		long seed = task.argument(2, Long.class);
+		int rows = task.argument(3, Integer.class);
+		int cols = task.argument(4, Integer.class);
+		int fromRow = task.argument(5, Integer.class);
+		int toRow = task.argument(6, Integer.class);
+		if (fromRow < 0 || toRow > rows || fromRow > toRow) {
+			throw new IllegalArgumentException("Rows " + fromRow + " to " + toRow + " are not rows of a matrix of " + rows + " rows.");
+		}
+		MatrixGenerator generator = new MatrixGenerator(task.numThreads(), context.executor());
+		switch (destination) {
+			case "resident":
+				double[][] m = generator.generate(seed, cols, fromRow, toRow);
+				if (task.numArguments() > 7 && Boolean.TRUE.equals(task.argument(7, Boolean.class))) {
+					m = m.length > 0 ? new MatrixMultiplier().transpose(m) : new double[cols][0];
+				}
+				context.residentData().put(key, m);
+				break;
+			case "file":
+				OffHeapMatrix file = MatrixFile.create(Paths.get(key), rows, cols);
+				generator.fill(file, seed, fromRow, toRow);
+				file.force();
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown destination of generated matrix: " + destination);
+		}
+		return toRow - fromRow;
+	}
+	
+	@Override
+	public void warmup(KernelContext context) throws Exception {
+		int n = context.warmupSize();
+		String key = "matrix.generate/warmup";
+		execute(new TaskSpec(name(), 4, "resident", key, 42L, n, n, 0, n, true), context);
+		execute(new TaskSpec(name(), 4, "forget", key), context);
+		Path file = Files.createTempFile("generate", ".mat");
+		try {
+			execute(new TaskSpec(name(), 4, "file", file.toString(), 42L, n, n, 0, n), context);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
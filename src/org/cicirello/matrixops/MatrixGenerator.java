@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cicirello.math.RandomStreams;
+
+/**
+ * A parallel generator of random matrices, whose elements are uniform in [0, 1),
+ * and are reproducible from a seed.  Each row is a block with a random stream of
+ * its own, {@link RandomStreams#stream RandomStreams.stream(seed, i)} for row i, 
+ * so the matrix does not depend on how many threads generate it, and any node can 
+ * generate any of its rows, such as the slice of a matrix it will work on, without 
+ * the matrix being shipped to it.  Rows of a matrix generated separately are thus 
+ * equal to the same rows of the matrix generated whole.
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class MatrixGenerator {
+	
+	private int numThreads;
+	private final ExecutorService es;
+	
+	/**
+	 * Initialize the matrix generator.  Uses a cached thread pool 
+	 * by default.
+	 * 
+	 * @param threads The number of threads.
+	 */
+	public MatrixGenerator(int threads) {
+		this(threads, Executors.newCachedThreadPool());
+	}
+	
+	/**
+	 * Initialize the matrix generator.
+	 * 
+	 * @param threads The number of threads.
+	 * @param es An executor service, enabling you to specify thread pool
+	 * type.
+	 */
+	public MatrixGenerator(int threads, ExecutorService es) {
+		this.numThreads = threads;
+		this.es = es;
+	}
+	
+	/**
+	 * Change the number of threads used by this matrix generator.
+	 * 
+	 * @param threads The number of threads.
+	 */
+	public void setThreads(int threads) {
+		this.numThreads = threads;
+	}
+	
+	/**
+	 * Generates a matrix.
+	 * 
+	 * @param seed The seed of the matrix.
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @return the matrix
+	 */
+	public double[][] generate(long seed, int rows, int cols) {
+		return generate(seed, cols, 0, rows);
+	}
+	
+	/**
+	 * Generates a range of rows of a matrix.
+	 * 
+	 * @param seed The seed of the matrix.
+	 * @param cols The number of columns.
+	 * @param fromRow The first row.
+	 * @param toRow One past the last row.
+	 * @return rows fromRow through toRow - 1 of the matrix, as an array of toRow - fromRow rows
+	 */
+	public double[][] generate(final long seed, final int cols, final int fromRow, int toRow) {
+		final double[][] m = new double[toRow - fromRow][];
+		inParallel(fromRow, toRow, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				m[i - fromRow] = row(seed, i, new double[cols]);
+			}
+		});
+		return m;
+	}
+	
+	/**
+	 * Generates a matrix into an off-heap matrix, such as one in a 
+	 * memory-mapped file, which is overwritten.
+	 * 
+	 * @param m The matrix.
+	 * @param seed The seed of the matrix.
+	 */
+	public void fill(OffHeapMatrix m, long seed) {
+		fill(m, seed, 0, m.rows());
+	}
+	
+	/**
+	 * Generates a range of rows of a matrix into the same rows of an off-heap matrix, 
+	 * such as one in a memory-mapped file.  The other rows are not changed.
+	 * 
+	 * @param m The matrix.
+	 * @param seed The seed of the matrix.
+	 * @param fromRow The first row.
+	 * @param toRow One past the last row.
+	 */
+	public void fill(final OffHeapMatrix m, final long seed, int fromRow, int toRow) {
+		inParallel(fromRow, toRow, (from, to) -> {
+			double[] row = new double[m.cols()];
+			for (int i = from; i < to; i++) {
+				m.setRow(i, 0, row(seed, i, row), 0, row.length);
+			}
+		});
+	}
+	
+	/**
+	 * Generates a row of a matrix.
+	 * 
+	 * @param seed The seed of the matrix.
+	 * @param i The row.
+	 * @param row An array whose length is the number of columns, which is overwritten.
+	 * @return row, holding row i of the matrix
+	 */
+	public static double[] row(long seed, int i, double[] row) {
+		SplittableRandom r = RandomStreams.stream(seed, i);
+		for (int j = 0; j < row.length; j++) {
+			row[j] = r.nextDouble();
+		}
+		return row;
+	}
+	
+	/*
+	 * Divides the rows fromRow through toRow - 1 equally among the threads.
+	 */
+	private void inParallel(int fromRow, int toRow, RowRange task) {
+		int rows = toRow - fromRow;
+		int t = (rows < numThreads) ? rows : numThreads;
+		if (t <= 1) {
+			task.generate(fromRow, toRow);
+			return;
+		}
+		Future<?>[] threadFutures = new Future<?>[t];
+		for (int i = 0; i < t; i++) {
+			final int from = fromRow + (int)((long)rows * i / t);
+			final int to = fromRow + (int)((long)rows * (i + 1) / t);
+			threadFutures[i] = es.submit(() -> task.generate(from, to));
+		}
+		for (int i = 0; i < t; i++) {
+			try {
+				threadFutures[i].get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	private interface RowRange {
+		void generate(int from, int to);
+	}
+}
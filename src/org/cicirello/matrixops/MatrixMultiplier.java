@@ -1,96 +1,209 @@
-/*
- * Copyright 2017 Vincent A. Cicirello.
- *
- * This file is part of package org.cicirello.matrixops.
- *
- * Java package org.cicirello.matrixops is free software: you can 
- * redistribute it and/or modify it under the terms of the GNU 
- * General Public License as published by the Free Software 
- * Foundation, either version 3 of the License, or (at your 
- * option) any later version.
- *
- * Java package org.cicirello.matrixops is distributed in the hope 
- * that it will be useful, but WITHOUT ANY WARRANTY; without even 
- * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
- * PARTICULAR PURPOSE.  See the GNU General Public License for more 
- * details.
- *
- * You should have received a copy of the GNU General Public License
- * along with Java package org.cicirello.permutations.  If not, 
- * see <http://www.gnu.org/licenses/>.
- *
- */
-
-package org.cicirello.matrixops;
-
-/**
- * An implementation of matrix multiplication.
- * 
- * @author Vincent A. Cicirello
- * @version 8.15.2017
- */
-public class MatrixMultiplier {
-
-	/**
-	 * For matrices a and b, compute a * b.
-	 * The number of columns of a must be equal to the number of
-	 * rows of b.  This method assumes dimensions of a and b are
-	 * consistent for a legal multiplication, and may throw a 
-	 * bounds exception if they are not.
-	 * @param a First matrix
-	 * @param b Second matrix
-	 * @return a * b
-	 */
-	public double[][] multiply(double[][] a, double[][] b) {
-		double[][] c = new double[a.length][b[0].length];
-		for (int i = 0; i < c.length; i++) {
-			for (int j = 0; j < c[i].length; j++) {			
-				for (int k = 0; k < b.length; k++) {
-					c[i][j] += a[i][k] * b[k][j];
-				}
-			}
-		}
-		return c;
-	}
-	
-	/**
-	 * For matrices a and b, computes either a * b, or a * transpose(b).
-	 * The number of columns of a must be equal to the number of
-	 * rows of b (if b is not transposed) or the number of columns of b
-	 * (if b is transposed).  This method assumes dimensions of a and b are
-	 * consistent for a legal multiplication, and may throw a 
-	 * bounds exception if they are not.
-	 * @param a First matrix
-	 * @param b Second matrix
-	 * @param bIsTransposed If true, then b is actually the transpose of b. 
-	 * @return a * b
-	 */
-	public double[][] multiply(double[][] a, double[][] b, boolean bIsTransposed) {
-		if (!bIsTransposed) b = transpose(b);
-		double[][] c = new double[a.length][b.length];
-		for (int i = 0; i < c.length; i++) {
-			for (int j = 0; j < c[i].length; j++) {			
-				for (int k = 0; k < b[0].length; k++) {
-					c[i][j] += a[i][k] * b[j][k];
-				}
-			}
-		}
-		return c;
-	}
-	
-	/**
-	 * Computes the transpose of a matrix m.
-	 * @param m The matrix
-	 * @return transpose of m
-	 */
-	public final double[][] transpose(double[][] m) {
-		double[][] c = new double[m[0].length][m.length];
-		for (int i = 0; i < c.length; i++) {
-			for (int j = 0; j < m.length; j++) {
-				c[i][j] = m[j][i];
-			}
-		}
-		return c;
-	}
-	
-}
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.matrixops;
+
+/**
+ * An implementation of matrix multiplication.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 8.15.2017
+ */
+public class MatrixMultiplier {
+
+	/**
+	 * For matrices a and b, compute a * b.
+	 * The number of columns of a must be equal to the number of
+	 * rows of b.  This method assumes dimensions of a and b are
+	 * consistent for a legal multiplication, and may throw a 
+	 * bounds exception if they are not.
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @return a * b
+	 */
+	public double[][] multiply(double[][] a, double[][] b) {
+		double[][] c = new double[a.length][b[0].length];
+		for (int i = 0; i < c.length; i++) {
+			for (int j = 0; j < c[i].length; j++) {			
+				for (int k = 0; k < b.length; k++) {
+					c[i][j] += a[i][k] * b[k][j];
+				}
+			}
+		}
+		return c;
+	}
+	
+	/**
+	 * For matrices a and b, computes either a * b, or a * transpose(b).
+	 * The number of columns of a must be equal to the number of
+	 * rows of b (if b is not transposed) or the number of columns of b
+	 * (if b is transposed).  This method assumes dimensions of a and b are
+	 * consistent for a legal multiplication, and may throw a 
+	 * bounds exception if they are not.
+	 * @param a First matrix
+	 * @param b Second matrix
+	 * @param bIsTransposed If true, then b is actually the transpose of b. 
+	 * @return a * b
+	 */
+	public double[][] multiply(double[][] a, double[][] b, boolean bIsTransposed) {
+		if (!bIsTransposed) b = transpose(b);
+		double[][] c = new double[a.length][b.length];
+		for (int i = 0; i < c.length; i++) {
+			for (int j = 0; j < c[i].length; j++) {			
+				for (int k = 0; k < b[0].length; k++) {
+					c[i][j] += a[i][k] * b[j][k];
+				}
+			}
+		}
+		return c;
+	}
+	
+	/**
+	 * Computes a * transpose(a), which is symmetric, by computing only its lower 
+	 * triangle (see {@link #syrk(double[][])}), half of the work of 
+	 * multiply(a, a, true), and then mirroring it.
+	 * @param a The matrix
+	 * @return a * transpose(a)
+	 */
+	public final double[][] multiplyByTranspose(double[][] a) {
+		return mirror(syrk(a));
+	}
+	
+	/**
+	 * Computes the lower triangle of a * transpose(a), the symmetric rank-k
+	 * update (SYRK) of the BLAS, packed as an array of rows of increasing length:
+	 * row i holds the i+1 elements of columns 0 through i.
+	 * @param a The matrix
+	 * @return the lower triangle of a * transpose(a)
+	 */
+	public final double[][] syrk(double[][] a) {
+		return syrk(a, 0, a.length);
+	}
+	
+	/**
+	 * Computes a range of rows of the lower triangle of a * transpose(a), packed as in
+	 * {@link #syrk(double[][])}.  Rows fromRow through toRow - 1 depend only on rows 0 
+	 * through toRow - 1 of a, so a may end at row toRow.
+	 * @param a The matrix
+	 * @param fromRow The first row.
+	 * @param toRow One past the last row.
+	 * @return an array of toRow - fromRow rows, the first of which is row fromRow
+	 * of the lower triangle, of fromRow + 1 elements
+	 */
+	public double[][] syrk(double[][] a, int fromRow, int toRow) {
+		return syrkBlock(a, fromRow, toRow, 0, toRow);
+	}
+	
+	/**
+	 * Computes a block of the lower triangle of a * transpose(a): the elements of 
+	 * rows fromRow through toRow - 1 in columns fromCol through toCol - 1, those on
+	 * or below the diagonal.  So a block of rows after its columns is a full 
+	 * rectangle, and a block whose rows and columns are the same is a triangle.  
+	 * The block depends only on those rows and columns of a.
+	 * @param a The matrix
+	 * @param fromRow The first row.
+	 * @param toRow One past the last row.
+	 * @param fromCol The first column.
+	 * @param toCol One past the last column.
+	 * @return an array of toRow - fromRow rows, row i - fromRow of which holds 
+	 * columns fromCol through min(toCol, i + 1) - 1 of row i of the triangle
+	 */
+	public final double[][] syrkBlock(double[][] a, int fromRow, int toRow, int fromCol, int toCol) {
+		double[][] c = new double[toRow - fromRow][];
+		for (int i = fromRow; i < toRow; i++) {
+			double[] ai = a[i];
+			int end = Math.min(toCol, i + 1);
+			double[] row = c[i - fromRow] = new double[Math.max(end - fromCol, 0)];
+			for (int j = fromCol; j < end; j++) {
+				double[] aj = a[j];
+				double sum = 0;
+				for (int k = 0; k < ai.length; k++) {
+					sum += ai[k] * aj[k];
+				}
+				row[j - fromCol] = sum;
+			}
+		}
+		return c;
+	}
+	
+	/**
+	 * Expands the packed lower triangle of a symmetric matrix, such as that 
+	 * {@link #syrk(double[][])} computes, to the full matrix.
+	 * @param lower The lower triangle, row i of which holds columns 0 through i.
+	 * @return the symmetric matrix
+	 */
+	public static double[][] mirror(double[][] lower) {
+		int n = lower.length;
+		double[][] m = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(lower[i], 0, m[i], 0, i + 1);
+			for (int j = 0; j < i; j++) {
+				m[j][i] = lower[i][j];
+			}
+		}
+		return m;
+	}
+	
+	/*
+	 * Divides rows fromRow through toRow - 1 of a lower triangle into parts of nearly 
+	 * equal area, rather than of equal numbers of rows, since row i has i + 1 elements.
+	 * Returns the parts + 1 boundaries: part p is rows bounds[p] through bounds[p+1] - 1.
+	 */
+	static int[] splitTriangle(int fromRow, int toRow, int parts) {
+		int[] bounds = new int[parts + 1];
+		bounds[0] = fromRow;
+		bounds[parts] = toRow;
+		long base = area(fromRow);
+		long total = area(toRow) - base;
+		int i = fromRow;
+		for (int p = 1; p < parts; p++) {
+			long target = base + total * p / parts;
+			while (i < toRow && area(i) < target) i++;
+			bounds[p] = i;
+		}
+		return bounds;
+	}
+	
+	/*
+	 * The number of elements in rows 0 through rows - 1 of a lower triangle.
+	 */
+	private static long area(int rows) {
+		return (long)rows * (rows + 1) / 2;
+	}
+	
+	/**
+	 * Computes the transpose of a matrix m.
+	 * @param m The matrix
+	 * @return transpose of m
+	 */
+	public final double[][] transpose(double[][] m) {
+		double[][] c = new double[m[0].length][m.length];
+		for (int i = 0; i < c.length; i++) {
+			for (int j = 0; j < m.length; j++) {
+				c[i][j] = m[j][i];
+			}
+		}
+		return c;
+	}
+	
+}
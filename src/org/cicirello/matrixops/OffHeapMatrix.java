@@ -0,0 +1,246 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A matrix of doubles stored off the Java heap, either in direct buffers, or in a
+ * memory-mapped file, so that it may be larger than the heap, or even than the 
+ * memory of the node: the operating system pages a mapped file in and out of 
+ * memory as it is used.  The elements are stored by rows, a row after another,
+ * in buffers of at most 1 GB of whole rows each, since a buffer is limited to 2 GB.
+ * 
+ * Elements are read and written by absolute indexes, so many threads can read and
+ * write distinct elements at once.  The bulk row operations are the efficient way 
+ * to move data between the matrix and the heap, such as a tile at a time (see 
+ * {@link ConcurrentMatrixMultiplier#multiply(OffHeapMatrix, OffHeapMatrix, OffHeapMatrix, int)}).
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class OffHeapMatrix {
+	
+	private static final long MAX_BUFFER_BYTES = 1L << 30;
+	
+	private final int rows;
+	private final int cols;
+	private final int rowsPerBuffer;
+	private final ByteBuffer[] bytes;
+	private final DoubleBuffer[] buffers;
+	
+	private OffHeapMatrix(int rows, int cols, int rowsPerBuffer, ByteBuffer[] bytes, ByteOrder order) {
+		this.rows = rows;
+		this.cols = cols;
+		this.rowsPerBuffer = rowsPerBuffer;
+		this.bytes = bytes;
+		buffers = new DoubleBuffer[bytes.length];
+		for (int i = 0; i < bytes.length; i++) {
+			buffers[i] = bytes[i].order(order).asDoubleBuffer();
+		}
+	}
+	
+	/**
+	 * Allocates a matrix of zeros in direct buffers.
+	 * 
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @return the matrix
+	 */
+	public static OffHeapMatrix allocate(int rows, int cols) {
+		int perBuffer = rowsPerBuffer(rows, cols);
+		ByteBuffer[] bytes = new ByteBuffer[buffersFor(rows, perBuffer)];
+		for (int i = 0; i < bytes.length; i++) {
+			int count = Math.min(perBuffer, rows - i * perBuffer);
+			bytes[i] = ByteBuffer.allocateDirect(count * cols * Double.BYTES);
+		}
+		return new OffHeapMatrix(rows, cols, perBuffer, bytes, ByteOrder.nativeOrder());
+	}
+	
+	/**
+	 * Copies a matrix into direct buffers.
+	 * 
+	 * @param m The matrix.
+	 * @return the copy
+	 */
+	public static OffHeapMatrix copyOf(double[][] m) {
+		OffHeapMatrix copy = allocate(m.length, m.length > 0 ? m[0].length : 0);
+		for (int i = 0; i < m.length; i++) {
+			copy.setRow(i, 0, m[i], 0, copy.cols);
+		}
+		return copy;
+	}
+	
+	/**
+	 * Maps a matrix stored in a file, by rows, from its start, in the byte order of 
+	 * this node.  If writable, the file is created if it does not exist, and is
+	 * extended if it is too short to hold the matrix.
+	 * 
+	 * @param file The file.
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param writable Whether the matrix may be written, which writes the file.
+	 * @return the matrix
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static OffHeapMatrix map(Path file, int rows, int cols, boolean writable) throws IOException {
+		return map(file, 0, rows, cols, ByteOrder.nativeOrder(), writable);
+	}
+	
+	/**
+	 * Maps a matrix stored in a file, by rows, from a position in the file.  If 
+	 * writable, the file is created if it does not exist, and is extended if it is
+	 * too short to hold the matrix.
+	 * 
+	 * @param file The file.
+	 * @param offset The position in the file of the first element, in bytes.
+	 * @param rows The number of rows.
+	 * @param cols The number of columns.
+	 * @param order The byte order of the elements in the file.
+	 * @param writable Whether the matrix may be written, which writes the file.
+	 * @return the matrix
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static OffHeapMatrix map(Path file, long offset, int rows, int cols, ByteOrder order, boolean writable) throws IOException {
+		int perBuffer = rowsPerBuffer(rows, cols);
+		ByteBuffer[] bytes = new ByteBuffer[buffersFor(rows, perBuffer)];
+		try (FileChannel channel = writable 
+				? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)
+				: FileChannel.open(file, StandardOpenOption.READ)) {
+			long rowBytes = (long)cols * Double.BYTES;
+			if (!writable && channel.size() < offset + rows * rowBytes) {
+				throw new IOException("File " + file + " is too short for a " + rows + " by " + cols + " matrix.");
+			}
+			for (int i = 0; i < bytes.length; i++) {
+				int count = Math.min(perBuffer, rows - i * perBuffer);
+				bytes[i] = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 
+						offset + i * perBuffer * rowBytes, count * rowBytes);
+			}
+		}
+		return new OffHeapMatrix(rows, cols, perBuffer, bytes, order);
+	}
+	
+	/**
+	 * Gets the number of rows.
+	 * @return the number of rows
+	 */
+	public int rows() {
+		return rows;
+	}
+	
+	/**
+	 * Gets the number of columns.
+	 * @return the number of columns
+	 */
+	public int cols() {
+		return cols;
+	}
+	
+	/**
+	 * Gets an element.
+	 * @param i The row.
+	 * @param j The column.
+	 * @return the element in row i and column j
+	 */
+	public double get(int i, int j) {
+		return buffers[i / rowsPerBuffer].get(index(i, j));
+	}
+	
+	/**
+	 * Sets an element.
+	 * @param i The row.
+	 * @param j The column.
+	 * @param value The new value of the element in row i and column j.
+	 */
+	public void set(int i, int j, double value) {
+		buffers[i / rowsPerBuffer].put(index(i, j), value);
+	}
+	
+	/**
+	 * Copies consecutive elements of a row to an array.
+	 * @param i The row.
+	 * @param from The column of the first element.
+	 * @param dst The array.
+	 * @param dstFrom The index in the array of the first element.
+	 * @param length The number of elements.
+	 */
+	public void getRow(int i, int from, double[] dst, int dstFrom, int length) {
+		buffers[i / rowsPerBuffer].get(index(i, from), dst, dstFrom, length);
+	}
+	
+	/**
+	 * Copies consecutive elements of a row from an array.
+	 * @param i The row.
+	 * @param from The column of the first element.
+	 * @param src The array.
+	 * @param srcFrom The index in the array of the first element.
+	 * @param length The number of elements.
+	 */
+	public void setRow(int i, int from, double[] src, int srcFrom, int length) {
+		buffers[i / rowsPerBuffer].put(index(i, from), src, srcFrom, length);
+	}
+	
+	/**
+	 * Copies the matrix to the heap.
+	 * @return the matrix as an array of rows
+	 */
+	public double[][] toArray() {
+		double[][] m = new double[rows][cols];
+		for (int i = 0; i < rows; i++) {
+			getRow(i, 0, m[i], 0, cols);
+		}
+		return m;
+	}
+	
+	/**
+	 * Writes any changes to a memory-mapped matrix to its file.  Does nothing 
+	 * for a matrix in direct buffers.
+	 */
+	public void force() {
+		for (ByteBuffer b : bytes) {
+			if (b instanceof MappedByteBuffer) ((MappedByteBuffer)b).force();
+		}
+	}
+	
+	private int index(int i, int j) {
+		return (i % rowsPerBuffer) * cols + j;
+	}
+	
+	private static int rowsPerBuffer(int rows, int cols) {
+		if (cols == 0) return Math.max(1, rows);
+		return (int)Math.max(1, Math.min(Math.max(1, rows), MAX_BUFFER_BYTES / ((long)cols * Double.BYTES)));
+	}
+	
+	private static int buffersFor(int rows, int perBuffer) {
+		return (rows + perBuffer - 1) / perBuffer;
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+/**
+ * A slice of a distributed matrix product that failed verification (see 
+ * {@link DistributedMatrixMultiplier#setVerification}): the node that computed
+ * it, the rows or columns of the product it covers, how many of them were 
+ * wrong, and whether the slice was recomputed.
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class SliceVerification {
+	
+	private final String node;
+	private final boolean rows;
+	private final int first;
+	private final int count;
+	private final int failed;
+	private final boolean recomputed;
+	
+	SliceVerification(String node, boolean rows, int first, int count, int failed, boolean recomputed) {
+		this.node = node;
+		this.rows = rows;
+		this.first = first;
+		this.count = count;
+		this.failed = failed;
+		this.recomputed = recomputed;
+	}
+	
+	/**
+	 * Gets the node that computed the slice: the name of an RMI server, which in 
+	 * tree mode is the root of the subtree that computed it, or "master".
+	 * @return the node
+	 */
+	public String node() {
+		return node;
+	}
+	
+	/**
+	 * Gets whether the slice is of rows of the product, rather than of columns.
+	 * @return true if the slice is of rows
+	 */
+	public boolean isRows() {
+		return rows;
+	}
+	
+	/**
+	 * Gets the first row, or column, of the product in the slice.
+	 * @return the first row or column
+	 */
+	public int first() {
+		return first;
+	}
+	
+	/**
+	 * Gets the number of rows, or columns, in the slice.
+	 * @return the length of the slice
+	 */
+	public int count() {
+		return count;
+	}
+	
+	/**
+	 * Gets the number of rows, or columns, of the slice that failed verification.
+	 * @return the number that failed
+	 */
+	public int failed() {
+		return failed;
+	}
+	
+	/**
+	 * Gets whether the slice was recomputed on this node, and then passed.
+	 * @return true if the product now holds a correct slice
+	 */
+	public boolean recomputed() {
+		return recomputed;
+	}
+	
+	@Override
+	public String toString() {
+		return (rows ? "Rows " : "Columns ") + first + " to " + (first + count - 1) + " from " + node + ": " 
+				+ failed + " failed verification" + (recomputed ? ", recomputed" : "");
+	}
+}
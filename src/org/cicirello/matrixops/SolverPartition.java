@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.matrixops.
+ *
+ * Java package org.cicirello.matrixops is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.matrixops is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+
+package org.cicirello.matrixops;
+
+import java.util.Arrays;
+
+/**
+ * One RMI server's block of rows of the system of a {@link DistributedLinearSolver},
+ * with the rows of the vectors of the solver that go with them, kept by the RMI 
+ * server between the iterations of the solver (see {@link LinearSolverKernel}).
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+final class SolverPartition {
+	
+	private final int first;
+	private final int n;
+	private final double[][] rows;
+	private final double[] b;
+	private final double[] x;
+	private final double[] r;
+	private final double[] p;
+	private double[] q;
+	private double rrOld;
+	
+	/*
+	 * Rows first through first + rows.length - 1 of A and b, of a system of n unknowns.
+	 */
+	SolverPartition(int first, double[][] rows, double[] b, int n) {
+		this.first = first;
+		this.rows = rows;
+		this.b = b;
+		this.n = n;
+		x = new double[rows.length];
+		r = new double[rows.length];
+		p = new double[rows.length];
+		q = new double[rows.length];
+		rrOld = Double.NaN;
+	}
+	
+	/*
+	 * The key of a partition in the resident data of the RMI server.  The index of 
+	 * the node is part of the key, since an RMI server may hold more than one
+	 * of the partitions of a system.
+	 */
+	static String key(String system, int index) {
+		return system + "/" + index;
+	}
+	
+	/*
+	 * Starts conjugate gradient from x: sets the block's rows of x, and of the 
+	 * residual b - Ax, and returns the sum of the squares of the latter.
+	 */
+	synchronized double start(double[] xFull, ConcurrentMatrixMultiplier m) {
+		System.arraycopy(xFull, first, x, 0, x.length);
+		double[] ax = times(xFull, m);
+		double rr = 0;
+		for (int j = 0; j < r.length; j++) {
+			r[j] = b[j] - ax[j];
+			rr += r[j] * r[j];
+		}
+		rrOld = Double.NaN;
+		return rr;
+	}
+	
+	/*
+	 * The next search direction p = r + beta p, where beta is the ratio of the 
+	 * squared norms of the residual in this iteration and the last, in the 
+	 * block's rows of a vector of n elements that are otherwise 0.
+	 */
+	synchronized double[] direction(double rr) {
+		double beta = Double.isNaN(rrOld) ? 0 : rr / rrOld;
+		rrOld = rr;
+		double[] padded = new double[n];
+		for (int j = 0; j < p.length; j++) {
+			p[j] = r[j] + beta * p[j];
+			padded[first + j] = p[j];
+		}
+		return padded;
+	}
+	
+	/*
+	 * Computes the block's rows of q = Ap, returning the block's share of p.q.
+	 */
+	synchronized double multiply(double[] pFull, ConcurrentMatrixMultiplier m) {
+		q = times(pFull, m);
+		double pq = 0;
+		for (int j = 0; j < q.length; j++) {
+			pq += p[j] * q[j];
+		}
+		return pq;
+	}
+	
+	/*
+	 * Steps x and r by alpha along p and q, returning the block's share of the 
+	 * squared norm of the new residual.
+	 */
+	synchronized double update(double alpha) {
+		double rr = 0;
+		for (int j = 0; j < x.length; j++) {
+			x[j] += alpha * p[j];
+			r[j] -= alpha * q[j];
+			rr += r[j] * r[j];
+		}
+		return rr;
+	}
+	
+	/*
+	 * A Jacobi iteration from x: the block's rows of the next x, in a vector 
+	 * of n + 1 elements that are otherwise 0 except the last, which is the
+	 * block's share of the squared norm of the residual of x.
+	 */
+	synchronized double[] jacobi(double[] xFull, ConcurrentMatrixMultiplier m) {
+		double[] ax = times(xFull, m);
+		double[] padded = new double[n + 1];
+		double rr = 0;
+		for (int j = 0; j < x.length; j++) {
+			double residual = b[j] - ax[j];
+			rr += residual * residual;
+			x[j] = xFull[first + j] + residual / rows[j][first + j];
+			padded[first + j] = x[j];
+		}
+		padded[n] = rr;
+		return padded;
+	}
+	
+	/*
+	 * The block's rows of x.
+	 */
+	synchronized double[] x() {
+		return x.clone();
+	}
+	
+	/*
+	 * The block's rows of the product of A and the first n elements of v.
+	 */
+	private double[] times(double[] v, ConcurrentMatrixMultiplier m) {
+		double[] product = new double[rows.length];
+		if (rows.length == 0) return product;
+		double[][] c = m.multiply(rows, new double[][] {v.length == n ? v : Arrays.copyOf(v, n)}, true);
+		for (int j = 0; j < product.length; j++) {
+			product[j] = c[j][0];
+		}
+		return product;
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.sort.
+ *
+ * Java package org.cicirello.sort is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.sort is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.sort;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+import org.cicirello.algengine.TaskSpec;
+
+/**
+ * A parallel sample sort of primitive arrays that uses Java RMI to distribute
+ * the sort among multiple RMI servers.  Unlike the distributed matrix 
+ * multiplication and estimation of Pi, which only scatter work from the master
+ * and gather the results, the sample sort exchanges data among all of the 
+ * RMI servers, so it exercises the network much as many real workloads do.
+ * 
+ * The sort has four phases:
+ * <ol>
+ * <li>The master sends a chunk of the array to each RMI server, which sorts it
+ * with its threads (see {@link ParallelSort}) and returns a regular sample of it
+ * (see {@link SampleSortKernel}).</li>
+ * <li>The master sorts the samples, and chooses from them the splitters that divide
+ * the range of the elements into a bucket per RMI server.</li>
+ * <li>Each RMI server divides its sorted chunk by the splitters, and sends each 
+ * bucket directly to the RMI server that is responsible for it, all at once: an 
+ * all-to-all exchange (see {@link SampleSortExchangeKernel}).  From the sizes of 
+ * the buckets, the master knows where the elements of each RMI server belong in 
+ * the result.</li>
+ * <li>Each RMI server merges the sorted runs it received, and the master 
+ * streams the merged results back from all of the RMI servers at once, in 
+ * pieces, copying each into place in the array as it arrives.</li>
+ * </ol>
+ * Doubles are sorted as longs with the same order (see {@link ParallelSort#toSortable}).
+ * Buckets hold the elements between consecutive splitters, so many copies of 
+ * one value all go to the same RMI server.
+ *
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class DistributedSampleSort {
+	
+	/**
+	 * Indexes of the phases in {@link #lastPhaseNanos}.
+	 */
+	public static final int SORT = 0, SPLITTERS = 1, EXCHANGE = 2, COLLECT = 3;
+	
+	private final String[] serverNames;
+	private final int threadsPerServer;
+	private final ExecutorService es;
+	private int oversampling;
+	private int collectChunk;
+	private long[] lastPhaseNanos;
+	
+	/**
+	 * Initializes the sorter.  A cached thread pool is used locally to
+	 * manage the local threads that handle interaction with the RMI servers.
+	 * 
+	 * @param serverNames Array of RMI server names to distribute the work.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 */
+	public DistributedSampleSort(String[] serverNames, int threadsPerServer) {
+		this(serverNames, threadsPerServer, Executors.newCachedThreadPool());
+	}
+	
+	/**
+	 * Initializes the sorter.
+	 * 
+	 * @param serverNames Array of RMI server names to distribute the work.
+	 * @param threadsPerServer Number of threads to use on each RMI server.
+	 * @param es An executor service for the local threads that handle interaction
+	 * with the RMI servers, which should be able to run a thread per RMI server at once.
+	 */
+	public DistributedSampleSort(String[] serverNames, int threadsPerServer, ExecutorService es) {
+		this.serverNames = serverNames.clone();
+		this.threadsPerServer = threadsPerServer;
+		this.es = es;
+		oversampling = 32;
+		collectChunk = 1 << 20;
+		lastPhaseNanos = new long[4];
+		if (System.getSecurityManager() == null) {
+			System.setSecurityManager(new SecurityManager());
+		}
+	}
+	
+	/**
+	 * Sets the number of samples taken from each RMI server's chunk per RMI server.
+	 * More samples balance the buckets better, at the cost of a larger sample 
+	 * to send and sort.  The default is 32.
+	 * 
+	 * @param oversampling The number of samples per chunk per RMI server.
+	 */
+	public void setOversampling(int oversampling) {
+		if (oversampling <= 0) throw new IllegalArgumentException("Must take at least one sample per chunk.");
+		this.oversampling = oversampling;
+	}
+	
+	/**
+	 * Sets the number of elements per piece in which the results are streamed 
+	 * back from the RMI servers.  The default is 2^20.
+	 * 
+	 * @param elements The number of elements per piece.
+	 */
+	public void setCollectChunk(int elements) {
+		if (elements <= 0) throw new IllegalArgumentException("Pieces must have at least one element.");
+		collectChunk = elements;
+	}
+	
+	/**
+	 * Gets the durations of the phases of the last sort, indexed by 
+	 * {@link #SORT}, {@link #SPLITTERS}, {@link #EXCHANGE}, and {@link #COLLECT}.
+	 * 
+	 * @return the durations of the phases of the last sort in nanoseconds
+	 */
+	public long[] lastPhaseNanos() {
+		return lastPhaseNanos.clone();
+	}
+	
+	/**
+	 * Sorts an array into ascending order.
+	 * 
+	 * @param a The array.
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public void sort(long[] a) throws RemoteException, NotBoundException {
+		sortKeys(a);
+	}
+	
+	/**
+	 * Sorts an array into ascending order, as ordered by {@link Double#compare}.
+	 * 
+	 * @param a The array.
+	 * @throws RemoteException If one of the RMI calls fails.
+	 * @throws NotBoundException If no parallel algorithm server is bound on one of the hosts.
+	 */
+	public void sort(double[] a) throws RemoteException, NotBoundException {
+		long[] keys = new long[a.length];
+		for (int i = 0; i < a.length; i++) keys[i] = ParallelSort.toSortable(a[i]);
+		sortKeys(keys);
+		for (int i = 0; i < a.length; i++) a[i] = ParallelSort.fromSortable(keys[i]);
+	}
+	
+	private void sortKeys(final long[] a) throws RemoteException, NotBoundException {
+		final int p = serverNames.length;
+		final long jobId = newJobId();
+		final RemoteParallelAlgorithms[] servers = new RemoteParallelAlgorithms[p];
+		long[] phases = new long[4];
+		try {
+			// phase 1: sort a chunk on each server, and sample it
+			long start = System.nanoTime();
+			List<Callable<long[]>> sorts = new ArrayList<Callable<long[]>>();
+			for (int i = 0; i < p; i++) {
+				final int index = i;
+				sorts.add(() -> {
+					servers[index] = RemoteParallelAlgorithms.lookup(serverNames[index]);
+					long[] chunk = Arrays.copyOfRange(a, (int)((long)a.length * index / p), (int)((long)a.length * (index + 1) / p));
+					return (long[])servers[index].submit(new TaskSpec("samplesort", threadsPerServer, jobId, index, p, chunk, oversampling * p));
+				});
+			}
+			List<long[]> samples = all(sorts);
+			long end = System.nanoTime();
+			phases[SORT] = end - start;
+			
+			// phase 2: choose the splitters
+			start = end;
+			int total = 0;
+			for (long[] s : samples) total += s.length;
+			long[] sample = new long[total];
+			int k = 0;
+			for (long[] s : samples) {
+				System.arraycopy(s, 0, sample, k, s.length);
+				k += s.length;
+			}
+			Arrays.sort(sample);
+			final long[] splitters = new long[p - 1];
+			for (int j = 1; j < p; j++) {
+				splitters[j - 1] = total > 0 ? sample[(int)((long)total * j / p)] : 0;
+			}
+			end = System.nanoTime();
+			phases[SPLITTERS] = end - start;
+			
+			// phase 3: all-to-all exchange of the buckets
+			start = end;
+			List<Callable<int[]>> exchanges = new ArrayList<Callable<int[]>>();
+			for (int i = 0; i < p; i++) {
+				final int index = i;
+				exchanges.add(() -> (int[])servers[index].submit(
+						new TaskSpec("samplesort.exchange", 1, "exchange", jobId, index, splitters, serverNames)));
+			}
+			List<int[]> counts = all(exchanges);
+			final int[] offsets = new int[p + 1];
+			for (int j = 0; j < p; j++) {
+				int size = 0;
+				for (int[] c : counts) size += c[j];
+				offsets[j + 1] = offsets[j] + size;
+			}
+			end = System.nanoTime();
+			phases[EXCHANGE] = end - start;
+			
+			// phase 4: merge on each server, and stream the results into place
+			start = end;
+			List<Callable<Void>> collects = new ArrayList<Callable<Void>>();
+			for (int j = 0; j < p; j++) {
+				final int index = j;
+				collects.add(() -> {
+					int length = offsets[index + 1] - offsets[index];
+					int offset = 0;
+					do {
+						long[] piece = (long[])servers[index].submit(
+								new TaskSpec("samplesort.exchange", 1, "collect", jobId, index, offset, collectChunk));
+						System.arraycopy(piece, 0, a, offsets[index] + offset, piece.length);
+						offset += piece.length;
+					} while (offset < length);
+					return null;
+				});
+			}
+			all(collects);
+			phases[COLLECT] = System.nanoTime() - start;
+			lastPhaseNanos = phases;
+		} catch (RemoteException | NotBoundException | RuntimeException e) {
+			abort(jobId, servers);
+			throw e;
+		}
+	}
+	
+	/*
+	 * Runs the calls at once, and returns their results in order.
+	 */
+	private <T> List<T> all(List<Callable<T>> calls) throws RemoteException, NotBoundException {
+		List<Future<T>> futures = new ArrayList<Future<T>>();
+		for (Callable<T> c : calls) futures.add(es.submit(c));
+		List<T> results = new ArrayList<T>();
+		try {
+			for (Future<T> f : futures) results.add(f.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RemoteException("Interrupted while sorting", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RemoteException) throw (RemoteException)cause;
+			if (cause instanceof NotBoundException) throw (NotBoundException)cause;
+			throw new RemoteException("Failed to sort", cause);
+		}
+		return results;
+	}
+	
+	/*
+	 * Makes the RMI servers forget a failed sort, as far as they can be reached.
+	 */
+	private void abort(long jobId, RemoteParallelAlgorithms[] servers) {
+		for (int i = 0; i < servers.length; i++) {
+			if (servers[i] == null) continue;
+			try {
+				servers[i].submit(new TaskSpec("samplesort.exchange", 1, "abort", jobId, i));
+			} catch (RemoteException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	private static long newJobId() {
+		long id;
+		do {
+			id = ThreadLocalRandom.current().nextLong();
+		} while (id == 0);
+		return id;
+	}
+}
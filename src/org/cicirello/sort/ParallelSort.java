@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.sort.
+ *
+ * Java package org.cicirello.sort is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.sort is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Multithreaded sorting and merging of long arrays on one node, and an order
+ * preserving mapping of doubles to longs so that double arrays can be sorted
+ * the same way.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class ParallelSort {
+	
+	/*
+	 * Arrays shorter than this are sorted by a single thread.
+	 */
+	private static final int MIN_PARALLEL = 1 << 13;
+	
+	private ParallelSort() {}
+	
+	/**
+	 * Sorts an array into ascending order.  Divides the array into a range per
+	 * thread, sorts the ranges at once, and then merges them in rounds, merging 
+	 * pairs of runs at once.
+	 * 
+	 * @param a The array.
+	 * @param threads The number of threads.
+	 * @param es The thread pool on which to sort.
+	 */
+	public static void sort(long[] a, int threads, ExecutorService es) {
+		int t = Math.min(threads, a.length / MIN_PARALLEL);
+		if (t <= 1) {
+			Arrays.sort(a);
+			return;
+		}
+		int[] bounds = new int[t + 1];
+		for (int i = 0; i <= t; i++) {
+			bounds[i] = (int)((long)a.length * i / t);
+		}
+		List<Future<?>> sorts = new ArrayList<Future<?>>();
+		for (int i = 0; i < t; i++) {
+			final int from = bounds[i];
+			final int to = bounds[i + 1];
+			sorts.add(es.submit(() -> Arrays.sort(a, from, to)));
+		}
+		await(sorts);
+		long[] src = a;
+		long[] dst = new long[a.length];
+		for (int width = 1; width < t; width *= 2) {
+			List<Future<?>> merges = new ArrayList<Future<?>>();
+			for (int i = 0; i < t; i += 2 * width) {
+				final int lo = bounds[i];
+				final int mid = bounds[Math.min(i + width, t)];
+				final int hi = bounds[Math.min(i + 2 * width, t)];
+				final long[] from = src;
+				final long[] to = dst;
+				merges.add(es.submit(() -> merge(from, lo, mid, from, mid, hi, to, lo)));
+			}
+			await(merges);
+			long[] swap = src;
+			src = dst;
+			dst = swap;
+		}
+		if (src != a) {
+			System.arraycopy(src, 0, a, 0, a.length);
+		}
+	}
+	
+	/**
+	 * Merges sorted runs into one sorted array, in rounds, merging pairs of runs at once.
+	 * 
+	 * @param runs The sorted runs, which may be empty.
+	 * @param es The thread pool on which to merge.
+	 * @return A sorted array of all of the elements of the runs.
+	 */
+	public static long[] merge(long[][] runs, ExecutorService es) {
+		List<long[]> round = new ArrayList<long[]>(Arrays.asList(runs));
+		if (round.isEmpty()) return new long[0];
+		while (round.size() > 1) {
+			List<Future<long[]>> merges = new ArrayList<Future<long[]>>();
+			for (int i = 0; i + 1 < round.size(); i += 2) {
+				final long[] x = round.get(i);
+				final long[] y = round.get(i + 1);
+				merges.add(es.submit(() -> {
+					long[] z = new long[x.length + y.length];
+					merge(x, 0, x.length, y, 0, y.length, z, 0);
+					return z;
+				}));
+			}
+			List<long[]> next = new ArrayList<long[]>();
+			try {
+				for (Future<long[]> f : merges) next.add(f.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while merging", e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Failed to merge", e.getCause());
+			}
+			if (round.size() % 2 == 1) next.add(round.get(round.size() - 1));
+			round = next;
+		}
+		return round.get(0);
+	}
+	
+	/**
+	 * Maps a double to a long, such that the longs are in the same order as the
+	 * doubles are by {@link Double#compare}.
+	 * 
+	 * @param x The double.
+	 * @return a long with the same order as x
+	 */
+	public static long toSortable(double x) {
+		long bits = Double.doubleToLongBits(x);
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+	
+	/**
+	 * Inverts {@link #toSortable}.
+	 * 
+	 * @param key The long.
+	 * @return the double that maps to key
+	 */
+	public static double fromSortable(long key) {
+		return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+	}
+	
+	/*
+	 * Merges the sorted ranges x[xFrom, xTo) and y[yFrom, yTo) into z starting at zFrom.
+	 */
+	private static void merge(long[] x, int xFrom, int xTo, long[] y, int yFrom, int yTo, long[] z, int zFrom) {
+		int i = xFrom;
+		int j = yFrom;
+		int k = zFrom;
+		while (i < xTo && j < yTo) {
+			z[k++] = x[i] <= y[j] ? x[i++] : y[j++];
+		}
+		System.arraycopy(x, i, z, k, xTo - i);
+		System.arraycopy(y, j, z, k + xTo - i, yTo - j);
+	}
+	
+	private static void await(List<Future<?>> futures) {
+		try {
+			for (Future<?> f : futures) f.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while sorting", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to sort", e.getCause());
+		}
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.sort.
+ *
+ * Java package org.cicirello.sort is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.sort is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.sort;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.cicirello.algengine.KernelContext;
+import org.cicirello.algengine.RemoteKernel;
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+import org.cicirello.algengine.TaskSpec;
+
+/**
+ * Kernel "samplesort.exchange": the later phases of a node of a 
+ * {@link DistributedSampleSort}, after {@link SampleSortKernel} has sorted 
+ * the node's chunk.  The first argument names the phase, and the next two
+ * are Long jobId and Integer index (of the node):
+ * <ul>
+ * <li>"exchange", long[] splitters, String[] nodes: divides the sorted chunk
+ * into a bucket per node by the splitters, and sends each bucket to its node, 
+ * all at once, as a "receive".  Returns the size of each bucket as an int[].</li>
+ * <li>"receive", Integer from, long[] run: receives this node's bucket of the 
+ * chunk of node from.</li>
+ * <li>"collect", Integer offset, Integer length: merges the runs received, the
+ * first time, and returns the given range of the result as a long[], so that the
+ * master can stream the result back in pieces.  Forgets the job once the end of 
+ * the result has been collected.</li>
+ * <li>"abort": forgets the job.</li>
+ * </ul>
+ * The tasks wait on other RMI servers, which may be waiting on them, so they 
+ * skip admission control.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class SampleSortExchangeKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "samplesort.exchange";
+	}
+	
+	@Override
+	public boolean bypassesAdmission() {
+		return true;
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) throws Exception {
+		String phase = task.argument(0, String.class);
+		long jobId = task.argument(1, Long.class);
+		int index = task.argument(2, Integer.class);
+		String key = SampleSortJob.key(jobId, index);
+		if (phase.equals("abort")) {
+			context.residentData().remove(key);
+			return null;
+		}
+		SampleSortJob job = (SampleSortJob)context.residentData().get(key);
+		if (job == null) {
+			throw new IllegalStateException("No sample sort job " + jobId + " for node " + index);
+		}
+		switch (phase) {
+			case "exchange": 
+				return exchange(job, jobId, index, task.argument(3, long[].class), task.argument(4, String[].class), context);
+			case "receive":
+				job.receive(task.argument(3, Integer.class), task.argument(4, long[].class));
+				return null;
+			case "collect":
+				long[] merged = job.merged(context.executor());
+				int offset = task.argument(3, Integer.class);
+				int end = Math.min(merged.length, offset + task.argument(4, Integer.class));
+				if (end >= merged.length) {
+					context.residentData().remove(key);
+				}
+				return Arrays.copyOfRange(merged, offset, end);
+			default:
+				throw new IllegalArgumentException("Unknown phase of sample sort: " + phase);
+		}
+	}
+	
+	private int[] exchange(SampleSortJob job, long jobId, int index, long[] splitters, String[] nodes, KernelContext context) throws Exception {
+		long[] chunk = job.chunk();
+		int[] bounds = new int[nodes.length + 1];
+		for (int j = 1; j < nodes.length; j++) {
+			bounds[j] = upperBound(chunk, bounds[j - 1], splitters[j - 1]);
+		}
+		bounds[nodes.length] = chunk.length;
+		int[] counts = new int[nodes.length];
+		List<Future<?>> sends = new ArrayList<Future<?>>();
+		for (int j = 0; j < nodes.length; j++) {
+			final long[] bucket = Arrays.copyOfRange(chunk, bounds[j], bounds[j + 1]);
+			counts[j] = bucket.length;
+			if (j == index) {
+				job.receive(index, bucket);
+				continue;
+			}
+			final String node = nodes[j];
+			final int to = j;
+			sends.add(context.forwardingExecutor().submit(() -> 
+				RemoteParallelAlgorithms.lookup(node).submit(new TaskSpec(name(), 1, "receive", jobId, to, index, bucket))
+			));
+		}
+		try {
+			for (Future<?> f : sends) f.get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+		}
+		return counts;
+	}
+	
+	/*
+	 * The first index at or after from of an element of the sorted array greater than x.
+	 */
+	private static int upperBound(long[] a, int from, long x) {
+		int lo = from;
+		int hi = a.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (a[mid] <= x) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+	
+	@Override
+	public void warmup(KernelContext context) throws Exception {
+		// a sort with a single node, which exchanges nothing over the network
+		int n = context.warmupSize();
+		Random r = new Random(42);
+		long[] chunk = new long[16 * n * n];
+		for (int i = 0; i < chunk.length; i++) chunk[i] = r.nextLong();
+		new SampleSortKernel().execute(new TaskSpec("samplesort", 4, 0L, 0, 1, chunk, 16), context);
+		execute(new TaskSpec(name(), 1, "exchange", 0L, 0, new long[0], new String[] {"local"}), context);
+		execute(new TaskSpec(name(), 1, "collect", 0L, 0, 0, chunk.length), context);
+	}
+}
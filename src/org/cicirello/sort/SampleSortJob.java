@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.sort.
+ *
+ * Java package org.cicirello.sort is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.sort is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.sort;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The state of one node's part of a distributed sample sort, kept by the RMI 
+ * server between the phases of the sort.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+final class SampleSortJob {
+	
+	private final long[] chunk;
+	private final long[][] runs;
+	private long[] merged;
+	
+	/*
+	 * The sorted chunk of the node, and the number of nodes of the sort.
+	 */
+	SampleSortJob(long[] chunk, int nodes) {
+		this.chunk = chunk;
+		runs = new long[nodes][];
+	}
+	
+	/*
+	 * The key of a job in the resident data of the RMI server.  The index of 
+	 * the node is part of the key, since an RMI server may hold more than one
+	 * of the nodes of a sort.
+	 */
+	static String key(long jobId, int index) {
+		return "samplesort/" + jobId + "/" + index;
+	}
+	
+	long[] chunk() {
+		return chunk;
+	}
+	
+	int nodes() {
+		return runs.length;
+	}
+	
+	/*
+	 * Receives the run of this node's bucket from a node.
+	 */
+	synchronized void receive(int from, long[] run) {
+		if (runs[from] != null) {
+			throw new IllegalStateException("Received a second run from node " + from);
+		}
+		runs[from] = run;
+	}
+	
+	/*
+	 * The runs received, merged, once all have been received.
+	 */
+	synchronized long[] merged(ExecutorService es) {
+		if (merged == null) {
+			for (int i = 0; i < runs.length; i++) {
+				if (runs[i] == null) throw new IllegalStateException("No run received from node " + i);
+			}
+			merged = ParallelSort.merge(runs, es);
+		}
+		return merged;
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * This file is part of package org.cicirello.sort.
+ *
+ * Java package org.cicirello.sort is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Java package org.cicirello.sort is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.sort;
+
+import java.io.Serializable;
+import java.util.Random;
+
+import org.cicirello.algengine.KernelContext;
+import org.cicirello.algengine.RemoteKernel;
+import org.cicirello.algengine.TaskSpec;
+
+/**
+ * Kernel "samplesort": the first phase of a node of a {@link DistributedSampleSort}.
+ * Sorts the node's chunk of the array with {@link ParallelSort}, keeps it on the
+ * RMI server for the later phases (see {@link SampleSortExchangeKernel}), and 
+ * returns a regular sample of it, from which the master chooses the splitters.
+ * Arguments: Long jobId, Integer index (of the node), Integer nodes, long[] chunk, 
+ * Integer samples.  Returns the samples as a long[].
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class SampleSortKernel implements RemoteKernel {
+	
+	@Override
+	public String name() {
+		return "samplesort";
+	}
+	
+	@Override
+	public Serializable execute(TaskSpec task, KernelContext context) {
+		long jobId = task.argument(0, Long.class);
+		int index = task.argument(1, Integer.class);
+		int nodes = task.argument(2, Integer.class);
+		long[] chunk = task.argument(3, long[].class);
+		int samples = task.argument(4, Integer.class);
+		ParallelSort.sort(chunk, task.numThreads(), context.executor());
+		context.residentData().put(SampleSortJob.key(jobId, index), new SampleSortJob(chunk, nodes));
+		int s = Math.min(samples, chunk.length);
+		long[] sample = new long[s];
+		for (int k = 0; k < s; k++) {
+			sample[k] = chunk[(int)((2L * k + 1) * chunk.length / (2L * s))];
+		}
+		return sample;
+	}
+	
+	@Override
+	public void warmup(KernelContext context) {
+		int n = context.warmupSize();
+		Random r = new Random(42);
+		long[] chunk = new long[16 * n * n];
+		for (int i = 0; i < chunk.length; i++) chunk[i] = r.nextLong();
+		execute(new TaskSpec(name(), 4, 0L, 0, 1, chunk, 16), context);
+		context.residentData().remove(SampleSortJob.key(0, 0));
+	}
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * BenchmarkBaseline is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * BenchmarkBaseline is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Saves runs of a benchmark, such as {@link TimeMult} or {@link TimePi}, as 
+ * baselines, and compares later runs against them, so that a change that slows
+ * down the multipliers or the Pi kernels is caught before it reaches the cluster.
+ * The benchmark runs in a new JVM, and its output is echoed as it runs.
+ * 
+ * <p>A run is the tab-separated output of the benchmark: a header, and a row per
+ * sample, whose columns before the first column whose name begins with Time, 
+ * such as TimeSeconds, identify its configuration (such as the numbers of RMI 
+ * servers and threads), and which is the time of the sample.  A run is saved 
+ * along with the benchmark and its arguments, the git revision of the working 
+ * directory, a fingerprint of the machine and JVM, the JVM flags, and the number 
+ * of nodes (the most RMI servers of any configuration).</p>
+ * 
+ * <p>For each configuration, the samples of the new run are compared to those of 
+ * the baseline with the Mann-Whitney U test, which assumes nothing of the 
+ * distribution of times.  The configuration has regressed if the difference is 
+ * significant and its median time is more than the threshold slower than that of 
+ * the baseline, and improved if significant and more than the threshold faster.
+ * With 10 samples of each, as TimeMult and TimePi take, the test can detect a 
+ * difference at significance levels down to about 0.0002; with fewer than about
+ * 5 samples of each, it cannot at the default level.  Differences of the machine,
+ * JVM, or nodes are reported, since they may explain the differences of the times.</p>
+ * 
+ * <p>Command line, where benchmark is the name of a class with a main method, 
+ * such as TimeMult (of this package) or a fully qualified name:</p>
+ * <ul>
+ * <li>save [options] baselineFile benchmark [arguments]: runs the benchmark 
+ * and saves the run as a baseline</li>
+ * <li>compare [options] baselineFile benchmark [arguments]: runs the benchmark, 
+ * and compares the run to the baseline</li>
+ * <li>diff [options] baselineFile runFile: compares a saved run to the baseline</li>
+ * </ul>
+ * <p>Options:</p>
+ * <ul>
+ * <li>-t threshold: the least relative change of the median that is flagged (default 0.05)</li>
+ * <li>-a alpha: the significance level of the test (default 0.01)</li>
+ * <li>-jvmArgs "args": the JVM options of the benchmark, replacing those of this JVM</li>
+ * <li>-o file: for compare, also saves the new run to the file</li>
+ * </ul>
+ * <p>Exits with status 1 if any configuration regressed, 2 on an error, and 0 otherwise.</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class BenchmarkBaseline {
+	
+	/**
+	 * The default least relative change of the median that is flagged.
+	 */
+	public static final double THRESHOLD = 0.05;
+	
+	/**
+	 * The default significance level of the test.
+	 */
+	public static final double ALPHA = 0.01;
+	
+	private BenchmarkBaseline() {}
+	
+	/**
+	 * Saves or compares runs of a benchmark.
+	 * @param args The command line, as described in the class comment.
+	 */
+	public static void main(String[] args) {
+		double threshold = THRESHOLD;
+		double alpha = ALPHA;
+		List<String> jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+		String output = null;
+		if (args.length == 0) usage();
+		String command = args[0];
+		int k = 1;
+		for (; k < args.length && args[k].startsWith("-"); k += 2) {
+			if (k + 1 >= args.length) usage();
+			switch (args[k]) {
+				case "-t": threshold = Double.parseDouble(args[k+1]); break;
+				case "-a": alpha = Double.parseDouble(args[k+1]); break;
+				case "-jvmArgs": jvmArgs = args[k+1].trim().isEmpty() ? new ArrayList<String>() : Arrays.asList(args[k+1].trim().split("\\s+")); break;
+				case "-o": output = args[k+1]; break;
+				default: usage();
+			}
+		}
+		if (k + 2 > args.length) usage();
+		File baselineFile = new File(args[k]);
+		int status = 0;
+		try {
+			if (command.equals("save")) {
+				run(args[k+1], Arrays.copyOfRange(args, k+2, args.length), jvmArgs).write(baselineFile);
+			} else if (command.equals("compare")) {
+				Run baseline = Run.read(baselineFile);
+				Run run = run(args[k+1], Arrays.copyOfRange(args, k+2, args.length), jvmArgs);
+				if (output != null) run.write(new File(output));
+				status = compare(baseline, run, threshold, alpha);
+			} else if (command.equals("diff")) {
+				status = compare(Run.read(baselineFile), Run.read(new File(args[k+1])), threshold, alpha);
+			} else {
+				usage();
+			}
+		} catch (IOException | ReflectiveOperationException e) {
+			e.printStackTrace();
+			status = 2;
+		}
+		System.exit(status);
+	}
+	
+	private static void usage() {
+		System.err.println("Usage: BenchmarkBaseline save|compare [-t threshold] [-a alpha] [-jvmArgs \"args\"] [-o file] baselineFile benchmark [arguments]");
+		System.err.println("       BenchmarkBaseline diff [-t threshold] [-a alpha] baselineFile runFile");
+		System.exit(2);
+	}
+	
+	/*
+	 * Runs a benchmark in a new JVM, echoing and recording its output.
+	 */
+	private static Run run(String benchmark, String[] args, List<String> jvmArgs) throws IOException, ReflectiveOperationException {
+		Class<?> main = Class.forName(benchmark.indexOf('.') >= 0 ? benchmark : BenchmarkBaseline.class.getPackage().getName() + "." + benchmark);
+		main.getMethod("main", String[].class);
+		List<String> command = new ArrayList<String>();
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+		command.addAll(jvmArgs);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(main.getName());
+		command.addAll(Arrays.asList(args));
+		Run run = new Run();
+		run.metadata.put("benchmark", main.getName());
+		run.metadata.put("arguments", String.join(" ", args));
+		run.metadata.put("revision", revision());
+		run.metadata.put("machine", fingerprint());
+		run.metadata.put("jvmFlags", String.join(" ", jvmArgs));
+		run.metadata.put("date", Instant.now().toString());
+		Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				System.out.println(line);
+				run.add(line);
+			}
+		}
+		try {
+			int status = process.waitFor();
+			if (status != 0) throw new IOException("Benchmark " + main.getName() + " exited with status " + status);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while running " + main.getName(), e);
+		}
+		if (run.samples.isEmpty()) throw new IOException("Benchmark " + main.getName() + " reported no times");
+		run.metadata.put("nodes", "" + run.nodes());
+		return run;
+	}
+	
+	/*
+	 * Compares a run to a baseline, configuration by configuration, printing the
+	 * comparison, and returning the exit status: 1 if any configuration regressed.
+	 */
+	private static int compare(Run baseline, Run run, double threshold, double alpha) {
+		if (!Arrays.equals(baseline.config, run.config)) {
+			System.err.println("The configurations of the run, " + Arrays.toString(run.config) 
+					+ ", are not those of the baseline, " + Arrays.toString(baseline.config));
+			return 2;
+		}
+		for (String key : new String[] {"benchmark", "arguments", "machine", "jvmFlags", "nodes"}) {
+			String before = baseline.metadata.get(key);
+			String after = run.metadata.get(key);
+			if (before != null && !before.equals(after)) {
+				System.out.println("# Note: " + key + " differs from the baseline: " + before + " -> " + after);
+			}
+		}
+		System.out.println("# Baseline: revision " + baseline.metadata.get("revision") + " of " + baseline.metadata.get("date")
+				+ "; run: revision " + run.metadata.get("revision") + " of " + run.metadata.get("date"));
+		System.out.println(String.join("\t", baseline.config) + "\tBaselineMedian\tMedian\tChange\tP\tVerdict");
+		int regressions = 0;
+		int improvements = 0;
+		for (Map.Entry<String, List<Double>> e : run.samples.entrySet()) {
+			List<Double> before = baseline.samples.get(e.getKey());
+			double[] y = values(e.getValue());
+			if (before == null) {
+				System.out.printf(Locale.ROOT, "%s\t\t%.6f\t\t\tnew%n", e.getKey(), Stats.median(y));
+				continue;
+			}
+			double[] x = values(before);
+			double change = Stats.median(y) / Stats.median(x) - 1;
+			double p = Stats.mannWhitney(x, y);
+			String verdict = "unchanged";
+			if (p < alpha && change > threshold) {
+				verdict = "REGRESSION";
+				regressions++;
+			} else if (p < alpha && change < -threshold) {
+				verdict = "improvement";
+				improvements++;
+			}
+			System.out.printf(Locale.ROOT, "%s\t%.6f\t%.6f\t%+.1f%%\t%.4g\t%s%n", e.getKey(), Stats.median(x), Stats.median(y), 100 * change, p, verdict);
+		}
+		for (String key : baseline.samples.keySet()) {
+			if (!run.samples.containsKey(key)) System.out.println(key + "\t\t\t\t\tmissing");
+		}
+		System.out.println("# " + regressions + " regressions, " + improvements + " improvements, of " + run.samples.size() + " configurations");
+		return regressions > 0 ? 1 : 0;
+	}
+	
+	private static double[] values(List<Double> list) {
+		double[] x = new double[list.size()];
+		for (int i = 0; i < x.length; i++) x[i] = list.get(i);
+		return x;
+	}
+	
+	/*
+	 * The git revision of the working directory, marked if it has uncommitted
+	 * changes, or unknown if it is not available.
+	 */
+	private static String revision() {
+		String revision = git("rev-parse", "--short", "HEAD");
+		if (revision == null || revision.isEmpty()) return "unknown";
+		String status = git("status", "--porcelain", "--untracked-files=no");
+		return status != null && !status.isEmpty() ? revision + "+dirty" : revision;
+	}
+	
+	private static String git(String... args) {
+		List<String> command = new ArrayList<String>();
+		command.add("git");
+		command.addAll(Arrays.asList(args));
+		try {
+			Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+			StringBuilder out = new StringBuilder();
+			try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+				String line;
+				while ((line = in.readLine()) != null) out.append(line).append('\n');
+			}
+			return process.waitFor() == 0 ? out.toString().trim() : null;
+		} catch (IOException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+	
+	private static String fingerprint() {
+		return System.getProperty("os.name") + " " + System.getProperty("os.version") + " " + System.getProperty("os.arch")
+				+ ", " + Runtime.getRuntime().availableProcessors() + " cores, " 
+				+ System.getProperty("java.vm.name") + " " + System.getProperty("java.version");
+	}
+	
+	/*
+	 * A run of a benchmark: its metadata, and its times, by configuration.
+	 */
+	private static final class Run {
+		
+		private final Map<String, String> metadata = new LinkedHashMap<String, String>();
+		private final Map<String, List<Double>> samples = new LinkedHashMap<String, List<Double>>();
+		private final List<String> lines = new ArrayList<String>();
+		private String[] header;
+		private String[] config;
+		private int time = -1;
+		
+		static Run read(File file) throws IOException {
+			Run run = new Run();
+			try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					int eq = line.indexOf('=');
+					if (line.startsWith("# ") && eq > 0 && run.header == null) {
+						run.metadata.put(line.substring(2, eq), line.substring(eq + 1));
+					} else {
+						run.add(line);
+					}
+				}
+			}
+			if (run.samples.isEmpty()) throw new IOException(file + " holds no times of a benchmark");
+			return run;
+		}
+		
+		/*
+		 * Adds a line of the output of the benchmark: the first line with a column
+		 * whose name begins with Time is the header, and the lines after it with
+		 * the same number of columns, and a number in that column, are samples.  
+		 * Other lines, such as messages, are ignored.
+		 */
+		void add(String line) {
+			String[] fields = line.split("\t", -1);
+			if (header == null) {
+				for (int i = 0; i < fields.length; i++) {
+					if (fields[i].startsWith("Time")) {
+						header = fields;
+						config = Arrays.copyOf(fields, i);
+						time = i;
+						lines.add(line);
+						return;
+					}
+				}
+				return;
+			}
+			if (fields.length != header.length) return;
+			double t;
+			try {
+				t = Double.parseDouble(fields[time]);
+			} catch (NumberFormatException e) {
+				return;
+			}
+			samples.computeIfAbsent(String.join("\t", Arrays.copyOf(fields, time)), key -> new ArrayList<Double>()).add(t);
+			lines.add(line);
+		}
+		
+		/*
+		 * The most RMI servers of any configuration, or 0 if the benchmark 
+		 * does not report them.
+		 */
+		int nodes() {
+			int column = Arrays.asList(config).indexOf("NumRMIServers");
+			if (column < 0) return 0;
+			int nodes = 0;
+			for (String key : samples.keySet()) {
+				nodes = Math.max(nodes, Integer.parseInt(key.split("\t", -1)[column]));
+			}
+			return nodes;
+		}
+		
+		void write(File file) throws IOException {
+			try (PrintWriter out = new PrintWriter(file)) {
+				for (Map.Entry<String, String> e : metadata.entrySet()) {
+					out.println("# " + e.getKey() + "=" + e.getValue());
+				}
+				for (String line : lines) out.println(line);
+			}
+		}
+	}
+}
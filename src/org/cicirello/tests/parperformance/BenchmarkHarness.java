@@ -0,0 +1,497 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * BenchmarkHarness is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * BenchmarkHarness is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * A harness for microbenchmarks of the kernels, in the manner of JMH.  Each 
+ * benchmark runs for every combination of its parameters, in forks: fresh 
+ * JVMs, so that the profile and compilation decisions of one benchmark do not
+ * carry over to the next.  In each fork, the benchmark is set up once, then 
+ * runs for a number of warmup iterations, whose results are discarded, and 
+ * of measurement iterations.  An iteration repeats the benchmarked operation
+ * for a fixed time.  The score is the mean time per operation over the 
+ * measurement iterations of all forks, with the half width of its 99.9% 
+ * confidence interval.  Results of operations are passed to a {@link Blackhole}
+ * so that the JIT compiler cannot eliminate them.
+ * 
+ * <p>Like the gc profiler of JMH, the harness also reports the bytes allocated
+ * per operation, and the number and duration of garbage collections per 
+ * iteration.  Allocation is counted for the threads alive at both the start
+ * and end of an iteration, so benchmarks that use threads should keep them in a 
+ * pool created during setup.</p>
+ * 
+ * <p>Command line options:</p>
+ * <ul>
+ * <li>-f forks: the number of forks (default 2), or 0 to run in this JVM</li>
+ * <li>-wi iterations: the number of warmup iterations (default 5)</li>
+ * <li>-i iterations: the number of measurement iterations (default 5)</li>
+ * <li>-r millis: the duration of an iteration (default 1000)</li>
+ * <li>-p name=v1,v2,...: the values of a parameter, replacing its defaults</li>
+ * <li>-tu unit: the time unit of the scores, one of ns, us, ms (default), or s</li>
+ * <li>-jvmArgs "args": the JVM options of the forks, replacing those of this JVM</li>
+ * <li>-o file: also writes the results to a CSV file</li>
+ * <li>-l: lists the benchmarks and their parameters</li>
+ * <li>regex: runs only the benchmarks whose names contain a match of the regular expression</li>
+ * </ul>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class BenchmarkHarness {
+	
+	/**
+	 * A benchmarked operation, along with the state it operates on.
+	 */
+	public interface Benchmark {
+		/**
+		 * Sets up the state of the benchmark, once per fork.
+		 * @param params The value of each parameter of the benchmark.
+		 * @throws Exception If the state cannot be set up.
+		 */
+		void setup(Map<String, String> params) throws Exception;
+		
+		/**
+		 * Runs the benchmarked operation once.
+		 * @param bh Consumes the result of the operation.
+		 * @throws Exception If the operation fails.
+		 */
+		void run(Blackhole bh) throws Exception;
+		
+		/**
+		 * Releases the state of the benchmark, such as thread pools, once per fork.
+		 */
+		default void tearDown() {}
+	}
+	
+	private static final String RESULT = "#harness ";
+	
+	private final Class<?> mainClass;
+	private final Map<String, Supplier<Benchmark>> benchmarks;
+	private final Map<String, LinkedHashMap<String, String[]>> parameters;
+	
+	/**
+	 * Initializes a harness with no benchmarks.
+	 * @param mainClass The class whose main method runs the harness, which the forks also run.
+	 */
+	public BenchmarkHarness(Class<?> mainClass) {
+		this.mainClass = mainClass;
+		benchmarks = new LinkedHashMap<String, Supplier<Benchmark>>();
+		parameters = new LinkedHashMap<String, LinkedHashMap<String, String[]>>();
+	}
+	
+	/**
+	 * Adds a benchmark.
+	 * @param name The name of the benchmark.
+	 * @param factory Creates the benchmark, once per fork.
+	 * @param params The parameters of the benchmark and their default values, 
+	 * each of the form name=v1,v2,...
+	 */
+	public void add(String name, Supplier<Benchmark> factory, String... params) {
+		LinkedHashMap<String, String[]> values = new LinkedHashMap<String, String[]>();
+		for (String p : params) {
+			int eq = p.indexOf('=');
+			values.put(p.substring(0, eq), p.substring(eq + 1).split(","));
+		}
+		benchmarks.put(name, factory);
+		parameters.put(name, values);
+	}
+	
+	/**
+	 * Runs the benchmarks selected by the command line, printing the progress 
+	 * and a table of the results.
+	 * @param args The command line (see the class comment).
+	 */
+	public void run(String[] args) {
+		int forks = 2;
+		int warmups = 5;
+		int iterations = 5;
+		long millis = 1000;
+		String unit = "ms";
+		List<String> jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+		File csv = null;
+		Pattern include = null;
+		Map<String, String[]> overrides = new LinkedHashMap<String, String[]>();
+		for (int k = 0; k < args.length; k++) {
+			switch (args[k]) {
+				case "--fork": 
+					fork(Arrays.copyOfRange(args, k + 1, args.length));
+					return;
+				case "-f": forks = Integer.parseInt(args[++k]); break;
+				case "-wi": warmups = Integer.parseInt(args[++k]); break;
+				case "-i": iterations = Integer.parseInt(args[++k]); break;
+				case "-r": millis = Long.parseLong(args[++k]); break;
+				case "-tu": unit = args[++k]; break;
+				case "-jvmArgs": 
+					jvmArgs = args[++k].trim().isEmpty() ? new ArrayList<String>() : Arrays.asList(args[k].trim().split("\\s+")); 
+					break;
+				case "-o": csv = new File(args[++k]); break;
+				case "-p": 
+					String p = args[++k];
+					overrides.put(p.substring(0, p.indexOf('=')), p.substring(p.indexOf('=') + 1).split(","));
+					break;
+				case "-l": 
+					for (Map.Entry<String, LinkedHashMap<String, String[]>> e : parameters.entrySet()) {
+						StringBuilder s = new StringBuilder(e.getKey());
+						for (Map.Entry<String, String[]> v : e.getValue().entrySet()) {
+							s.append(" ").append(v.getKey()).append("=").append(String.join(",", v.getValue()));
+						}
+						System.out.println(s);
+					}
+					return;
+				default: include = Pattern.compile(args[k]);
+			}
+		}
+		double scale = unitNanos(unit);
+		List<Result> results = new ArrayList<Result>();
+		for (String name : benchmarks.keySet()) {
+			if (include != null && !include.matcher(name).find()) continue;
+			LinkedHashMap<String, String[]> space = new LinkedHashMap<String, String[]>(parameters.get(name));
+			for (Map.Entry<String, String[]> o : overrides.entrySet()) {
+				if (space.containsKey(o.getKey())) space.put(o.getKey(), o.getValue());
+			}
+			for (Map<String, String> params : combinations(space)) {
+				System.out.println("# Benchmark: " + name + " " + params);
+				List<Sample> measured = new ArrayList<Sample>();
+				boolean failed = false;
+				for (int f = 1; f <= Math.max(1, forks) && !failed; f++) {
+					System.out.println(forks > 0 ? "# Fork " + f + " of " + forks : "# Not forked");
+					List<Sample> samples = forks > 0 
+							? forked(name, params, warmups, iterations, millis, jvmArgs)
+							: iterations(name, params, warmups, iterations, millis);
+					if (samples == null) {
+						failed = true;
+						break;
+					}
+					for (Sample s : samples) {
+						System.out.printf("%s %3d: %.3f %s/op%n", s.warmup ? "# Warmup Iteration" : "Iteration", s.iteration, s.nanosPerOp() / scale, unit);
+						if (!s.warmup) measured.add(s);
+					}
+				}
+				if (failed) {
+					System.out.println("# Failed: " + name + " " + params);
+				} else {
+					results.add(new Result(name, params, measured));
+				}
+				System.out.println();
+			}
+		}
+		print(results, unit, scale);
+		if (csv != null) {
+			try {
+				writeCsv(results, unit, scale, csv);
+			} catch (IOException e) {
+				System.err.println("Failed to write " + csv + ":");
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/*
+	 * Runs one combination of parameters of a benchmark in a new JVM, returning
+	 * its samples, or null if the fork fails.
+	 */
+	private List<Sample> forked(String name, Map<String, String> params, int warmups, int iterations, long millis, List<String> jvmArgs) {
+		List<String> command = new ArrayList<String>();
+		command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+		command.addAll(jvmArgs);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(mainClass.getName());
+		command.add("--fork");
+		command.add(name);
+		command.add("" + warmups);
+		command.add("" + iterations);
+		command.add("" + millis);
+		for (Map.Entry<String, String> p : params.entrySet()) {
+			command.add(p.getKey() + "=" + p.getValue());
+		}
+		List<Sample> samples = new ArrayList<Sample>();
+		try {
+			Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+			try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					if (line.startsWith(RESULT)) samples.add(Sample.parse(line.substring(RESULT.length())));
+					else System.out.println(line);
+				}
+			}
+			if (process.waitFor() != 0) return null;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		return samples;
+	}
+	
+	/*
+	 * The body of a fork: runs one combination of parameters of a benchmark, 
+	 * printing its samples.
+	 */
+	private void fork(String[] args) {
+		Map<String, String> params = new LinkedHashMap<String, String>();
+		for (int k = 4; k < args.length; k++) {
+			int eq = args[k].indexOf('=');
+			params.put(args[k].substring(0, eq), args[k].substring(eq + 1));
+		}
+		List<Sample> samples = iterations(args[0], params, Integer.parseInt(args[1]), Integer.parseInt(args[2]), Long.parseLong(args[3]));
+		if (samples == null) System.exit(1);
+		for (Sample s : samples) {
+			System.out.println(RESULT + s);
+		}
+		System.exit(0);
+	}
+	
+	/*
+	 * Runs one combination of parameters of a benchmark in this JVM, returning
+	 * its samples, or null if it fails.
+	 */
+	private List<Sample> iterations(String name, Map<String, String> params, int warmups, int iterations, long millis) {
+		Benchmark b = benchmarks.get(name).get();
+		Blackhole bh = new Blackhole();
+		List<Sample> samples = new ArrayList<Sample>();
+		try {
+			b.setup(params);
+			try {
+				for (int k = 0; k < warmups + iterations; k++) {
+					samples.add(iteration(b, bh, millis, k < warmups, k < warmups ? k + 1 : k - warmups + 1));
+				}
+			} finally {
+				b.tearDown();
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+		return samples;
+	}
+	
+	private static Sample iteration(Benchmark b, Blackhole bh, long millis, boolean warmup, int index) throws Exception {
+		long gcCount = 0;
+		long gcMillis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			gcCount -= Math.max(0, gc.getCollectionCount());
+			gcMillis -= Math.max(0, gc.getCollectionTime());
+		}
+		long[] threads = ManagementFactory.getThreadMXBean().getAllThreadIds();
+		long[] allocatedBefore = allocated(threads);
+		long start = System.nanoTime();
+		long deadline = start + millis * 1000000L;
+		long ops = 0;
+		long now;
+		do {
+			b.run(bh);
+			ops++;
+			now = System.nanoTime();
+		} while (now < deadline);
+		long[] allocatedAfter = allocated(threads);
+		long bytes = -1;
+		if (allocatedBefore != null) {
+			bytes = 0;
+			for (int k = 0; k < threads.length; k++) {
+				if (allocatedBefore[k] >= 0 && allocatedAfter[k] >= 0) bytes += allocatedAfter[k] - allocatedBefore[k];
+			}
+		}
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			gcCount += Math.max(0, gc.getCollectionCount());
+			gcMillis += Math.max(0, gc.getCollectionTime());
+		}
+		return new Sample(warmup, index, ops, now - start, bytes, gcCount, gcMillis);
+	}
+	
+	/*
+	 * The bytes allocated so far by each thread, -1 for threads that have ended,
+	 * or null if the JVM does not count allocation.
+	 */
+	private static long[] allocated(long[] threads) {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean)bean;
+			if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+				return sun.getThreadAllocatedBytes(threads);
+			}
+		}
+		return null;
+	}
+	
+	private static List<Map<String, String>> combinations(LinkedHashMap<String, String[]> space) {
+		List<Map<String, String>> all = new ArrayList<Map<String, String>>();
+		all.add(new LinkedHashMap<String, String>());
+		for (Map.Entry<String, String[]> p : space.entrySet()) {
+			List<Map<String, String>> next = new ArrayList<Map<String, String>>();
+			for (Map<String, String> partial : all) {
+				for (String v : p.getValue()) {
+					Map<String, String> m = new LinkedHashMap<String, String>(partial);
+					m.put(p.getKey(), v);
+					next.add(m);
+				}
+			}
+			all = next;
+		}
+		return all;
+	}
+	
+	private static double unitNanos(String unit) {
+		switch (unit) {
+			case "ns": return 1;
+			case "us": return 1e3;
+			case "ms": return 1e6;
+			case "s": return 1e9;
+			default: throw new IllegalArgumentException("Unknown time unit: " + unit);
+		}
+	}
+	
+	private static void print(List<Result> results, String unit, double scale) {
+		int width = "Benchmark".length();
+		for (Result r : results) width = Math.max(width, r.label().length());
+		String format = "%-" + width + "s  %4s  %12s  %12s  %-6s  %14s  %8s  %10s%n";
+		System.out.printf(format, "Benchmark", "Cnt", "Score", "Error", "Units", "Alloc B/op", "GCs/iter", "GC ms/iter");
+		for (Result r : results) {
+			System.out.printf(format, r.label(), r.count(), 
+					String.format("%.3f", r.score() / scale), String.format("+- %.3f", r.error() / scale), unit + "/op",
+					r.allocPerOp() >= 0 ? String.format("%.1f", r.allocPerOp()) : "n/a",
+					String.format("%.2f", r.gcCount()), String.format("%.1f", r.gcMillis()));
+		}
+	}
+	
+	private static void writeCsv(List<Result> results, String unit, double scale, File file) throws IOException {
+		try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+			out.println("benchmark,params,count,score,error,unit,allocBytesPerOp,gcCountPerIteration,gcMillisPerIteration");
+			for (Result r : results) {
+				out.println(String.format(Locale.ROOT, "%s,\"%s\",%d,%.6f,%.6f,%s,%.1f,%.3f,%.3f", 
+						r.name, r.paramString(), r.count(), r.score() / scale, r.error() / scale, unit + "/op",
+						r.allocPerOp(), r.gcCount(), r.gcMillis()));
+			}
+		}
+	}
+	
+	private static final class Sample {
+		private final boolean warmup;
+		private final int iteration;
+		private final long ops;
+		private final long nanos;
+		private final long allocated;
+		private final long gcCount;
+		private final long gcMillis;
+		
+		private Sample(boolean warmup, int iteration, long ops, long nanos, long allocated, long gcCount, long gcMillis) {
+			this.warmup = warmup;
+			this.iteration = iteration;
+			this.ops = ops;
+			this.nanos = nanos;
+			this.allocated = allocated;
+			this.gcCount = gcCount;
+			this.gcMillis = gcMillis;
+		}
+		
+		private double nanosPerOp() {
+			return (double)nanos / ops;
+		}
+		
+		private static Sample parse(String s) {
+			String[] f = s.split(" ");
+			return new Sample(f[0].equals("W"), Integer.parseInt(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]), 
+					Long.parseLong(f[4]), Long.parseLong(f[5]), Long.parseLong(f[6]));
+		}
+		
+		@Override
+		public String toString() {
+			return (warmup ? "W " : "M ") + iteration + " " + ops + " " + nanos + " " + allocated + " " + gcCount + " " + gcMillis;
+		}
+	}
+	
+	private static final class Result {
+		private final String name;
+		private final Map<String, String> params;
+		private final double[] nanosPerOp;
+		private final List<Sample> samples;
+		
+		private Result(String name, Map<String, String> params, List<Sample> samples) {
+			this.name = name;
+			this.params = params;
+			this.samples = samples;
+			nanosPerOp = new double[samples.size()];
+			for (int k = 0; k < nanosPerOp.length; k++) nanosPerOp[k] = samples.get(k).nanosPerOp();
+		}
+		
+		private int count() { return nanosPerOp.length; }
+		
+		private double score() { return Stats.mean(nanosPerOp); }
+		
+		private double error() { return Stats.halfWidth(nanosPerOp, 0.999); }
+		
+		private double allocPerOp() {
+			long bytes = 0;
+			long ops = 0;
+			for (Sample s : samples) {
+				if (s.allocated < 0) return -1;
+				bytes += s.allocated;
+				ops += s.ops;
+			}
+			return (double)bytes / ops;
+		}
+		
+		private double gcCount() {
+			long n = 0;
+			for (Sample s : samples) n += s.gcCount;
+			return (double)n / samples.size();
+		}
+		
+		private double gcMillis() {
+			long n = 0;
+			for (Sample s : samples) n += s.gcMillis;
+			return (double)n / samples.size();
+		}
+		
+		private String paramString() {
+			StringBuilder s = new StringBuilder();
+			for (Map.Entry<String, String> p : params.entrySet()) {
+				if (s.length() > 0) s.append(" ");
+				s.append(p.getKey()).append("=").append(p.getValue());
+			}
+			return s.toString();
+		}
+		
+		private String label() {
+			return params.isEmpty() ? name : name + " (" + paramString() + ")";
+		}
+	}
+}
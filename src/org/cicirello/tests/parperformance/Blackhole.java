@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * Blackhole is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Blackhole is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+/**
+ * Consumes the results of benchmarked operations, so that the JIT compiler
+ * cannot eliminate the computation of a result that is never used.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public final class Blackhole {
+	
+	private volatile Object sinkObject;
+	private volatile double sinkDouble;
+	private volatile long sinkLong;
+	
+	/**
+	 * Consumes an object.
+	 * @param o The object.
+	 */
+	public void consume(Object o) {
+		sinkObject = o;
+	}
+	
+	/**
+	 * Consumes a double.
+	 * @param d The double.
+	 */
+	public void consume(double d) {
+		sinkDouble = d;
+	}
+	
+	/**
+	 * Consumes a long.
+	 * @param x The long.
+	 */
+	public void consume(long x) {
+		sinkLong = x;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * EngineReport is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * EngineReport is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.Arrays;
+
+import org.cicirello.algengine.EngineStats;
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+
+/**
+ * This program prints the metrics of RMI servers: their request and byte
+ * counters, and latency histograms of the queue wait, computation, garbage
+ * collection, and serialization of their requests.  Run it after TimeMult or
+ * TimePi to see where the time of the remote calls went.  With --wait, first
+ * waits for each RMI server to finish warming up and register, such as 
+ * right after startWorkers.sh, and reports how long each took to become ready.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class EngineReport {
+	
+	/**
+	 * The longest time to wait for an RMI server with --wait, in milliseconds.
+	 */
+	public static final long MAX_WAIT = 600000;
+	
+	/**
+	 * Prints the metrics of RMI servers.
+	 * 
+	 * @param args Optionally --wait, followed by the names of the RMI servers.  
+	 * If there are none, the servers of the largest experimental condition of TimeMult.
+	 */
+	public static void main(String[] args) {
+		boolean wait = args.length > 0 && args[0].equals("--wait");
+		String[] servers = args.length > (wait ? 1 : 0) 
+				? Arrays.copyOfRange(args, wait ? 1 : 0, args.length) 
+				: TimeMult.serverNames[TimeMult.serverNames.length-1];
+		for (String server : servers) {
+			System.out.println(server);
+			try {
+				if (wait) {
+					awaitReady(server);
+				}
+				EngineStats stats = RemoteParallelAlgorithms.lookup(server).stats();
+				System.out.println(stats);
+			} catch (RemoteException | NotBoundException e) {
+				System.out.println("unreachable: " + e);
+			}
+			System.out.println();
+		}
+	}
+	
+	private static void awaitReady(String server) {
+		long deadline = System.currentTimeMillis() + MAX_WAIT;
+		while (System.currentTimeMillis() < deadline) {
+			try {
+				RemoteParallelAlgorithms.lookup(server);
+				return;
+			} catch (RemoteException | NotBoundException e) {
+				// not started, or still warming up
+			}
+			try {
+				Thread.sleep(500);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * KernelBenchmarks is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * KernelBenchmarks is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.cicirello.math.Pi;
+import org.cicirello.matrixops.ConcurrentMatrixMultiplier;
+import org.cicirello.matrixops.MatrixMultiplier;
+
+/**
+ * Microbenchmarks of the kernels of the cluster, run by a {@link BenchmarkHarness}: 
+ * sequential and multithreaded matrix multiplication, transposition, and the
+ * sequential and multithreaded estimation of Pi.  Unlike {@link TimeMult} and
+ * {@link TimePi}, which time whole runs on the cluster, these measure the kernels
+ * on a single node, in forked JVMs after warmup, so that changes to a kernel 
+ * can be measured reliably.
+ * 
+ * <p>The matrix benchmarks are parameterized by size n and shape: square 
+ * multiplies two n by n matrices; tall multiplies a 4n by n matrix by an
+ * n by n/4 matrix; and wide multiplies an n/4 by n matrix by an n by 4n matrix.
+ * All three shapes take the same number of floating point operations.  The
+ * multithreaded multiplication is also parameterized by the number of threads 
+ * and the split strategy: distributing the rows of the first matrix among the
+ * threads, the columns of the second, or whichever the multiplier chooses (auto).</p>
+ * 
+ * <p>For example, to benchmark only the multithreaded multiplication of 
+ * 500 by 500 matrices, with 1 fork: 
+ * java org.cicirello.tests.parperformance.KernelBenchmarks -f 1 -p size=500 -p shape=square ConcurrentMatrixMultiplier
+ * (see {@link BenchmarkHarness} for all options).</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class KernelBenchmarks {
+	
+	/**
+	 * Seed for random number generator to ensure benchmarks are repeatable.
+	 */
+	public static final int SEED = 42;
+	
+	/**
+	 * Runs the benchmarks.
+	 * @param args See {@link BenchmarkHarness}.
+	 */
+	public static void main(String[] args) {
+		BenchmarkHarness harness = new BenchmarkHarness(KernelBenchmarks.class);
+		
+		harness.add("MatrixMultiplier.multiply", () -> new BenchmarkHarness.Benchmark() {
+			private final MatrixMultiplier m = new MatrixMultiplier();
+			private double[][] a, b;
+			@Override public void setup(Map<String, String> p) {
+				double[][][] ab = operands(p);
+				a = ab[0];
+				b = ab[1];
+			}
+			@Override public void run(Blackhole bh) {
+				bh.consume(m.multiply(a, b));
+			}
+		}, "size=100,300", "shape=square,tall,wide");
+		
+		harness.add("MatrixMultiplier.multiplyTransposed", () -> new BenchmarkHarness.Benchmark() {
+			private final MatrixMultiplier m = new MatrixMultiplier();
+			private double[][] a, bT;
+			@Override public void setup(Map<String, String> p) {
+				double[][][] ab = operands(p);
+				a = ab[0];
+				bT = m.transpose(ab[1]);
+			}
+			@Override public void run(Blackhole bh) {
+				bh.consume(m.multiply(a, bT, true));
+			}
+		}, "size=100,300", "shape=square,tall,wide");
+		
+		harness.add("ConcurrentMatrixMultiplier.multiply", () -> new BenchmarkHarness.Benchmark() {
+			private ExecutorService es;
+			private SplitMultiplier m;
+			private String split;
+			private double[][] a, bT;
+			@Override public void setup(Map<String, String> p) {
+				int threads = Integer.parseInt(p.get("threads"));
+				es = Executors.newFixedThreadPool(threads);
+				m = new SplitMultiplier(threads, es);
+				split = p.get("split");
+				double[][][] ab = operands(p);
+				a = ab[0];
+				bT = m.transpose(ab[1]);
+			}
+			@Override public void run(Blackhole bh) {
+				bh.consume(m.multiply(a, bT, split));
+			}
+			@Override public void tearDown() {
+				es.shutdown();
+			}
+		}, "size=300", "shape=square,tall,wide", "threads=1,2,4", "split=auto,rows,cols");
+		
+		harness.add("MatrixMultiplier.transpose", () -> new BenchmarkHarness.Benchmark() {
+			private final MatrixMultiplier m = new MatrixMultiplier();
+			private double[][] a;
+			@Override public void setup(Map<String, String> p) {
+				int n = Integer.parseInt(p.get("size"));
+				a = randomMatrix(n, n, new Random(SEED));
+			}
+			@Override public void run(Blackhole bh) {
+				bh.consume(m.transpose(a));
+			}
+		}, "size=100,1000");
+		
+		harness.add("Pi.pi", () -> new BenchmarkHarness.Benchmark() {
+			private long n;
+			@Override public void setup(Map<String, String> p) {
+				n = Long.parseLong(p.get("n"));
+			}
+			@Override public void run(Blackhole bh) {
+				bh.consume(Pi.pi(n));
+			}
+		}, "n=1000000");
+		
+		harness.add("Pi.concurrentPi", () -> new BenchmarkHarness.Benchmark() {
+			private ExecutorService es;
+			private long n;
+			private int threads;
+			@Override public void setup(Map<String, String> p) {
+				n = Long.parseLong(p.get("n"));
+				threads = Integer.parseInt(p.get("threads"));
+				es = Executors.newFixedThreadPool(threads);
+			}
+			@Override public void run(Blackhole bh) {
+				bh.consume(Pi.concurrentPi(n, threads, es));
+			}
+			@Override public void tearDown() {
+				es.shutdown();
+			}
+		}, "n=10000000", "threads=1,2,4");
+		
+		harness.run(args);
+	}
+	
+	/*
+	 * The two matrices to multiply for the size and shape parameters.
+	 */
+	private static double[][][] operands(Map<String, String> p) {
+		int n = Integer.parseInt(p.get("size"));
+		int rows, cols;
+		switch (p.get("shape")) {
+			case "square": rows = n; cols = n; break;
+			case "tall": rows = 4 * n; cols = n / 4; break;
+			case "wide": rows = n / 4; cols = 4 * n; break;
+			default: throw new IllegalArgumentException("Unknown shape: " + p.get("shape"));
+		}
+		Random r = new Random(SEED);
+		return new double[][][] { randomMatrix(rows, n, r), randomMatrix(n, cols, r) };
+	}
+	
+	private static double[][] randomMatrix(int row, int col, Random r) {
+		double[][] m = new double[row][col];
+		for (int i = 0; i < row; i++) {
+			for (int j = 0; j < col; j++) {
+				m[i][j] = r.nextDouble();
+			}
+		}
+		return m;
+	}
+	
+	/*
+	 * Exposes each of the split strategies of the multithreaded multiplier.
+	 */
+	private static final class SplitMultiplier extends ConcurrentMatrixMultiplier {
+		
+		private SplitMultiplier(int threads, ExecutorService es) {
+			super(threads, es);
+		}
+		
+		private double[][] multiply(double[][] a, double[][] bT, String split) {
+			switch (split) {
+				case "rows": return multiplyByDistributingRowsOfA(a, bT);
+				case "cols": return multiplyByDistributingColsOfB(a, bT);
+				default: return multiply(a, bT, true);
+			}
+		}
+	}
+}
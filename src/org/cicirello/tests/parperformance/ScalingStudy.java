@@ -0,0 +1,477 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * ScalingStudy is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * ScalingStudy is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.cicirello.algengine.LocalCluster;
+import org.cicirello.math.Pi;
+import org.cicirello.math.RandomStreams;
+import org.cicirello.matrixops.DistributedMatrixMultiplier;
+import org.cicirello.matrixops.MatrixGenerator;
+
+/**
+ * A configurable scaling study of the cluster, generalizing {@link TimeMult} 
+ * and {@link TimePi}.  Sweeps the number of nodes, the threads per node, the
+ * problem sizes, and the distribution strategies, repeating each configuration,
+ * and reports the median, percentiles, and confidence interval of the mean of
+ * its times, along with its speedup, parallel efficiency, and Karp-Flatt metric 
+ * (the experimentally determined serial fraction).  For each series of 
+ * configurations that differ only in the number of nodes, also fits Amdahl's law
+ * (strong scaling) or Gustafson's law (weak scaling) to the speedups, estimating
+ * the serial fraction of the computation.  Writes the results as CSV and JSON.
+ * 
+ * <p>The study is configured by properties, read from a file given as 
+ * the first argument (if it does not contain =), and overridden by any 
+ * arguments of the form key=value.  The keys, and their defaults, are:</p>
+ * <ul>
+ * <li>kernel=mult: mult (multiplication of n by n matrices) or pi (estimation of 
+ * Pi with n samples)</li>
+ * <li>strategies=flat: for mult, any of flat, async, and treeK (a tree with fanout K);
+ * for pi, any of sync and async</li>
+ * <li>scaling=strong: strong (the problem size stays fixed as nodes are added) or 
+ * weak (the work grows in proportion to the nodes, so n grows with the cube root 
+ * of the nodes for mult, and linearly for pi)</li>
+ * <li>sizes=1000: the problem sizes n, for the fewest nodes in the case of weak scaling</li>
+ * <li>nodes=1,2,4,7: the numbers of RMI servers, taken from the front of the list of servers</li>
+ * <li>threads=4: the numbers of threads per RMI server</li>
+ * <li>masterThreads=0: the number of threads of the master's own share of the work (mult only)</li>
+ * <li>warmups=1: the number of untimed runs of each configuration</li>
+ * <li>repetitions=10: the number of timed runs of each configuration</li>
+ * <li>percentiles=10,90: the percentiles to report, besides the median</li>
+ * <li>confidence=0.95: the confidence level of the intervals</li>
+ * <li>servers=rpi1.local,...,rpi7.local: the RMI servers</li>
+ * <li>local=: if set to servers[,coresPerServer[,megabytesPerSecond[,latencyMillis]]], 
+ * runs on a {@link LocalCluster} instead of the servers</li>
+ * <li>seed=42: the seed of the random inputs; the matrices are generated in 
+ * parallel (see {@link MatrixGenerator}), A from RandomStreams.seed(seed, 0) 
+ * and B from RandomStreams.seed(seed, 1)</li>
+ * <li>output=scaling: the prefix of the output files, output.csv and output.json</li>
+ * </ul>
+ * 
+ * <p>Speedups are relative to the fewest nodes in the sweep, so for the usual 
+ * definitions include 1 in the nodes.  With p the number of nodes divided by
+ * the fewest, and T(p) the median time: for strong scaling, the speedup is 
+ * T(1)/T(p); for weak scaling, it is the scaled speedup p T(1)/T(p).  The 
+ * efficiency is the speedup divided by p, and the Karp-Flatt metric is 
+ * (1/S - 1/p)/(1 - 1/p).</p>
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class ScalingStudy {
+	
+	private final Properties config;
+	private final List<Row> rows;
+	
+	/**
+	 * Initializes a study.
+	 * @param config The configuration of the study (see the class comment).
+	 */
+	public ScalingStudy(Properties config) {
+		this.config = defaults();
+		this.config.putAll(config);
+		rows = new ArrayList<Row>();
+	}
+	
+	/**
+	 * Runs a scaling study.
+	 * @param args An optional properties file, followed by any overrides of the form key=value.
+	 */
+	public static void main(String[] args) {
+		Properties config = new Properties();
+		for (int k = 0; k < args.length; k++) {
+			int eq = args[k].indexOf('=');
+			if (eq < 0 && k == 0) {
+				try (InputStream in = new FileInputStream(args[k])) {
+					config.load(in);
+				} catch (IOException e) {
+					System.err.println("Failed to read the configuration " + args[k] + ":");
+					e.printStackTrace();
+					return;
+				}
+			} else if (eq > 0) {
+				config.setProperty(args[k].substring(0, eq).trim(), args[k].substring(eq + 1).trim());
+			} else {
+				System.err.println("Expected key=value: " + args[k]);
+				return;
+			}
+		}
+		ScalingStudy study = new ScalingStudy(config);
+		try {
+			study.run();
+			study.write(new File(study.config.getProperty("output") + ".csv"), new File(study.config.getProperty("output") + ".json"));
+		} catch (Exception e) {
+			System.err.println("The study failed:");
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Runs every configuration of the study, printing a line per configuration.
+	 * @throws Exception If a run fails, or the local cluster cannot be started.
+	 */
+	public void run() throws Exception {
+		String local = config.getProperty("local").trim();
+		LocalCluster cluster = null;
+		String[] servers;
+		if (local.isEmpty()) {
+			servers = list("servers");
+		} else {
+			String[] spec = local.split(",");
+			cluster = new LocalCluster(Integer.parseInt(spec[0].trim()), 
+					spec.length > 1 ? Integer.parseInt(spec[1].trim()) : 0,
+					spec.length > 2 ? Double.parseDouble(spec[2].trim()) : 0,
+					spec.length > 3 ? Double.parseDouble(spec[3].trim()) : 0, "full");
+			servers = cluster.serverNames();
+		}
+		ExecutorService es = Executors.newCachedThreadPool();
+		try {
+			String kernel = config.getProperty("kernel").trim();
+			boolean weak = config.getProperty("scaling").trim().equals("weak");
+			int[] nodes = ints("nodes");
+			// in increasing order, so that the first of each series is the baseline
+			Arrays.sort(nodes);
+			int minNodes = nodes[0];
+			int warmups = Integer.parseInt(config.getProperty("warmups").trim());
+			int repetitions = Integer.parseInt(config.getProperty("repetitions").trim());
+			System.out.println("Kernel\tStrategy\tSize\tProblemSize\tNodes\tThreads\tMedianSeconds\tSpeedup\tEfficiency\tKarpFlatt");
+			for (String strategy : list("strategies")) {
+				for (int size : ints("sizes")) {
+					for (int threads : ints("threads")) {
+						Row base = null;
+						for (int p : nodes) {
+							if (p > servers.length) {
+								throw new IllegalArgumentException("Only " + servers.length + " servers for " + p + " nodes");
+							}
+							double scale = (double)p / minNodes;
+							long problemSize = !weak ? size 
+									: kernel.equals("pi") ? Math.round(size * scale) : Math.round(size * Math.cbrt(scale));
+							String[] names = new String[p];
+							System.arraycopy(servers, 0, names, 0, p);
+							double[] seconds = new double[repetitions];
+							for (int r = -warmups; r < repetitions; r++) {
+								double t = time(kernel, strategy, problemSize, names, threads, es);
+								if (r >= 0) seconds[r] = t;
+							}
+							Row row = new Row(kernel, strategy, size, problemSize, p, threads, seconds);
+							if (base == null) base = row;
+							row.compare(base, scale, weak);
+							rows.add(row);
+							System.out.printf(Locale.ROOT, "%s\t%s\t%d\t%d\t%d\t%d\t%.6f\t%.3f\t%.3f\t%s%n", kernel, strategy, size, problemSize, p, threads,
+									row.median(), row.speedup, row.efficiency, Double.isNaN(row.karpFlatt) ? "" : String.format(Locale.ROOT, "%.4f", row.karpFlatt));
+						}
+					}
+				}
+			}
+			for (Fit fit : fits()) {
+				System.out.println(fit);
+			}
+		} finally {
+			es.shutdown();
+			if (cluster != null) cluster.close();
+		}
+	}
+	
+	/**
+	 * Writes the results of the study: a CSV file with a row per configuration,
+	 * and a JSON file with the configuration of the study, the results of each 
+	 * configuration including its times, and the fits of the scaling laws.
+	 * @param csv The CSV file.
+	 * @param json The JSON file.
+	 * @throws IOException If a file cannot be written.
+	 */
+	public void write(File csv, File json) throws IOException {
+		double[] percentiles = doubles("percentiles");
+		double confidence = Double.parseDouble(config.getProperty("confidence").trim());
+		try (PrintWriter out = new PrintWriter(csv, "UTF-8")) {
+			StringBuilder header = new StringBuilder("kernel,strategy,scaling,size,problemSize,nodes,threads,repetitions,median,mean,ciLow,ciHigh");
+			for (double q : percentiles) header.append(",p").append(format(q));
+			header.append(",speedup,efficiency,karpFlatt");
+			out.println(header);
+			for (Row row : rows) {
+				double half = Stats.halfWidth(row.seconds, confidence);
+				StringBuilder line = new StringBuilder();
+				line.append(row.kernel).append(',').append(row.strategy).append(',').append(config.getProperty("scaling").trim())
+					.append(',').append(row.size).append(',').append(row.problemSize).append(',').append(row.nodes)
+					.append(',').append(row.threads).append(',').append(row.seconds.length)
+					.append(',').append(format(row.median())).append(',').append(format(row.mean()))
+					.append(',').append(format(row.mean() - half)).append(',').append(format(row.mean() + half));
+				for (double q : percentiles) line.append(',').append(format(Stats.percentile(row.seconds, q)));
+				line.append(',').append(format(row.speedup)).append(',').append(format(row.efficiency)).append(',').append(format(row.karpFlatt));
+				out.println(line);
+			}
+		}
+		try (PrintWriter out = new PrintWriter(json, "UTF-8")) {
+			out.println("{");
+			out.println("  \"config\": {");
+			List<String> keys = new ArrayList<String>(config.stringPropertyNames());
+			Collections.sort(keys);
+			for (int k = 0; k < keys.size(); k++) {
+				out.printf("    \"%s\": \"%s\"%s%n", escape(keys.get(k)), escape(config.getProperty(keys.get(k))), k + 1 < keys.size() ? "," : "");
+			}
+			out.println("  },");
+			out.println("  \"results\": [");
+			for (int k = 0; k < rows.size(); k++) {
+				Row row = rows.get(k);
+				double half = Stats.halfWidth(row.seconds, confidence);
+				StringBuilder p = new StringBuilder();
+				for (double q : percentiles) {
+					if (p.length() > 0) p.append(", ");
+					p.append("\"p").append(format(q)).append("\": ").append(json(Stats.percentile(row.seconds, q)));
+				}
+				StringBuilder times = new StringBuilder();
+				for (double t : row.seconds) {
+					if (times.length() > 0) times.append(", ");
+					times.append(json(t));
+				}
+				out.printf("    {\"kernel\": \"%s\", \"strategy\": \"%s\", \"size\": %d, \"problemSize\": %d, \"nodes\": %d, \"threads\": %d, "
+						+ "\"seconds\": [%s], \"median\": %s, \"mean\": %s, \"ci\": [%s, %s], \"percentiles\": {%s}, "
+						+ "\"speedup\": %s, \"efficiency\": %s, \"karpFlatt\": %s}%s%n",
+						escape(row.kernel), escape(row.strategy), row.size, row.problemSize, row.nodes, row.threads,
+						times, json(row.median()), json(row.mean()), json(row.mean() - half), json(row.mean() + half), p,
+						json(row.speedup), json(row.efficiency), json(row.karpFlatt), k + 1 < rows.size() ? "," : "");
+			}
+			out.println("  ],");
+			out.println("  \"fits\": [");
+			List<Fit> fits = fits();
+			for (int k = 0; k < fits.size(); k++) {
+				Fit f = fits.get(k);
+				out.printf("    {\"kernel\": \"%s\", \"strategy\": \"%s\", \"size\": %d, \"threads\": %d, \"law\": \"%s\", "
+						+ "\"serialFraction\": %s, \"maxSpeedup\": %s}%s%n",
+						escape(f.kernel), escape(f.strategy), f.size, f.threads, f.law, json(f.serialFraction), 
+						json(f.maxSpeedup()), k + 1 < fits.size() ? "," : "");
+			}
+			out.println("  ]");
+			out.println("}");
+		}
+	}
+	
+	/*
+	 * The time in seconds of one run of a configuration.
+	 */
+	private double time(String kernel, String strategy, long size, String[] servers, int threads, ExecutorService es) {
+		long seed = Long.parseLong(config.getProperty("seed").trim());
+		if (kernel.equals("pi")) {
+			long start = System.nanoTime();
+			if (strategy.equals("async")) {
+				Pi.distributedPiAsync(size, threads, servers, seed, es).join();
+			} else if (strategy.equals("sync")) {
+				Pi.distributedPi(size, threads, servers, seed, es);
+			} else {
+				throw new IllegalArgumentException("Unknown strategy for pi: " + strategy);
+			}
+			return (System.nanoTime() - start) / 1e9;
+		} else if (kernel.equals("mult")) {
+			int n = (int)size;
+			MatrixGenerator generator = new MatrixGenerator(Runtime.getRuntime().availableProcessors(), es);
+			double[][] a = generator.generate(RandomStreams.seed(seed, 0), n, n);
+			double[][] b = generator.generate(RandomStreams.seed(seed, 1), n, n);
+			int masterThreads = Integer.parseInt(config.getProperty("masterThreads").trim());
+			DistributedMatrixMultiplier d = new DistributedMatrixMultiplier(servers, threads, masterThreads, es);
+			long start = System.nanoTime();
+			if (strategy.equals("async")) {
+				d.multiplyAsync(a, b).join();
+			} else if (strategy.startsWith("tree")) {
+				d.setTreeFanout(Integer.parseInt(strategy.substring(4)));
+				d.multiply(a, b);
+			} else if (strategy.equals("flat")) {
+				d.multiply(a, b);
+			} else {
+				throw new IllegalArgumentException("Unknown strategy for mult: " + strategy);
+			}
+			return (System.nanoTime() - start) / 1e9;
+		}
+		throw new IllegalArgumentException("Unknown kernel: " + kernel);
+	}
+	
+	/*
+	 * Fits the scaling law to each series of configurations that differ only in
+	 * the number of nodes, by least squares.  Amdahl: 1/S = s + (1-s)/p, which is 
+	 * linear in s.  Gustafson: S = p - s(p-1), also linear in s.
+	 */
+	private List<Fit> fits() {
+		boolean weak = config.getProperty("scaling").trim().equals("weak");
+		List<Fit> fits = new ArrayList<Fit>();
+		for (int k = 0; k < rows.size(); ) {
+			Row first = rows.get(k);
+			double num = 0;
+			double den = 0;
+			int end = k;
+			for (; end < rows.size() && rows.get(end).sameSeries(first); end++) {
+				Row row = rows.get(end);
+				double p = row.scale;
+				if (p <= 1) continue;
+				if (weak) {
+					num += (p - row.speedup) * (p - 1);
+					den += (p - 1) * (p - 1);
+				} else {
+					num += (1 / row.speedup - 1 / p) * (1 - 1 / p);
+					den += (1 - 1 / p) * (1 - 1 / p);
+				}
+			}
+			if (den > 0) {
+				fits.add(new Fit(first, weak ? "gustafson" : "amdahl", num / den));
+			}
+			k = end;
+		}
+		return fits;
+	}
+	
+	private static Properties defaults() {
+		Properties d = new Properties();
+		d.setProperty("kernel", "mult");
+		d.setProperty("strategies", "flat");
+		d.setProperty("scaling", "strong");
+		d.setProperty("sizes", "1000");
+		d.setProperty("nodes", "1,2,4,7");
+		d.setProperty("threads", "4");
+		d.setProperty("masterThreads", "0");
+		d.setProperty("warmups", "1");
+		d.setProperty("repetitions", "10");
+		d.setProperty("percentiles", "10,90");
+		d.setProperty("confidence", "0.95");
+		d.setProperty("servers", "rpi1.local,rpi2.local,rpi3.local,rpi4.local,rpi5.local,rpi6.local,rpi7.local");
+		d.setProperty("local", "");
+		d.setProperty("seed", "42");
+		d.setProperty("output", "scaling");
+		return d;
+	}
+	
+	private String[] list(String key) {
+		String[] items = config.getProperty(key).split(",");
+		for (int k = 0; k < items.length; k++) items[k] = items[k].trim();
+		return items;
+	}
+	
+	private int[] ints(String key) {
+		String[] items = list(key);
+		int[] values = new int[items.length];
+		for (int k = 0; k < items.length; k++) values[k] = Integer.parseInt(items[k]);
+		return values;
+	}
+	
+	private double[] doubles(String key) {
+		String[] items = list(key);
+		double[] values = new double[items.length];
+		for (int k = 0; k < items.length; k++) values[k] = Double.parseDouble(items[k]);
+		return values;
+	}
+	
+	private static String format(double x) {
+		if (Double.isNaN(x)) return "";
+		if (x == Math.rint(x) && Math.abs(x) < 1e15) return Long.toString((long)x);
+		return String.format(Locale.ROOT, "%.6g", x);
+	}
+	
+	private static String json(double x) {
+		return Double.isNaN(x) || Double.isInfinite(x) ? "null" : format(x);
+	}
+	
+	private static String escape(String s) {
+		return s.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+	
+	private static final class Row {
+		private final String kernel;
+		private final String strategy;
+		private final int size;
+		private final long problemSize;
+		private final int nodes;
+		private final int threads;
+		private final double[] seconds;
+		private double scale;
+		private double speedup;
+		private double efficiency;
+		private double karpFlatt;
+		
+		private Row(String kernel, String strategy, int size, long problemSize, int nodes, int threads, double[] seconds) {
+			this.kernel = kernel;
+			this.strategy = strategy;
+			this.size = size;
+			this.problemSize = problemSize;
+			this.nodes = nodes;
+			this.threads = threads;
+			this.seconds = seconds;
+		}
+		
+		private double median() { return Stats.median(seconds); }
+		
+		private double mean() { return Stats.mean(seconds); }
+		
+		private void compare(Row base, double p, boolean weak) {
+			scale = p;
+			speedup = base.median() / median();
+			if (weak) speedup *= p;
+			efficiency = speedup / p;
+			karpFlatt = p > 1 ? (1 / speedup - 1 / p) / (1 - 1 / p) : Double.NaN;
+		}
+		
+		private boolean sameSeries(Row other) {
+			return kernel.equals(other.kernel) && strategy.equals(other.strategy) && size == other.size && threads == other.threads;
+		}
+	}
+	
+	private static final class Fit {
+		private final String kernel;
+		private final String strategy;
+		private final int size;
+		private final int threads;
+		private final String law;
+		private final double serialFraction;
+		
+		private Fit(Row series, String law, double serialFraction) {
+			kernel = series.kernel;
+			strategy = series.strategy;
+			size = series.size;
+			threads = series.threads;
+			this.law = law;
+			this.serialFraction = serialFraction;
+		}
+		
+		/*
+		 * The limit of the speedup as nodes are added, for Amdahl's law, or
+		 * infinity for Gustafson's law, whose scaled speedup grows without bound.
+		 */
+		private double maxSpeedup() {
+			return law.equals("amdahl") && serialFraction > 0 ? 1 / serialFraction : Double.POSITIVE_INFINITY;
+		}
+		
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%s %s size=%d threads=%d: %s serial fraction %.4f%s", kernel, strategy, size, threads, 
+					law, serialFraction, law.equals("amdahl") && serialFraction > 0 ? String.format(Locale.ROOT, ", max speedup %.2f", 1 / serialFraction) : "");
+		}
+	}
+}
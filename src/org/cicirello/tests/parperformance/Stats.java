@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * Stats is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * Stats is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.util.Arrays;
+
+/**
+ * Summary statistics of benchmark samples.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+final class Stats {
+	
+	private Stats() {}
+	
+	/*
+	 * The mean of the samples.
+	 */
+	static double mean(double[] x) {
+		double sum = 0;
+		for (double v : x) sum += v;
+		return sum / x.length;
+	}
+	
+	/*
+	 * The sample standard deviation, or 0 for fewer than 2 samples.
+	 */
+	static double stdev(double[] x) {
+		if (x.length < 2) return 0;
+		double m = mean(x);
+		double ss = 0;
+		for (double v : x) ss += (v - m) * (v - m);
+		return Math.sqrt(ss / (x.length - 1));
+	}
+	
+	/*
+	 * The p-th percentile (0 to 100) of the samples, interpolating linearly
+	 * between the closest ranks.
+	 */
+	static double percentile(double[] x, double p) {
+		double[] sorted = x.clone();
+		Arrays.sort(sorted);
+		double rank = p / 100 * (sorted.length - 1);
+		int lo = (int)Math.floor(rank);
+		int hi = (int)Math.ceil(rank);
+		return sorted[lo] + (rank - lo) * (sorted[hi] - sorted[lo]);
+	}
+	
+	/*
+	 * The median of the samples.
+	 */
+	static double median(double[] x) {
+		return percentile(x, 50);
+	}
+	
+	/*
+	 * The half width of the confidence interval of the mean at a confidence level,
+	 * from the t distribution, or NaN for fewer than 2 samples.
+	 */
+	static double halfWidth(double[] x, double confidence) {
+		if (x.length < 2) return Double.NaN;
+		return tQuantile(0.5 + confidence / 2, x.length - 1) * stdev(x) / Math.sqrt(x.length);
+	}
+	
+	/*
+	 * The p quantile of the t distribution with df degrees of freedom, found 
+	 * by bisection of its distribution function.
+	 */
+	static double tQuantile(double p, double df) {
+		if (p < 0.5) return -tQuantile(1 - p, df);
+		double lo = 0;
+		double hi = 1;
+		while (tCdf(hi, df) < p) hi *= 2;
+		for (int i = 0; i < 100 && hi - lo > 1e-12 * hi; i++) {
+			double mid = (lo + hi) / 2;
+			if (tCdf(mid, df) < p) lo = mid;
+			else hi = mid;
+		}
+		return (lo + hi) / 2;
+	}
+	
+	/*
+	 * The distribution function of the t distribution with df degrees of freedom.
+	 */
+	static double tCdf(double t, double df) {
+		double tail = 0.5 * betaRegularized(df / 2, 0.5, df / (df + t * t));
+		return t >= 0 ? 1 - tail : tail;
+	}
+	
+	/*
+	 * The two-sided p-value of the Mann-Whitney U test of whether the samples
+	 * x and y are of the same distribution, from the normal approximation with 
+	 * corrections for ties and continuity; NaN if either is empty.
+	 */
+	static double mannWhitney(double[] x, double[] y) {
+		int n1 = x.length;
+		int n2 = y.length;
+		if (n1 == 0 || n2 == 0) return Double.NaN;
+		double[] all = new double[n1 + n2];
+		System.arraycopy(x, 0, all, 0, n1);
+		System.arraycopy(y, 0, all, n1, n2);
+		Arrays.sort(all);
+		// rank sum of x, with ties given their average rank, and the tie correction
+		double rankSum = 0;
+		double ties = 0;
+		for (int i = 0; i < all.length; ) {
+			int j = i;
+			while (j < all.length && all[j] == all[i]) j++;
+			double t = j - i;
+			ties += t * t * t - t;
+			double rank = (i + 1 + j) / 2.0;
+			for (double v : x) if (v == all[i]) rankSum += rank;
+			i = j;
+		}
+		double u = rankSum - n1 * (n1 + 1) / 2.0;
+		double n = n1 + n2;
+		double variance = n1 * (double)n2 / 12 * (n + 1 - ties / (n * (n - 1)));
+		if (variance <= 0) return 1;
+		double z = Math.max(0, Math.abs(u - n1 * (double)n2 / 2) - 0.5) / Math.sqrt(variance);
+		return Math.min(1, 2 * (1 - normalCdf(z)));
+	}
+	
+	/*
+	 * The distribution function of the standard normal distribution, from a 
+	 * Chebyshev approximation of the complementary error function, with a 
+	 * relative error of less than 1.2e-7.
+	 */
+	static double normalCdf(double z) {
+		double x = Math.abs(z) / Math.sqrt(2);
+		double t = 1 / (1 + 0.5 * x);
+		double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418 
+				+ t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587 
+				+ t * (-0.82215223 + t * 0.17087277)))))))));
+		return z >= 0 ? 1 - erfc / 2 : erfc / 2;
+	}
+	
+	/*
+	 * The regularized incomplete beta function I_x(a, b).
+	 */
+	private static double betaRegularized(double a, double b, double x) {
+		if (x <= 0) return 0;
+		if (x >= 1) return 1;
+		double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+		// the continued fraction converges quickly only below the mean
+		if (x < (a + 1) / (a + b + 2)) {
+			return front * betaFraction(a, b, x) / a;
+		}
+		return 1 - front * betaFraction(b, a, 1 - x) / b;
+	}
+	
+	/*
+	 * The continued fraction of the incomplete beta function, by the modified
+	 * Lentz method.
+	 */
+	private static double betaFraction(double a, double b, double x) {
+		final double tiny = 1e-300;
+		double c = 1;
+		double d = 1 - (a + b) * x / (a + 1);
+		if (Math.abs(d) < tiny) d = tiny;
+		d = 1 / d;
+		double h = d;
+		for (int m = 1; m <= 300; m++) {
+			int m2 = 2 * m;
+			double aa = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+			d = 1 + aa * d;
+			if (Math.abs(d) < tiny) d = tiny;
+			c = 1 + aa / c;
+			if (Math.abs(c) < tiny) c = tiny;
+			d = 1 / d;
+			h *= d * c;
+			aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+			d = 1 + aa * d;
+			if (Math.abs(d) < tiny) d = tiny;
+			c = 1 + aa / c;
+			if (Math.abs(c) < tiny) c = tiny;
+			d = 1 / d;
+			double delta = d * c;
+			h *= delta;
+			if (Math.abs(delta - 1) < 1e-15) break;
+		}
+		return h;
+	}
+	
+	/*
+	 * The log of the gamma function, by the Lanczos approximation.
+	 */
+	private static double logGamma(double x) {
+		final double[] g = {
+			0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+			771.32342877765313, -176.61502916214059, 12.507343278686905,
+			-0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7
+		};
+		if (x < 0.5) {
+			return Math.log(Math.PI / Math.abs(Math.sin(Math.PI * x))) - logGamma(1 - x);
+		}
+		x -= 1;
+		double sum = g[0];
+		for (int i = 1; i < g.length; i++) sum += g[i] / (x + i);
+		double t = x + 7.5;
+		return 0.5 * Math.log(2 * Math.PI) + (x + 0.5) * Math.log(t) - t + Math.log(sum);
+	}
+}
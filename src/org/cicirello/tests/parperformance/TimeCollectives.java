@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * TimeCollectives is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * TimeCollectives is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.cicirello.algengine.Collectives;
+import org.cicirello.algengine.LocalCluster;
+
+/**
+ * This program generates timing data for exploring the performance
+ * of a small cluster as the number of nodes scales, for summing a vector 
+ * across all of the nodes, leaving the sum on all of them (an all-reduce).
+ * 
+ * Times the all-reduce with the tree and ring algorithms of {@link Collectives},
+ * and, for reference, by gathering the vectors at the master, summing them there, 
+ * and sending the sum back to each node, for vectors of several lengths.
+ * 
+ * Assumes cluster has 8 nodes, with hostnames as seen in the field serverNames.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class TimeCollectives {
+	
+	/**
+	 * The lengths of the vectors.
+	 */
+	public static final int[] LENGTHS = {1, 1 << 10, 1 << 16, 1 << 20, 1 << 22};
+	
+	/**
+	 * Seed for random number generator to ensure tests are repeatable.
+	 */
+	public static final int SEED = 42;
+	
+	/**
+	 * The key under which the nodes keep the vectors.
+	 */
+	private static final String KEY = "timecollectives";
+	
+	/**
+	 * Generates timing data for all-reduce: (a) gathered at the master, 
+	 * (b) tree, and (c) ring.
+	 * 
+	 * Note: This assumes that the RMI servers have been started already.
+	 * Otherwise, this will throw an exception at run time when it attempts to
+	 * make RMI calls.  Alternatively, runs on a simulated cluster on this 
+	 * machine (see {@link LocalCluster}), whose servers it starts and stops itself.
+	 * 
+	 * @param args No command line arguments for the physical cluster, or 
+	 * --local servers [coresPerServer [megabytesPerSecond [latencyMillis]]] 
+	 * for a simulated cluster.
+	 */
+	public static void main(String[] args) {
+		String[][] serverNames = TimeMult.serverNames;
+		LocalCluster cluster = null;
+		if (args.length > 0) {
+			try {
+				cluster = LocalCluster.fromArgs(args, 0);
+			} catch (IOException e) {
+				System.err.println("Exception occurred while starting the local cluster:");
+				e.printStackTrace();
+				return;
+			}
+			serverNames = LocalCluster.conditions(cluster.serverNames());
+		}
+		ExecutorService es = Executors.newCachedThreadPool();
+		
+		System.out.println("NumRMIServers\tLength\tMethod\tTimeSeconds");
+		try {
+			for (String[] servers : serverNames) {
+				Collectives collectives = new Collectives(servers, es);
+				Collectives[] single = new Collectives[servers.length];
+				for (int i = 0; i < servers.length; i++) {
+					single[i] = new Collectives(new String[] {servers[i]}, es);
+				}
+				Serializable[] keys = new Serializable[servers.length];
+				Arrays.fill(keys, KEY);
+				for (int n : LENGTHS) {
+					double[] v = new double[n];
+					Random r = new Random(SEED);
+					for (int i = 0; i < n; i++) v[i] = r.nextDouble();
+					for (int samples = 0; samples < 10; samples++) {
+						// each round multiplies the vector by the number of nodes, so start afresh
+						collectives.broadcast(v, KEY);
+						long start = System.nanoTime();
+						gatherAtMaster(single, keys);
+						long end = System.nanoTime();
+						System.out.println(servers.length + "\t" + n + "\tmaster\t" + (end-start)/1000000000.0);
+						for (Collectives.Algorithm algorithm : Collectives.Algorithm.values()) {
+							collectives.broadcast(v, KEY);
+							collectives.setAlgorithm(algorithm);
+							start = System.nanoTime();
+							collectives.allReduce(keys, Collectives.Op.SUM, KEY);
+							end = System.nanoTime();
+							System.out.println(servers.length + "\t" + n + "\t" + algorithm + "\t" + (end-start)/1000000000.0);
+						}
+					}
+				}
+				collectives.forget(KEY);
+			}
+		} catch (RemoteException | NotBoundException e) {
+			System.err.println("Exception occurred during a collective operation:");
+			e.printStackTrace();
+		}
+		
+		es.shutdown();
+		if (cluster != null) {
+			cluster.close();
+		}
+	}
+	
+	/*
+	 * An all-reduce by way of the master: fetches each node's vector in turn, sums
+	 * them, and sends the sum to each node in turn.
+	 */
+	private static void gatherAtMaster(Collectives[] single, Serializable[] keys) throws RemoteException, NotBoundException {
+		Serializable[] key = {keys[0]};
+		double[] sum = null;
+		for (Collectives node : single) {
+			double[] v = node.reduce(key, Collectives.Op.SUM);
+			if (sum == null) {
+				sum = v;
+			} else {
+				for (int i = 0; i < sum.length; i++) sum[i] += v[i];
+			}
+		}
+		for (Collectives node : single) {
+			node.broadcast(sum, KEY);
+		}
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * TimeLU is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * TimeLU is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.io.IOException;
+
+import org.cicirello.algengine.LocalCluster;
+import org.cicirello.math.RandomStreams;
+import org.cicirello.matrixops.BlockedLU;
+import org.cicirello.matrixops.DistributedMatrixMultiplier;
+import org.cicirello.matrixops.LUDecomposition;
+import org.cicirello.matrixops.MatrixGenerator;
+
+/**
+ * This program generates timing data for exploring the performance
+ * of a small cluster as the number of nodes and threads per node scales.
+ * 
+ * Times the LU factorization of a matrix with {@link BlockedLU}: with a single 
+ * thread and a single panel (the unblocked algorithm), blocked with and without 
+ * lookahead on local threads, and with the trailing updates sent to RMI servers.
+ * Also reports the rate of floating point operations, (2/3) n^3 per factorization,
+ * and the relative residual of solving a system with the factors, as a check.
+ * 
+ * Assumes cluster has 8 nodes, with hostnames as seen in the field serverNames.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class TimeLU {
+	
+	/**
+	 * Number of rows and columns of the matrix.
+	 */
+	public static final int N = 2000;
+	
+	/**
+	 * Number of columns of the panels.
+	 */
+	public static final int BLOCK = 64;
+	
+	/**
+	 * Least number of floating point operations of the trailing updates that 
+	 * are sent to the RMI servers.
+	 */
+	public static final long REMOTE_MIN_FLOPS = 100000000L;
+	
+	/**
+	 * Seed for random number generator to ensure tests are repeatable.
+	 * Samples use the sequence of seeds 42, 43, ..., from which the matrices 
+	 * are generated in parallel (see {@link MatrixGenerator}), A from 
+	 * RandomStreams.seed(seed, 0).
+	 */
+	public static final int SEED = 42;
+	
+	/**
+	 * Generates timing data for LU factorization for: 
+	 * (a) sequential implementation, (b) concurrent threads executing locally, 
+	 * and (c) trailing updates on remote threads started via RMI calls.
+	 * 
+	 * Note: This assumes that the RMI servers have been started already.
+	 * Otherwise, this will throw an exception at run time when it attempts to
+	 * make RMI calls.  Alternatively, runs on a simulated cluster on this 
+	 * machine (see {@link LocalCluster}), whose servers it starts and stops itself.
+	 * 
+	 * @param args No command line arguments for the physical cluster, or 
+	 * --local servers [coresPerServer [megabytesPerSecond [latencyMillis]]] 
+	 * for a simulated cluster.
+	 */
+	public static void main(String[] args) {
+		String[][] serverNames = TimeMult.serverNames;
+		LocalCluster cluster = null;
+		if (args.length > 0) {
+			try {
+				cluster = LocalCluster.fromArgs(args, 0);
+			} catch (IOException e) {
+				System.err.println("Exception occurred while starting the local cluster:");
+				e.printStackTrace();
+				return;
+			}
+			serverNames = LocalCluster.conditions(cluster.serverNames());
+		}
+		
+		//warmup
+		// For fair comparison to remote execution, warmup the VM (i.e., encourage
+		// JIT compiler to compile natively).  The RMI servers do this upon startup,
+		// so doing this here as well to avoid unfairly biasing results in favor of
+		// remote execution.
+		MatrixGenerator generator = new MatrixGenerator(Runtime.getRuntime().availableProcessors());
+		double[][] w = generator.generate(RandomStreams.seed(SEED, 0), 256, 256);
+		for (boolean lookahead : new boolean[] {false, true}) {
+			BlockedLU lu = new BlockedLU(4);
+			lu.setBlockSize(32);
+			lu.setLookahead(lookahead);
+			lu.factor(w);
+		}
+		// end warmup
+		
+		System.out.println("Method\tNumRMIServers\tNumThreads\tTimeSeconds\tGFlops\tResidual");
+		for (int samples = 0; samples < 10; samples++) {
+			double[][] A = generator.generate(RandomStreams.seed(SEED+samples, 0), N, N);
+			BlockedLU unblocked = new BlockedLU(1);
+			unblocked.setBlockSize(N);
+			time("unblocked", 0, 1, unblocked, A);
+			for (int t = 1; t <= 4; t++) {
+				BlockedLU blocked = new BlockedLU(t);
+				blocked.setBlockSize(BLOCK);
+				blocked.setLookahead(false);
+				time("blocked", 0, t, blocked, A);
+				blocked.setLookahead(true);
+				time("lookahead", 0, t, blocked, A);
+				for (int s = 1; s <= serverNames.length; s++) {
+					BlockedLU distributed = new BlockedLU(t);
+					distributed.setBlockSize(BLOCK);
+					distributed.setRemote(new DistributedMatrixMultiplier(serverNames[s-1], t, 0), REMOTE_MIN_FLOPS);
+					time("distributed", s, t, distributed, A);
+				}
+			}
+		}
+		
+		if (cluster != null) {
+			cluster.close();
+		}
+	}
+	
+	private static void time(String method, int servers, int threads, BlockedLU lu, double[][] a) {
+		long start = System.nanoTime();
+		LUDecomposition factors = lu.factor(a);
+		long end = System.nanoTime();
+		double seconds = (end-start)/1000000000.0;
+		double gflops = 2.0 * a.length * a.length * a.length / 3 / seconds / 1e9;
+		System.out.println(method + "\t" + servers + "\t" + threads + "\t" + seconds + "\t" + gflops + "\t" + residual(a, factors));
+	}
+	
+	/*
+	 * The relative residual, ||Ax - b|| / (||A|| ||x||), in the max norm, of the 
+	 * solution x of Ax = b for b = A times a vector of ones.
+	 */
+	private static double residual(double[][] a, LUDecomposition factors) {
+		int n = a.length;
+		double[] b = new double[n];
+		double norm = 0;
+		for (int i = 0; i < n; i++) {
+			double rowSum = 0;
+			for (int j = 0; j < n; j++) {
+				b[i] += a[i][j];
+				rowSum += Math.abs(a[i][j]);
+			}
+			norm = Math.max(norm, rowSum);
+		}
+		double[] x = factors.solve(b);
+		double xNorm = 0;
+		double rNorm = 0;
+		for (int i = 0; i < n; i++) {
+			double ax = 0;
+			for (int j = 0; j < n; j++) ax += a[i][j] * x[j];
+			rNorm = Math.max(rNorm, Math.abs(ax - b[i]));
+			xNorm = Math.max(xNorm, Math.abs(x[i]));
+		}
+		return rNorm / (norm * xNorm);
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * TimeLink is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * TimeLink is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cicirello.algengine.LocalCluster;
+import org.cicirello.algengine.RemoteParallelAlgorithms;
+
+/**
+ * This program measures the links from the master node to the RMI servers,
+ * separately from any computation, so that the communication cost of the
+ * distributed algorithms can be told apart from their compute cost.
+ * 
+ * For each RMI server, and each payload size from 8 bytes up to a maximum (64 MB
+ * by default), both as a flat double[] and as a square double[][], measures the 
+ * median time of: a call that sends the payload and returns nothing (sink); and
+ * a call that sends the payload and returns it (echo).  From these and the median
+ * time of an empty call (ping), derives the one-way latency of the payload (sink
+ * minus half a ping), its sustained throughput in each direction, and the share 
+ * of the round trip spent serializing and deserializing the payload, from the time
+ * to do so on this node.  Then measures the effects of concurrency: the aggregate
+ * throughput to each server from several client threads at once, and to all 
+ * servers at once, which is bounded by the link of the master node.
+ * 
+ * Finally, fits the latency and bandwidth of the link to each server (the ping
+ * time, and the slope of the sink time over the payload sizes), which can be 
+ * written to a properties file and given to 
+ * {@link org.cicirello.matrixops.CostModelPartitioner#measure(String[], int, int, Properties)}
+ * in place of its own quick probe.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class TimeLink {
+	
+	/**
+	 * Default largest payload, in bytes.
+	 */
+	public static final long MAX_BYTES = 64L << 20;
+	
+	/**
+	 * Payload size used to measure the effects of concurrency, in bytes.
+	 */
+	public static final int CONCURRENT_BYTES = 1 << 20;
+	
+	/**
+	 * Numbers of client threads used to measure the effects of concurrency.
+	 */
+	public static final int[] CLIENTS = {1, 2, 4, 8};
+	
+	/**
+	 * Measures the links to the RMI servers.
+	 * 
+	 * @param args The names of the RMI servers (default: those of the largest 
+	 * condition of {@link TimeMult}), or --local servers [coresPerServer 
+	 * [megabytesPerSecond [latencyMillis]]] for a simulated cluster; optionally 
+	 * preceded by --max megabytes (the largest payload), --reps n (the number of
+	 * timed calls per size, 10 by default, fewer for large payloads), and 
+	 * -o file (writes the fitted links as a properties file).
+	 */
+	public static void main(String[] args) {
+		long maxBytes = MAX_BYTES;
+		int reps = 10;
+		String output = null;
+		int k = 0;
+		for (; k < args.length; k++) {
+			if (args[k].equals("--max")) maxBytes = (long)(Double.parseDouble(args[++k]) * (1 << 20));
+			else if (args[k].equals("--reps")) reps = Integer.parseInt(args[++k]);
+			else if (args[k].equals("-o")) output = args[++k];
+			else break;
+		}
+		LocalCluster cluster = null;
+		String[] servers;
+		if (k < args.length && args[k].equals("--local")) {
+			try {
+				cluster = LocalCluster.fromArgs(args, k);
+			} catch (IOException e) {
+				System.err.println("Exception occurred while starting the local cluster:");
+				e.printStackTrace();
+				return;
+			}
+			servers = cluster.serverNames();
+		} else if (k < args.length) {
+			servers = Arrays.copyOfRange(args, k, args.length);
+		} else {
+			servers = TimeMult.serverNames[TimeMult.serverNames.length - 1];
+		}
+		if (System.getSecurityManager() == null) {
+			System.setSecurityManager(new SecurityManager());
+		}
+		ExecutorService es = Executors.newCachedThreadPool();
+		try {
+			Properties links = new Properties();
+			RemoteParallelAlgorithms[] stubs = new RemoteParallelAlgorithms[servers.length];
+			for (int s = 0; s < servers.length; s++) {
+				stubs[s] = RemoteParallelAlgorithms.lookup(servers[s]);
+			}
+			System.out.println("Server\tPayload\tBytes\tPingSeconds\tSinkSeconds\tEchoSeconds\tOneWaySeconds\tSendMBps\tRoundTripMBps\tSerializationShare");
+			for (int s = 0; s < servers.length; s++) {
+				RemoteParallelAlgorithms pinged = stubs[s];
+				double ping = median(Math.max(reps, 20), () -> pinged.ping());
+				double sumBytesTime = 0;
+				double sumBytesSquared = 0;
+				for (long bytes = 8; bytes <= maxBytes; bytes *= 4) {
+					for (boolean flat : new boolean[] {true, false}) {
+						Serializable payload = payload(bytes, flat);
+						int n = (int)Math.max(3, Math.min(reps, (256L << 20) / bytes));
+						RemoteParallelAlgorithms stub = stubs[s];
+						double sink = median(n, () -> stub.sink(payload));
+						double echo = median(n, () -> stub.echo(payload));
+						double serialization = serialization(payload);
+						double oneWay = sink - ping / 2;
+						System.out.printf(Locale.ROOT, "%s\t%s\t%d\t%.6f\t%.6f\t%.6f\t%.6f\t%.3f\t%.3f\t%.3f%n", 
+								servers[s], flat ? "double[]" : "double[][]", bytes, ping, sink, echo, oneWay,
+								bytes / Math.max(sink - ping, 1e-9) / 1e6, 2 * bytes / echo / 1e6, 
+								Math.min(1, 2 * serialization / echo));
+						if (flat) {
+							sumBytesTime += bytes * Math.max(sink - ping, 0);
+							sumBytesSquared += (double)bytes * bytes;
+						}
+					}
+				}
+				double bandwidth = sumBytesTime > 0 ? sumBytesSquared / sumBytesTime : Double.POSITIVE_INFINITY;
+				links.setProperty(servers[s] + ".latency", String.format(Locale.ROOT, "%.9f", ping));
+				links.setProperty(servers[s] + ".bandwidth", String.format(Locale.ROOT, "%.1f", bandwidth));
+			}
+			
+			System.out.println();
+			System.out.println("Server\tClients\tBytes\tAggregateMBps");
+			Serializable payload = payload(CONCURRENT_BYTES, true);
+			for (int s = 0; s < servers.length; s++) {
+				for (int clients : CLIENTS) {
+					RemoteParallelAlgorithms[] targets = new RemoteParallelAlgorithms[clients];
+					Arrays.fill(targets, stubs[s]);
+					System.out.printf(Locale.ROOT, "%s\t%d\t%d\t%.3f%n", servers[s], clients, CONCURRENT_BYTES, 
+							concurrentThroughput(targets, payload, reps, es) / 1e6);
+				}
+			}
+			System.out.printf(Locale.ROOT, "%s\t%d\t%d\t%.3f%n", "all", servers.length, CONCURRENT_BYTES, 
+					concurrentThroughput(stubs, payload, reps, es) / 1e6);
+			
+			System.out.println();
+			System.out.println("Server\tLatencySeconds\tBandwidthMBps");
+			for (String server : servers) {
+				System.out.printf(Locale.ROOT, "%s\t%s\t%.3f%n", server, links.getProperty(server + ".latency"), 
+						Double.parseDouble(links.getProperty(server + ".bandwidth")) / 1e6);
+			}
+			if (output != null) {
+				try (OutputStream out = new FileOutputStream(output)) {
+					links.store(out, "Links measured by TimeLink: latency in seconds, bandwidth in bytes per second");
+				}
+			}
+		} catch (RemoteException | NotBoundException e) {
+			System.err.println("Exception occurred while measuring the links:");
+			e.printStackTrace();
+		} catch (IOException | InterruptedException | ExecutionException e) {
+			e.printStackTrace();
+		} finally {
+			es.shutdown();
+			if (cluster != null) {
+				cluster.close();
+			}
+		}
+	}
+	
+	/*
+	 * An RMI call to time.
+	 */
+	@FunctionalInterface
+	private interface Call {
+		void call() throws RemoteException;
+	}
+	
+	/*
+	 * The median time in seconds of n calls, after one untimed call.
+	 */
+	private static double median(int n, Call call) throws RemoteException {
+		call.call();
+		double[] seconds = new double[n];
+		for (int i = 0; i < n; i++) {
+			long start = System.nanoTime();
+			call.call();
+			seconds[i] = (System.nanoTime() - start) / 1e9;
+		}
+		return Stats.median(seconds);
+	}
+	
+	/*
+	 * The aggregate throughput in bytes per second of sending a payload reps 
+	 * times to each target at once, from a thread per target.
+	 */
+	private static double concurrentThroughput(RemoteParallelAlgorithms[] targets, Serializable payload, int reps, ExecutorService es) throws InterruptedException, ExecutionException {
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+		long start = System.nanoTime();
+		for (RemoteParallelAlgorithms target : targets) {
+			futures.add(es.submit((Callable<Void>)() -> {
+				for (int i = 0; i < reps; i++) target.sink(payload);
+				return null;
+			}));
+		}
+		for (Future<Void> f : futures) f.get();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return (double)targets.length * reps * CONCURRENT_BYTES / seconds;
+	}
+	
+	/*
+	 * The median time in seconds to serialize and deserialize a payload on this node.
+	 */
+	private static double serialization(Serializable payload) throws IOException {
+		double[] seconds = new double[3];
+		for (int i = 0; i < seconds.length; i++) {
+			long start = System.nanoTime();
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(payload);
+			}
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				in.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new IOException(e);
+			}
+			seconds[i] = (System.nanoTime() - start) / 1e9;
+		}
+		return Stats.median(seconds);
+	}
+	
+	/*
+	 * A payload of about the given number of bytes of doubles: a flat array,
+	 * or a square array of arrays.
+	 */
+	private static Serializable payload(long bytes, boolean flat) {
+		int n = (int)Math.max(1, bytes / 8);
+		if (flat) {
+			double[] x = new double[n];
+			Arrays.fill(x, 1.0);
+			return x;
+		}
+		int side = (int)Math.max(1, Math.round(Math.sqrt(n)));
+		double[][] x = new double[side][side];
+		for (double[] row : x) Arrays.fill(row, 1.0);
+		return x;
+	}
+}
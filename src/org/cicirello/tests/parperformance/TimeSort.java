@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * TimeSort is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * TimeSort is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.io.IOException;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.cicirello.algengine.LocalCluster;
+import org.cicirello.sort.DistributedSampleSort;
+import org.cicirello.sort.ParallelSort;
+
+/**
+ * This program generates timing data for exploring the performance
+ * of a small cluster as the number of nodes and threads per node scales,
+ * for a workload that moves much more data among the nodes than it computes:
+ * sorting an array of longs with a parallel sample sort.
+ * 
+ * Times sorting with Arrays.sort and Arrays.parallelSort for reference,
+ * with {@link ParallelSort} using local threads, and with 
+ * {@link DistributedSampleSort} on RMI servers, along with the time spent in
+ * each phase of the distributed sort.
+ * 
+ * Assumes cluster has 8 nodes, with hostnames as seen in the field serverNames.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class TimeSort {
+	
+	/**
+	 * Number of elements to sort.
+	 */
+	public static final int N = 4000000;
+	
+	/**
+	 * Seed for random number generator to ensure tests are repeatable.
+	 * Samples use the sequence of seeds 42, 43, ...
+	 */
+	public static final int SEED = 42;
+	
+	/**
+	 * Generates timing data for sorting an array for: 
+	 * (a) sequential implementation, (b) concurrent threads executing locally, 
+	 * and (c) remote threads started via RMI calls.
+	 * 
+	 * Note: This assumes that the RMI servers have been started already.
+	 * Otherwise, this will throw an exception at run time when it attempts to
+	 * make RMI calls.  Alternatively, runs on a simulated cluster on this 
+	 * machine (see {@link LocalCluster}), whose servers it starts and stops itself.
+	 * 
+	 * @param args No command line arguments for the physical cluster, or 
+	 * --local servers [coresPerServer [megabytesPerSecond [latencyMillis]]] 
+	 * for a simulated cluster.
+	 */
+	public static void main(String[] args) {
+		String[][] serverNames = TimeMult.serverNames;
+		LocalCluster cluster = null;
+		if (args.length > 0) {
+			try {
+				cluster = LocalCluster.fromArgs(args, 0);
+			} catch (IOException e) {
+				System.err.println("Exception occurred while starting the local cluster:");
+				e.printStackTrace();
+				return;
+			}
+			serverNames = LocalCluster.conditions(cluster.serverNames());
+		}
+		ExecutorService es = Executors.newCachedThreadPool();
+		
+		//warmup
+		// For fair comparison to remote execution, warmup the VM (i.e., encourage
+		// JIT compiler to compile natively).  The RMI servers do this upon startup,
+		// so doing this here as well to avoid unfairly biasing results in favor of
+		// remote execution.
+		long[] w = getRandArray(1 << 16, new Random(SEED));
+		ParallelSort.sort(w.clone(), 4, es);
+		Arrays.sort(w.clone());
+		Arrays.parallelSort(w.clone());
+		// end warmup
+		
+		System.out.println("Method\tNumRMIServers\tNumThreadsPerServer\tTimeSeconds\tSortSeconds\tSplittersSeconds\tExchangeSeconds\tCollectSeconds");
+		try {
+			for (int samples = 0; samples < 10; samples++) {
+				long[] original = getRandArray(N, new Random(SEED+samples));
+				long[] expected = original.clone();
+				long start = System.nanoTime();
+				Arrays.sort(expected);
+				long end = System.nanoTime();
+				System.out.println("sort\t" + 0 + "\t" + 0 + "\t" + (end-start)/1000000000.0);
+				long[] a = original.clone();
+				start = System.nanoTime();
+				Arrays.parallelSort(a);
+				end = System.nanoTime();
+				System.out.println("parallelSort\t" + 0 + "\t" + 0 + "\t" + (end-start)/1000000000.0);
+				for (int t = 1; t <= 4; t++) {
+					a = original.clone();
+					start = System.nanoTime();
+					ParallelSort.sort(a, t, es);
+					end = System.nanoTime();
+					check(a, expected);
+					System.out.println("samplesort\t" + 0 + "\t" + t + "\t" +(end-start)/1000000000.0);
+					for (int s = 1; s <= serverNames.length; s++) {
+						DistributedSampleSort d = new DistributedSampleSort(serverNames[s-1], t, es);
+						a = original.clone();
+						start = System.nanoTime();
+						d.sort(a);
+						end = System.nanoTime();
+						check(a, expected);
+						StringBuilder line = new StringBuilder("samplesort\t" + s + "\t" + t + "\t" +(end-start)/1000000000.0);
+						for (long phase : d.lastPhaseNanos()) {
+							line.append("\t").append(phase/1000000000.0);
+						}
+						System.out.println(line);
+					}
+				}
+			}
+		} catch (RemoteException | NotBoundException e) {
+			System.err.println("Exception occurred while sorting on the RMI servers:");
+			e.printStackTrace();
+		}
+		
+		es.shutdown();
+		if (cluster != null) {
+			cluster.close();
+		}
+	}
+	
+	private static void check(long[] a, long[] expected) {
+		if (!Arrays.equals(a, expected)) {
+			throw new IllegalStateException("The array was not sorted correctly.");
+		}
+	}
+	
+	private static long[] getRandArray(int n, Random r) {
+		long[] a = new long[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = r.nextLong();
+		}
+		return a;
+	}
+}
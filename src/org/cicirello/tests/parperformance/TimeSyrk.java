@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 Vincent A. Cicirello.
+ *
+ * TimeSyrk is free software: you can 
+ * redistribute it and/or modify it under the terms of the GNU 
+ * General Public License as published by the Free Software 
+ * Foundation, either version 3 of the License, or (at your 
+ * option) any later version.
+ *
+ * TimeSyrk is distributed in the hope 
+ * that it will be useful, but WITHOUT ANY WARRANTY; without even 
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A 
+ * PARTICULAR PURPOSE.  See the GNU General Public License for more 
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Java package org.cicirello.permutations.  If not, 
+ * see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package org.cicirello.tests.parperformance;
+
+import java.io.IOException;
+
+import org.cicirello.algengine.LocalCluster;
+import org.cicirello.matrixops.ConcurrentMatrixMultiplier;
+import org.cicirello.matrixops.DistributedMatrixMultiplier;
+import org.cicirello.matrixops.MatrixGenerator;
+import org.cicirello.matrixops.MatrixMultiplier;
+
+/**
+ * This program generates timing data for exploring the performance
+ * of a small cluster as the number of nodes and threads per node scales.
+ * 
+ * Times the symmetric product of a matrix and its transpose, A * A^T, computed
+ * in full, with multiply(A, A, true), and as its lower triangle only, mirrored 
+ * afterwards, with multiplyByTranspose(A), which does half the work, and in the
+ * distributed case sends each node only the rows of A that its blocks of the 
+ * triangle depend on, rather than all of A.
+ * 
+ * Assumes cluster has 8 nodes, with hostnames as seen in the field serverNames.
+ * 
+ * @author Vincent A. Cicirello
+ * @version 10.18.2026
+ */
+public class TimeSyrk {
+	
+	/**
+	 * Number of rows of matrix A, and of rows and columns of the product.
+	 */
+	public static final int ROWS = 2000;
+	
+	/**
+	 * Number of columns of matrix A.
+	 */
+	public static final int COLS = 500;
+	
+	/**
+	 * Seed for random number generator to ensure tests are repeatable.
+	 * Samples use the sequence of seeds 42, 43, ...
+	 */
+	public static final int SEED = 42;
+	
+	/**
+	 * Generates timing data for A * A^T for: 
+	 * (a) sequential implementation, (b) concurrent threads executing locally, 
+	 * and (c) remote threads started via RMI calls, each in full and as the lower
+	 * triangle.
+	 * 
+	 * Note: This assumes that the RMI servers have been started already.
+	 * Otherwise, this will throw an exception at run time when it attempts to
+	 * make RMI calls.  Alternatively, runs on a simulated cluster on this 
+	 * machine (see {@link LocalCluster}), whose servers it starts and stops itself.
+	 * 
+	 * @param args No command line arguments for the physical cluster, or 
+	 * --local servers [coresPerServer [megabytesPerSecond [latencyMillis]]] 
+	 * for a simulated cluster.
+	 */
+	public static void main(String[] args) {
+		String[][] serverNames = TimeMult.serverNames;
+		LocalCluster cluster = null;
+		if (args.length > 0) {
+			try {
+				cluster = LocalCluster.fromArgs(args, 0);
+			} catch (IOException e) {
+				System.err.println("Exception occurred while starting the local cluster:");
+				e.printStackTrace();
+				return;
+			}
+			serverNames = LocalCluster.conditions(cluster.serverNames());
+		}
+		
+		MatrixMultiplier m = new MatrixMultiplier();
+		ConcurrentMatrixMultiplier c = new ConcurrentMatrixMultiplier(4);
+		MatrixGenerator generator = new MatrixGenerator(Runtime.getRuntime().availableProcessors());
+		
+		//warmup
+		// For fair comparison to remote execution, warmup the VM (i.e., encourage
+		// JIT compiler to compile natively).  The RMI servers do this upon startup,
+		// so doing this here as well to avoid unfairly biasing results in favor of
+		// remote execution.
+		double[][] w = new double[64][64];
+		m.multiply(w, w, true);
+		m.multiplyByTranspose(w);
+		c.multiply(w, w, true);
+		c.multiplyByTranspose(w);
+		// end warmup
+		
+		System.out.println("Method\tNumRMIServers\tNumThreadsPerServer\tTimeSeconds");
+		for (int samples = 0; samples < 10; samples++) {
+			double[][] A = generator.generate(SEED+samples, ROWS, COLS);
+			time(m, 0, 0, A);
+			for (int t = 1; t <= 4; t++) {
+				c.setThreads(t);
+				time(c, 0, t, A);
+				for (int s = 1; s <= serverNames.length; s++) {
+					time(new DistributedMatrixMultiplier(serverNames[s-1], t, 0), s, t, A);
+				}
+			}
+		}
+		
+		if (cluster != null) {
+			cluster.close();
+		}
+	}
+	
+	private static void time(MatrixMultiplier m, int servers, int threads, double[][] a) {
+		long start = System.nanoTime();
+		m.multiply(a, a, true);
+		long end = System.nanoTime();
+		System.out.println("full\t" + servers + "\t" + threads + "\t" + (end-start)/1000000000.0);
+		start = System.nanoTime();
+		m.multiplyByTranspose(a);
+		end = System.nanoTime();
+		System.out.println("syrk\t" + servers + "\t" + threads + "\t" + (end-start)/1000000000.0);
+	}
+}